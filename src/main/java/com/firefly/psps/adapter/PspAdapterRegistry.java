@@ -0,0 +1,140 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.adapter;
+
+import com.firefly.psps.config.PspProperties;
+import com.firefly.psps.config.PspProperties.ProviderConfig;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Registry of the PSP adapters available to a service.
+ *
+ * Collects every {@link PspAdapter} bean, keyed by {@link PspAdapter#getProviderName()},
+ * and drops the ones disabled under {@code firefly.psp.providers}. Routing, health and
+ * metrics components read the provider set from here, so a service can run Stripe and
+ * Adyen side by side:
+ * <pre>
+ * firefly:
+ *   psp:
+ *     providers:
+ *       stripe:
+ *         weight: 70
+ *       adyen:
+ *         weight: 30
+ *     routing:
+ *       default-provider: stripe
+ * </pre>
+ *
+ * The registry is immutable; adapters are resolved once at startup.
+ */
+public final class PspAdapterRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PspAdapterRegistry.class);
+
+    private final Map<String, PspAdapter> adapters;
+    private final Map<String, ProviderConfig> providerConfigs;
+    private final String defaultProvider;
+
+    /**
+     * @param adapters all adapter beans
+     * @param properties PSP properties
+     * @throws PspConfigurationException if two adapters share a provider name or the
+     *         default provider has no enabled adapter
+     */
+    public PspAdapterRegistry(Collection<PspAdapter> adapters, PspProperties properties) {
+        Map<String, ProviderConfig> configs = properties.getProviders();
+        Map<String, PspAdapter> byName = new LinkedHashMap<>();
+        for (PspAdapter adapter : adapters) {
+            String name = adapter.getProviderName();
+            ProviderConfig config = configs.get(name);
+            if (config != null && !config.isEnabled()) {
+                logger.info("PSP provider {} is disabled", name);
+                continue;
+            }
+            if (byName.putIfAbsent(name, adapter) != null) {
+                throw new PspConfigurationException("Duplicate PSP adapter for provider: " + name);
+            }
+        }
+        configs.forEach((name, config) -> {
+            if (config.isEnabled() && !byName.containsKey(name)) {
+                logger.warn("PSP provider {} is configured but no adapter is registered", name);
+            }
+        });
+
+        String configuredDefault = properties.getDefaultProvider();
+        if (configuredDefault != null && !byName.containsKey(configuredDefault)) {
+            throw new PspConfigurationException("No enabled PSP adapter for default provider: " + configuredDefault);
+        }
+
+        this.adapters = Collections.unmodifiableMap(byName);
+        this.providerConfigs = Map.copyOf(configs);
+        this.defaultProvider = configuredDefault != null
+                ? configuredDefault
+                : byName.keySet().stream().findFirst().orElse(null);
+        logger.info("Registered PSP providers: {} (default: {})", byName.keySet(), defaultProvider);
+    }
+
+    /**
+     * Enabled adapters, in bean order.
+     */
+    public List<PspAdapter> getAdapters() {
+        return List.copyOf(adapters.values());
+    }
+
+    /**
+     * Enabled provider names, in bean order.
+     */
+    public Set<String> getProviderNames() {
+        return adapters.keySet();
+    }
+
+    public Optional<PspAdapter> getAdapter(String providerName) {
+        return Optional.ofNullable(adapters.get(providerName));
+    }
+
+    /**
+     * Adapter of the default provider, or null when no adapter is registered.
+     */
+    public PspAdapter getDefaultAdapter() {
+        return defaultProvider != null ? adapters.get(defaultProvider) : null;
+    }
+
+    public String getDefaultProvider() {
+        return defaultProvider;
+    }
+
+    /**
+     * Settings of a provider; providers without an entry get the defaults.
+     */
+    public ProviderConfig getProviderConfig(String providerName) {
+        return providerConfigs.getOrDefault(providerName, new ProviderConfig());
+    }
+
+    public boolean isEmpty() {
+        return adapters.isEmpty();
+    }
+}
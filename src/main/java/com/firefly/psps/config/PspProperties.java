@@ -16,11 +16,22 @@
 
 package com.firefly.psps.config;
 
+import com.firefly.psps.routing.PspRouter.RoutingStrategy;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration properties for PSP integration.
+ * 
+ * A single-provider service only sets {@code provider}. Services running several
+ * PSPs side by side list them under {@code providers} and configure how payments
+ * are routed between them under {@code routing}; resilience settings per provider
+ * stay under {@code firefly.psp.resilience.providers}.
  */
 @Data
 @ConfigurationProperties(prefix = "firefly.psp")
@@ -40,4 +51,150 @@ public class PspProperties {
      * API base path for PSP endpoints.
      */
     private String basePath = "/api/psp";
+
+    /**
+     * Per-provider settings, keyed by provider name (e.g., "stripe", "adyen").
+     * Every {@code PspAdapter} bean is registered; entries here only tune or disable them.
+     */
+    private Map<String, ProviderConfig> providers = new LinkedHashMap<>();
+
+    /**
+     * Routing between the registered providers.
+     */
+    private RoutingConfig routing = new RoutingConfig();
+
+    /**
+     * Default provider: {@code routing.default-provider}, falling back to {@code provider}.
+     */
+    public String getDefaultProvider() {
+        return routing.getDefaultProvider() != null ? routing.getDefaultProvider() : provider;
+    }
+
+    /**
+     * Settings of a single provider.
+     */
+    @Data
+    public static class ProviderConfig {
+
+        /**
+         * Whether the provider's adapter takes part in routing, health and metrics.
+         */
+        private boolean enabled = true;
+
+        /**
+         * API key, passed on to the adapter implementation.
+         */
+        private String apiKey;
+
+        /**
+         * Webhook signing secret, passed on to the adapter implementation.
+         */
+        private String webhookSecret;
+
+        /**
+         * Relative weight for WEIGHTED routing (0 = no share).
+         */
+        private Integer weight;
+
+        /**
+         * Operations whose resilience pipelines and meters are created at startup
+         * instead of on the first call.
+         */
+        private List<String> operations = new ArrayList<>();
+
+        /**
+         * Adapter-specific settings (merchant account, endpoint region, ...).
+         */
+        private Map<String, String> properties = new LinkedHashMap<>();
+    }
+
+    /**
+     * Routing settings for the default {@code PspRouter}.
+     */
+    @Data
+    public static class RoutingConfig {
+
+        /**
+         * Provider selection strategy.
+         */
+        private RoutingStrategy strategy = RoutingStrategy.FIRST_AVAILABLE;
+
+        /**
+         * Provider tried first; defaults to {@code firefly.psp.provider}.
+         */
+        private String defaultProvider;
+
+        /**
+         * Whether payments fail over to the next provider when the selected one is unavailable.
+         */
+        private boolean failoverEnabled = true;
+
+        /**
+         * Provider order after the default provider.
+         */
+        private List<String> failoverOrder = new ArrayList<>();
+
+        /**
+         * Preferred providers per currency code (CURRENCY_OPTIMIZED).
+         */
+        private Map<String, List<String>> currencyPreferences = new LinkedHashMap<>();
+
+        /**
+         * Providers per region (REGION_BASED).
+         */
+        private Map<String, List<String>> regions = new LinkedHashMap<>();
+
+        /**
+         * Providers per tenant (TENANT_SPECIFIC).
+         */
+        private Map<String, List<String>> tenants = new LinkedHashMap<>();
+
+        /**
+         * Fraction of routing decisions recorded for the {@code psprouting} endpoint.
+         */
+        private Double decisionSampleRate;
+
+        /**
+         * Outcomes per provider and payment segment after which older ones are discounted
+         * (AUTHORIZATION_RATE).
+         */
+        private long authorizationWindow = 1000;
+
+        /**
+         * CSV file of card BIN ranges (BIN_BASED), see {@code BinRangeIndex}.
+         */
+        private String binTable;
+
+        /**
+         * Providers per card brand, type and issuer country (BIN_BASED), first match wins.
+         */
+        private List<BinRouteConfig> binRoutes = new ArrayList<>();
+    }
+
+    /**
+     * Providers for cards with the given attributes; unset attributes match any card.
+     */
+    @Data
+    public static class BinRouteConfig {
+
+        /**
+         * Card brand (e.g., "VISA", "AMEX").
+         */
+        private String brand;
+
+        /**
+         * Card type (e.g., "CREDIT", "DEBIT").
+         */
+        private String cardType;
+
+        /**
+         * Issuer country (ISO 3166 alpha-2).
+         */
+        private String country;
+
+        /**
+         * Providers, best first.
+         */
+        private List<String> providers = new ArrayList<>();
+    }
 }
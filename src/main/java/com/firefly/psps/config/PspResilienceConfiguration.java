@@ -16,12 +16,15 @@
 
 package com.firefly.psps.config;
 
+import com.firefly.psps.exceptions.ProviderPausedException;
+import com.firefly.psps.resilience.PspErrorClassifier;
 import io.github.resilience4j.bulkhead.Bulkhead;
 import io.github.resilience4j.bulkhead.BulkheadConfig;
 import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
 import io.github.resilience4j.ratelimiter.RateLimiter;
 import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
@@ -38,6 +41,8 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Auto-configuration for PSP resilience patterns.
  * 
@@ -47,6 +52,12 @@ import org.springframework.context.annotation.Configuration;
  * - Retries: Automatic retry with exponential backoff
  * - Bulkheads: Limit concurrent calls
  * - Time Limiters: Timeout protection
+ * 
+ * The top-level properties become each registry's default configuration. Every
+ * provider and operation profile under {@code firefly.psp.resilience.providers}
+ * is resolved once at startup and registered as a named configuration
+ * ({@code stripe}, {@code stripe-listPayments}, ...), which
+ * {@code ResilientPspService} selects when it creates a pipeline.
  */
 @Configuration
 @EnableConfigurationProperties(PspResilienceProperties.class)
@@ -61,32 +72,15 @@ public class PspResilienceConfiguration {
     @Bean
     public CircuitBreakerRegistry circuitBreakerRegistry(PspResilienceProperties properties) {
         var cbConfig = properties.getCircuitBreaker();
-        
-        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
-                .failureRateThreshold(cbConfig.getFailureRateThreshold())
-                .minimumNumberOfCalls(cbConfig.getMinimumNumberOfCalls())
-                .waitDurationInOpenState(cbConfig.getWaitDurationInOpenState())
-                .permittedNumberOfCallsInHalfOpenState(cbConfig.getPermittedNumberOfCallsInHalfOpenState())
-                .slidingWindowSize(cbConfig.getSlidingWindowSize())
-                .slowCallDurationThreshold(cbConfig.getSlowCallDurationThreshold())
-                .slowCallRateThreshold(cbConfig.getSlowCallRateThreshold())
-                .build();
 
-        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(circuitBreakerConfig(cbConfig));
+        properties.resolveProfiles().forEach((name, profile) ->
+                registry.addConfiguration(name, circuitBreakerConfig(profile.circuitBreaker())));
         
-        // Log circuit breaker state changes
-        registry.getEventPublisher().onEntryAdded(event -> {
-            CircuitBreaker cb = event.getAddedEntry();
-            cb.getEventPublisher()
-                    .onStateTransition(e -> logger.warn("PSP CircuitBreaker '{}' state changed: {} -> {}", 
-                            cb.getName(), e.getStateTransition().getFromState(), e.getStateTransition().getToState()))
-                    .onError(e -> logger.error("PSP CircuitBreaker '{}' recorded error: {}", 
-                            cb.getName(), e.getThrowable().getMessage()))
-                    .onSlowCallRateExceeded(e -> logger.warn("PSP CircuitBreaker '{}' slow call rate exceeded: {}%", 
-                            cb.getName(), e.getSlowCallRate()))
-                    .onFailureRateExceeded(e -> logger.error("PSP CircuitBreaker '{}' failure rate exceeded: {}%", 
-                            cb.getName(), e.getFailureRate()));
-        });
+        // Log circuit breaker state changes, including instances replaced at runtime
+        registry.getEventPublisher()
+                .onEntryAdded(event -> logCircuitBreakerEvents(event.getAddedEntry()))
+                .onEntryReplaced(event -> logCircuitBreakerEvents(event.getNewEntry()));
 
         logger.info("PSP CircuitBreaker registry configured: failureRate={}%, minCalls={}, waitDuration={}", 
                 cbConfig.getFailureRateThreshold(), cbConfig.getMinimumNumberOfCalls(), cbConfig.getWaitDurationInOpenState());
@@ -100,21 +94,15 @@ public class PspResilienceConfiguration {
     @Bean
     public RateLimiterRegistry rateLimiterRegistry(PspResilienceProperties properties) {
         var rlConfig = properties.getRateLimiter();
-        
-        RateLimiterConfig config = RateLimiterConfig.custom()
-                .limitRefreshPeriod(rlConfig.getLimitRefreshPeriod())
-                .limitForPeriod(rlConfig.getLimitForPeriod())
-                .timeoutDuration(rlConfig.getTimeoutDuration())
-                .build();
 
-        RateLimiterRegistry registry = RateLimiterRegistry.of(config);
+        RateLimiterRegistry registry = RateLimiterRegistry.of(rateLimiterConfig(rlConfig));
+        properties.resolveProfiles().forEach((name, profile) ->
+                registry.addConfiguration(name, rateLimiterConfig(profile.rateLimiter())));
         
-        // Log rate limiter events
-        registry.getEventPublisher().onEntryAdded(event -> {
-            RateLimiter rl = event.getAddedEntry();
-            rl.getEventPublisher()
-                    .onFailure(e -> logger.warn("PSP RateLimiter '{}' permission denied", rl.getName()));
-        });
+        // Log rate limiter events, including instances replaced at runtime
+        registry.getEventPublisher()
+                .onEntryAdded(event -> logRateLimiterEvents(event.getAddedEntry()))
+                .onEntryReplaced(event -> logRateLimiterEvents(event.getNewEntry()));
 
         logger.info("PSP RateLimiter registry configured: limit={}/period={}", 
                 rlConfig.getLimitForPeriod(), rlConfig.getLimitRefreshPeriod());
@@ -128,33 +116,15 @@ public class PspResilienceConfiguration {
     @Bean
     public RetryRegistry retryRegistry(PspResilienceProperties properties) {
         var retryConfig = properties.getRetry();
-        
-        RetryConfig.Builder<Object> configBuilder = RetryConfig.custom()
-                .maxAttempts(retryConfig.getMaxAttempts());
-
-        if (retryConfig.isExponentialBackoffEnabled()) {
-            configBuilder.intervalFunction(io.github.resilience4j.core.IntervalFunction
-                    .ofExponentialBackoff(
-                            retryConfig.getWaitDuration().toMillis(),
-                            retryConfig.getExponentialBackoffMultiplier(),
-                            retryConfig.getExponentialMaxWaitDuration().toMillis()
-                    ));
-        } else {
-            configBuilder.waitDuration(retryConfig.getWaitDuration());
-        }
 
-        RetryConfig config = configBuilder.build();
-        RetryRegistry registry = RetryRegistry.of(config);
+        RetryRegistry registry = RetryRegistry.of(retryConfig(retryConfig));
+        properties.resolveProfiles().forEach((name, profile) ->
+                registry.addConfiguration(name, retryConfig(profile.retry())));
         
-        // Log retry events
-        registry.getEventPublisher().onEntryAdded(event -> {
-            Retry retry = event.getAddedEntry();
-            retry.getEventPublisher()
-                    .onRetry(e -> logger.debug("PSP Retry '{}' attempt {}", 
-                            retry.getName(), e.getNumberOfRetryAttempts()))
-                    .onError(e -> logger.error("PSP Retry '{}' exhausted after {} attempts", 
-                            retry.getName(), e.getNumberOfRetryAttempts()));
-        });
+        // Log retry events, including instances replaced at runtime
+        registry.getEventPublisher()
+                .onEntryAdded(event -> logRetryEvents(event.getAddedEntry()))
+                .onEntryReplaced(event -> logRetryEvents(event.getNewEntry()));
 
         logger.info("PSP Retry registry configured: maxAttempts={}, waitDuration={}, exponentialBackoff={}", 
                 retryConfig.getMaxAttempts(), retryConfig.getWaitDuration(), retryConfig.isExponentialBackoffEnabled());
@@ -168,13 +138,10 @@ public class PspResilienceConfiguration {
     @Bean
     public BulkheadRegistry bulkheadRegistry(PspResilienceProperties properties) {
         var bhConfig = properties.getBulkhead();
-        
-        BulkheadConfig config = BulkheadConfig.custom()
-                .maxConcurrentCalls(bhConfig.getMaxConcurrentCalls())
-                .maxWaitDuration(bhConfig.getMaxWaitDuration())
-                .build();
 
-        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        BulkheadRegistry registry = BulkheadRegistry.of(bulkheadConfig(bhConfig));
+        properties.resolveProfiles().forEach((name, profile) ->
+                registry.addConfiguration(name, bulkheadConfig(profile.bulkhead())));
         
         // Log bulkhead events
         registry.getEventPublisher().onEntryAdded(event -> {
@@ -196,19 +163,141 @@ public class PspResilienceConfiguration {
     @Bean
     public TimeLimiterRegistry timeLimiterRegistry(PspResilienceProperties properties) {
         var tlConfig = properties.getTimeLimiter();
-        
-        TimeLimiterConfig config = TimeLimiterConfig.custom()
-                .timeoutDuration(tlConfig.getTimeoutDuration())
-                .cancelRunningFuture(tlConfig.isCancelRunningFuture())
-                .build();
 
-        TimeLimiterRegistry registry = TimeLimiterRegistry.of(config);
+        TimeLimiterRegistry registry = TimeLimiterRegistry.of(timeLimiterConfig(tlConfig));
+        properties.resolveProfiles().forEach((name, profile) ->
+                registry.addConfiguration(name, timeLimiterConfig(profile.timeLimiter())));
 
         logger.info("PSP TimeLimiter registry configured: timeout={}", tlConfig.getTimeoutDuration());
 
         return registry;
     }
 
+    private static void logCircuitBreakerEvents(CircuitBreaker cb) {
+        cb.getEventPublisher()
+                .onStateTransition(e -> logger.warn("PSP CircuitBreaker '{}' state changed: {} -> {}", 
+                        cb.getName(), e.getStateTransition().getFromState(), e.getStateTransition().getToState()))
+                .onError(e -> logger.error("PSP CircuitBreaker '{}' recorded error: {}", 
+                        cb.getName(), e.getThrowable().getMessage()))
+                .onSlowCallRateExceeded(e -> logger.warn("PSP CircuitBreaker '{}' slow call rate exceeded: {}%", 
+                        cb.getName(), e.getSlowCallRate()))
+                .onFailureRateExceeded(e -> logger.error("PSP CircuitBreaker '{}' failure rate exceeded: {}%", 
+                        cb.getName(), e.getFailureRate()));
+    }
+
+    private static void logRateLimiterEvents(RateLimiter rl) {
+        rl.getEventPublisher()
+                .onFailure(e -> logger.warn("PSP RateLimiter '{}' permission denied", rl.getName()));
+    }
+
+    private static void logRetryEvents(Retry retry) {
+        retry.getEventPublisher()
+                .onRetry(e -> logger.debug("PSP Retry '{}' attempt {}", 
+                        retry.getName(), e.getNumberOfRetryAttempts()))
+                .onError(e -> logger.error("PSP Retry '{}' exhausted after {} attempts", 
+                        retry.getName(), e.getNumberOfRetryAttempts()));
+    }
+
+    /**
+     * Builds the Resilience4j circuit breaker configuration for resolved properties.
+     */
+    public static CircuitBreakerConfig circuitBreakerConfig(PspResilienceProperties.CircuitBreakerConfig cbConfig) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(cbConfig.getFailureRateThreshold())
+                .minimumNumberOfCalls(cbConfig.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(cbConfig.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(cbConfig.getPermittedNumberOfCallsInHalfOpenState())
+                .slidingWindowSize(cbConfig.getSlidingWindowSize())
+                .slowCallDurationThreshold(cbConfig.getSlowCallDurationThreshold())
+                .slowCallRateThreshold(cbConfig.getSlowCallRateThreshold())
+                // Local pauses after throttling never reach the provider
+                .ignoreExceptions(ProviderPausedException.class)
+                .build();
+    }
+
+    /**
+     * Builds the Resilience4j rate limiter configuration for resolved properties.
+     */
+    public static RateLimiterConfig rateLimiterConfig(PspResilienceProperties.RateLimiterConfig rlConfig) {
+        return RateLimiterConfig.custom()
+                .limitRefreshPeriod(rlConfig.getLimitRefreshPeriod())
+                .limitForPeriod(rlConfig.getLimitForPeriod())
+                .timeoutDuration(rlConfig.getTimeoutDuration())
+                .build();
+    }
+
+    /**
+     * Builds the Resilience4j retry configuration for resolved properties.
+     *
+     * With {@code classifyErrors}, only errors classified as retryable by {@link PspErrorClassifier}
+     * are retried, and a provider's Retry-After is honoured when it is longer than the backoff.
+     * Throttled calls asking for more than {@code maxRetryAfter} fail without retrying. Otherwise
+     * every error is retried with the configured backoff.
+     */
+    public static RetryConfig retryConfig(PspResilienceProperties.RetryConfig retryConfig) {
+        IntervalFunction backoff = retryConfig.isExponentialBackoffEnabled()
+                ? IntervalFunction.ofExponentialBackoff(
+                        retryConfig.getWaitDuration().toMillis(),
+                        retryConfig.getExponentialBackoffMultiplier(),
+                        retryConfig.getExponentialMaxWaitDuration().toMillis())
+                : IntervalFunction.of(retryConfig.getWaitDuration());
+        if (!retryConfig.isClassifyErrors()) {
+            return RetryConfig.custom()
+                    .maxAttempts(retryConfig.getMaxAttempts())
+                    .intervalFunction(backoff)
+                    .ignoreExceptions(ProviderPausedException.class)
+                    .build();
+        }
+        Duration maxRetryAfter = retryConfig.getMaxRetryAfter();
+
+        return RetryConfig.custom()
+                .maxAttempts(retryConfig.getMaxAttempts())
+                .retryOnException(error -> PspErrorClassifier.isRetryable(error)
+                        && !exceeds(PspErrorClassifier.retryAfter(error), maxRetryAfter))
+                .intervalBiFunction((attempt, outcome) -> {
+                    long backoffMillis = backoff.apply(attempt);
+                    Duration retryAfter = outcome.isLeft() ? PspErrorClassifier.retryAfter(outcome.getLeft()) : null;
+                    return retryAfter != null ? Math.max(backoffMillis, retryAfter.toMillis()) : backoffMillis;
+                })
+                .build();
+    }
+
+    private static boolean exceeds(Duration retryAfter, Duration max) {
+        return retryAfter != null && retryAfter.compareTo(max) > 0;
+    }
+
+    /**
+     * Builds the Resilience4j bulkhead configuration for resolved properties.
+     */
+    public static BulkheadConfig bulkheadConfig(PspResilienceProperties.BulkheadConfig bhConfig) {
+        return BulkheadConfig.custom()
+                .maxConcurrentCalls(bhConfig.getMaxConcurrentCalls())
+                .maxWaitDuration(bhConfig.getMaxWaitDuration())
+                .build();
+    }
+
+    /**
+     * Builds the Resilience4j time limiter configuration for resolved properties.
+     */
+    public static TimeLimiterConfig timeLimiterConfig(PspResilienceProperties.TimeLimiterConfig tlConfig) {
+        return TimeLimiterConfig.custom()
+                .timeoutDuration(tlConfig.getTimeoutDuration())
+                .cancelRunningFuture(tlConfig.isCancelRunningFuture())
+                .build();
+    }
+
+    /**
+     * Creates the pre-registered PSP operation meters.
+     * Only created when MeterRegistry is available.
+     */
+    @Bean
+    @org.springframework.boot.autoconfigure.condition.ConditionalOnBean(io.micrometer.core.instrument.MeterRegistry.class)
+    public com.firefly.psps.metrics.PspMetrics pspMetrics(
+            io.micrometer.core.instrument.MeterRegistry meterRegistry,
+            PspResilienceProperties properties) {
+        return new com.firefly.psps.metrics.PspMetrics(meterRegistry, properties.getMetrics());
+    }
+
     /**
      * Creates ResilientPspService bean for applying resilience patterns.
      * Only created when MeterRegistry is available.
@@ -221,10 +310,44 @@ public class PspResilienceConfiguration {
             RetryRegistry retryRegistry,
             BulkheadRegistry bulkheadRegistry,
             TimeLimiterRegistry timeLimiterRegistry,
-            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
+            io.micrometer.core.instrument.MeterRegistry meterRegistry,
+            PspResilienceProperties properties,
+            org.springframework.beans.factory.ObjectProvider<com.firefly.psps.resilience.RateLimitCoordinator> rateLimitCoordinator,
+            com.firefly.psps.metrics.PspMetrics pspMetrics) {
         
-        logger.info("PSP ResilientPspService configured");
+        logger.info("PSP ResilientPspService configured: executionMode={}, bulkhead={}, rateLimiter={}",
+                properties.getExecutionMode(), properties.getBulkhead().getType(), properties.getRateLimiter().getMode());
         return new com.firefly.psps.resilience.ResilientPspService(
+                circuitBreakerRegistry,
+                rateLimiterRegistry,
+                retryRegistry,
+                bulkheadRegistry,
+                timeLimiterRegistry,
+                meterRegistry,
+                properties,
+                rateLimitCoordinator.getIfAvailable(),
+                pspMetrics
+        );
+    }
+
+    /**
+     * Creates the manager for runtime changes of provider and operation resilience settings.
+     */
+    @Bean
+    @org.springframework.boot.autoconfigure.condition.ConditionalOnBean(com.firefly.psps.resilience.ResilientPspService.class)
+    public com.firefly.psps.resilience.ResilienceConfigurationManager resilienceConfigurationManager(
+            com.firefly.psps.resilience.ResilientPspService resilientPspService,
+            PspResilienceProperties properties,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            io.micrometer.core.instrument.MeterRegistry meterRegistry) {
+
+        return new com.firefly.psps.resilience.ResilienceConfigurationManager(
+                resilientPspService,
+                properties,
                 circuitBreakerRegistry,
                 rateLimiterRegistry,
                 retryRegistry,
@@ -233,4 +356,23 @@ public class PspResilienceConfiguration {
                 meterRegistry
         );
     }
+
+    /**
+     * Exposes the {@code pspresilience} actuator endpoint when Spring Boot Actuator
+     * is present.
+     */
+    @Configuration
+    @org.springframework.boot.autoconfigure.condition.ConditionalOnClass(
+            name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class PspResilienceEndpointConfiguration {
+
+        @Bean
+        @org.springframework.boot.autoconfigure.condition.ConditionalOnBean(
+                com.firefly.psps.resilience.ResilienceConfigurationManager.class)
+        public com.firefly.psps.resilience.PspResilienceEndpoint pspResilienceEndpoint(
+                com.firefly.psps.resilience.ResilientPspService resilientPspService,
+                com.firefly.psps.resilience.ResilienceConfigurationManager configurationManager) {
+            return new com.firefly.psps.resilience.PspResilienceEndpoint(resilientPspService, configurationManager);
+        }
+    }
 }
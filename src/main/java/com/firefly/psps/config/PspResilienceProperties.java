@@ -17,16 +17,29 @@
 package com.firefly.psps.config;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration properties for PSP resilience patterns.
  * 
  * Configures circuit breakers, rate limiters, retries, bulkheads and timeouts
  * for PSP operations to ensure fault tolerance and prevent cascading failures.
+ * 
+ * Settings are hierarchical: the top-level values apply to every provider and
+ * operation, {@code providers.<name>} overrides them for one provider and
+ * {@code providers.<name>.operations.<operation>} overrides the provider values
+ * for a single operation. Only the values set at a level are overridden.
  */
 @Data
 @Configuration
@@ -38,8 +51,98 @@ public class PspResilienceProperties {
     private RetryConfig retry = new RetryConfig();
     private BulkheadConfig bulkhead = new BulkheadConfig();
     private TimeLimiterConfig timeLimiter = new TimeLimiterConfig();
+    private HedgingConfig hedging = new HedgingConfig();
+    private ThrottlingConfig throttling = new ThrottlingConfig();
+    private RetryBudgetConfig retryBudget = new RetryBudgetConfig();
+    private LoadTrackingConfig loadTracking = new LoadTrackingConfig();
+    private HealthProbeConfig healthProbe = new HealthProbeConfig();
+    private MetricsConfig metrics = new MetricsConfig();
     private boolean enabled = true;
 
+    /**
+     * Per-provider resilience profiles, keyed by provider name. Replaced as a whole by
+     * runtime reconfiguration, so readers always see a complete map.
+     */
+    private volatile Map<String, ProviderProfile> providers = new LinkedHashMap<>();
+
+    /**
+     * When the PSP operation supplier is invoked.
+     * Default: DEFERRED (once per subscription attempt, so retries re-issue the call)
+     */
+    private ExecutionMode executionMode = ExecutionMode.DEFERRED;
+
+    /**
+     * Name of the most specific profile configured for a provider operation.
+     * Named Resilience4j configurations are registered under these names.
+     *
+     * @param providerName PSP provider name
+     * @param operationType operation name
+     * @return {@code provider-operation}, {@code provider}, or null when only global settings apply
+     */
+    public String profileName(String providerName, String operationType) {
+        ProviderProfile provider = providers.get(providerName);
+        if (provider == null) {
+            return null;
+        }
+        return provider.getOperations().containsKey(operationType)
+                ? providerName + "-" + operationType
+                : providerName;
+    }
+
+    /**
+     * Resolve the effective settings for a provider operation (global, then provider, then operation).
+     *
+     * @param providerName PSP provider name
+     * @param operationType operation name, or null for the provider level
+     * @return effective settings
+     */
+    public ResolvedProfile resolve(String providerName, String operationType) {
+        ResolvedProfile resolved = new ResolvedProfile(circuitBreaker, rateLimiter, retry, bulkhead, timeLimiter);
+        ProviderProfile provider = providerName != null ? providers.get(providerName) : null;
+        if (provider == null) {
+            return resolved;
+        }
+        resolved = resolved.merge(provider);
+        ResilienceProfile operation = operationType != null ? provider.getOperations().get(operationType) : null;
+        return operation != null ? resolved.merge(operation) : resolved;
+    }
+
+    /**
+     * Resolve every configured profile, keyed by the name returned from {@link #profileName}.
+     *
+     * @return effective settings per profile name
+     */
+    public Map<String, ResolvedProfile> resolveProfiles() {
+        Map<String, ResolvedProfile> resolved = new LinkedHashMap<>();
+        providers.forEach((providerName, provider) -> {
+            resolved.put(providerName, resolve(providerName, null));
+            provider.getOperations().keySet().forEach(operationType ->
+                    resolved.put(providerName + "-" + operationType, resolve(providerName, operationType)));
+        });
+        return Collections.unmodifiableMap(resolved);
+    }
+
+    private static <T> T valueOr(T override, T current) {
+        return override != null ? override : current;
+    }
+
+    /**
+     * Controls when {@code ResilientPspService} invokes the operation supplier.
+     */
+    public enum ExecutionMode {
+        /**
+         * Invoke the supplier once at assembly time. Retries resubscribe to the same Mono
+         * and latency is measured from assembly.
+         */
+        EAGER,
+
+        /**
+         * Invoke the supplier on every subscription attempt. Retries re-issue the PSP call,
+         * end-to-end latency is measured from subscription and each attempt is timed separately.
+         */
+        DEFERRED
+    }
+
     @Data
     public static class CircuitBreakerConfig {
         /**
@@ -83,6 +186,22 @@ public class PspResilienceProperties {
          * Default: 100% (disabled)
          */
         private int slowCallRateThreshold = 100;
+
+        /**
+         * Copy of this configuration with the non-null overrides applied.
+         */
+        public CircuitBreakerConfig merge(CircuitBreakerOverrides overrides) {
+            CircuitBreakerConfig merged = new CircuitBreakerConfig();
+            merged.setFailureRateThreshold(valueOr(overrides.getFailureRateThreshold(), failureRateThreshold));
+            merged.setMinimumNumberOfCalls(valueOr(overrides.getMinimumNumberOfCalls(), minimumNumberOfCalls));
+            merged.setWaitDurationInOpenState(valueOr(overrides.getWaitDurationInOpenState(), waitDurationInOpenState));
+            merged.setPermittedNumberOfCallsInHalfOpenState(valueOr(
+                    overrides.getPermittedNumberOfCallsInHalfOpenState(), permittedNumberOfCallsInHalfOpenState));
+            merged.setSlidingWindowSize(valueOr(overrides.getSlidingWindowSize(), slidingWindowSize));
+            merged.setSlowCallDurationThreshold(valueOr(overrides.getSlowCallDurationThreshold(), slowCallDurationThreshold));
+            merged.setSlowCallRateThreshold(valueOr(overrides.getSlowCallRateThreshold(), slowCallRateThreshold));
+            return merged;
+        }
     }
 
     @Data
@@ -104,6 +223,48 @@ public class PspResilienceProperties {
          * Default: 5 seconds
          */
         private Duration timeoutDuration = Duration.ofSeconds(5);
+
+        /**
+         * Scope of the limit.
+         * Default: LOCAL (limitForPeriod applies to each replica)
+         */
+        private RateLimiterMode mode = RateLimiterMode.LOCAL;
+
+        /**
+         * Tokens a replica leases from the RateLimitCoordinator at once, used when mode is CLUSTER.
+         * Larger leases mean fewer coordinator round trips but a less even split between
+         * replicas; roughly limitForPeriod / (replicas * 4) is a good starting point.
+         * Default: 10
+         */
+        private int leaseSize = 10;
+
+        /**
+         * Copy of this configuration with the non-null overrides applied.
+         */
+        public RateLimiterConfig merge(RateLimiterOverrides overrides) {
+            RateLimiterConfig merged = new RateLimiterConfig();
+            merged.setLimitRefreshPeriod(valueOr(overrides.getLimitRefreshPeriod(), limitRefreshPeriod));
+            merged.setLimitForPeriod(valueOr(overrides.getLimitForPeriod(), limitForPeriod));
+            merged.setTimeoutDuration(valueOr(overrides.getTimeoutDuration(), timeoutDuration));
+            merged.setMode(valueOr(overrides.getMode(), mode));
+            merged.setLeaseSize(valueOr(overrides.getLeaseSize(), leaseSize));
+            return merged;
+        }
+    }
+
+    /**
+     * Scope of the PSP rate limit.
+     */
+    public enum RateLimiterMode {
+        /**
+         * In-process Resilience4j rate limiter; every replica gets the full limit.
+         */
+        LOCAL,
+
+        /**
+         * Limit shared by all replicas through a RateLimitCoordinator.
+         */
+        CLUSTER
     }
 
     @Data
@@ -137,6 +298,39 @@ public class PspResilienceProperties {
          * Default: true
          */
         private boolean exponentialBackoffEnabled = true;
+
+        /**
+         * Longest provider Retry-After the retry will wait for; throttled calls asking
+         * for longer are not retried.
+         * Default: 10 seconds
+         */
+        private Duration maxRetryAfter = Duration.ofSeconds(10);
+
+        /**
+         * Retry only errors PspErrorClassifier considers transient and honour the provider's
+         * Retry-After. When disabled every error is retried with the configured backoff.
+         * Applies to all providers.
+         * Default: false
+         */
+        private boolean classifyErrors = false;
+
+        /**
+         * Copy of this configuration with the non-null overrides applied.
+         */
+        public RetryConfig merge(RetryOverrides overrides) {
+            RetryConfig merged = new RetryConfig();
+            merged.setMaxAttempts(valueOr(overrides.getMaxAttempts(), maxAttempts));
+            merged.setWaitDuration(valueOr(overrides.getWaitDuration(), waitDuration));
+            merged.setExponentialBackoffMultiplier(valueOr(
+                    overrides.getExponentialBackoffMultiplier(), exponentialBackoffMultiplier));
+            merged.setExponentialMaxWaitDuration(valueOr(
+                    overrides.getExponentialMaxWaitDuration(), exponentialMaxWaitDuration));
+            merged.setExponentialBackoffEnabled(valueOr(
+                    overrides.getExponentialBackoffEnabled(), exponentialBackoffEnabled));
+            merged.setMaxRetryAfter(valueOr(overrides.getMaxRetryAfter(), maxRetryAfter));
+            merged.setClassifyErrors(classifyErrors);
+            return merged;
+        }
     }
 
     @Data
@@ -152,6 +346,115 @@ public class PspResilienceProperties {
          * Default: 500ms
          */
         private Duration maxWaitDuration = Duration.ofMillis(500);
+
+        /**
+         * Concurrency limiting strategy.
+         * Default: STATIC (Resilience4j bulkhead with maxConcurrentCalls)
+         */
+        private BulkheadType type = BulkheadType.STATIC;
+
+        /**
+         * Adaptive limiter settings, used when type is ADAPTIVE.
+         */
+        private AdaptiveConcurrencyConfig adaptive = new AdaptiveConcurrencyConfig();
+
+        /**
+         * Copy of this configuration with the non-null overrides applied.
+         * Adaptive limiter settings are shared with the source configuration.
+         */
+        public BulkheadConfig merge(BulkheadOverrides overrides) {
+            BulkheadConfig merged = new BulkheadConfig();
+            merged.setMaxConcurrentCalls(valueOr(overrides.getMaxConcurrentCalls(), maxConcurrentCalls));
+            merged.setMaxWaitDuration(valueOr(overrides.getMaxWaitDuration(), maxWaitDuration));
+            merged.setType(valueOr(overrides.getType(), type));
+            merged.setAdaptive(adaptive);
+            return merged;
+        }
+    }
+
+    /**
+     * Concurrency limiting strategy for PSP calls.
+     */
+    public enum BulkheadType {
+        /**
+         * Fixed Resilience4j bulkhead.
+         */
+        STATIC,
+
+        /**
+         * Limit adapts to observed round-trip time (see AdaptiveConcurrencyLimiter).
+         */
+        ADAPTIVE
+    }
+
+    @Data
+    public static class AdaptiveConcurrencyConfig {
+        /**
+         * Limit adjustment algorithm.
+         * Default: GRADIENT
+         */
+        private Algorithm algorithm = Algorithm.GRADIENT;
+
+        /**
+         * Concurrency limit before any RTT has been observed.
+         * Default: 20
+         */
+        private int initialLimit = 20;
+
+        /**
+         * Lower bound for the concurrency limit.
+         * Default: 2
+         */
+        private int minLimit = 2;
+
+        /**
+         * Upper bound for the concurrency limit.
+         * Default: 200
+         */
+        private int maxLimit = 200;
+
+        /**
+         * Factor applied to the limit when a call is dropped.
+         * Default: 0.9
+         */
+        private double backoffRatio = 0.9;
+
+        /**
+         * Calls slower than this, or cancelled after it (e.g. by the time limiter), are treated
+         * as drops. Keep it below the time limiter timeout so timeouts shrink the limit.
+         * Default: 10 seconds
+         */
+        private Duration dropThreshold = Duration.ofSeconds(10);
+
+        /**
+         * Weight of each gradient update (0-1).
+         * Default: 0.2
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Tolerated ratio of short-term to long-term RTT before the limit shrinks.
+         * Default: 1.5
+         */
+        private double rttTolerance = 1.5;
+
+        /**
+         * Number of samples in the long-term RTT average.
+         * Default: 600
+         */
+        private int longWindowSamples = 600;
+
+        public enum Algorithm {
+            /**
+             * Additive increase, multiplicative decrease.
+             */
+            AIMD,
+
+            /**
+             * RTT gradient between long-term and short-term latency.
+             */
+            GRADIENT
+        }
     }
 
     @Data
@@ -167,5 +470,383 @@ public class PspResilienceProperties {
          * Default: true
          */
         private boolean cancelRunningFuture = true;
+
+        /**
+         * Copy of this configuration with the non-null overrides applied.
+         */
+        public TimeLimiterConfig merge(TimeLimiterOverrides overrides) {
+            TimeLimiterConfig merged = new TimeLimiterConfig();
+            merged.setTimeoutDuration(valueOr(overrides.getTimeoutDuration(), timeoutDuration));
+            merged.setCancelRunningFuture(valueOr(overrides.getCancelRunningFuture(), cancelRunningFuture));
+            return merged;
+        }
+    }
+
+    @Data
+    public static class MetricsConfig {
+        /**
+         * Latency SLO boundaries published as histogram buckets of {@code psp.operation}.
+         * Default: 50ms, 100ms, 250ms, 500ms, 1s, 2.5s, 5s, 10s
+         */
+        private List<Duration> slos = new ArrayList<>(List.of(
+                Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+                Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5), Duration.ofSeconds(10)));
+    }
+
+    @Data
+    public static class RetryBudgetConfig {
+        /**
+         * Limit retries per provider to a share of its successful calls.
+         * Default: false
+         */
+        private boolean enabled = false;
+
+        /**
+         * Retries permitted per successful call within the window.
+         * Default: 0.2 (at most 20% extra load from retries)
+         */
+        private double retryRatio = 0.2;
+
+        /**
+         * Retries per second always permitted, so low-traffic providers can still retry.
+         * Default: 1
+         */
+        private double minRetriesPerSecond = 1;
+
+        /**
+         * Length of the sliding window.
+         * Default: 10 seconds
+         */
+        private Duration window = Duration.ofSeconds(10);
+
+        /**
+         * Number of buckets the window is divided into.
+         * Default: 10
+         */
+        private int windowBuckets = 10;
+    }
+
+    @Data
+    public static class HealthProbeConfig {
+        /**
+         * Probe PSP adapters in the background and cache their health for routing.
+         * Default: true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Time between probes of each adapter.
+         * Default: 30 seconds
+         */
+        private Duration interval = Duration.ofSeconds(30);
+
+        /**
+         * Maximum time a single probe may take before the adapter counts as unhealthy.
+         * Default: 5 seconds
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class LoadTrackingConfig {
+        /**
+         * Track latency and in-flight calls per provider for latency-aware routing.
+         * Default: true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Time constant of the latency EWMA: a sample's weight decays to 1/e after this long.
+         * Default: 10 seconds
+         */
+        private Duration decayTime = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class ThrottlingConfig {
+        /**
+         * Lower a provider's rate limits when its adapters report throttling (PspThrottledException).
+         * Default: false
+         */
+        private boolean enabled = false;
+
+        /**
+         * Factor applied to the current rate on each throttling response.
+         * Default: 0.5
+         */
+        private double decreaseFactor = 0.5;
+
+        /**
+         * Lowest fraction of the configured rate the limit can drop to.
+         * Default: 0.1
+         */
+        private double minRateFactor = 0.1;
+
+        /**
+         * Fraction of the configured rate restored per recovery interval without throttling.
+         * Default: 0.1
+         */
+        private double recoveryStep = 0.1;
+
+        /**
+         * Throttle-free time before each recovery step.
+         * Default: 10 seconds
+         */
+        private Duration recoveryInterval = Duration.ofSeconds(10);
+
+        /**
+         * Pause applied when a throttling response carries no Retry-After.
+         * Default: 1 second
+         */
+        private Duration defaultRetryAfter = Duration.ofSeconds(1);
+
+        /**
+         * Upper bound for the pause honoured from a Retry-After.
+         * Default: 30 seconds
+         */
+        private Duration maxRetryAfter = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class HedgingConfig {
+        /**
+         * Enable hedged requests for the configured read operations.
+         * Default: false
+         */
+        private boolean enabled = false;
+
+        /**
+         * Idempotent operations that are hedged when executed through ResilientPspService.
+         * Default: single-resource reads
+         */
+        private Set<String> operations = new LinkedHashSet<>(List.of(
+                "getPayment", "getRefund", "getSubscription", "getCustomer", "getPayout",
+                "getDispute", "getCheckoutSession", "getPaymentIntent", "getPricingPlan"));
+
+        /**
+         * Latency percentile (0-1) after which the hedge request is sent.
+         * Default: 0.95 (p95)
+         */
+        private double delayPercentile = 0.95;
+
+        /**
+         * Hedge delay used until enough latency samples are observed.
+         * Default: 500ms
+         */
+        private Duration initialDelay = Duration.ofMillis(500);
+
+        /**
+         * Lower bound for the hedge delay.
+         * Default: 20ms
+         */
+        private Duration minDelay = Duration.ofMillis(20);
+
+        /**
+         * Upper bound for the hedge delay.
+         * Default: 5 seconds
+         */
+        private Duration maxDelay = Duration.ofSeconds(5);
+
+        /**
+         * Number of samples required before the percentile delay is used.
+         * Default: 100
+         */
+        private int minSamples = 100;
+
+        /**
+         * Number of samples after which older latency samples are halved.
+         * Default: 10000
+         */
+        private int sampleDecayInterval = 10_000;
+
+        /**
+         * Maximum ratio of hedge requests to primary requests (0-1).
+         * Default: 0.1 (10%)
+         */
+        private double maxHedgeRatio = 0.1;
+
+        /**
+         * Maximum number of hedges that can be sent in a burst.
+         * Default: 10
+         */
+        private int maxBurst = 10;
+    }
+
+    /**
+     * Effective settings of a provider or provider operation after applying overrides.
+     */
+    public record ResolvedProfile(
+            CircuitBreakerConfig circuitBreaker,
+            RateLimiterConfig rateLimiter,
+            RetryConfig retry,
+            BulkheadConfig bulkhead,
+            TimeLimiterConfig timeLimiter
+    ) {
+        ResolvedProfile merge(ResilienceProfile profile) {
+            return new ResolvedProfile(
+                    circuitBreaker.merge(profile.getCircuitBreaker()),
+                    rateLimiter.merge(profile.getRateLimiter()),
+                    retry.merge(profile.getRetry()),
+                    bulkhead.merge(profile.getBulkhead()),
+                    timeLimiter.merge(profile.getTimeLimiter()));
+        }
+    }
+
+    /**
+     * Resilience overrides for a provider or operation. Unset values are inherited.
+     */
+    @Data
+    public static class ResilienceProfile {
+        private CircuitBreakerOverrides circuitBreaker = new CircuitBreakerOverrides();
+        private RateLimiterOverrides rateLimiter = new RateLimiterOverrides();
+        private RetryOverrides retry = new RetryOverrides();
+        private BulkheadOverrides bulkhead = new BulkheadOverrides();
+        private TimeLimiterOverrides timeLimiter = new TimeLimiterOverrides();
+
+        /**
+         * Copy the overrides of this profile into {@code target}, with the non-null values
+         * of {@code changes} taking precedence.
+         */
+        protected <P extends ResilienceProfile> P mergeInto(P target, ResilienceProfile changes) {
+            target.setCircuitBreaker(circuitBreaker.merge(changes.getCircuitBreaker()));
+            target.setRateLimiter(rateLimiter.merge(changes.getRateLimiter()));
+            target.setRetry(retry.merge(changes.getRetry()));
+            target.setBulkhead(bulkhead.merge(changes.getBulkhead()));
+            target.setTimeLimiter(timeLimiter.merge(changes.getTimeLimiter()));
+            return target;
+        }
+
+        /**
+         * New profile with the non-null values of {@code changes} applied on top of this one.
+         */
+        public ResilienceProfile withChanges(ResilienceProfile changes) {
+            return mergeInto(new ResilienceProfile(), changes);
+        }
+    }
+
+    /**
+     * Provider-level resilience overrides with optional per-operation overrides.
+     */
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class ProviderProfile extends ResilienceProfile {
+        /**
+         * Operation-level overrides keyed by operation name (e.g. "listPayments").
+         */
+        private Map<String, ResilienceProfile> operations = new LinkedHashMap<>();
+
+        /**
+         * New provider profile with the non-null values of {@code changes} applied on top of
+         * this one. Operation overrides are carried over unchanged.
+         */
+        @Override
+        public ProviderProfile withChanges(ResilienceProfile changes) {
+            ProviderProfile merged = mergeInto(new ProviderProfile(), changes);
+            merged.setOperations(new LinkedHashMap<>(operations));
+            return merged;
+        }
+
+        /**
+         * New provider profile with the non-null values of {@code changes} applied to one operation.
+         */
+        public ProviderProfile withOperationChanges(String operationType, ResilienceProfile changes) {
+            ProviderProfile merged = mergeInto(new ProviderProfile(), new ResilienceProfile());
+            Map<String, ResilienceProfile> mergedOperations = new LinkedHashMap<>(operations);
+            mergedOperations.put(operationType,
+                    operations.getOrDefault(operationType, new ResilienceProfile()).withChanges(changes));
+            merged.setOperations(mergedOperations);
+            return merged;
+        }
+    }
+
+    @Data
+    public static class CircuitBreakerOverrides {
+        private Integer failureRateThreshold;
+        private Integer minimumNumberOfCalls;
+        private Duration waitDurationInOpenState;
+        private Integer permittedNumberOfCallsInHalfOpenState;
+        private Integer slidingWindowSize;
+        private Duration slowCallDurationThreshold;
+        private Integer slowCallRateThreshold;
+
+        CircuitBreakerOverrides merge(CircuitBreakerOverrides changes) {
+            CircuitBreakerOverrides merged = new CircuitBreakerOverrides();
+            merged.setFailureRateThreshold(valueOr(changes.getFailureRateThreshold(), failureRateThreshold));
+            merged.setMinimumNumberOfCalls(valueOr(changes.getMinimumNumberOfCalls(), minimumNumberOfCalls));
+            merged.setWaitDurationInOpenState(valueOr(changes.getWaitDurationInOpenState(), waitDurationInOpenState));
+            merged.setPermittedNumberOfCallsInHalfOpenState(valueOr(changes.getPermittedNumberOfCallsInHalfOpenState(), permittedNumberOfCallsInHalfOpenState));
+            merged.setSlidingWindowSize(valueOr(changes.getSlidingWindowSize(), slidingWindowSize));
+            merged.setSlowCallDurationThreshold(valueOr(changes.getSlowCallDurationThreshold(), slowCallDurationThreshold));
+            merged.setSlowCallRateThreshold(valueOr(changes.getSlowCallRateThreshold(), slowCallRateThreshold));
+            return merged;
+        }
+    }
+
+    @Data
+    public static class RateLimiterOverrides {
+        private Duration limitRefreshPeriod;
+        private Integer limitForPeriod;
+        private Duration timeoutDuration;
+        private RateLimiterMode mode;
+        private Integer leaseSize;
+
+        RateLimiterOverrides merge(RateLimiterOverrides changes) {
+            RateLimiterOverrides merged = new RateLimiterOverrides();
+            merged.setLimitRefreshPeriod(valueOr(changes.getLimitRefreshPeriod(), limitRefreshPeriod));
+            merged.setLimitForPeriod(valueOr(changes.getLimitForPeriod(), limitForPeriod));
+            merged.setTimeoutDuration(valueOr(changes.getTimeoutDuration(), timeoutDuration));
+            merged.setMode(valueOr(changes.getMode(), mode));
+            merged.setLeaseSize(valueOr(changes.getLeaseSize(), leaseSize));
+            return merged;
+        }
+    }
+
+    @Data
+    public static class RetryOverrides {
+        private Integer maxAttempts;
+        private Duration waitDuration;
+        private Double exponentialBackoffMultiplier;
+        private Duration exponentialMaxWaitDuration;
+        private Boolean exponentialBackoffEnabled;
+        private Duration maxRetryAfter;
+
+        RetryOverrides merge(RetryOverrides changes) {
+            RetryOverrides merged = new RetryOverrides();
+            merged.setMaxAttempts(valueOr(changes.getMaxAttempts(), maxAttempts));
+            merged.setWaitDuration(valueOr(changes.getWaitDuration(), waitDuration));
+            merged.setExponentialBackoffMultiplier(valueOr(changes.getExponentialBackoffMultiplier(), exponentialBackoffMultiplier));
+            merged.setExponentialMaxWaitDuration(valueOr(changes.getExponentialMaxWaitDuration(), exponentialMaxWaitDuration));
+            merged.setExponentialBackoffEnabled(valueOr(changes.getExponentialBackoffEnabled(), exponentialBackoffEnabled));
+            merged.setMaxRetryAfter(valueOr(changes.getMaxRetryAfter(), maxRetryAfter));
+            return merged;
+        }
+    }
+
+    @Data
+    public static class BulkheadOverrides {
+        private Integer maxConcurrentCalls;
+        private Duration maxWaitDuration;
+        private BulkheadType type;
+
+        BulkheadOverrides merge(BulkheadOverrides changes) {
+            BulkheadOverrides merged = new BulkheadOverrides();
+            merged.setMaxConcurrentCalls(valueOr(changes.getMaxConcurrentCalls(), maxConcurrentCalls));
+            merged.setMaxWaitDuration(valueOr(changes.getMaxWaitDuration(), maxWaitDuration));
+            merged.setType(valueOr(changes.getType(), type));
+            return merged;
+        }
+    }
+
+    @Data
+    public static class TimeLimiterOverrides {
+        private Duration timeoutDuration;
+        private Boolean cancelRunningFuture;
+
+        TimeLimiterOverrides merge(TimeLimiterOverrides changes) {
+            TimeLimiterOverrides merged = new TimeLimiterOverrides();
+            merged.setTimeoutDuration(valueOr(changes.getTimeoutDuration(), timeoutDuration));
+            merged.setCancelRunningFuture(valueOr(changes.getCancelRunningFuture(), cancelRunningFuture));
+            return merged;
+        }
     }
 }
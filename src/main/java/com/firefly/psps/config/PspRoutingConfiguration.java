@@ -0,0 +1,215 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.config;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.adapter.PspAdapterRegistry;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.fees.PspFeeCalculator;
+import com.firefly.psps.health.PspHealthMonitor;
+import com.firefly.psps.resilience.ResilientPspService;
+import com.firefly.psps.routing.AuthorizationRateTracker;
+import com.firefly.psps.routing.BinRangeIndex;
+import com.firefly.psps.routing.DefaultPspRouter;
+import com.firefly.psps.routing.PspRouter;
+import com.firefly.psps.routing.PspRoutingEndpoint;
+import com.firefly.psps.routing.PspSelectionStrategy;
+import com.firefly.psps.routing.RoutingRules;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Auto-configuration for services running one or more PSP providers.
+ * 
+ * Creates:
+ * - {@link PspAdapterRegistry}: every {@code PspAdapter} bean not disabled under
+ *   {@code firefly.psp.providers}
+ * - {@link PspHealthMonitor}: probes the registered adapters in the background, configured
+ *   by {@code firefly.psp.resilience.health-probe}
+ * - {@link DefaultPspRouter}: routes between the registered adapters according to
+ *   {@code firefly.psp.routing}, unless the application defines its own {@link PspRouter}
+ * - {@link PspRoutingEndpoint}: the {@code psprouting} actuator endpoint, when Spring Boot
+ *   Actuator is present
+ * 
+ * The router picks up optional collaborators when they are present: a
+ * {@link PspFeeCalculator} (COST_OPTIMIZED), a {@link PspSelectionStrategy} (CUSTOM),
+ * the load tracker of {@link ResilientPspService} (LATENCY_AWARE), the
+ * {@link AuthorizationRateTracker} (AUTHORIZATION_RATE) and the
+ * {@link PspHealthMonitor}, whose health changes it follows.
+ */
+@Configuration
+@EnableConfigurationProperties(PspProperties.class)
+@ConditionalOnProperty(prefix = "firefly.psp", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PspRoutingConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PspRoutingConfiguration.class);
+
+    /**
+     * Creates the provider registry and the resilience pipelines of the operations
+     * listed under {@code firefly.psp.providers.<name>.operations}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public PspAdapterRegistry pspAdapterRegistry(
+            ObjectProvider<PspAdapter> adapters,
+            PspProperties properties,
+            ObjectProvider<ResilientPspService> resilientPspService) {
+        PspAdapterRegistry registry = new PspAdapterRegistry(adapters.orderedStream().toList(), properties);
+
+        ResilientPspService resilience = resilientPspService.getIfAvailable();
+        if (resilience != null) {
+            for (String provider : registry.getProviderNames()) {
+                registry.getProviderConfig(provider).getOperations()
+                        .forEach(operation -> resilience.pipeline(provider, operation));
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Creates the tracker of authorization outcomes for AUTHORIZATION_RATE routing;
+     * pass it to {@code AbstractPspService} so payments feed it.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AuthorizationRateTracker authorizationRateTracker(PspProperties properties) {
+        return new AuthorizationRateTracker(properties.getRouting().getAuthorizationWindow());
+    }
+
+    /**
+     * Creates the background health monitor for the registered PSP adapters.
+     * Only created when at least one PspAdapter is available. When {@link PspResilienceConfiguration}
+     * is active, a provider with an open circuit breaker is also reported unhealthy.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnBean(PspAdapter.class)
+    @ConditionalOnProperty(prefix = "firefly.psp.resilience.health-probe", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public PspHealthMonitor pspHealthMonitor(
+            PspAdapterRegistry registry,
+            ObjectProvider<CircuitBreakerRegistry> circuitBreakerRegistry,
+            ObjectProvider<PspResilienceProperties> resilienceProperties) {
+        PspResilienceProperties properties = resilienceProperties.getIfAvailable(PspResilienceProperties::new);
+        return new PspHealthMonitor(
+                registry.getAdapters(), circuitBreakerRegistry.getIfAvailable(), properties.getHealthProbe());
+    }
+
+    /**
+     * Creates the default router over the registered adapters.
+     */
+    @Bean
+    @ConditionalOnMissingBean(PspRouter.class)
+    public DefaultPspRouter defaultPspRouter(
+            PspAdapterRegistry registry,
+            PspProperties properties,
+            AuthorizationRateTracker authorizationRates,
+            ObjectProvider<PspFeeCalculator> feeCalculator,
+            ObjectProvider<PspSelectionStrategy> customStrategy,
+            ObjectProvider<ResilientPspService> resilientPspService,
+            ObjectProvider<PspHealthMonitor> healthMonitor) {
+        ResilientPspService resilience = resilientPspService.getIfAvailable();
+        DefaultPspRouter router = new DefaultPspRouter(
+                feeCalculator.getIfAvailable(),
+                customStrategy.getIfAvailable(),
+                resilience != null ? resilience.getLoadTracker() : null,
+                authorizationRates);
+
+        PspProperties.RoutingConfig routing = properties.getRouting();
+        if (routing.getDecisionSampleRate() != null) {
+            router.getDecisionLog().setSampleRate(routing.getDecisionSampleRate());
+        }
+        router.updateRouting(registry.getAdapters(), routingRules(registry, routing));
+
+        PspHealthMonitor monitor = healthMonitor.getIfAvailable();
+        if (monitor != null) {
+            router.followHealth(monitor);
+        }
+        logger.info("PSP routing configured: strategy={}, providers={}",
+                routing.getStrategy(), registry.getProviderNames());
+        return router;
+    }
+
+    /**
+     * Builds routing rules from {@code firefly.psp.routing} and the provider weights.
+     */
+    static RoutingRules routingRules(PspAdapterRegistry registry, PspProperties.RoutingConfig routing) {
+        Set<String> priority = new LinkedHashSet<>();
+        if (registry.getDefaultProvider() != null) {
+            priority.add(registry.getDefaultProvider());
+        }
+        priority.addAll(routing.getFailoverOrder());
+
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String provider : registry.getProviderNames()) {
+            Integer weight = registry.getProviderConfig(provider).getWeight();
+            if (weight != null) {
+                weights.put(provider, weight);
+            }
+        }
+
+        RoutingRules.Builder rules = RoutingRules.builder()
+                .strategy(routing.getStrategy())
+                .priority(priority.toArray(String[]::new))
+                .failoverEnabled(routing.isFailoverEnabled())
+                .weights(weights);
+        routing.getCurrencyPreferences().forEach((currency, providers) ->
+                rules.currencyPreference(Currency.valueOf(currency), toArray(providers)));
+        routing.getRegions().forEach((region, providers) -> rules.region(region, toArray(providers)));
+        routing.getTenants().forEach((tenant, providers) -> rules.tenant(tenant, toArray(providers)));
+        if (routing.getBinTable() != null) {
+            BinRangeIndex binIndex = BinRangeIndex.load(Path.of(routing.getBinTable()));
+            logger.info("Loaded BIN table {}: {} ranges", routing.getBinTable(), binIndex.size());
+            rules.binIndex(binIndex);
+        }
+        routing.getBinRoutes().forEach(route -> rules.binRoute(
+                route.getBrand(), route.getCardType(), route.getCountry(), toArray(route.getProviders())));
+        return rules.build();
+    }
+
+    private static String[] toArray(List<String> providers) {
+        return providers.toArray(String[]::new);
+    }
+
+    /**
+     * Exposes the {@code psprouting} actuator endpoint when Spring Boot Actuator is present.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class PspRoutingEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnBean(DefaultPspRouter.class)
+        public PspRoutingEndpoint pspRoutingEndpoint(DefaultPspRouter router) {
+            return new PspRoutingEndpoint(router);
+        }
+    }
+}
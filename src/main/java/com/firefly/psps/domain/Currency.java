@@ -20,8 +20,21 @@ package com.firefly.psps.domain;
  * ISO 4217 currency codes commonly used in payment operations.
  */
 public enum Currency {
-    USD, EUR, GBP, JPY, CHF, CAD, AUD, NZD, SEK, NOK, DKK, 
-    PLN, CZK, HUF, RON, BGN, HRK, RUB, TRY, BRL, MXN, 
-    ARS, CLP, COP, PEN, UYU, INR, CNY, HKD, SGD, MYR, 
-    THB, IDR, PHP, VND, KRW, ZAR, AED, SAR, ILS, EGP
+    USD(2), EUR(2), GBP(2), JPY(0), CHF(2), CAD(2), AUD(2), NZD(2), SEK(2), NOK(2), DKK(2),
+    PLN(2), CZK(2), HUF(2), RON(2), BGN(2), HRK(2), RUB(2), TRY(2), BRL(2), MXN(2),
+    ARS(2), CLP(0), COP(2), PEN(2), UYU(2), INR(2), CNY(2), HKD(2), SGD(2), MYR(2),
+    THB(2), IDR(2), PHP(2), VND(0), KRW(0), ZAR(2), AED(2), SAR(2), ILS(2), EGP(2);
+
+    private final int minorUnitDigits;
+
+    Currency(int minorUnitDigits) {
+        this.minorUnitDigits = minorUnitDigits;
+    }
+
+    /**
+     * ISO 4217 exponent: decimal digits of the minor unit (2 for EUR cents, 0 for JPY).
+     */
+    public int getMinorUnitDigits() {
+        return minorUnitDigits;
+    }
 }
@@ -75,4 +75,26 @@ public class Money {
     public long toCents() {
         return amount.multiply(BigDecimal.valueOf(100)).longValue();
     }
+
+    /**
+     * Creates a Money instance from minor units, using the currency's ISO 4217 exponent
+     * (e.g., 1050 EUR minor units = 10.50 EUR, 1050 JPY = 1050 JPY).
+     *
+     * @param minorUnits the amount in minor units
+     * @param currency the currency
+     * @return Money instance with the currency's scale
+     */
+    public static Money ofMinorUnits(long minorUnits, Currency currency) {
+        return new Money(BigDecimal.valueOf(minorUnits, currency.getMinorUnitDigits()), currency);
+    }
+
+    /**
+     * Converts the amount to minor units using the currency's ISO 4217 exponent.
+     *
+     * @return amount in minor units
+     * @throws ArithmeticException if the amount has digits below the minor unit or does not fit a long
+     */
+    public long toMinorUnits() {
+        return amount.movePointRight(currency.getMinorUnitDigits()).longValueExact();
+    }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.firefly.psps.exceptions;
+
+/**
+ * Exception thrown when a PSP call is rejected because the adaptive concurrency limit is reached.
+ */
+public class ConcurrencyLimitExceededException extends PspException {
+
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String providerName, String operationType, int limit) {
+        super("Concurrency limit of " + limit + " reached for " + providerName + "." + operationType,
+                providerName, "CONCURRENCY_LIMIT_EXCEEDED");
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.exceptions;
+
+import com.firefly.psps.domain.Currency;
+
+/**
+ * Exception thrown when a fee must be converted between currencies without a known FX rate.
+ */
+public class FxRateNotAvailableException extends PspException {
+
+    private final Currency from;
+    private final Currency to;
+
+    public FxRateNotAvailableException(Currency from, Currency to) {
+        super("No FX rate available from " + from + " to " + to, null, "FX_RATE_NOT_AVAILABLE");
+        this.from = from;
+        this.to = to;
+    }
+
+    public Currency getFrom() {
+        return from;
+    }
+
+    public Currency getTo() {
+        return to;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.exceptions;
+
+import java.util.List;
+
+/**
+ * Exception thrown when a payment failed on every provider it was cascaded to.
+ * The cause is the failure of the last provider tried.
+ */
+public class PaymentCascadeException extends PspException {
+
+    private final List<String> attemptedProviders;
+
+    public PaymentCascadeException(String message, List<String> attemptedProviders, Throwable cause) {
+        super(message, attemptedProviders.isEmpty() ? null : attemptedProviders.get(attemptedProviders.size() - 1),
+                "PAYMENT_CASCADE_EXHAUSTED", cause);
+        this.attemptedProviders = List.copyOf(attemptedProviders);
+    }
+
+    /**
+     * Providers tried, in order.
+     */
+    public List<String> getAttemptedProviders() {
+        return attemptedProviders;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a PSP call is rejected locally because calls to the provider are
+ * paused after it reported throttling. The provider was not contacted.
+ */
+public class ProviderPausedException extends PspException {
+
+    private final Duration remainingPause;
+
+    public ProviderPausedException(String providerName, Duration remainingPause) {
+        super("Calls to " + providerName + " paused after throttling", providerName, "PROVIDER_PAUSED");
+        this.remainingPause = remainingPause;
+    }
+
+    /**
+     * Time left until calls to the provider resume.
+     */
+    public Duration getRemainingPause() {
+        return remainingPause;
+    }
+}
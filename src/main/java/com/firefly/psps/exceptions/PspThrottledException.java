@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown by adapters when the PSP rejects a call because of rate limiting
+ * (HTTP 429 or an equivalent provider error), carrying the provider's Retry-After hint.
+ */
+public class PspThrottledException extends PspCommunicationException {
+
+    private final Duration retryAfter;
+
+    public PspThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public PspThrottledException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Time the provider asked callers to wait, or null if the response carried no hint.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
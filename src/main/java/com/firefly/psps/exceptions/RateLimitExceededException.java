@@ -0,0 +1,36 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.exceptions;
+
+/**
+ * Exception thrown when a PSP call is rejected because the cluster-wide rate limit is exhausted.
+ */
+public class RateLimitExceededException extends PspException {
+
+    private final int limitForPeriod;
+
+    public RateLimitExceededException(String providerName, String operationType, int limitForPeriod) {
+        super("Cluster rate limit of " + limitForPeriod + " calls per period reached for "
+                        + providerName + "." + operationType,
+                providerName, "RATE_LIMIT_EXCEEDED");
+        this.limitForPeriod = limitForPeriod;
+    }
+
+    public int getLimitForPeriod() {
+        return limitForPeriod;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk fee computation over columnar transaction arrays.
+ *
+ * Transactions are given as parallel primitive arrays: amounts in minor units,
+ * {@link Currency} ordinals and {@link PaymentMethodType} ordinals ({@link #NO_PAYMENT_METHOD}
+ * for no surcharge). Fees are written into a caller-provided array, so a nightly report
+ * over millions of rows allocates nothing per transaction:
+ * <pre>
+ * BatchFeeCalculator batch = BatchFeeCalculator.of(feeCalculator, "stripe", "adyen");
+ * long[] fees = new long[amounts.length];
+ * batch.calculateFees("stripe", amounts, currencies, methods, fees);
+ * </pre>
+ *
+ * Batches of at least {@code parallelThreshold} transactions are split across a
+ * {@link ForkJoinPool}; smaller ones run on the calling thread. Results are those of
+ * {@link CompiledFeeStructure#calculateFeeMinorUnits} for each row.
+ */
+public final class BatchFeeCalculator {
+
+    /**
+     * Payment method ordinal for transactions without a payment method surcharge.
+     */
+    public static final int NO_PAYMENT_METHOD = -1;
+
+    static final int DEFAULT_PARALLEL_THRESHOLD = 16_384;
+    private static final int MIN_CHUNK_SIZE = 4_096;
+
+    private final String[] providerNames;
+    private final CompiledFeeStructure[] structures;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public BatchFeeCalculator(Map<String, CompiledFeeStructure> structures) {
+        this(structures, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param structures compiled fee structure per provider; iteration order is the provider order
+     * @param pool pool for large batches
+     * @param parallelThreshold minimum batch size to run in parallel
+     */
+    public BatchFeeCalculator(Map<String, CompiledFeeStructure> structures, ForkJoinPool pool, int parallelThreshold) {
+        if (structures.isEmpty()) {
+            throw new IllegalArgumentException("At least one fee structure is required");
+        }
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be positive");
+        }
+        this.providerNames = structures.keySet().toArray(new String[0]);
+        this.structures = structures.values().toArray(new CompiledFeeStructure[0]);
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Batch calculator for the current fee structures of the given providers, converting
+     * fees quoted in other currencies at the calculator's {@link PspFeeCalculator#getFxRates()}.
+     *
+     * @throws IllegalArgumentException if a provider has no fee structure
+     */
+    public static BatchFeeCalculator of(PspFeeCalculator feeCalculator, String... providerNames) {
+        Map<String, CompiledFeeStructure> structures = new LinkedHashMap<>();
+        for (String providerName : providerNames) {
+            FeeStructure feeStructure = feeCalculator.getFeeStructure(providerName);
+            if (feeStructure == null) {
+                throw new IllegalArgumentException("No fee structure for provider: " + providerName);
+            }
+            structures.put(providerName, feeStructure.compile(feeCalculator.getFxRates()));
+        }
+        return new BatchFeeCalculator(structures);
+    }
+
+    /**
+     * Provider order used by {@link #compareFees}.
+     */
+    public List<String> getProviderNames() {
+        return List.of(providerNames);
+    }
+
+    /**
+     * Fees of one provider for every transaction.
+     *
+     * @param providerName PSP provider name
+     * @param amounts amounts in minor units
+     * @param currencies currency ordinals
+     * @param methods payment method ordinals, or null for no surcharge on every row
+     * @param fees receives the fee of each row in minor units
+     * @throws ArithmeticException if a fee does not fit a long
+     */
+    public void calculateFees(String providerName, long[] amounts, int[] currencies, int[] methods, long[] fees) {
+        checkLengths(amounts, currencies, methods, fees.length);
+        CompiledFeeStructure structure = structures[indexOf(providerName)];
+        forEachRange(amounts.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                fees[i] = structure.calculateFeeMinorUnits(amounts[i], currencies[i],
+                        methods != null ? methods[i] : NO_PAYMENT_METHOD);
+            }
+        });
+    }
+
+    /**
+     * Fees of every provider for every transaction, in one pass over the rows.
+     *
+     * @param amounts amounts in minor units
+     * @param currencies currency ordinals
+     * @param methods payment method ordinals, or null for no surcharge on every row
+     * @param fees receives {@code fees[provider][row]}, providers in {@link #getProviderNames()} order
+     * @param cheapest receives the index of the cheapest provider per row (first one on ties), or null
+     * @throws ArithmeticException if a fee does not fit a long
+     */
+    public void compareFees(long[] amounts, int[] currencies, int[] methods, long[][] fees, int[] cheapest) {
+        checkLengths(amounts, currencies, methods, cheapest != null ? cheapest.length : amounts.length);
+        if (fees.length != structures.length) {
+            throw new IllegalArgumentException("Expected fee arrays for " + structures.length + " providers");
+        }
+        for (long[] providerFees : fees) {
+            checkLengths(amounts, currencies, methods, providerFees.length);
+        }
+        forEachRange(amounts.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int method = methods != null ? methods[i] : NO_PAYMENT_METHOD;
+                int best = 0;
+                for (int p = 0; p < structures.length; p++) {
+                    long fee = structures[p].calculateFeeMinorUnits(amounts[i], currencies[i], method);
+                    fees[p][i] = fee;
+                    if (fee < fees[best][i]) {
+                        best = p;
+                    }
+                }
+                if (cheapest != null) {
+                    cheapest[i] = best;
+                }
+            }
+        });
+    }
+
+    private int indexOf(String providerName) {
+        for (int i = 0; i < providerNames.length; i++) {
+            if (providerNames[i].equals(providerName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No fee structure for provider: " + providerName
+                + " (known: " + Arrays.toString(providerNames) + ")");
+    }
+
+    private void forEachRange(int length, RangeTask task) {
+        if (length < parallelThreshold) {
+            task.run(0, length);
+            return;
+        }
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (pool.getParallelism() * 4));
+        pool.invoke(new RangeAction(task, 0, length, chunkSize));
+    }
+
+    private static void checkLengths(long[] amounts, int[] currencies, int[] methods, int resultLength) {
+        if (currencies.length != amounts.length || (methods != null && methods.length != amounts.length)
+                || resultLength != amounts.length) {
+            throw new IllegalArgumentException("Transaction arrays must all have the same length");
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits a row range in halves down to the chunk size.
+     */
+    private static final class RangeAction extends RecursiveAction {
+
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        RangeAction(RangeTask task, int from, int to, int chunkSize) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                task.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(task, from, middle, chunkSize), new RangeAction(task, middle, to, chunkSize));
+        }
+    }
+}
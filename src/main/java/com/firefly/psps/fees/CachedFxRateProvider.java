@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link FxRateProvider} serving a cached {@link FxRates} snapshot.
+ *
+ * Reads are a volatile read of the current snapshot. The snapshot is replaced when
+ * {@link #refresh()} loads different rates from the source, periodically once
+ * {@link #start(Duration)} is called, or when new rates are pushed with {@link #update}:
+ * <pre>
+ * CachedFxRateProvider fx = CachedFxRateProvider.fromFile(Path.of("/etc/psp/fx-rates.csv"));
+ * fx.addListener(rates -&gt; router.refreshFees());
+ * fx.start(Duration.ofMinutes(15));
+ * </pre>
+ *
+ * A failed refresh keeps the previous snapshot.
+ */
+public class CachedFxRateProvider implements FxRateProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachedFxRateProvider.class);
+
+    private final Supplier<FxRates> source;
+    private final List<Consumer<FxRates>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile FxRates rates;
+    private volatile Disposable polling;
+
+    /**
+     * Provider loading its rates from {@code source}, immediately and on every refresh.
+     *
+     * @throws RuntimeException if the initial load fails
+     */
+    public CachedFxRateProvider(Supplier<FxRates> source) {
+        this.source = source;
+        this.rates = source.get();
+    }
+
+    private CachedFxRateProvider(FxRates rates) {
+        this.source = null;
+        this.rates = rates;
+    }
+
+    /**
+     * Provider reading a CSV file in the {@link FxRates} format.
+     */
+    public static CachedFxRateProvider fromFile(Path csv) {
+        return new CachedFxRateProvider(() -> FxRates.load(csv));
+    }
+
+    /**
+     * In-memory provider; rates change only through {@link #update}, and {@link #refresh()}
+     * keeps the current snapshot.
+     */
+    public static CachedFxRateProvider of(FxRates rates) {
+        return new CachedFxRateProvider(rates);
+    }
+
+    @Override
+    public FxRates getRates() {
+        return rates;
+    }
+
+    /**
+     * Reload rates from the source.
+     *
+     * @return true if the rates changed; always false for an in-memory provider
+     */
+    public boolean refresh() {
+        if (source == null) {
+            return false;
+        }
+        FxRates loaded;
+        try {
+            loaded = source.get();
+        } catch (RuntimeException e) {
+            logger.warn("FX rate refresh failed, keeping previous rates: {}", e.getMessage());
+            return false;
+        }
+        return replace(loaded);
+    }
+
+    /**
+     * Replace the rates, e.g. from an in-memory feed.
+     *
+     * @return true if the rates changed
+     */
+    public boolean update(FxRates newRates) {
+        return replace(newRates);
+    }
+
+    /**
+     * Register a callback invoked with the new snapshot whenever the rates change.
+     */
+    public void addListener(Consumer<FxRates> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Refresh from the source at a fixed interval.
+     */
+    public synchronized void start(Duration interval) {
+        if (polling != null && !polling.isDisposed()) {
+            return;
+        }
+        polling = Flux.interval(interval, interval, Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .subscribe(tick -> refresh());
+        logger.info("FX rate refresh started: interval={}", interval);
+    }
+
+    /**
+     * Stop refreshing. The current rates stay available.
+     */
+    public synchronized void stop() {
+        if (polling != null) {
+            polling.dispose();
+            polling = null;
+        }
+    }
+
+    private synchronized boolean replace(FxRates newRates) {
+        if (newRates == null || newRates.equals(rates)) {
+            return false;
+        }
+        rates = newRates;
+        for (Consumer<FxRates> listener : listeners) {
+            try {
+                listener.accept(newRates);
+            } catch (RuntimeException e) {
+                logger.warn("FX rate listener failed: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+}
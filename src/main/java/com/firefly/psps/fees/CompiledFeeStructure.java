@@ -0,0 +1,314 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * {@link FeeStructure} precompiled into long arithmetic on minor units.
+ *
+ * For every currency and payment method the percentage (plus surcharge) becomes an
+ * integer ratio and the fixed, minimum and maximum fees become minor-unit longs, so a
+ * fee is one multiplication, one division with half-up rounding, an addition and two
+ * clamps, without allocation:
+ * <pre>
+ * CompiledFeeStructure stripe = stripeFees.compile();
+ * long fee = stripe.calculateFeeMinorUnits(1050, Currency.EUR, PaymentMethodType.CARD);
+ * </pre>
+ *
+ * Results are identical to {@link FeeStructure#calculateFee} (value and scale) for amounts
+ * whose scale is the currency's ISO 4217 exponent. Amounts with another scale, fee amounts
+ * finer than the minor unit and products that would overflow a long are delegated to the
+ * BigDecimal path, as is {@link #calculateFee} for such amounts. A null percentage fee or
+ * surcharge counts as zero.
+ *
+ * Compiled with {@link FxRates}, results follow
+ * {@link FeeStructure#calculateFee(Money, PaymentMethodType, FxRates)} instead: fixed, minimum and
+ * maximum fees quoted in another currency are converted when compiling, and payments in a
+ * currency lacking a rate fail with {@link FxRateNotAvailableException}. Recompile when the
+ * rates change.
+ */
+public final class CompiledFeeStructure {
+
+    private static final PaymentMethodType[] METHODS = PaymentMethodType.values();
+    private static final int SLOTS = METHODS.length + 1;
+
+    private final FeeStructure source;
+    private final FxRates fxRates;
+    private final Evaluator[] evaluators;
+    private final Currency[] missingRates;
+
+    private CompiledFeeStructure(
+            FeeStructure source, FxRates fxRates, Evaluator[] evaluators, Currency[] missingRates) {
+        this.source = source;
+        this.fxRates = fxRates;
+        this.evaluators = evaluators;
+        this.missingRates = missingRates;
+    }
+
+    /**
+     * Compile a fee structure for every currency and payment method.
+     */
+    public static CompiledFeeStructure compile(FeeStructure fees) {
+        return compile(fees, null);
+    }
+
+    /**
+     * Compile a fee structure for every currency and payment method, converting fees quoted
+     * in other currencies at the given rates.
+     *
+     * @param fxRates rates, or null to ignore fees in other currencies like
+     *        {@link FeeStructure#calculateFee(Money, PaymentMethodType)}
+     */
+    public static CompiledFeeStructure compile(FeeStructure fees, FxRates fxRates) {
+        Evaluator[] evaluators = new Evaluator[Currency.values().length * SLOTS];
+        Currency[] missingRates = new Currency[Currency.values().length];
+        for (Currency currency : Currency.values()) {
+            try {
+                evaluators[currency.ordinal() * SLOTS] = Evaluator.of(fees, currency, null, fxRates);
+                for (PaymentMethodType method : METHODS) {
+                    evaluators[currency.ordinal() * SLOTS + method.ordinal() + 1] =
+                            Evaluator.of(fees, currency, method, fxRates);
+                }
+            } catch (FxRateNotAvailableException e) {
+                // Payments in this currency fail when calculated, not the whole compilation
+                missingRates[currency.ordinal()] = e.getFrom();
+            }
+        }
+        return new CompiledFeeStructure(fees, fxRates, evaluators, missingRates);
+    }
+
+    /**
+     * Fee in minor units of {@code currency}.
+     *
+     * @param amountMinorUnits payment amount in minor units
+     * @param currency payment currency
+     * @param paymentMethodType payment method, or null for no surcharge
+     * @return fee in minor units; fee amounts finer than the minor unit are rounded half-up
+     * @throws ArithmeticException if the fee does not fit a long
+     * @throws FxRateNotAvailableException if a fee of another currency has no rate to {@code currency}
+     */
+    public long calculateFeeMinorUnits(long amountMinorUnits, Currency currency, PaymentMethodType paymentMethodType) {
+        return evaluator(currency, paymentMethodType).fee(amountMinorUnits);
+    }
+
+    /**
+     * Fee in minor units for a currency and payment method given by ordinal, for bulk callers
+     * working on columnar arrays.
+     *
+     * @param methodOrdinal {@link PaymentMethodType} ordinal, or -1 for no surcharge
+     */
+    long calculateFeeMinorUnits(long amountMinorUnits, int currencyOrdinal, int methodOrdinal) {
+        if (currencyOrdinal < 0 || currencyOrdinal * SLOTS >= evaluators.length) {
+            throw new IllegalArgumentException("Invalid currency ordinal: " + currencyOrdinal);
+        }
+        if (methodOrdinal < -1 || methodOrdinal >= METHODS.length) {
+            throw new IllegalArgumentException("Invalid payment method ordinal: " + methodOrdinal);
+        }
+        Evaluator evaluator = evaluators[currencyOrdinal * SLOTS + methodOrdinal + 1];
+        if (evaluator == null) {
+            throw new FxRateNotAvailableException(missingRates[currencyOrdinal], Currency.values()[currencyOrdinal]);
+        }
+        return evaluator.fee(amountMinorUnits);
+    }
+
+    /**
+     * Same result as {@link FeeStructure#calculateFee} (with the compile-time rates, if any),
+     * computed on minor units when exact.
+     */
+    public Money calculateFee(Money amount, PaymentMethodType paymentMethodType) {
+        Currency currency = amount.getCurrency();
+        Evaluator evaluator = evaluator(currency, paymentMethodType);
+        BigDecimal value = amount.getAmount();
+        BigInteger unscaled = value.unscaledValue();
+        if (!evaluator.exact || value.scale() != currency.getMinorUnitDigits() || unscaled.bitLength() > 62
+                || unscaled.longValue() > evaluator.maxFastAmount) {
+            return fxRates != null
+                    ? source.calculateFee(amount, paymentMethodType, fxRates)
+                    : source.calculateFee(amount, paymentMethodType);
+        }
+        long total = evaluator.percentage(unscaled.longValue()) + evaluator.fixed;
+        int scale = evaluator.totalScale;
+        if (total < evaluator.minimum) {
+            total = evaluator.minimum;
+            scale = evaluator.minimumScale;
+        }
+        if (total > evaluator.maximum) {
+            total = evaluator.maximum;
+            scale = evaluator.maximumScale;
+        }
+        return new Money(BigDecimal.valueOf(total, currency.getMinorUnitDigits()).setScale(scale), currency);
+    }
+
+    public FeeStructure getSource() {
+        return source;
+    }
+
+    /**
+     * Rates the structure was compiled with, or null if fees in other currencies are ignored.
+     */
+    public FxRates getFxRates() {
+        return fxRates;
+    }
+
+    private Evaluator evaluator(Currency currency, PaymentMethodType paymentMethodType) {
+        Evaluator evaluator =
+                evaluators[currency.ordinal() * SLOTS + (paymentMethodType != null ? paymentMethodType.ordinal() + 1 : 0)];
+        if (evaluator == null) {
+            throw new FxRateNotAvailableException(missingRates[currency.ordinal()], currency);
+        }
+        return evaluator;
+    }
+
+    /**
+     * Fee of one currency and payment method. The percentage is {@code numerator / divisor}
+     * per minor unit ({@code percent / 100}); products up to {@code maxFastAmount} fit a long.
+     */
+    private static final class Evaluator {
+
+        private final BigDecimal percent;
+        private final long numerator;
+        private final long divisor;
+        private final long maxFastAmount;
+        private final long fixed;
+        private final long minimum;
+        private final long maximum;
+        private final int totalScale;
+        private final int minimumScale;
+        private final int maximumScale;
+        private final boolean exact;
+
+        private Evaluator(BigDecimal percent, long numerator, long divisor, long maxFastAmount,
+                          long fixed, long minimum, long maximum,
+                          int totalScale, int minimumScale, int maximumScale, boolean exact) {
+            this.percent = percent;
+            this.numerator = numerator;
+            this.divisor = divisor;
+            this.maxFastAmount = maxFastAmount;
+            this.fixed = fixed;
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.totalScale = totalScale;
+            this.minimumScale = minimumScale;
+            this.maximumScale = maximumScale;
+            this.exact = exact;
+        }
+
+        static Evaluator of(FeeStructure fees, Currency currency, PaymentMethodType method, FxRates fxRates) {
+            int digits = currency.getMinorUnitDigits();
+            BigDecimal percent = fees.percentageFee() != null ? fees.percentageFee() : BigDecimal.ZERO;
+            if (method != null && fees.paymentMethodSurcharges() != null
+                    && fees.paymentMethodSurcharges().get(method) != null) {
+                percent = percent.add(fees.paymentMethodSurcharges().get(method));
+            }
+            if (percent.scale() < 0) {
+                percent = percent.setScale(0);
+            }
+
+            // percent / 100 = unscaled / 10^(scale + 2); fall back to BigDecimal if that does not fit
+            long numerator = 0;
+            long divisor = 1;
+            long maxFastAmount = -1;
+            if (percent.scale() <= 16 && percent.unscaledValue().bitLength() <= 62) {
+                numerator = percent.unscaledValue().longValue();
+                divisor = BigDecimal.ONE.movePointRight(percent.scale() + 2).longValueExact();
+                maxFastAmount = numerator == 0 ? Long.MAX_VALUE : Long.MAX_VALUE / Math.abs(numerator);
+            }
+
+            boolean exact = true;
+            long fixed = 0;
+            int totalScale = digits;
+            Money fixedFee = inCurrency(fees, fees.fixedFee(), currency, fxRates);
+            if (fixedFee != null) {
+                fixed = minorUnits(fixedFee.getAmount(), digits);
+                totalScale = Math.max(digits, fixedFee.getAmount().scale());
+                exact &= isMinorUnits(fixedFee.getAmount(), digits);
+            }
+            long minimum = Long.MIN_VALUE;
+            int minimumScale = digits;
+            Money minimumFee = inCurrency(fees, fees.minimumFee(), currency, fxRates);
+            if (minimumFee != null) {
+                minimum = minorUnits(minimumFee.getAmount(), digits);
+                minimumScale = minimumFee.getAmount().scale();
+                exact &= isMinorUnits(minimumFee.getAmount(), digits);
+            }
+            long maximum = Long.MAX_VALUE;
+            int maximumScale = digits;
+            Money maximumFee = inCurrency(fees, fees.maximumFee(), currency, fxRates);
+            if (maximumFee != null) {
+                maximum = minorUnits(maximumFee.getAmount(), digits);
+                maximumScale = maximumFee.getAmount().scale();
+                exact &= isMinorUnits(maximumFee.getAmount(), digits);
+            }
+            return new Evaluator(percent, numerator, divisor, maxFastAmount, fixed, minimum, maximum,
+                    totalScale, minimumScale, maximumScale, exact);
+        }
+
+        long fee(long amount) {
+            long total = percentage(amount) + fixed;
+            if (total < minimum) {
+                total = minimum;
+            }
+            if (total > maximum) {
+                total = maximum;
+            }
+            return total;
+        }
+
+        /**
+         * {@code amount * percent / 100} rounded half-up to minor units.
+         */
+        long percentage(long amount) {
+            if (amount < 0 || amount > maxFastAmount) {
+                return BigDecimal.valueOf(amount).multiply(percent)
+                        .divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValueExact();
+            }
+            long product = amount * numerator;
+            long quotient = product / divisor;
+            long remainder = product % divisor;
+            // Half-up: round away from zero when the remainder is at least half the divisor
+            return Math.abs(remainder) >= divisor - Math.abs(remainder) ? quotient + Long.signum(product) : quotient;
+        }
+
+        /**
+         * Fee applying to payments in {@code currency}: converted with rates, otherwise only
+         * fees already in that currency.
+         */
+        private static Money inCurrency(FeeStructure fees, Money fee, Currency currency, FxRates fxRates) {
+            if (fxRates == null) {
+                return fee != null && fee.getCurrency() == currency ? fee : null;
+            }
+            return fees.convertFee(fee, currency, fxRates);
+        }
+
+        private static long minorUnits(BigDecimal amount, int digits) {
+            return amount.setScale(digits, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+
+        private static boolean isMinorUnits(BigDecimal amount, int digits) {
+            return amount.stripTrailingZeros().scale() <= digits;
+        }
+    }
+}
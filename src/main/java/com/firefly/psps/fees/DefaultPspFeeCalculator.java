@@ -0,0 +1,191 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link PspFeeCalculator} over fixed {@link FeeStructure}s, converting fees quoted in
+ * another currency than the payment with an {@link FxRateProvider}.
+ *
+ * Structures are compiled against the provider's current {@link FxRates} snapshot and
+ * recompiled only when a different snapshot is returned, so fee calculations and
+ * {@link #compareFees} involve no rate lookups or conversions per call. Fees are always
+ * expressed in the payment currency and are comparable across providers whatever the
+ * currency of their price list; a fee without a rate to the payment currency fails with
+ * {@link FxRateNotAvailableException}. Without a provider, fees in other currencies are
+ * ignored as by {@link FeeStructure#calculateFee(Money, PaymentMethodType)}.
+ */
+public class DefaultPspFeeCalculator implements PspFeeCalculator {
+
+    private final Map<String, FeeStructure> feeStructures;
+    private final FxRateProvider fxRateProvider;
+    private final AtomicReference<Compiled> compiled;
+
+    public DefaultPspFeeCalculator(Collection<FeeStructure> feeStructures) {
+        this(feeStructures, null);
+    }
+
+    /**
+     * @param feeStructures fee structure per provider
+     * @param fxRateProvider rates converting fees quoted in another currency, or null to ignore such fees
+     */
+    public DefaultPspFeeCalculator(Collection<FeeStructure> feeStructures, FxRateProvider fxRateProvider) {
+        Map<String, FeeStructure> byProvider = new LinkedHashMap<>();
+        for (FeeStructure feeStructure : feeStructures) {
+            if (byProvider.put(feeStructure.providerName(), feeStructure) != null) {
+                throw new IllegalArgumentException("Duplicate fee structure for provider: " + feeStructure.providerName());
+            }
+        }
+        this.feeStructures = Map.copyOf(byProvider);
+        this.fxRateProvider = fxRateProvider;
+        this.compiled = new AtomicReference<>(compile(rates()));
+    }
+
+    @Override
+    public Money calculatePaymentFee(String providerName, Money amount, PaymentMethodType paymentMethodType) {
+        return compiled(providerName).calculateFee(amount, paymentMethodType);
+    }
+
+    /**
+     * Fee in minor units, without allocating.
+     */
+    public long calculatePaymentFeeMinorUnits(
+            String providerName, long amountMinorUnits, Currency currency, PaymentMethodType paymentMethodType) {
+        return compiled(providerName).calculateFeeMinorUnits(amountMinorUnits, currency, paymentMethodType);
+    }
+
+    @Override
+    public Money calculateNetAmount(String providerName, Money grossAmount, PaymentMethodType paymentMethodType) {
+        Money fee = calculatePaymentFee(providerName, grossAmount, paymentMethodType);
+        return new Money(grossAmount.getAmount().subtract(fee.getAmount()).max(BigDecimal.ZERO),
+                grossAmount.getCurrency());
+    }
+
+    @Override
+    public Money calculateRefundFee(String providerName, Money refundAmount) {
+        if (!compiled(providerName).getSource().chargesForRefunds()) {
+            return new Money(BigDecimal.ZERO, refundAmount.getCurrency());
+        }
+        return calculatePaymentFee(providerName, refundAmount, null);
+    }
+
+    /**
+     * Chargeback fee converted to {@code currency}; zero if none is configured.
+     *
+     * @throws FxRateNotAvailableException if the fee is in another currency without a rate
+     */
+    @Override
+    public Money calculateChargebackFee(String providerName, Currency currency) {
+        Compiled current = current();
+        CompiledFeeStructure structure = compiled(current, providerName);
+        Money chargebackFee = structure.getSource().chargebackFee();
+        if (chargebackFee != null && current.fxRates() != null) {
+            chargebackFee = structure.getSource().convertFee(chargebackFee, currency, current.fxRates());
+        }
+        return chargebackFee != null && chargebackFee.getCurrency() == currency
+                ? chargebackFee
+                : new Money(BigDecimal.ZERO, currency);
+    }
+
+    @Override
+    public FeeStructure getFeeStructure(String providerName) {
+        return feeStructures.get(providerName);
+    }
+
+    /**
+     * Rates of the current snapshot, or null without an FX rate provider.
+     */
+    @Override
+    public FxRates getFxRates() {
+        return current().fxRates();
+    }
+
+    @Override
+    public Map<String, Money> compareFees(Money amount, PaymentMethodType paymentMethodType, String... providerNames) {
+        Compiled current = current();
+        Map<String, Money> fees = new LinkedHashMap<>();
+        for (String providerName : providerNames) {
+            CompiledFeeStructure structure = current.structures().get(providerName);
+            if (structure != null) {
+                fees.put(providerName, structure.calculateFee(amount, paymentMethodType));
+            }
+        }
+        return fees;
+    }
+
+    @Override
+    public String getCheapestPsp(Money amount, PaymentMethodType paymentMethodType, String... providerNames) {
+        String cheapest = null;
+        BigDecimal lowest = null;
+        for (Map.Entry<String, Money> fee : compareFees(amount, paymentMethodType, providerNames).entrySet()) {
+            if (lowest == null || fee.getValue().getAmount().compareTo(lowest) < 0) {
+                cheapest = fee.getKey();
+                lowest = fee.getValue().getAmount();
+            }
+        }
+        return cheapest;
+    }
+
+    private CompiledFeeStructure compiled(String providerName) {
+        return compiled(current(), providerName);
+    }
+
+    private static CompiledFeeStructure compiled(Compiled current, String providerName) {
+        CompiledFeeStructure structure = current.structures().get(providerName);
+        if (structure == null) {
+            throw new IllegalArgumentException("No fee structure for provider: " + providerName);
+        }
+        return structure;
+    }
+
+    /**
+     * Structures compiled for the provider's current rates. Concurrent callers seeing a new
+     * snapshot may compile it more than once; all results are equivalent.
+     */
+    private Compiled current() {
+        FxRates rates = rates();
+        Compiled current = compiled.get();
+        if (current.fxRates() == rates) {
+            return current;
+        }
+        Compiled next = compile(rates);
+        compiled.compareAndSet(current, next);
+        return next;
+    }
+
+    private FxRates rates() {
+        return fxRateProvider != null ? fxRateProvider.getRates() : null;
+    }
+
+    private Compiled compile(FxRates rates) {
+        Map<String, CompiledFeeStructure> structures = new LinkedHashMap<>();
+        feeStructures.forEach((providerName, feeStructure) -> structures.put(providerName, feeStructure.compile(rates)));
+        return new Compiled(rates, Map.copyOf(structures));
+    }
+
+    private record Compiled(FxRates fxRates, Map<String, CompiledFeeStructure> structures) {}
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.adapter.ports.ReconciliationPort;
+import com.firefly.psps.adapter.ports.ReconciliationPort.PspTransaction;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.domain.PaymentStatus;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Streaming comparison of the fees a PSP charged against its configured {@link FeeStructure}.
+ *
+ * Settlement transactions are folded one by one into fixed-size counters per currency and
+ * payment method, so memory does not depend on how many transactions or days are
+ * processed. Transactions whose fee exceeds the expected fee by more than the tolerance
+ * are flagged as overcharges:
+ * <pre>
+ * Flux&lt;PspTransaction&gt; transactions = FeeCostAnalyzer.transactions(reconciliationPort, from, to);
+ * analyzer.dailySummaries("stripe", transactions)
+ *         .filter(summary -&gt; summary.overchargeCount() &gt; 0)
+ *         .subscribe(summary -&gt; log.warn("Overcharged: {}", summary));
+ * </pre>
+ *
+ * Only settled payments (succeeded, partially refunded, or without status) are priced
+ * against the fee structure. Refunded and disputed payments, refund and chargeback
+ * transactions (a {@code type} starting with "refund", "chargeback" or "dispute"), other
+ * statuses, fees in a currency other than the payment's and payments whose expected fee
+ * needs an FX rate the calculator does not have are counted as skipped. Fees quoted in another
+ * currency than the payment are converted at the calculator's {@link PspFeeCalculator#getFxRates()}.
+ * The payment method is resolved from the transaction {@code type} by default.
+ */
+public final class FeeCostAnalyzer {
+
+    public static final int DEFAULT_MAX_OVERCHARGES = 100;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final PaymentMethodType[] METHODS = PaymentMethodType.values();
+    private static final int SLOTS = METHODS.length + 1;
+
+    private final PspFeeCalculator feeCalculator;
+    private final Function<PspTransaction, PaymentMethodType> paymentMethodResolver;
+    private final long toleranceMinorUnits;
+    private final int maxOvercharges;
+
+    public FeeCostAnalyzer(PspFeeCalculator feeCalculator) {
+        this(feeCalculator, FeeCostAnalyzer::paymentMethod, 0, DEFAULT_MAX_OVERCHARGES);
+    }
+
+    /**
+     * @param feeCalculator source of the expected fee structures
+     * @param paymentMethodResolver payment method of a transaction, or null for no surcharge
+     * @param toleranceMinorUnits fee difference per transaction tolerated before flagging an overcharge
+     * @param maxOvercharges maximum number of flagged transactions kept in a report
+     */
+    public FeeCostAnalyzer(
+            PspFeeCalculator feeCalculator,
+            Function<PspTransaction, PaymentMethodType> paymentMethodResolver,
+            long toleranceMinorUnits,
+            int maxOvercharges) {
+        this.feeCalculator = feeCalculator;
+        this.paymentMethodResolver = paymentMethodResolver;
+        this.toleranceMinorUnits = toleranceMinorUnits;
+        this.maxOvercharges = maxOvercharges;
+    }
+
+    /**
+     * Transactions of a date range, fetched one day at a time.
+     *
+     * @param startDate start date (inclusive)
+     * @param endDate end date (inclusive)
+     */
+    public static Flux<PspTransaction> transactions(
+            ReconciliationPort reconciliationPort, LocalDate startDate, LocalDate endDate) {
+        return Flux.fromStream(() -> startDate.datesUntil(endDate.plusDays(1)))
+                .concatMap(date -> reconciliationPort.getPspTransactions(date).flatMapIterable(list -> list));
+    }
+
+    /**
+     * One summary per day, currency and payment method, emitted as soon as the stream moves
+     * past the day. Transactions are expected grouped by date, as {@link #transactions} returns
+     * them; a date that reappears later yields additional summaries for that date.
+     */
+    public Flux<CostSummary> dailySummaries(String providerName, Flux<PspTransaction> transactions) {
+        return Flux.defer(() -> {
+            CompiledFeeStructure fees = compile(providerName);
+            return transactions
+                    .windowUntilChanged(transaction -> Optional.ofNullable(transaction.transactionDate()))
+                    .concatMap(day -> day.reduceWith(() -> new Accumulator(fees, 0), Accumulator::add))
+                    .concatMapIterable(accumulator -> accumulator.summaries(providerName, accumulator.startDate));
+        });
+    }
+
+    /**
+     * Totals per currency and payment method over the whole stream, with the first flagged
+     * overcharges.
+     */
+    public Mono<FeeCostReport> report(String providerName, Flux<PspTransaction> transactions) {
+        return Mono.defer(() -> {
+            CompiledFeeStructure fees = compile(providerName);
+            return transactions
+                    .reduceWith(() -> new Accumulator(fees, maxOvercharges), Accumulator::add)
+                    .map(accumulator -> accumulator.report(providerName));
+        });
+    }
+
+    /**
+     * Default payment method resolver: the transaction {@code type} if it names a
+     * {@link PaymentMethodType}, null otherwise.
+     */
+    public static PaymentMethodType paymentMethod(PspTransaction transaction) {
+        String type = transaction.type();
+        if (type == null) {
+            return null;
+        }
+        for (PaymentMethodType method : METHODS) {
+            if (method.name().equalsIgnoreCase(type)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether a transaction is a settled payment whose fee the payment fee structure prices.
+     */
+    static boolean isSettledPayment(PspTransaction transaction) {
+        PaymentStatus status = transaction.status();
+        if (status != null && status != PaymentStatus.SUCCEEDED && status != PaymentStatus.PARTIALLY_REFUNDED) {
+            return false;
+        }
+        String type = transaction.type();
+        if (type == null) {
+            return true;
+        }
+        String lower = type.toLowerCase(Locale.ROOT);
+        return !lower.startsWith("refund") && !lower.startsWith("chargeback") && !lower.startsWith("dispute");
+    }
+
+    private CompiledFeeStructure compile(String providerName) {
+        FeeStructure feeStructure = feeCalculator.getFeeStructure(providerName);
+        if (feeStructure == null) {
+            throw new IllegalArgumentException("No fee structure for provider: " + providerName);
+        }
+        return feeStructure.compile(feeCalculator.getFxRates());
+    }
+
+    private static long minorUnits(Money money) {
+        return money.getAmount()
+                .setScale(money.getCurrency().getMinorUnitDigits(), RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+    }
+
+    /**
+     * Fee totals of one provider for a day (or the whole stream when {@code date} is null),
+     * currency and payment method.
+     *
+     * @param paymentMethodType payment method, or null for transactions without one
+     */
+    public record CostSummary(
+            String providerName,
+            LocalDate date,
+            Currency currency,
+            PaymentMethodType paymentMethodType,
+            long transactionCount,
+            Money volume,
+            Money expectedFees,
+            Money actualFees,
+            long overchargeCount,
+            Money overchargedAmount
+    ) {
+        /**
+         * Actual minus expected fees in minor units; negative when the PSP charged less.
+         */
+        public long differenceMinorUnits() {
+            return minorUnits(actualFees) - minorUnits(expectedFees);
+        }
+    }
+
+    /**
+     * Transaction charged more than the configured fee structure allows.
+     */
+    public record Overcharge(
+            String transactionId,
+            String paymentId,
+            LocalDate date,
+            PaymentMethodType paymentMethodType,
+            Money amount,
+            Money expectedFee,
+            Money actualFee
+    ) {}
+
+    /**
+     * Fee comparison over a whole transaction stream.
+     *
+     * @param startDate earliest transaction date, or null if no transaction had one
+     * @param endDate latest transaction date, or null if no transaction had one
+     * @param overcharges first flagged transactions, at most the analyzer's {@code maxOvercharges}
+     */
+    public record FeeCostReport(
+            String providerName,
+            LocalDate startDate,
+            LocalDate endDate,
+            long transactionCount,
+            long skippedCount,
+            List<CostSummary> totals,
+            List<Overcharge> overcharges
+    ) {}
+
+    /**
+     * Counters indexed by {@code currency * SLOTS + paymentMethod + 1} (slot 0 of a currency
+     * holds transactions without a payment method). Used by a single subscriber at a time.
+     */
+    private final class Accumulator {
+
+        private final CompiledFeeStructure fees;
+        private final int overchargeLimit;
+        private final long[] transactionCounts = new long[CURRENCIES.length * SLOTS];
+        private final long[] volumes = new long[CURRENCIES.length * SLOTS];
+        private final long[] expectedFees = new long[CURRENCIES.length * SLOTS];
+        private final long[] actualFees = new long[CURRENCIES.length * SLOTS];
+        private final long[] overchargeCounts = new long[CURRENCIES.length * SLOTS];
+        private final long[] overchargedAmounts = new long[CURRENCIES.length * SLOTS];
+        private final List<Overcharge> overcharges = new ArrayList<>();
+        private long transactionCount;
+        private long skippedCount;
+        private LocalDate startDate;
+        private LocalDate endDate;
+
+        Accumulator(CompiledFeeStructure fees, int overchargeLimit) {
+            this.fees = fees;
+            this.overchargeLimit = overchargeLimit;
+        }
+
+        Accumulator add(PspTransaction transaction) {
+            Money amount = transaction.amount();
+            Money fee = transaction.fee();
+            if (amount == null || !isSettledPayment(transaction)
+                    || (fee != null && fee.getCurrency() != amount.getCurrency())) {
+                skippedCount++;
+                return this;
+            }
+
+            PaymentMethodType method = paymentMethodResolver.apply(transaction);
+            Money expectedFee;
+            try {
+                expectedFee = fees.calculateFee(amount, method);
+            } catch (FxRateNotAvailableException e) {
+                skippedCount++;
+                return this;
+            }
+            long expected = minorUnits(expectedFee);
+            long actual = fee != null ? minorUnits(fee) : 0;
+
+            int slot = amount.getCurrency().ordinal() * SLOTS + (method != null ? method.ordinal() + 1 : 0);
+            transactionCounts[slot]++;
+            volumes[slot] += minorUnits(amount);
+            expectedFees[slot] += expected;
+            actualFees[slot] += actual;
+            if (actual - expected > toleranceMinorUnits) {
+                overchargeCounts[slot]++;
+                overchargedAmounts[slot] += actual - expected;
+                if (overcharges.size() < overchargeLimit) {
+                    overcharges.add(new Overcharge(transaction.transactionId(), transaction.paymentId(),
+                            transaction.transactionDate(), method, amount, expectedFee, fee));
+                }
+            }
+
+            transactionCount++;
+            LocalDate date = transaction.transactionDate();
+            if (date != null) {
+                startDate = startDate == null || date.isBefore(startDate) ? date : startDate;
+                endDate = endDate == null || date.isAfter(endDate) ? date : endDate;
+            }
+            return this;
+        }
+
+        List<CostSummary> summaries(String providerName, LocalDate date) {
+            List<CostSummary> summaries = new ArrayList<>();
+            for (int slot = 0; slot < transactionCounts.length; slot++) {
+                if (transactionCounts[slot] == 0) {
+                    continue;
+                }
+                Currency currency = CURRENCIES[slot / SLOTS];
+                summaries.add(new CostSummary(
+                        providerName,
+                        date,
+                        currency,
+                        slot % SLOTS == 0 ? null : METHODS[slot % SLOTS - 1],
+                        transactionCounts[slot],
+                        Money.ofMinorUnits(volumes[slot], currency),
+                        Money.ofMinorUnits(expectedFees[slot], currency),
+                        Money.ofMinorUnits(actualFees[slot], currency),
+                        overchargeCounts[slot],
+                        Money.ofMinorUnits(overchargedAmounts[slot], currency)));
+            }
+            return summaries;
+        }
+
+        FeeCostReport report(String providerName) {
+            return new FeeCostReport(providerName, startDate, endDate, transactionCount, skippedCount,
+                    summaries(providerName, null), List.copyOf(overcharges));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+/**
+ * Source of the FX rates used to convert fees quoted in another currency than the payment.
+ *
+ * Implementations return an immutable snapshot and replace it as a whole when rates change,
+ * so callers can cache work derived from a snapshot until a different instance is returned.
+ */
+@FunctionalInterface
+public interface FxRateProvider {
+
+    /**
+     * Current rates. Must be cheap: called on every fee calculation.
+     */
+    FxRates getRates();
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.exceptions.PspConfigurationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Immutable snapshot of FX rates between the supported currencies.
+ *
+ * Rates are held in a flat array indexed by the currency ordinals. Inverse rates and
+ * cross rates through one intermediate currency are derived when the snapshot is built,
+ * so a lookup is a single array read.
+ *
+ * Rates are loaded from a CSV file with the columns {@code base,quote,rate}, where one
+ * unit of {@code base} buys {@code rate} units of {@code quote}:
+ * <pre>
+ * # base,quote,rate
+ * EUR,USD,1.0850
+ * EUR,GBP,0.8550
+ * </pre>
+ * Lines starting with {@code #} and a header line are skipped.
+ */
+public final class FxRates {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+    private static final FxRates EMPTY = new FxRates(new BigDecimal[CURRENCIES.length * CURRENCIES.length]);
+
+    private final BigDecimal[] rates;
+
+    private FxRates(BigDecimal[] rates) {
+        this.rates = rates;
+    }
+
+    public static FxRates empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Load rates from a CSV file.
+     *
+     * @throws PspConfigurationException if the file cannot be read or a line is invalid
+     */
+    public static FxRates load(Path csv) {
+        try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return parse(reader, csv.toString());
+        } catch (IOException e) {
+            throw new PspConfigurationException("Cannot read FX rates " + csv + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parse rates from CSV.
+     *
+     * @param source name used in error messages
+     */
+    public static FxRates parse(Reader csv, String source) throws IOException {
+        Builder builder = builder();
+        BufferedReader reader = csv instanceof BufferedReader buffered ? buffered : new BufferedReader(csv);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")
+                    || (lineNumber == 1 && trimmed.toLowerCase(Locale.ROOT).startsWith("base"))) {
+                continue;
+            }
+            String[] columns = trimmed.split(",", -1);
+            try {
+                if (columns.length < 3) {
+                    throw new IllegalArgumentException("expected base,quote,rate");
+                }
+                builder.rate(Currency.valueOf(columns[0].trim().toUpperCase(Locale.ROOT)),
+                        Currency.valueOf(columns[1].trim().toUpperCase(Locale.ROOT)),
+                        new BigDecimal(columns[2].trim()));
+            } catch (IllegalArgumentException e) {
+                throw new PspConfigurationException(
+                        "Invalid FX rate line " + lineNumber + " in " + source + ": " + e.getMessage());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Units of {@code to} bought by one unit of {@code from}.
+     *
+     * @return rate, 1 for the same currency, or null if no rate is known
+     */
+    public BigDecimal rate(Currency from, Currency to) {
+        return from == to ? BigDecimal.ONE : rates[from.ordinal() * CURRENCIES.length + to.ordinal()];
+    }
+
+    /**
+     * Whether an amount in {@code from} can be converted to {@code to}.
+     */
+    public boolean hasRate(Currency from, Currency to) {
+        return rate(from, to) != null;
+    }
+
+    /**
+     * Convert an amount, rounding half-up to the minor unit of {@code to}.
+     *
+     * @return the amount itself if already in {@code to} (or null), otherwise the converted amount
+     * @throws FxRateNotAvailableException if no rate is known
+     */
+    public Money convert(Money money, Currency to) {
+        if (money == null || money.getCurrency() == to) {
+            return money;
+        }
+        BigDecimal rate = rate(money.getCurrency(), to);
+        if (rate == null) {
+            throw new FxRateNotAvailableException(money.getCurrency(), to);
+        }
+        return new Money(money.getAmount().multiply(rate).setScale(to.getMinorUnitDigits(), RoundingMode.HALF_UP), to);
+    }
+
+    public boolean isEmpty() {
+        for (BigDecimal rate : rates) {
+            if (rate != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FxRates other && Arrays.equals(rates, other.rates);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(rates);
+    }
+
+    public static final class Builder {
+
+        private final BigDecimal[] rates = new BigDecimal[CURRENCIES.length * CURRENCIES.length];
+
+        private Builder() {
+        }
+
+        /**
+         * Add a rate: one unit of {@code base} buys {@code rate} units of {@code quote}.
+         */
+        public Builder rate(Currency base, Currency quote, BigDecimal rate) {
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("FX rate must be positive: " + base + "/" + quote);
+            }
+            if (base != quote) {
+                rates[base.ordinal() * CURRENCIES.length + quote.ordinal()] = rate;
+            }
+            return this;
+        }
+
+        public FxRates build() {
+            int n = CURRENCIES.length;
+            BigDecimal[] direct = rates.clone();
+            for (int from = 0; from < n; from++) {
+                for (int to = 0; to < n; to++) {
+                    BigDecimal inverse = rates[to * n + from];
+                    if (from != to && direct[from * n + to] == null && inverse != null) {
+                        direct[from * n + to] = BigDecimal.ONE.divide(inverse, PRECISION);
+                    }
+                }
+            }
+            // Cross rates through the first currency (in enum order) quoted against both
+            BigDecimal[] complete = direct.clone();
+            for (int from = 0; from < n; from++) {
+                for (int to = 0; to < n; to++) {
+                    if (from == to || complete[from * n + to] != null) {
+                        continue;
+                    }
+                    for (int via = 0; via < n; via++) {
+                        if (direct[from * n + via] != null && direct[via * n + to] != null) {
+                            complete[from * n + to] = direct[from * n + via].multiply(direct[via * n + to], PRECISION);
+                            break;
+                        }
+                    }
+                }
+            }
+            return new FxRates(complete);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package com.firefly.psps.fees;
 import com.firefly.psps.domain.Currency;
 import com.firefly.psps.domain.Money;
 import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
 
 import java.math.BigDecimal;
 import java.util.Map;
@@ -122,6 +123,16 @@ public interface PspFeeCalculator {
             PaymentMethodType paymentMethodType,
             String... providerNames);
 
+    /**
+     * FX rates used to convert fees quoted in another currency than the payment.
+     *
+     * @return rates snapshot, or null if the calculator does not convert currencies and
+     *         ignores such fees like {@link FeeStructure#calculateFee(Money, PaymentMethodType)}
+     */
+    default FxRates getFxRates() {
+        return null;
+    }
+
     /**
      * Fee structure for a PSP.
      */
@@ -174,5 +185,77 @@ public interface PspFeeCalculator {
             
             return new Money(totalFee, amount.getCurrency());
         }
+
+        /**
+         * Calculate fee for a given amount, converting fixed, minimum and maximum fees quoted
+         * in another currency than the payment (see {@link #convertFee}).
+         *
+         * @param fxRates rates to convert with, or null to use only the PSP's {@code currencyRates}
+         * @throws FxRateNotAvailableException if such a fee has no rate
+         *         to the payment currency
+         */
+        public Money calculateFee(Money amount, PaymentMethodType paymentMethodType, FxRates fxRates) {
+            Currency currency = amount.getCurrency();
+            BigDecimal basePercentage = percentageFee;
+            if (paymentMethodType != null && paymentMethodSurcharges != null
+                    && paymentMethodSurcharges.get(paymentMethodType) != null) {
+                basePercentage = basePercentage.add(paymentMethodSurcharges.get(paymentMethodType));
+            }
+            BigDecimal totalFee = amount.getAmount()
+                    .multiply(basePercentage)
+                    .divide(BigDecimal.valueOf(100), amount.getAmount().scale(), java.math.RoundingMode.HALF_UP);
+
+            Money fixed = convertFee(fixedFee, currency, fxRates);
+            Money minimum = convertFee(minimumFee, currency, fxRates);
+            Money maximum = convertFee(maximumFee, currency, fxRates);
+            if (fixed != null) {
+                totalFee = totalFee.add(fixed.getAmount());
+            }
+            if (minimum != null && totalFee.compareTo(minimum.getAmount()) < 0) {
+                totalFee = minimum.getAmount();
+            }
+            if (maximum != null && totalFee.compareTo(maximum.getAmount()) > 0) {
+                totalFee = maximum.getAmount();
+            }
+            return new Money(totalFee, currency);
+        }
+
+        /**
+         * Convert a fee of this structure to the payment currency, rounding half-up to its
+         * minor unit. The PSP's own rate in {@code currencyRates} (units of the payment currency
+         * per unit of the fee currency) takes precedence over {@code fxRates}.
+         *
+         * @param fxRates rates to convert with, or null to use only the PSP's {@code currencyRates}
+         * @return the fee itself if null or already in {@code currency}, otherwise the converted fee
+         * @throws FxRateNotAvailableException if no rate is known
+         */
+        public Money convertFee(Money fee, Currency currency, FxRates fxRates) {
+            if (fee == null || fee.getCurrency() == currency) {
+                return fee;
+            }
+            BigDecimal rate = currencyRates != null ? currencyRates.get(currency) : null;
+            if (rate != null) {
+                return new Money(fee.getAmount().multiply(rate)
+                        .setScale(currency.getMinorUnitDigits(), java.math.RoundingMode.HALF_UP), currency);
+            }
+            if (fxRates == null) {
+                throw new FxRateNotAvailableException(fee.getCurrency(), currency);
+            }
+            return fxRates.convert(fee, currency);
+        }
+
+        /**
+         * Precompile this structure into a minor-unit fee evaluator.
+         */
+        public CompiledFeeStructure compile() {
+            return CompiledFeeStructure.compile(this);
+        }
+
+        /**
+         * Precompile this structure with fees in other currencies converted at {@code fxRates}.
+         */
+        public CompiledFeeStructure compile(FxRates fxRates) {
+            return CompiledFeeStructure.compile(this, fxRates);
+        }
     }
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link PspFeeCalculator} for volume-tiered fee schedules.
+ *
+ * The effective tier of a provider is looked up from its running monthly volume in the
+ * {@link VolumeTracker}, so estimates follow the month's volume without a database query
+ * per payment. Every tier is precompiled into a {@link CompiledFeeStructure} when the
+ * calculator is created; picking a tier is a scan of a short {@code long[]} of thresholds.
+ *
+ * Volume is added by {@link #recordVolume}, typically once a payment is captured. It
+ * returns true when the provider moves into another tier, which is the moment to call
+ * {@code DefaultPspRouter.refreshFees()} so cost routing sees the new rates. The tier
+ * change is derived from the total returned by the volume counter's own add, so exactly
+ * one of several concurrent payments reports each threshold crossed.
+ *
+ * Tiers count volume in the schedule's currency. With an {@link FxRateProvider}, payments
+ * in other currencies are converted at the rates current when they are recorded and
+ * tracked as schedule-currency volume; without one, or without a rate for the currency,
+ * they are tracked in their own currency and do not count toward the tier.
+ */
+public class TieredFeeCalculator implements PspFeeCalculator {
+
+    private final Map<String, CompiledSchedule> schedules;
+    private final VolumeTracker volumeTracker;
+    private final FxRateProvider fxRateProvider;
+
+    public TieredFeeCalculator(Collection<TieredFeeSchedule> schedules, VolumeTracker volumeTracker) {
+        this(schedules, volumeTracker, null);
+    }
+
+    /**
+     * @param fxRateProvider rates converting volume in other currencies to the schedule's
+     *                       currency, or null to count only volume in the schedule's currency
+     */
+    public TieredFeeCalculator(
+            Collection<TieredFeeSchedule> schedules, VolumeTracker volumeTracker, FxRateProvider fxRateProvider) {
+        Map<String, CompiledSchedule> compiled = new LinkedHashMap<>();
+        for (TieredFeeSchedule schedule : schedules) {
+            if (compiled.put(schedule.providerName(), new CompiledSchedule(schedule)) != null) {
+                throw new IllegalArgumentException("Duplicate fee schedule for provider: " + schedule.providerName());
+            }
+        }
+        this.schedules = Map.copyOf(compiled);
+        this.volumeTracker = volumeTracker;
+        this.fxRateProvider = fxRateProvider;
+    }
+
+    /**
+     * Add a processed payment to the provider's monthly volume.
+     *
+     * @return true if the provider moved into another tier
+     */
+    public boolean recordVolume(String providerName, Money amount) {
+        CompiledSchedule schedule = schedules.get(providerName);
+        Money volume = schedule != null ? toScheduleCurrency(schedule, amount) : null;
+        if (volume == null) {
+            volumeTracker.record(providerName, amount);
+            return false;
+        }
+        long minorUnits = volume.getAmount()
+                .setScale(volume.getCurrency().getMinorUnitDigits(), RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+        long after = volumeTracker.record(providerName, volume.getCurrency(), minorUnits);
+        return schedule.tier(after - minorUnits) != schedule.tier(after);
+    }
+
+    /**
+     * The amount in the schedule's currency, or null if it cannot be converted.
+     */
+    private Money toScheduleCurrency(CompiledSchedule schedule, Money amount) {
+        Currency currency = schedule.schedule.currency();
+        if (amount.getCurrency() == currency) {
+            return amount;
+        }
+        FxRates rates = fxRateProvider != null ? fxRateProvider.getRates() : null;
+        return rates != null && rates.hasRate(amount.getCurrency(), currency) ? rates.convert(amount, currency) : null;
+    }
+
+    /**
+     * Index of the provider's current tier (-1 below the first tier or without a schedule).
+     */
+    public int currentTier(String providerName) {
+        CompiledSchedule schedule = schedules.get(providerName);
+        return schedule != null ? schedule.tier(volume(schedule)) : -1;
+    }
+
+    @Override
+    public Money calculatePaymentFee(String providerName, Money amount, PaymentMethodType paymentMethodType) {
+        return compiled(providerName).calculateFee(amount, paymentMethodType);
+    }
+
+    /**
+     * Fee in minor units, without allocating.
+     */
+    public long calculatePaymentFeeMinorUnits(
+            String providerName, long amountMinorUnits, Currency currency, PaymentMethodType paymentMethodType) {
+        return compiled(providerName).calculateFeeMinorUnits(amountMinorUnits, currency, paymentMethodType);
+    }
+
+    @Override
+    public Money calculateNetAmount(String providerName, Money grossAmount, PaymentMethodType paymentMethodType) {
+        Money fee = calculatePaymentFee(providerName, grossAmount, paymentMethodType);
+        return new Money(grossAmount.getAmount().subtract(fee.getAmount()).max(BigDecimal.ZERO),
+                grossAmount.getCurrency());
+    }
+
+    @Override
+    public Money calculateRefundFee(String providerName, Money refundAmount) {
+        if (!schedule(providerName).base().chargesForRefunds()) {
+            return new Money(BigDecimal.ZERO, refundAmount.getCurrency());
+        }
+        return calculatePaymentFee(providerName, refundAmount, null);
+    }
+
+    @Override
+    public Money calculateChargebackFee(String providerName, Currency currency) {
+        Money chargebackFee = schedule(providerName).base().chargebackFee();
+        return chargebackFee != null && chargebackFee.getCurrency() == currency
+                ? chargebackFee
+                : new Money(BigDecimal.ZERO, currency);
+    }
+
+    /**
+     * Fee structure of the provider's current tier, or null for unknown providers.
+     */
+    @Override
+    public FeeStructure getFeeStructure(String providerName) {
+        CompiledSchedule schedule = schedules.get(providerName);
+        return schedule != null ? schedule.structures[schedule.tier(volume(schedule)) + 1] : null;
+    }
+
+    @Override
+    public Map<String, Money> compareFees(Money amount, PaymentMethodType paymentMethodType, String... providerNames) {
+        Map<String, Money> fees = new LinkedHashMap<>();
+        for (String providerName : providerNames) {
+            if (schedules.containsKey(providerName)) {
+                fees.put(providerName, calculatePaymentFee(providerName, amount, paymentMethodType));
+            }
+        }
+        return fees;
+    }
+
+    @Override
+    public String getCheapestPsp(Money amount, PaymentMethodType paymentMethodType, String... providerNames) {
+        String cheapest = null;
+        BigDecimal lowest = null;
+        for (Map.Entry<String, Money> fee : compareFees(amount, paymentMethodType, providerNames).entrySet()) {
+            if (lowest == null || fee.getValue().getAmount().compareTo(lowest) < 0) {
+                cheapest = fee.getKey();
+                lowest = fee.getValue().getAmount();
+            }
+        }
+        return cheapest;
+    }
+
+    public VolumeTracker getVolumeTracker() {
+        return volumeTracker;
+    }
+
+    private CompiledFeeStructure compiled(String providerName) {
+        CompiledSchedule schedule = schedules.get(providerName);
+        if (schedule == null) {
+            throw new IllegalArgumentException("No fee schedule for provider: " + providerName);
+        }
+        return schedule.compiled[schedule.tier(volume(schedule)) + 1];
+    }
+
+    private TieredFeeSchedule schedule(String providerName) {
+        CompiledSchedule schedule = schedules.get(providerName);
+        if (schedule == null) {
+            throw new IllegalArgumentException("No fee schedule for provider: " + providerName);
+        }
+        return schedule.schedule;
+    }
+
+    private long volume(CompiledSchedule schedule) {
+        return volumeTracker.getVolume(schedule.schedule.providerName(), schedule.schedule.currency());
+    }
+
+    /**
+     * Thresholds in minor units and the compiled structure of each tier (index 0 = base).
+     */
+    private static final class CompiledSchedule {
+
+        private final TieredFeeSchedule schedule;
+        private final long[] thresholds;
+        private final FeeStructure[] structures;
+        private final CompiledFeeStructure[] compiled;
+
+        CompiledSchedule(TieredFeeSchedule schedule) {
+            this.schedule = schedule;
+            int tiers = schedule.tiers().size();
+            this.thresholds = new long[tiers];
+            this.structures = new FeeStructure[tiers + 1];
+            this.compiled = new CompiledFeeStructure[tiers + 1];
+            for (int i = -1; i < tiers; i++) {
+                structures[i + 1] = schedule.structure(i);
+                compiled[i + 1] = structures[i + 1].compile();
+                if (i >= 0) {
+                    thresholds[i] = schedule.tiers().get(i).fromVolume()
+                            .setScale(schedule.currency().getMinorUnitDigits(), RoundingMode.CEILING)
+                            .unscaledValue().longValueExact();
+                }
+            }
+        }
+
+        int tier(long volume) {
+            int tier = -1;
+            while (tier + 1 < thresholds.length && volume >= thresholds[tier + 1]) {
+                tier++;
+            }
+            return tier;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Fee schedule whose rate depends on the provider's monthly volume.
+ *
+ * The base structure supplies payment method surcharges, minimum and maximum fees,
+ * refund and chargeback terms; each {@link VolumeTier} replaces its percentage and fixed
+ * fee once the month's volume in {@code currency} reaches the tier threshold. Below the
+ * first threshold the base rates apply. For interchange++ pricing, put the scheme and
+ * interchange pass-through in the surcharges and the PSP markup in the tiers:
+ * <pre>
+ * new TieredFeeSchedule("adyen", Currency.EUR, List.of(
+ *         new VolumeTier(new BigDecimal("100000"), new BigDecimal("0.60"), null),
+ *         new VolumeTier(new BigDecimal("1000000"), new BigDecimal("0.45"), null)),
+ *     baseStructure);
+ * </pre>
+ *
+ * @param providerName PSP provider name
+ * @param currency currency the thresholds and the counted volume are expressed in
+ * @param tiers volume tiers, in any order
+ * @param base fee structure below the first tier
+ */
+public record TieredFeeSchedule(
+        String providerName,
+        Currency currency,
+        List<VolumeTier> tiers,
+        FeeStructure base
+) {
+    public TieredFeeSchedule {
+        if (providerName == null || currency == null || base == null) {
+            throw new IllegalArgumentException("Tiered fee schedule needs a provider, a currency and a base structure");
+        }
+        tiers = tiers != null
+                ? tiers.stream().sorted(Comparator.comparing(VolumeTier::fromVolume)).toList()
+                : List.of();
+    }
+
+    /**
+     * Fee structure of a tier: the base structure with the tier's percentage and fixed fee.
+     *
+     * @param tier tier index, or -1 for the base structure
+     */
+    public FeeStructure structure(int tier) {
+        if (tier < 0) {
+            return base;
+        }
+        VolumeTier volumeTier = tiers.get(tier);
+        return new FeeStructure(
+                base.providerName(),
+                volumeTier.percentageFee(),
+                volumeTier.fixedFee() != null ? volumeTier.fixedFee() : base.fixedFee(),
+                base.minimumFee(),
+                base.maximumFee(),
+                base.paymentMethodSurcharges(),
+                base.currencyRates(),
+                base.chargesForRefunds(),
+                base.chargebackFee());
+    }
+
+    /**
+     * Rates applying from a monthly volume.
+     *
+     * @param fromVolume monthly volume (major units of the schedule currency) at which the tier starts
+     * @param percentageFee percentage fee within the tier
+     * @param fixedFee fixed fee within the tier, or null to keep the base fixed fee
+     */
+    public record VolumeTier(BigDecimal fromVolume, BigDecimal percentageFee, Money fixedFee) {
+
+        public VolumeTier {
+            if (fromVolume == null || fromVolume.signum() < 0 || percentageFee == null) {
+                throw new IllegalArgumentException("Volume tier needs a non-negative threshold and a percentage fee");
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Running monthly payment volume per provider and currency, in minor units.
+ *
+ * Volumes are held in an {@link AtomicLongArray} per provider, one slot per currency, so
+ * recording a payment is a single atomic add without locks or allocation, and it returns
+ * the new total: callers can tell exactly which payment crossed a threshold. Months are
+ * calendar months in UTC; when a month ends the counters start again from zero and the
+ * previous month is kept for reporting.
+ *
+ * Counters live in memory only. After a restart, {@link #seed} restores the volume of
+ * the current month from the service's own records.
+ */
+public final class VolumeTracker {
+
+    private static final int CURRENCIES = Currency.values().length;
+
+    private final Clock clock;
+    private volatile Month current;
+    private volatile Month previous;
+
+    public VolumeTracker() {
+        this(Clock.systemUTC());
+    }
+
+    public VolumeTracker(Clock clock) {
+        this.clock = clock;
+        this.current = new Month(YearMonth.now(clock.withZone(ZoneOffset.UTC)));
+    }
+
+    /**
+     * Add a payment to its provider's volume; sub-minor-unit digits are rounded half-up.
+     *
+     * @return volume of the current month in minor units, including this payment
+     */
+    public long record(String providerName, Money amount) {
+        return record(providerName, amount.getCurrency(), amount.getAmount()
+                .setScale(amount.getCurrency().getMinorUnitDigits(), RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact());
+    }
+
+    /**
+     * @return volume of the current month in minor units, including {@code minorUnits}
+     */
+    public long record(String providerName, Currency currency, long minorUnits) {
+        return month().counters(providerName).addAndGet(currency.ordinal(), minorUnits);
+    }
+
+    /**
+     * Add volume processed earlier this month, e.g. loaded from the payment store at startup.
+     */
+    public void seed(String providerName, Currency currency, long minorUnits) {
+        record(providerName, currency, minorUnits);
+    }
+
+    /**
+     * Volume of the current month in minor units.
+     */
+    public long getVolume(String providerName, Currency currency) {
+        AtomicLongArray counters = month().providers.get(providerName);
+        return counters != null ? counters.get(currency.ordinal()) : 0;
+    }
+
+    public YearMonth getCurrentMonth() {
+        return month().month;
+    }
+
+    /**
+     * Non-zero volumes of the current and previous month by month, provider and currency.
+     */
+    public Map<String, Map<String, Map<Currency, Long>>> snapshot() {
+        Map<String, Map<String, Map<Currency, Long>>> snapshot = new LinkedHashMap<>();
+        Month now = month();
+        Month before = previous;
+        if (before != null) {
+            snapshot.put(before.month.toString(), before.snapshot());
+        }
+        snapshot.put(now.month.toString(), now.snapshot());
+        return snapshot;
+    }
+
+    private Month month() {
+        Month month = current;
+        if (clock.millis() < month.endMillis) {
+            return month;
+        }
+        synchronized (this) {
+            month = current;
+            if (clock.millis() >= month.endMillis) {
+                previous = month;
+                month = new Month(YearMonth.now(clock.withZone(ZoneOffset.UTC)));
+                current = month;
+            }
+            return month;
+        }
+    }
+
+    /**
+     * Counters of one calendar month.
+     */
+    private static final class Month {
+
+        private final YearMonth month;
+        private final long endMillis;
+        private final ConcurrentHashMap<String, AtomicLongArray> providers = new ConcurrentHashMap<>();
+
+        Month(YearMonth month) {
+            this.month = month;
+            this.endMillis = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+
+        AtomicLongArray counters(String providerName) {
+            AtomicLongArray counters = providers.get(providerName);
+            if (counters == null) {
+                counters = providers.computeIfAbsent(providerName, key -> new AtomicLongArray(CURRENCIES));
+            }
+            return counters;
+        }
+
+        Map<String, Map<Currency, Long>> snapshot() {
+            Map<String, Map<Currency, Long>> snapshot = new LinkedHashMap<>();
+            providers.forEach((provider, counters) -> {
+                Map<Currency, Long> volumes = new LinkedHashMap<>();
+                for (Currency currency : Currency.values()) {
+                    long volume = counters.get(currency.ordinal());
+                    if (volume != 0) {
+                        volumes.put(currency, volume);
+                    }
+                }
+                snapshot.put(provider, volumes);
+            });
+            return snapshot;
+        }
+    }
+}
@@ -17,15 +17,21 @@
 package com.firefly.psps.health;
 
 import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.adapter.PspAdapterRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
 import org.springframework.boot.actuate.health.Status;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,16 +43,44 @@ import java.util.Map;
  * - Error rates and metrics
  * 
  * Exposed via Spring Boot Actuator /actuator/health endpoint.
+ * 
+ * When a {@link PspHealthMonitor} is available the adapter status is read from its
+ * cache; otherwise the adapter is probed on the bounded elastic scheduler.
+ * 
+ * With several providers (see {@link PspAdapterRegistry}) the status is reported per
+ * provider; the overall status is DEGRADED while at least one provider is healthy.
  */
 @Component("pspHealth")
 public class PspHealthIndicator implements ReactiveHealthIndicator {
 
-    private final PspAdapter pspAdapter;
+    private final List<PspAdapter> pspAdapters;
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final PspHealthMonitor healthMonitor;
 
     public PspHealthIndicator(PspAdapter pspAdapter, CircuitBreakerRegistry circuitBreakerRegistry) {
-        this.pspAdapter = pspAdapter;
+        this(List.of(pspAdapter), circuitBreakerRegistry, null, null);
+    }
+
+    public PspHealthIndicator(
+            PspAdapter pspAdapter,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            PspHealthMonitor healthMonitor) {
+        this(List.of(pspAdapter), circuitBreakerRegistry, healthMonitor, null);
+    }
+
+    /**
+     * @param pspAdapters all adapter beans, used when no registry is available
+     * @param adapterRegistry registry of the enabled adapters, or null
+     */
+    @Autowired
+    public PspHealthIndicator(
+            List<PspAdapter> pspAdapters,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            @Nullable PspHealthMonitor healthMonitor,
+            @Nullable PspAdapterRegistry adapterRegistry) {
+        this.pspAdapters = adapterRegistry != null ? adapterRegistry.getAdapters() : List.copyOf(pspAdapters);
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.healthMonitor = healthMonitor;
     }
 
     @Override
@@ -55,9 +89,32 @@ public class PspHealthIndicator implements ReactiveHealthIndicator {
             Map<String, Object> details = new HashMap<>();
             
             // Check PSP adapter health
-            boolean isHealthy = pspAdapter.isHealthy();
-            details.put("provider", pspAdapter.getProviderName());
-            details.put("available", isHealthy);
+            Map<String, Map<String, Object>> providers = new LinkedHashMap<>();
+            int healthyCount = 0;
+            for (PspAdapter pspAdapter : pspAdapters) {
+                PspHealthMonitor.ProviderHealth cached = healthMonitor != null
+                        ? healthMonitor.getHealth(pspAdapter.getProviderName())
+                        : null;
+                boolean isHealthy = cached != null ? cached.probeHealthy() : pspAdapter.isHealthy();
+                Map<String, Object> providerDetails = new HashMap<>();
+                providerDetails.put("available", isHealthy);
+                if (cached != null && cached.checkedAt() != null) {
+                    providerDetails.put("checkedAt", cached.checkedAt().toString());
+                }
+                if (cached != null && cached.error() != null) {
+                    providerDetails.put("error", cached.error());
+                }
+                providers.put(pspAdapter.getProviderName(), providerDetails);
+                if (isHealthy) {
+                    healthyCount++;
+                }
+            }
+            if (pspAdapters.size() == 1) {
+                details.put("provider", pspAdapters.get(0).getProviderName());
+                details.putAll(providers.values().iterator().next());
+            } else {
+                details.put("providers", providers);
+            }
             
             // Check circuit breaker states
             Map<String, Object> circuitBreakers = new HashMap<>();
@@ -79,17 +136,22 @@ public class PspHealthIndicator implements ReactiveHealthIndicator {
             // Determine overall health
             boolean allCircuitsClosed = circuitBreakerRegistry.getAllCircuitBreakers().stream()
                     .allMatch(cb -> cb.getState() == CircuitBreaker.State.CLOSED);
+            boolean allHealthy = healthyCount == pspAdapters.size();
             
-            if (isHealthy && allCircuitsClosed) {
+            if (healthyCount > 0 && allHealthy && allCircuitsClosed) {
                 return Health.up().withDetails(details).build();
-            } else if (isHealthy) {
-                return Health.status(new Status("DEGRADED", "Some circuit breakers are open"))
+            } else if (healthyCount > 0) {
+                return Health.status(new Status("DEGRADED", allHealthy
+                                ? "Some circuit breakers are open"
+                                : "Some PSP adapters are not healthy"))
                         .withDetails(details)
-                        .withDetail("reason", "Circuit breakers are not all closed").build();
+                        .withDetail("reason", allHealthy
+                                ? "Circuit breakers are not all closed"
+                                : "PSP adapters are not all healthy").build();
             } else {
                 return Health.down().withDetails(details)
                         .withDetail("reason", "PSP adapter is not healthy").build();
             }
-        });
+        }).subscribeOn(Schedulers.boundedElastic());
     }
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.health;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.config.PspResilienceProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background health probing of PSP adapters.
+ *
+ * {@link PspAdapter#isHealthy()} may make a network call, so it is never invoked on a
+ * request path. Instead every adapter is probed on a schedule on the bounded elastic
+ * scheduler, and the result is cached with its timestamp. Routers and
+ * {@link PspHealthIndicator} read the cached status from memory:
+ * <pre>
+ * monitor.start();
+ * boolean up = monitor.isHealthy("stripe");
+ * monitor.changes().subscribe(change -> log.info("{} healthy={}", change.provider(), change.healthy()));
+ * </pre>
+ *
+ * A provider is healthy when its last probe succeeded and none of its circuit breakers
+ * (instances named after the provider, e.g. {@code stripe-createPayment}) is open.
+ * Circuit breaker transitions are applied as they happen, without waiting for the next
+ * probe. Providers not probed yet count as healthy.
+ */
+public class PspHealthMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PspHealthMonitor.class);
+
+    private final List<PspAdapter> adapters;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Duration interval;
+    private final Duration timeout;
+    private final Clock clock;
+
+    private final Map<String, ProviderHealth> health = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> openCircuits = new ConcurrentHashMap<>();
+    private final Sinks.Many<HealthChange> changes = Sinks.many().multicast().directBestEffort();
+
+    private volatile Disposable polling;
+
+    /**
+     * @param adapters adapters to probe
+     * @param circuitBreakerRegistry registry whose circuit breakers affect provider health, or null
+     * @param config probe settings
+     */
+    public PspHealthMonitor(
+            Collection<PspAdapter> adapters,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            PspResilienceProperties.HealthProbeConfig config) {
+        this(adapters, circuitBreakerRegistry, config, Clock.systemUTC());
+    }
+
+    PspHealthMonitor(
+            Collection<PspAdapter> adapters,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            PspResilienceProperties.HealthProbeConfig config,
+            Clock clock) {
+        this.adapters = List.copyOf(adapters);
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.interval = config.getInterval();
+        this.timeout = config.getTimeout();
+        this.clock = clock;
+        if (circuitBreakerRegistry != null) {
+            circuitBreakerRegistry.getAllCircuitBreakers().forEach(this::watch);
+            circuitBreakerRegistry.getEventPublisher()
+                    .onEntryAdded(event -> watch(event.getAddedEntry()))
+                    .onEntryReplaced(event -> watch(event.getNewEntry()));
+        }
+    }
+
+    /**
+     * Start probing every adapter, immediately and then at the configured interval.
+     */
+    public synchronized void start() {
+        if (polling != null && !polling.isDisposed()) {
+            return;
+        }
+        polling = Flux.interval(Duration.ZERO, interval, Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> probeAll())
+                .subscribe();
+        logger.info("PSP health monitor started: providers={}, interval={}",
+                adapters.stream().map(PspAdapter::getProviderName).toList(), interval);
+    }
+
+    /**
+     * Stop probing. Cached results stay available.
+     */
+    public synchronized void stop() {
+        if (polling != null) {
+            polling.dispose();
+            polling = null;
+        }
+    }
+
+    /**
+     * Probe every adapter now.
+     *
+     * @return health of every provider after the probes
+     */
+    public Mono<Map<String, ProviderHealth>> refresh() {
+        return probeAll().then(Mono.fromSupplier(this::getHealthSnapshot));
+    }
+
+    /**
+     * Cached health of a provider.
+     *
+     * @param providerName PSP provider name
+     * @return last known health, or null if the provider has not been probed yet
+     */
+    public ProviderHealth getHealth(String providerName) {
+        return health.get(providerName);
+    }
+
+    /**
+     * Whether a provider is healthy, from memory. Providers not probed yet count as healthy.
+     */
+    public boolean isHealthy(String providerName) {
+        ProviderHealth current = health.get(providerName);
+        return current == null || current.isHealthy();
+    }
+
+    /**
+     * Cached health of every probed provider.
+     */
+    public Map<String, ProviderHealth> getHealthSnapshot() {
+        Map<String, ProviderHealth> snapshot = new LinkedHashMap<>();
+        for (PspAdapter adapter : adapters) {
+            ProviderHealth current = health.get(adapter.getProviderName());
+            if (current != null) {
+                snapshot.put(adapter.getProviderName(), current);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Hot stream of health transitions (healthy to unhealthy and back), including the
+     * first probe result of each provider. Subscribers only see changes after they subscribe.
+     */
+    public Flux<HealthChange> changes() {
+        return changes.asFlux();
+    }
+
+    private Mono<Void> probeAll() {
+        return Flux.fromIterable(adapters)
+                .flatMap(this::probe)
+                .then();
+    }
+
+    private Mono<Void> probe(PspAdapter adapter) {
+        String provider = adapter.getProviderName();
+        return Mono.fromCallable(adapter::isHealthy)
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(timeout)
+                .map(up -> up ? ProbeResult.UP : ProbeResult.DOWN)
+                .onErrorResume(error -> {
+                    logger.warn("Health probe failed for PSP {}: {}", provider, error.toString());
+                    return Mono.just(new ProbeResult(false, error.toString()));
+                })
+                .doOnNext(result -> update(provider, result))
+                .then();
+    }
+
+    private void update(String provider, ProbeResult result) {
+        Instant now = clock.instant();
+        ProviderHealth[] previous = new ProviderHealth[1];
+        ProviderHealth next = health.compute(provider, (key, current) -> {
+            previous[0] = current;
+            return new ProviderHealth(key, result.healthy(), circuitOpen(key), now, result.error());
+        });
+        publishIfChanged(previous[0], next);
+    }
+
+    private void watch(CircuitBreaker circuitBreaker) {
+        String provider = providerOf(circuitBreaker.getName());
+        if (provider == null) {
+            return;
+        }
+        onCircuitState(provider, circuitBreaker.getName(), circuitBreaker.getState());
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            // Replaced instances keep publishing; only the registered one counts
+            if (circuitBreakerRegistry.find(circuitBreaker.getName()).orElse(null) == circuitBreaker) {
+                onCircuitState(provider, circuitBreaker.getName(), event.getStateTransition().getToState());
+            }
+        });
+    }
+
+    private void onCircuitState(String provider, String circuitBreakerName, CircuitBreaker.State state) {
+        Set<String> open = openCircuits.computeIfAbsent(provider, key -> ConcurrentHashMap.newKeySet());
+        boolean changed = state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN
+                ? open.add(circuitBreakerName)
+                : open.remove(circuitBreakerName);
+        if (!changed) {
+            return;
+        }
+        ProviderHealth[] previous = new ProviderHealth[1];
+        ProviderHealth next = health.compute(provider, (key, current) -> {
+            previous[0] = current;
+            return current != null
+                    ? new ProviderHealth(key, current.probeHealthy(), circuitOpen(key), current.checkedAt(), current.error())
+                    : new ProviderHealth(key, true, circuitOpen(key), null, null);
+        });
+        publishIfChanged(previous[0], next);
+    }
+
+    private boolean circuitOpen(String provider) {
+        Set<String> open = openCircuits.get(provider);
+        return open != null && !open.isEmpty();
+    }
+
+    /**
+     * Provider owning a circuit breaker: the longest provider name the instance name equals
+     * or starts with followed by {@code -}, so {@code stripe-connect-createPayment} belongs
+     * to {@code stripe-connect} rather than {@code stripe}.
+     */
+    private String providerOf(String circuitBreakerName) {
+        String match = null;
+        for (PspAdapter adapter : adapters) {
+            String provider = adapter.getProviderName();
+            if ((circuitBreakerName.equals(provider) || circuitBreakerName.startsWith(provider + "-"))
+                    && (match == null || provider.length() > match.length())) {
+                match = provider;
+            }
+        }
+        return match;
+    }
+
+    private void publishIfChanged(ProviderHealth previous, ProviderHealth next) {
+        if (previous != null && previous.isHealthy() == next.isHealthy()) {
+            return;
+        }
+        if (previous != null) {
+            logger.warn("PSP {} is now {}", next.provider(), next.isHealthy() ? "healthy" : "unhealthy");
+        }
+        synchronized (changes) {
+            changes.tryEmitNext(new HealthChange(next.provider(), next.isHealthy(), next));
+        }
+    }
+
+    private record ProbeResult(boolean healthy, String error) {
+        static final ProbeResult UP = new ProbeResult(true, null);
+        static final ProbeResult DOWN = new ProbeResult(false, "isHealthy() returned false");
+    }
+
+    /**
+     * Cached health of a provider.
+     *
+     * @param provider provider name
+     * @param probeHealthy result of the last probe
+     * @param circuitOpen whether one of the provider's circuit breakers is open
+     * @param checkedAt time of the last probe, or null if not probed yet
+     * @param error reason the last probe failed, or null
+     */
+    public record ProviderHealth(
+            String provider,
+            boolean probeHealthy,
+            boolean circuitOpen,
+            Instant checkedAt,
+            String error
+    ) {
+        public boolean isHealthy() {
+            return probeHealthy && !circuitOpen;
+        }
+    }
+
+    /**
+     * Health transition of a provider.
+     */
+    public record HealthChange(String provider, boolean healthy, ProviderHealth health) {
+    }
+}
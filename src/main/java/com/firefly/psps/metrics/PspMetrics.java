@@ -0,0 +1,173 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.metrics;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-registered meters for PSP operations.
+ *
+ * For every provider operation the full outcome matrix is registered up front:
+ * - {@code psp.operation}: timer with SLO histogram buckets
+ * - {@code psp.operation.count}: counter
+ * both tagged with provider, operation, status (success/failure) and outcome
+ * ({@link PspOperationOutcome}). The number of series is bounded by
+ * providers × operations × outcomes.
+ *
+ * Recording looks up an array slot by outcome ordinal and does not allocate:
+ * <pre>
+ * PspMetrics.OperationMeters meters = pspMetrics.operation("stripe", "createPayment");
+ * ...
+ * meters.record(PspOperationOutcome.SUCCESS, System.nanoTime() - start);
+ * </pre>
+ */
+public class PspMetrics {
+
+    public static final String TIMER_NAME = "psp.operation";
+    public static final String COUNTER_NAME = "psp.operation.count";
+
+    private static final PspOperationOutcome[] OUTCOMES = PspOperationOutcome.values();
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] slos;
+
+    private final Map<String, Map<String, OperationMeters>> operations = new ConcurrentHashMap<>();
+    private final Map<InstanceKey, OperationMeters> instances = new ConcurrentHashMap<>();
+
+    public PspMetrics(MeterRegistry meterRegistry, PspResilienceProperties.MetricsConfig config) {
+        this.meterRegistry = meterRegistry;
+        this.slos = config.getSlos().toArray(new Duration[0]);
+    }
+
+    /**
+     * Meters of a provider operation, registered on first use.
+     *
+     * @param providerName PSP provider name
+     * @param operationType operation name
+     * @return meter handle that can be held by callers
+     */
+    public OperationMeters operation(String providerName, String operationType) {
+        Map<String, OperationMeters> byOperation = operations.get(providerName);
+        if (byOperation == null) {
+            byOperation = operations.computeIfAbsent(providerName, key -> new ConcurrentHashMap<>());
+        }
+        OperationMeters meters = byOperation.get(operationType);
+        if (meters == null) {
+            meters = byOperation.computeIfAbsent(operationType,
+                    key -> register(Tags.of("provider", providerName, "operation", key)));
+        }
+        return meters;
+    }
+
+    /**
+     * Meters of a provider operation executed through a named resilience instance,
+     * additionally tagged with {@code instance}.
+     */
+    public OperationMeters operation(String providerName, String operationType, String instanceName) {
+        InstanceKey instanceKey = new InstanceKey(instanceName, providerName, operationType);
+        OperationMeters meters = instances.get(instanceKey);
+        if (meters == null) {
+            meters = instances.computeIfAbsent(instanceKey, key -> register(
+                    Tags.of("provider", providerName, "operation", operationType, "instance", instanceName)));
+        }
+        return meters;
+    }
+
+    /**
+     * Register the meters of the given operations ahead of the first call,
+     * e.g. from an adapter's initialization.
+     */
+    public void preRegister(String providerName, String... operationTypes) {
+        for (String operationType : operationTypes) {
+            operation(providerName, operationType);
+        }
+    }
+
+    /**
+     * Record a provider operation.
+     *
+     * @param providerName PSP provider name
+     * @param operationType operation name
+     * @param outcome outcome of the call
+     * @param durationNanos duration of the call
+     */
+    public void record(String providerName, String operationType, PspOperationOutcome outcome, long durationNanos) {
+        operation(providerName, operationType).record(outcome, durationNanos);
+    }
+
+    private OperationMeters register(Tags tags) {
+        Timer[] timers = new Timer[OUTCOMES.length];
+        Counter[] counters = new Counter[OUTCOMES.length];
+        for (PspOperationOutcome outcome : OUTCOMES) {
+            Tags outcomeTags = tags.and(
+                    "status", outcome.isSuccess() ? "success" : "failure",
+                    "outcome", outcome.tagValue());
+            timers[outcome.ordinal()] = Timer.builder(TIMER_NAME)
+                    .tags(outcomeTags)
+                    .serviceLevelObjectives(slos)
+                    .register(meterRegistry);
+            counters[outcome.ordinal()] = Counter.builder(COUNTER_NAME)
+                    .tags(outcomeTags)
+                    .register(meterRegistry);
+        }
+        return new OperationMeters(timers, counters);
+    }
+
+    /**
+     * Pre-registered meters of one provider operation, indexed by outcome.
+     */
+    public static final class OperationMeters {
+
+        private final Timer[] timers;
+        private final Counter[] counters;
+
+        OperationMeters(Timer[] timers, Counter[] counters) {
+            this.timers = timers;
+            this.counters = counters;
+        }
+
+        /**
+         * Record one call.
+         *
+         * @param outcome outcome of the call
+         * @param durationNanos duration of the call
+         */
+        public void record(PspOperationOutcome outcome, long durationNanos) {
+            timers[outcome.ordinal()].record(durationNanos, TimeUnit.NANOSECONDS);
+            counters[outcome.ordinal()].increment();
+        }
+
+        /**
+         * Record a failed call, mapping the error to its outcome.
+         */
+        public void recordError(Throwable error, long durationNanos) {
+            record(PspOperationOutcome.from(error), durationNanos);
+        }
+    }
+
+    private record InstanceKey(String instanceName, String providerName, String operationType) {
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.metrics;
+
+import com.firefly.psps.exceptions.ConcurrencyLimitExceededException;
+import com.firefly.psps.exceptions.InsufficientFundsException;
+import com.firefly.psps.exceptions.InvalidPaymentMethodException;
+import com.firefly.psps.exceptions.PaymentFailedException;
+import com.firefly.psps.exceptions.PaymentNotFoundException;
+import com.firefly.psps.exceptions.PaymentValidationException;
+import com.firefly.psps.exceptions.ProviderPausedException;
+import com.firefly.psps.exceptions.PspAuthenticationException;
+import com.firefly.psps.exceptions.PspCommunicationException;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.exceptions.PspException;
+import com.firefly.psps.exceptions.PspThrottledException;
+import com.firefly.psps.exceptions.RateLimitExceededException;
+import com.firefly.psps.exceptions.RefundFailedException;
+import com.firefly.psps.exceptions.UnsupportedProviderOperationException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounded set of PSP operation outcomes used as the {@code outcome} metric tag.
+ *
+ * Errors are mapped by type, so the number of series per provider operation is
+ * fixed regardless of which exceptions adapters throw.
+ */
+public enum PspOperationOutcome {
+
+    SUCCESS,
+
+    /**
+     * Payment or refund declined by the provider (including insufficient funds, invalid payment method).
+     */
+    DECLINED,
+
+    /**
+     * Request rejected as invalid before or by the provider.
+     */
+    INVALID_REQUEST,
+
+    NOT_FOUND,
+
+    AUTHENTICATION_ERROR,
+
+    CONFIGURATION_ERROR,
+
+    UNSUPPORTED,
+
+    /**
+     * Provider rate limiting (HTTP 429).
+     */
+    THROTTLED,
+
+    TIMEOUT,
+
+    COMMUNICATION_ERROR,
+
+    /**
+     * Call not attempted because the circuit breaker is open.
+     */
+    CIRCUIT_OPEN,
+
+    /**
+     * Call shed locally by a rate limiter, bulkhead or concurrency limiter.
+     */
+    REJECTED,
+
+    /**
+     * Any other {@link PspException}.
+     */
+    PSP_ERROR,
+
+    UNKNOWN;
+
+    private final String tagValue = name().toLowerCase(Locale.ROOT);
+
+    /**
+     * Value used for the {@code outcome} tag.
+     */
+    public String tagValue() {
+        return tagValue;
+    }
+
+    public boolean isSuccess() {
+        return this == SUCCESS;
+    }
+
+    /**
+     * Map an error to its outcome.
+     *
+     * @param error error raised by the PSP call or a resilience component
+     * @return outcome, {@link #UNKNOWN} for unrecognized errors
+     */
+    public static PspOperationOutcome from(Throwable error) {
+        if (error instanceof PspThrottledException) {
+            return THROTTLED;
+        }
+        if (error instanceof PspCommunicationException) {
+            return COMMUNICATION_ERROR;
+        }
+        if (error instanceof TimeoutException) {
+            return TIMEOUT;
+        }
+        if (error instanceof PaymentFailedException
+                || error instanceof InsufficientFundsException
+                || error instanceof InvalidPaymentMethodException
+                || error instanceof RefundFailedException) {
+            return DECLINED;
+        }
+        if (error instanceof PaymentValidationException || error instanceof IllegalArgumentException) {
+            return INVALID_REQUEST;
+        }
+        if (error instanceof PaymentNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (error instanceof PspAuthenticationException) {
+            return AUTHENTICATION_ERROR;
+        }
+        if (error instanceof PspConfigurationException) {
+            return CONFIGURATION_ERROR;
+        }
+        if (error instanceof UnsupportedProviderOperationException) {
+            return UNSUPPORTED;
+        }
+        if (error instanceof CallNotPermittedException) {
+            return CIRCUIT_OPEN;
+        }
+        if (error instanceof RequestNotPermitted
+                || error instanceof BulkheadFullException
+                || error instanceof RateLimitExceededException
+                || error instanceof ConcurrencyLimitExceededException
+                || error instanceof ProviderPausedException) {
+            return REJECTED;
+        }
+        if (error instanceof PspException) {
+            return PSP_ERROR;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.exceptions.ConcurrencyLimitExceededException;
+import com.firefly.psps.exceptions.PspCommunicationException;
+import io.micrometer.core.instrument.Counter;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reactor operator that guards a Mono with an {@link AdaptiveConcurrencyLimiter}.
+ *
+ * A permit is acquired on subscription and released exactly once when the Mono
+ * terminates or is cancelled. Calls over the limit fail fast with
+ * {@link ConcurrencyLimitExceededException}. Cancellations after the drop threshold,
+ * such as time limiter timeouts, count as drops.
+ *
+ * @param <T> value type
+ */
+public final class AdaptiveConcurrencyLimitOperator<T> implements UnaryOperator<Publisher<T>> {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final String providerName;
+    private final String operationType;
+    private final Counter rejectedCounter;
+
+    public AdaptiveConcurrencyLimitOperator(
+            AdaptiveConcurrencyLimiter limiter,
+            String providerName,
+            String operationType,
+            Counter rejectedCounter) {
+        this.limiter = limiter;
+        this.providerName = providerName;
+        this.operationType = operationType;
+        this.rejectedCounter = rejectedCounter;
+    }
+
+    @Override
+    public Publisher<T> apply(Publisher<T> publisher) {
+        Mono<T> source = Mono.from(publisher);
+        return Mono.defer(() -> {
+            int inflightAtStart = limiter.tryAcquire();
+            if (inflightAtStart < 0) {
+                rejectedCounter.increment();
+                return Mono.error(new ConcurrencyLimitExceededException(
+                        providerName, operationType, limiter.getLimit()));
+            }
+            long start = System.nanoTime();
+            Permit permit = new Permit(limiter, start, inflightAtStart);
+            return source
+                    .doOnSuccess(result -> permit.success())
+                    .doOnError(permit::error)
+                    .doOnCancel(permit::cancel);
+        });
+    }
+
+    /**
+     * Releases the limiter permit exactly once, whichever terminal signal comes first.
+     */
+    private static final class Permit {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long startNanos;
+        private final int inflightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(AdaptiveConcurrencyLimiter limiter, long startNanos, int inflightAtStart) {
+            this.limiter = limiter;
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        void success() {
+            if (released.compareAndSet(false, true)) {
+                limiter.onSuccess(System.nanoTime() - startNanos, inflightAtStart);
+            }
+        }
+
+        void error(Throwable error) {
+            if (released.compareAndSet(false, true)) {
+                if (error instanceof TimeoutException || error instanceof PspCommunicationException) {
+                    limiter.onDropped(System.nanoTime() - startNanos, inflightAtStart);
+                } else {
+                    limiter.onIgnored();
+                }
+            }
+        }
+
+        void cancel() {
+            if (released.compareAndSet(false, true)) {
+                limiter.onCancelled(System.nanoTime() - startNanos, inflightAtStart);
+            }
+        }
+    }
+}
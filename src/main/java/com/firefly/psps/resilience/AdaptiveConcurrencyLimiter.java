@@ -0,0 +1,167 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.config.PspResilienceProperties.AdaptiveConcurrencyConfig.Algorithm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limiter whose limit adapts to the observed round-trip time of PSP calls.
+ *
+ * Alternative to the static Resilience4j {@code Bulkhead}. Two algorithms are supported:
+ * - AIMD: additive increase while calls succeed under load, multiplicative decrease on drops
+ * - GRADIENT: scales the limit by the ratio of long-term to short-term RTT, so the limit
+ *   shrinks as soon as the provider starts queueing and grows back when latency recovers
+ *
+ * Timeouts, communication errors and calls or cancellations slower than the configured drop
+ * threshold count as drops.
+ * Business errors (declines, validation) do not change the limit.
+ *
+ * Acquiring a permit is a single CAS on the in-flight counter; limit updates happen on
+ * completion and are serialized per limiter.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private final Algorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long dropThresholdNanos;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longRttWeight;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(PspResilienceProperties.AdaptiveConcurrencyConfig config) {
+        if (config.getMinLimit() < 1 || config.getMaxLimit() < config.getMinLimit()) {
+            throw new IllegalArgumentException("Adaptive concurrency limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.algorithm = config.getAlgorithm();
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = config.getMaxLimit();
+        this.backoffRatio = config.getBackoffRatio();
+        this.dropThresholdNanos = config.getDropThreshold().toNanos();
+        this.smoothing = config.getSmoothing();
+        this.rttTolerance = config.getRttTolerance();
+        this.longRttWeight = 1.0 / Math.max(1, config.getLongWindowSamples());
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, config.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Try to acquire a permit.
+     *
+     * @return in-flight count including this call, or -1 if the limit is reached
+     */
+    public int tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return -1;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return current + 1;
+    }
+
+    /**
+     * Release a permit after a successful call and feed its RTT into the limit.
+     *
+     * @param rttNanos round-trip time of the call
+     * @param inflightAtStart in-flight count when the call was admitted
+     */
+    public void onSuccess(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+        update(rttNanos, inflightAtStart, rttNanos > dropThresholdNanos);
+    }
+
+    /**
+     * Release a permit after a call that indicates overload (timeout, communication error).
+     *
+     * @param rttNanos round-trip time of the call
+     * @param inflightAtStart in-flight count when the call was admitted
+     */
+    public void onDropped(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+        update(rttNanos, inflightAtStart, true);
+    }
+
+    /**
+     * Release a permit without affecting the limit (cancellation, business errors).
+     */
+    public void onIgnored() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * Release a permit after the call was cancelled. The time limiter sits outside the
+     * limiter and times calls out by cancelling them, so a cancellation after the drop
+     * threshold counts as a drop; earlier cancellations do not change the limit.
+     *
+     * @param rttNanos time from admission to cancellation
+     * @param inflightAtStart in-flight count when the call was admitted
+     */
+    public void onCancelled(long rttNanos, int inflightAtStart) {
+        if (rttNanos > dropThresholdNanos) {
+            onDropped(rttNanos, inflightAtStart);
+        } else {
+            onIgnored();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inflightAtStart, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * backoffRatio;
+        } else if (inflightAtStart * 2 < estimatedLimit) {
+            // Application-limited: the sample says nothing about the provider's capacity
+            return;
+        } else if (algorithm == Algorithm.AIMD) {
+            newLimit = estimatedLimit + 1;
+        } else {
+            newLimit = gradientLimit(rttNanos);
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private double gradientLimit(long rttNanos) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos = longRttNanos * (1 - longRttWeight) + rttNanos * longRttWeight;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / Math.max(1, rttNanos)));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        return estimatedLimit * (1 - smoothing) + target * smoothing;
+    }
+}
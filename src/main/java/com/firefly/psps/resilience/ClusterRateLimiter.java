@@ -0,0 +1,185 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.exceptions.RateLimitExceededException;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rate limiter for one provider operation whose limit is shared by all replicas.
+ *
+ * Tokens are leased from the {@link RateLimitCoordinator} in blocks of {@code leaseSize}
+ * and handed out locally with a CAS, so the coordinator sees one round trip per block
+ * instead of one per PSP call. Only one lease request is in flight per limiter; callers
+ * arriving meanwhile wait for the same lease.
+ *
+ * Leased tokens are only valid until the end of the coordinator window, so the cluster
+ * never exceeds {@code limitForPeriod} per window; tokens a replica does not use are
+ * forfeited. When the window is exhausted, callers wait for the next window up to
+ * {@code timeoutDuration} and then fail with {@link RateLimitExceededException}.
+ *
+ * Coordinator errors are propagated to the caller.
+ */
+public final class ClusterRateLimiter {
+
+    private final String key;
+    private final String providerName;
+    private final String operationType;
+    private final RateLimitCoordinator coordinator;
+    private final Clock clock;
+
+    private volatile PspResilienceProperties.RateLimiterConfig config;
+    private volatile double rateFactor = 1.0;
+
+    private final AtomicReference<Block> block = new AtomicReference<>(Block.EMPTY);
+    private final AtomicReference<Mono<Block>> pendingLease = new AtomicReference<>();
+
+    public ClusterRateLimiter(
+            String key,
+            String providerName,
+            String operationType,
+            PspResilienceProperties.RateLimiterConfig config,
+            RateLimitCoordinator coordinator) {
+        this(key, providerName, operationType, config, coordinator, Clock.systemUTC());
+    }
+
+    ClusterRateLimiter(
+            String key,
+            String providerName,
+            String operationType,
+            PspResilienceProperties.RateLimiterConfig config,
+            RateLimitCoordinator coordinator,
+            Clock clock) {
+        if (config.getLeaseSize() < 1) {
+            throw new IllegalArgumentException("Rate limiter lease size must be at least 1");
+        }
+        this.key = key;
+        this.providerName = providerName;
+        this.operationType = operationType;
+        this.config = config;
+        this.coordinator = coordinator;
+        this.clock = clock;
+    }
+
+    /**
+     * Acquire one token, waiting for the next window if needed.
+     *
+     * @return Mono completing when the call may proceed
+     */
+    public Mono<Void> acquirePermission() {
+        return Mono.defer(() -> acquire(clock.millis() + config.getTimeoutDuration().toMillis()));
+    }
+
+    /**
+     * Apply a new limit; takes effect with the next lease.
+     */
+    public void changeConfig(PspResilienceProperties.RateLimiterConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Scale the cluster limit requested by this replica, e.g. after provider throttling.
+     * Takes effect with the next lease.
+     *
+     * @param rateFactor fraction of the configured limitForPeriod, in (0, 1]
+     */
+    public void setRateFactor(double rateFactor) {
+        this.rateFactor = rateFactor;
+    }
+
+    public PspResilienceProperties.RateLimiterConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Tokens leased by this replica and not used yet.
+     */
+    public int getAvailableTokens() {
+        Block current = block.get();
+        return current.expiresAtMillis() > clock.millis() ? Math.max(0, current.tokens().get()) : 0;
+    }
+
+    private Mono<Void> acquire(long deadlineMillis) {
+        if (block.get().tryTake(clock.millis())) {
+            return Mono.empty();
+        }
+        return lease().flatMap(leased -> {
+            long now = clock.millis();
+            if (leased.tryTake(now)) {
+                return Mono.empty();
+            }
+            if (leased.granted() > 0 && leased.expiresAtMillis() > now) {
+                // Window still has tokens but other callers drained this block
+                return Mono.defer(() -> acquire(deadlineMillis));
+            }
+            if (leased.expiresAtMillis() > deadlineMillis) {
+                return Mono.error(new RateLimitExceededException(
+                        providerName, operationType, effectiveLimit(config)));
+            }
+            return Mono.delay(Duration.ofMillis(Math.max(1, leased.expiresAtMillis() - now)))
+                    .then(Mono.defer(() -> acquire(deadlineMillis)));
+        });
+    }
+
+    private Mono<Block> lease() {
+        Mono<Block> pending = pendingLease.get();
+        if (pending != null) {
+            return pending;
+        }
+        PspResilienceProperties.RateLimiterConfig current = config;
+        AtomicReference<Mono<Block>> self = new AtomicReference<>();
+        Mono<Block> lease = coordinator
+                .lease(key, current.getLeaseSize(), effectiveLimit(current), current.getLimitRefreshPeriod())
+                .map(granted -> new Block(new AtomicInteger(granted.tokens()), granted.tokens(),
+                        granted.expiresAt().toEpochMilli()))
+                .doOnNext(block::set)
+                // Only clear our own lease; a newer one may already be installed
+                .doFinally(signal -> pendingLease.compareAndSet(self.get(), null))
+                .cache();
+        self.set(lease);
+        return pendingLease.compareAndSet(null, lease) ? lease : lease();
+    }
+
+    private int effectiveLimit(PspResilienceProperties.RateLimiterConfig current) {
+        return Math.max(1, (int) Math.round(current.getLimitForPeriod() * rateFactor));
+    }
+
+    private record Block(AtomicInteger tokens, int granted, long expiresAtMillis) {
+
+        static final Block EMPTY = new Block(new AtomicInteger(), 0, 0);
+
+        boolean tryTake(long nowMillis) {
+            if (nowMillis >= expiresAtMillis) {
+                return false;
+            }
+            int current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
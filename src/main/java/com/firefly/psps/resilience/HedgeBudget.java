@@ -0,0 +1,72 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket capping hedged requests to a fraction of primary requests.
+ *
+ * Every primary request deposits {@code maxHedgeRatio} tokens and every hedge
+ * withdraws one, so over time hedges cannot exceed the configured ratio. The
+ * bucket holds at most {@code maxTokens} to bound bursts after quiet periods.
+ */
+public final class HedgeBudget {
+
+    private static final long SCALE = 1_000;
+
+    private final long depositPerRequest;
+    private final long capacity;
+    private final AtomicLong tokens = new AtomicLong();
+
+    public HedgeBudget(double maxHedgeRatio, int maxTokens) {
+        if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException("Hedge ratio must be between 0 and 1");
+        }
+        this.depositPerRequest = Math.round(maxHedgeRatio * SCALE);
+        this.capacity = Math.max(1, maxTokens) * SCALE;
+    }
+
+    /**
+     * Credit the budget for a primary request.
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(capacity, current + depositPerRequest)));
+    }
+
+    /**
+     * Try to take a token for a hedged request.
+     *
+     * @return true if the hedge is within budget
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
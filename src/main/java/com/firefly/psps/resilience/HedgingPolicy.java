@@ -0,0 +1,154 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedged-request policy for idempotent PSP reads.
+ *
+ * Issues the primary request and, if it has not answered after a delay derived
+ * from the observed latency percentile, fires a second identical request. The
+ * first response wins and the other request is cancelled. Hedges are capped by
+ * a {@link HedgeBudget} so a degraded provider does not receive double load.
+ *
+ * Only use for operations that are safe to repeat (getPayment, getRefund, ...).
+ *
+ * The delay is derived from primary latencies. When the hedge wins, the time the
+ * primary had been running when it was cancelled is recorded as a lower bound,
+ * so the delay still rises when the provider slows down.
+ *
+ * Metrics ({@code psp.hedge}, tagged by provider, operation and result):
+ * - fired: a hedge request was sent
+ * - won: the hedge answered before the primary
+ * - budget_exhausted: a hedge was due but the budget did not allow it
+ */
+public final class HedgingPolicy {
+
+    static final String COUNTER_NAME = "psp.hedge";
+
+    private final LatencyHistogram latencies;
+    private final HedgeBudget budget;
+    private final double delayPercentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long initialDelayNanos;
+    private final long minSamples;
+
+    private final Counter firedCounter;
+    private final Counter wonCounter;
+    private final Counter budgetExhaustedCounter;
+
+    private final AtomicLong samples = new AtomicLong();
+    private volatile long delayNanos;
+
+    public HedgingPolicy(
+            PspResilienceProperties.HedgingConfig config,
+            MeterRegistry meterRegistry,
+            Tags tags) {
+        this.latencies = new LatencyHistogram(config.getSampleDecayInterval());
+        this.budget = new HedgeBudget(config.getMaxHedgeRatio(), config.getMaxBurst());
+        this.delayPercentile = config.getDelayPercentile();
+        this.minDelayNanos = config.getMinDelay().toNanos();
+        this.maxDelayNanos = config.getMaxDelay().toNanos();
+        this.initialDelayNanos = config.getInitialDelay().toNanos();
+        this.minSamples = config.getMinSamples();
+        this.delayNanos = clamp(initialDelayNanos);
+
+        this.firedCounter = Counter.builder(COUNTER_NAME).tags(tags.and("result", "fired")).register(meterRegistry);
+        this.wonCounter = Counter.builder(COUNTER_NAME).tags(tags.and("result", "won")).register(meterRegistry);
+        this.budgetExhaustedCounter = Counter.builder(COUNTER_NAME)
+                .tags(tags.and("result", "budget_exhausted")).register(meterRegistry);
+    }
+
+    /**
+     * Execute an operation with hedging. The supplier is invoked once for the
+     * primary request and once more if a hedge is fired.
+     *
+     * If the primary fails before the hedge answers, its error is propagated and
+     * the hedge is cancelled; errors of the hedge itself are ignored.
+     *
+     * @param operation idempotent PSP read
+     * @param <T> Return type
+     * @return first response of the primary or the hedge
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> operation) {
+        return Mono.defer(() -> {
+            budget.deposit();
+            long start = System.nanoTime();
+            AtomicBoolean hedgeWon = new AtomicBoolean();
+
+            // A primary cancelled because the hedge won is sampled with its elapsed
+            // time; otherwise slow primaries would never reach the histogram
+            Mono<T> primary = operation.get()
+                    .doOnSuccess(result -> recordLatency(System.nanoTime() - start))
+                    .doOnCancel(() -> {
+                        if (hedgeWon.get()) {
+                            recordLatency(System.nanoTime() - start);
+                        }
+                    });
+
+            Mono<T> hedge = Mono.delay(Duration.ofNanos(delayNanos))
+                    .flatMap(tick -> {
+                        if (!budget.tryAcquire()) {
+                            budgetExhaustedCounter.increment();
+                            return Mono.<T>never();
+                        }
+                        firedCounter.increment();
+                        return operation.get()
+                                .doOnNext(result -> {
+                                    hedgeWon.set(true);
+                                    wonCounter.increment();
+                                })
+                                .switchIfEmpty(Mono.never())
+                                .onErrorResume(error -> Mono.never());
+                    });
+
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    /**
+     * Current hedge delay.
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    private void recordLatency(long nanos) {
+        latencies.record(nanos);
+        long count = samples.incrementAndGet();
+        // Refresh the delay every 64 samples once enough data has been observed
+        if (count >= minSamples && (count & 0x3F) == 0) {
+            long percentile = latencies.percentileNanos(delayPercentile);
+            delayNanos = clamp(percentile < 0 ? initialDelayNanos : percentile);
+        }
+    }
+
+    private long clamp(long nanos) {
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, nanos));
+    }
+}
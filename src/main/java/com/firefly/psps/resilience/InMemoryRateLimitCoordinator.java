@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RateLimitCoordinator} keeping the windows in process memory.
+ *
+ * Only shares the limit between limiters of the same JVM; intended for tests
+ * and single-replica deployments. Windows are aligned to multiples of the
+ * refresh period since the epoch, as a shared store would do.
+ */
+public class InMemoryRateLimitCoordinator implements RateLimitCoordinator {
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public InMemoryRateLimitCoordinator() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryRateLimitCoordinator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<RateLimitLease> lease(String key, int requestedTokens, int limitForPeriod, Duration limitRefreshPeriod) {
+        return Mono.fromSupplier(() -> {
+            long periodMillis = Math.max(1, limitRefreshPeriod.toMillis());
+            long now = clock.millis();
+            long windowStart = now - Math.floorMod(now, periodMillis);
+
+            int[] granted = new int[1];
+            windows.compute(key, (k, window) -> {
+                int used = window != null && window.start() == windowStart ? window.used() : 0;
+                granted[0] = Math.max(0, Math.min(requestedTokens, limitForPeriod - used));
+                return new Window(windowStart, used + granted[0]);
+            });
+            return new RateLimitLease(granted[0], Instant.ofEpochMilli(windowStart + periodMillis));
+        });
+    }
+
+    private record Window(long start, int used) {}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, log-linear latency histogram for percentile estimates.
+ *
+ * Latencies are bucketed in microseconds with four sub-buckets per power of two
+ * (about 25% relative precision), which is enough to derive hedging delays and
+ * similar thresholds without the cost of a full Micrometer distribution.
+ *
+ * To follow the provider's current behaviour, all buckets are halved every
+ * {@code decayInterval} recorded samples, so older samples fade out.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = SUB_BUCKETS * (MAX_EXPONENT - SUB_BUCKET_BITS + 1) + SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sinceDecay = new AtomicLong();
+    private final long decayInterval;
+
+    public LatencyHistogram(long decayInterval) {
+        if (decayInterval <= 0) {
+            throw new IllegalArgumentException("Decay interval must be positive");
+        }
+        this.decayInterval = decayInterval;
+    }
+
+    /**
+     * Record a latency sample.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        buckets.incrementAndGet(bucketIndex(Math.max(0, nanos) / 1_000));
+        totalCount.incrementAndGet();
+        if (sinceDecay.incrementAndGet() >= decayInterval) {
+            sinceDecay.set(0);
+            decay();
+        }
+    }
+
+    /**
+     * Number of samples currently held (after decay).
+     */
+    public long count() {
+        return totalCount.get();
+    }
+
+    /**
+     * Estimate the latency at the given percentile.
+     *
+     * @param percentile percentile in the range (0, 1]
+     * @return upper bound of the bucket holding the percentile in nanoseconds, or -1 if empty
+     */
+    public long percentileNanos(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long target = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target) {
+                return bucketUpperBoundMicros(i) * 1_000;
+            }
+        }
+        return bucketUpperBoundMicros(BUCKET_COUNT - 1) * 1_000;
+    }
+
+    private void decay() {
+        long removed = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long current;
+            long halved;
+            do {
+                current = buckets.get(i);
+                halved = current >>> 1;
+            } while (!buckets.compareAndSet(i, current, halved));
+            removed += current - halved;
+        }
+        totalCount.addAndGet(-removed);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && micros >= (1L << (MAX_EXPONENT + 1))) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS * (exponent - SUB_BUCKET_BITS + 1) + subBucket;
+    }
+
+    static long bucketUpperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        long lower = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
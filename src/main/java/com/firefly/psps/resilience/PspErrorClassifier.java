@@ -0,0 +1,91 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.exceptions.ConcurrencyLimitExceededException;
+import com.firefly.psps.exceptions.InsufficientFundsException;
+import com.firefly.psps.exceptions.InvalidPaymentMethodException;
+import com.firefly.psps.exceptions.PaymentFailedException;
+import com.firefly.psps.exceptions.PaymentNotFoundException;
+import com.firefly.psps.exceptions.PaymentValidationException;
+import com.firefly.psps.exceptions.ProviderPausedException;
+import com.firefly.psps.exceptions.PspAuthenticationException;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.exceptions.PspThrottledException;
+import com.firefly.psps.exceptions.RateLimitExceededException;
+import com.firefly.psps.exceptions.RefundFailedException;
+import com.firefly.psps.exceptions.UnsupportedProviderOperationException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+
+import java.time.Duration;
+
+/**
+ * Classifies PSP errors into retryable and non-retryable.
+ *
+ * Non-retryable (the same call would fail again):
+ * - Business outcomes: declines, insufficient funds, invalid payment method, failed refunds
+ * - Request errors: validation, not found, unsupported operation
+ * - Credential and configuration errors
+ * - Local load shedding: open circuit breaker, full bulkhead, rate or concurrency limit reached,
+ *   provider paused after throttling
+ *
+ * Retryable: communication errors (including {@link PspThrottledException}), timeouts
+ * and any other error, which keeps the previous retry-everything behaviour for
+ * exceptions this library does not know about.
+ */
+public final class PspErrorClassifier {
+
+    private PspErrorClassifier() {
+    }
+
+    /**
+     * Whether retrying the call may succeed.
+     *
+     * @param error error raised by the PSP call or a resilience component
+     * @return true if the error is worth another attempt
+     */
+    public static boolean isRetryable(Throwable error) {
+        return !(error instanceof PaymentFailedException
+                || error instanceof InsufficientFundsException
+                || error instanceof InvalidPaymentMethodException
+                || error instanceof RefundFailedException
+                || error instanceof PaymentValidationException
+                || error instanceof PaymentNotFoundException
+                || error instanceof UnsupportedProviderOperationException
+                || error instanceof PspAuthenticationException
+                || error instanceof PspConfigurationException
+                || error instanceof IllegalArgumentException
+                || error instanceof CallNotPermittedException
+                || error instanceof BulkheadFullException
+                || error instanceof RequestNotPermitted
+                || error instanceof RateLimitExceededException
+                || error instanceof ConcurrencyLimitExceededException
+                || error instanceof ProviderPausedException);
+    }
+
+    /**
+     * Wait time requested by the provider.
+     *
+     * @param error error raised by the PSP call
+     * @return Retry-After of a {@link PspThrottledException}, or null
+     */
+    public static Duration retryAfter(Throwable error) {
+        return error instanceof PspThrottledException throttled ? throttled.getRetryAfter() : null;
+    }
+}
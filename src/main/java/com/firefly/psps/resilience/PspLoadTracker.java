@@ -0,0 +1,183 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.exceptions.PspCommunicationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live load of each PSP provider, fed by {@link ResiliencePipeline} executions.
+ *
+ * For every provider it keeps the number of calls in flight and a time-decayed EWMA
+ * of the observed latency, which latency-aware routing combines into a load score.
+ * Timeouts and communication errors are sampled at no less than twice the current
+ * average, so a provider failing fast does not look fast. Business errors and
+ * cancellations do not produce a latency sample.
+ *
+ * Updates are lock-free: the in-flight count is an atomic counter and the EWMA is
+ * updated with a CAS loop.
+ */
+public final class PspLoadTracker {
+
+    static final String LATENCY_GAUGE = "psp.routing.latency.ewma";
+    static final String INFLIGHT_GAUGE = "psp.routing.inflight";
+
+    private final double decayNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ProviderLoad> providers = new ConcurrentHashMap<>();
+
+    public PspLoadTracker(PspResilienceProperties.LoadTrackingConfig config, MeterRegistry meterRegistry) {
+        this.decayNanos = Math.max(1, config.getDecayTime().toNanos());
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Load of a provider, created on first use.
+     *
+     * @param providerName PSP provider name
+     * @return provider load
+     */
+    public ProviderLoad provider(String providerName) {
+        ProviderLoad load = providers.get(providerName);
+        if (load == null) {
+            load = providers.computeIfAbsent(providerName, this::register);
+        }
+        return load;
+    }
+
+    /**
+     * Load of a provider, or null if it has not been called yet.
+     */
+    public ProviderLoad find(String providerName) {
+        return providers.get(providerName);
+    }
+
+    private ProviderLoad register(String providerName) {
+        ProviderLoad load = new ProviderLoad(decayNanos);
+        Gauge.builder(LATENCY_GAUGE, load, l -> l.getLatencyNanos() / 1_000_000.0)
+                .tag("provider", providerName)
+                .description("Time-decayed average latency of PSP calls in milliseconds")
+                .register(meterRegistry);
+        Gauge.builder(INFLIGHT_GAUGE, load, ProviderLoad::getInflight)
+                .tag("provider", providerName)
+                .description("PSP calls in flight")
+                .register(meterRegistry);
+        return load;
+    }
+
+    /**
+     * In-flight calls and latency EWMA of one provider.
+     */
+    public static final class ProviderLoad {
+
+        private final double decayNanos;
+        private final AtomicInteger inflight = new AtomicInteger();
+        /**
+         * EWMA latency in nanoseconds (as double bits) and time of the last sample.
+         */
+        private final AtomicLong latencyBits = new AtomicLong(Double.doubleToLongBits(0));
+        private volatile long lastSampleNanos;
+
+        ProviderLoad(double decayNanos) {
+            this.decayNanos = decayNanos;
+        }
+
+        /**
+         * Track a call: counts it in flight from subscription until it terminates.
+         */
+        public <T> Mono<T> track(Mono<T> call) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                inflight.incrementAndGet();
+                return call
+                        .doOnSuccess(result -> complete(start, false))
+                        .doOnError(error -> {
+                            if (isOverload(error)) {
+                                complete(start, true);
+                            } else {
+                                // Business errors say nothing about the provider's latency
+                                inflight.decrementAndGet();
+                            }
+                        })
+                        .doOnCancel(inflight::decrementAndGet);
+            });
+        }
+
+        private void complete(long startNanos, boolean overload) {
+            inflight.decrementAndGet();
+            long now = System.nanoTime();
+            long elapsed = now - startNanos;
+            if (overload) {
+                elapsed = Math.max(elapsed, (long) (getLatencyNanos() * 2));
+            }
+            sample(elapsed, now);
+        }
+
+        /**
+         * Feed a latency sample into the EWMA.
+         */
+        void sample(long latencyNanos, long nowNanos) {
+            long last = lastSampleNanos;
+            lastSampleNanos = nowNanos;
+            while (true) {
+                long bits = latencyBits.get();
+                double current = Double.longBitsToDouble(bits);
+                double next;
+                if (current == 0) {
+                    next = latencyNanos;
+                } else {
+                    double weight = 1 - Math.exp(-Math.max(0, nowNanos - last) / decayNanos);
+                    next = current + (latencyNanos - current) * Math.max(weight, 0.05);
+                }
+                if (latencyBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Average latency in nanoseconds (0 until the first sample).
+         */
+        public double getLatencyNanos() {
+            return Double.longBitsToDouble(latencyBits.get());
+        }
+
+        public int getInflight() {
+            return inflight.get();
+        }
+
+        /**
+         * Load score: average latency weighted by the calls in flight (lower is better).
+         */
+        public double score() {
+            return getLatencyNanos() * (getInflight() + 1);
+        }
+
+        private static boolean isOverload(Throwable error) {
+            return error instanceof TimeoutException || error instanceof PspCommunicationException;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties.ResilienceProfile;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint to inspect and change PSP resilience settings at runtime.
+ *
+ * GET {@code /actuator/pspresilience} lists the live pipelines with their current limits.
+ * POST {@code /actuator/pspresilience} applies overrides for a provider (and optionally
+ * one operation), e.g.:
+ * <pre>
+ * {"provider": "stripe", "operation": "createPayment", "limitForPeriod": 25}
+ * </pre>
+ *
+ * Changes are not persisted; a restart reverts to the configured properties.
+ */
+@Endpoint(id = "pspresilience")
+public class PspResilienceEndpoint {
+
+    private final ResilientPspService resilientPspService;
+    private final ResilienceConfigurationManager configurationManager;
+
+    public PspResilienceEndpoint(
+            ResilientPspService resilientPspService,
+            ResilienceConfigurationManager configurationManager) {
+        this.resilientPspService = resilientPspService;
+        this.configurationManager = configurationManager;
+    }
+
+    @ReadOperation
+    public Map<String, Object> configuration() {
+        List<Map<String, Object>> pipelines = new ArrayList<>();
+        for (ResiliencePipeline pipeline : resilientPspService.getPipelines()) {
+            CircuitBreakerConfig cbConfig = pipeline.getCircuitBreaker().getCircuitBreakerConfig();
+            RateLimiterConfig rlConfig = pipeline.getRateLimiter().getRateLimiterConfig();
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("provider", pipeline.getProviderName());
+            details.put("operation", pipeline.getOperationType());
+            details.put("instance", pipeline.getInstanceName());
+            details.put("circuitBreakerState", pipeline.getCircuitBreaker().getState().name());
+            details.put("failureRateThreshold", cbConfig.getFailureRateThreshold());
+            details.put("limitForPeriod", rlConfig.getLimitForPeriod());
+            details.put("limitRefreshPeriod", rlConfig.getLimitRefreshPeriod().toString());
+            details.put("maxConcurrentCalls", pipeline.getConcurrencyLimiter() != null
+                    ? pipeline.getConcurrencyLimiter().getLimit()
+                    : pipeline.getBulkhead().getBulkheadConfig().getMaxConcurrentCalls());
+            details.put("maxAttempts", pipeline.getRetry().getRetryConfig().getMaxAttempts());
+            details.put("timeout", pipeline.getTimeLimiter().getTimeLimiterConfig().getTimeoutDuration().toString());
+            pipelines.add(details);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("version", configurationManager.getVersion());
+        result.put("pipelines", pipelines);
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reconfigure(
+            String provider,
+            @Nullable String operation,
+            @Nullable Integer failureRateThreshold,
+            @Nullable Duration waitDurationInOpenState,
+            @Nullable Integer limitForPeriod,
+            @Nullable Duration limitRefreshPeriod,
+            @Nullable Integer maxAttempts,
+            @Nullable Duration retryWaitDuration,
+            @Nullable Integer maxConcurrentCalls,
+            @Nullable Duration timeout) {
+
+        ResilienceProfile changes = new ResilienceProfile();
+        changes.getCircuitBreaker().setFailureRateThreshold(failureRateThreshold);
+        changes.getCircuitBreaker().setWaitDurationInOpenState(waitDurationInOpenState);
+        changes.getRateLimiter().setLimitForPeriod(limitForPeriod);
+        changes.getRateLimiter().setLimitRefreshPeriod(limitRefreshPeriod);
+        changes.getRetry().setMaxAttempts(maxAttempts);
+        changes.getRetry().setWaitDuration(retryWaitDuration);
+        changes.getBulkhead().setMaxConcurrentCalls(maxConcurrentCalls);
+        changes.getTimeLimiter().setTimeoutDuration(timeout);
+
+        long version = configurationManager.reconfigure(provider, operation, changes);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("version", version);
+        result.put("provider", provider);
+        if (operation != null) {
+            result.put("operation", operation);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * SPI for sharing a PSP rate limit between service replicas.
+ *
+ * The coordinator owns a fixed-window token bucket per key: at most
+ * {@code limitForPeriod} tokens are granted across all callers per
+ * {@code limitRefreshPeriod}. Replicas lease tokens in blocks through
+ * {@link ClusterRateLimiter}, so the coordinator is only contacted once per block.
+ *
+ * Implementations back this with shared state, e.g. a Redis script that
+ * increments a counter keyed by window start. {@link InMemoryRateLimitCoordinator}
+ * covers tests and single-replica deployments.
+ *
+ * Register an implementation as a bean and set
+ * {@code firefly.psp.resilience.rate-limiter.mode=cluster} to use it.
+ */
+public interface RateLimitCoordinator {
+
+    /**
+     * Lease up to {@code requestedTokens} tokens from the current window.
+     *
+     * @param key rate limit key (the resilience instance name, e.g. {@code stripe-createPayment})
+     * @param requestedTokens tokens wanted by the caller
+     * @param limitForPeriod cluster-wide limit per window
+     * @param limitRefreshPeriod window length
+     * @return granted lease; {@code tokens} is 0 when the window is exhausted
+     */
+    Mono<RateLimitLease> lease(String key, int requestedTokens, int limitForPeriod, Duration limitRefreshPeriod);
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceConfiguration;
+import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.config.PspResilienceProperties.ProviderProfile;
+import com.firefly.psps.config.PspResilienceProperties.ResilienceProfile;
+import com.firefly.psps.config.PspResilienceProperties.ResolvedProfile;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime reconfiguration of PSP resilience settings.
+ *
+ * Applies provider or operation overrides to the live registries and pipelines
+ * without a restart, e.g. when a PSP announces a new rate limit:
+ * <pre>
+ * ResilienceProfile changes = new ResilienceProfile();
+ * changes.getRateLimiter().setLimitForPeriod(25);
+ * configurationManager.reconfigure("stripe", null, changes);
+ * </pre>
+ *
+ * Rate limits (including cluster-wide ones) and bulkhead sizes are changed in place. Circuit breakers, retries,
+ * time limiters (and rate limiters whose refresh period changes) are replaced by
+ * new instances; calls already in flight complete with the instances they started
+ * with. A replaced circuit breaker takes over the state of the old one (an OPEN breaker
+ * stays OPEN) with empty metrics. The rate limiter mode, the bulkhead type and the
+ * bulkhead settings of pipelines using the adaptive concurrency limiter are fixed when a
+ * pipeline is created; changing them is rejected.
+ *
+ * Every change increments the configuration version exported as
+ * {@code psp.resilience.config.version}.
+ */
+public class ResilienceConfigurationManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceConfigurationManager.class);
+
+    static final String VERSION_GAUGE = "psp.resilience.config.version";
+    static final String RECONFIGURATION_COUNTER = "psp.resilience.reconfigurations";
+
+    private final ResilientPspService resilientPspService;
+    private final PspResilienceProperties properties;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final RetryRegistry retryRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final TimeLimiterRegistry timeLimiterRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong version = new AtomicLong();
+
+    public ResilienceConfigurationManager(
+            ResilientPspService resilientPspService,
+            PspResilienceProperties properties,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            MeterRegistry meterRegistry) {
+        this.resilientPspService = resilientPspService;
+        this.properties = properties;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.retryRegistry = retryRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder(VERSION_GAUGE, version, AtomicLong::get)
+                .description("Version of the PSP resilience configuration, incremented on each runtime change")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Apply resilience overrides for a provider or a single provider operation.
+     * Only the non-null values of {@code changes} are applied; everything else keeps
+     * its current value.
+     *
+     * @param providerName PSP provider name
+     * @param operationType operation name, or null to change the provider profile
+     * @param changes overrides to apply
+     * @return new configuration version
+     * @throws IllegalArgumentException if the changes cannot be applied to a live pipeline
+     */
+    public synchronized long reconfigure(String providerName, String operationType, ResilienceProfile changes) {
+        if (providerName == null || providerName.isBlank()) {
+            throw new IllegalArgumentException("Provider name is required; global settings cannot be changed at runtime");
+        }
+
+        // Effective settings of the affected pipelines before the change
+        List<ResiliencePipeline> affected = new ArrayList<>();
+        List<ResolvedProfile> previous = new ArrayList<>();
+        for (ResiliencePipeline pipeline : resilientPspService.getPipelines()) {
+            if (providerName.equals(pipeline.getProviderName())
+                    && (operationType == null || operationType.equals(pipeline.getOperationType()))) {
+                affected.add(pipeline);
+                previous.add(properties.resolve(pipeline.getProviderName(), pipeline.getOperationType()));
+            }
+        }
+        for (int i = 0; i < affected.size(); i++) {
+            validate(affected.get(i), previous.get(i), changes);
+        }
+
+        // Copy-on-write update of the profile tree
+        ProviderProfile current = properties.getProviders().getOrDefault(providerName, new ProviderProfile());
+        ProviderProfile updated = operationType == null
+                ? current.withChanges(changes)
+                : current.withOperationChanges(operationType, changes);
+        Map<String, ProviderProfile> providers = new LinkedHashMap<>(properties.getProviders());
+        providers.put(providerName, updated);
+        properties.setProviders(providers);
+
+        registerNamedConfigurations(providerName, updated);
+
+        for (int i = 0; i < affected.size(); i++) {
+            ResiliencePipeline pipeline = affected.get(i);
+            apply(pipeline, previous.get(i),
+                    properties.resolve(pipeline.getProviderName(), pipeline.getOperationType()));
+        }
+
+        long newVersion = version.incrementAndGet();
+        meterRegistry.counter(RECONFIGURATION_COUNTER, "provider", providerName).increment();
+        logger.warn("PSP resilience configuration changed for {}{}: version={}, pipelines={}",
+                providerName, operationType != null ? "." + operationType : "", newVersion, affected.size());
+        return newVersion;
+    }
+
+    /**
+     * Current configuration version (0 until the first runtime change).
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Effective settings for a provider operation.
+     *
+     * @param providerName PSP provider name
+     * @param operationType operation name
+     * @return resolved settings
+     */
+    public ResolvedProfile getEffectiveConfiguration(String providerName, String operationType) {
+        return properties.resolve(providerName, operationType);
+    }
+
+    private void registerNamedConfigurations(String providerName, ProviderProfile profile) {
+        registerNamedConfiguration(providerName, properties.resolve(providerName, null));
+        profile.getOperations().keySet().forEach(operationType ->
+                registerNamedConfiguration(providerName + "-" + operationType,
+                        properties.resolve(providerName, operationType)));
+    }
+
+    private void registerNamedConfiguration(String name, ResolvedProfile profile) {
+        circuitBreakerRegistry.addConfiguration(name,
+                PspResilienceConfiguration.circuitBreakerConfig(profile.circuitBreaker()));
+        rateLimiterRegistry.addConfiguration(name,
+                PspResilienceConfiguration.rateLimiterConfig(profile.rateLimiter()));
+        retryRegistry.addConfiguration(name,
+                PspResilienceConfiguration.retryConfig(profile.retry()));
+        bulkheadRegistry.addConfiguration(name,
+                PspResilienceConfiguration.bulkheadConfig(profile.bulkhead()));
+        timeLimiterRegistry.addConfiguration(name,
+                PspResilienceConfiguration.timeLimiterConfig(profile.timeLimiter()));
+    }
+
+    /**
+     * Reject changes to settings that are fixed when a pipeline is created.
+     */
+    private static void validate(ResiliencePipeline pipeline, ResolvedProfile previous, ResilienceProfile changes) {
+        String name = pipeline.getInstanceName();
+        var rateLimiterMode = changes.getRateLimiter().getMode();
+        if (rateLimiterMode != null && rateLimiterMode != previous.rateLimiter().getMode()) {
+            throw new IllegalArgumentException("Rate limiter mode of " + name + " cannot be changed at runtime");
+        }
+        var bulkhead = changes.getBulkhead();
+        if (bulkhead.getType() != null && bulkhead.getType() != previous.bulkhead().getType()) {
+            throw new IllegalArgumentException("Bulkhead type of " + name + " cannot be changed at runtime");
+        }
+        if (pipeline.getConcurrencyLimiter() != null
+                && (bulkhead.getMaxConcurrentCalls() != null || bulkhead.getMaxWaitDuration() != null)) {
+            throw new IllegalArgumentException(
+                    "Adaptive concurrency limiter of " + name + " cannot be reconfigured at runtime");
+        }
+    }
+
+    private void apply(ResiliencePipeline pipeline, ResolvedProfile previous, ResolvedProfile next) {
+        String name = pipeline.getInstanceName();
+
+        CircuitBreaker circuitBreaker = pipeline.getCircuitBreaker();
+        if (!previous.circuitBreaker().equals(next.circuitBreaker())) {
+            CircuitBreaker.State state = circuitBreaker.getState();
+            circuitBreaker = CircuitBreaker.of(name,
+                    PspResilienceConfiguration.circuitBreakerConfig(next.circuitBreaker()));
+            transitionTo(circuitBreaker, state);
+            circuitBreakerRegistry.replace(name, circuitBreaker);
+        }
+
+        if (pipeline.getClusterRateLimiter() != null) {
+            pipeline.getClusterRateLimiter().changeConfig(next.rateLimiter());
+        }
+
+        RateLimiter rateLimiter = pipeline.getRateLimiter();
+        if (!previous.rateLimiter().equals(next.rateLimiter())) {
+            if (previous.rateLimiter().getLimitRefreshPeriod().equals(next.rateLimiter().getLimitRefreshPeriod())) {
+                rateLimiter.changeLimitForPeriod(next.rateLimiter().getLimitForPeriod());
+                rateLimiter.changeTimeoutDuration(next.rateLimiter().getTimeoutDuration());
+            } else {
+                rateLimiter = RateLimiter.of(name,
+                        PspResilienceConfiguration.rateLimiterConfig(next.rateLimiter()));
+                rateLimiterRegistry.replace(name, rateLimiter);
+            }
+        }
+
+        if (!previous.bulkhead().equals(next.bulkhead())) {
+            pipeline.getBulkhead().changeConfig(PspResilienceConfiguration.bulkheadConfig(next.bulkhead()));
+        }
+
+        Retry retry = pipeline.getRetry();
+        if (!previous.retry().equals(next.retry())) {
+            RetryConfig retryConfig = PspResilienceConfiguration.retryConfig(next.retry());
+            RetryBudget retryBudget = pipeline.getRetryBudget();
+            String retryName = retry.getName();
+            retry = retryBudget != null
+                    ? retryBudget.retry(retryName, retryConfig)
+                    : Retry.of(retryName, retryConfig);
+            retryRegistry.replace(retryName, retry);
+        }
+
+        TimeLimiter timeLimiter = pipeline.getTimeLimiter();
+        if (!previous.timeLimiter().equals(next.timeLimiter())) {
+            timeLimiter = TimeLimiter.of(name,
+                    PspResilienceConfiguration.timeLimiterConfig(next.timeLimiter()));
+            timeLimiterRegistry.replace(name, timeLimiter);
+        }
+
+        pipeline.replaceStages(circuitBreaker, rateLimiter, retry, timeLimiter,
+                next.rateLimiter().getLimitForPeriod());
+    }
+
+    /**
+     * Move a new circuit breaker into the state of the one it replaces.
+     */
+    private static void transitionTo(CircuitBreaker circuitBreaker, CircuitBreaker.State state) {
+        switch (state) {
+            case OPEN -> circuitBreaker.transitionToOpenState();
+            case HALF_OPEN -> {
+                circuitBreaker.transitionToOpenState();
+                circuitBreaker.transitionToHalfOpenState();
+            }
+            case FORCED_OPEN -> circuitBreaker.transitionToForcedOpenState();
+            case DISABLED -> circuitBreaker.transitionToDisabledState();
+            case METRICS_ONLY -> circuitBreaker.transitionToMetricsOnlyState();
+            default -> {
+                // CLOSED: the new breaker already starts closed
+            }
+        }
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties.ExecutionMode;
+import com.firefly.psps.metrics.PspMetrics;
+import com.firefly.psps.metrics.PspOperationOutcome;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Pre-composed resilience chain for a single (provider, operation) pair.
+ *
+ * Resolves the Circuit Breaker, Rate Limiter, Bulkhead, Retry and Time Limiter
+ * instances and the Micrometer meters once, so repeated executions do not hit
+ * the registries or build meters on the hot path. Calls are recorded through the
+ * pre-registered {@link PspMetrics} meters, tagged with a bounded {@link PspOperationOutcome}.
+ *
+ * Instances are created and cached by {@link ResilientPspService}. Adapters can
+ * hold the reference directly instead of passing provider/operation strings:
+ * <pre>
+ * ResiliencePipeline createPayment = resilientService.pipeline("stripe", "createPayment");
+ * ...
+ * createPayment.execute(() -> stripeClient.createPayment(request));
+ * </pre>
+ *
+ * In {@link ExecutionMode#DEFERRED} mode the supplier is invoked once per subscription
+ * attempt, so a retry re-issues the PSP call. The end-to-end {@code psp.operation} timer
+ * then starts on subscription, and every attempt is timed separately in
+ * {@code psp.operation.attempt} (tagged with the attempt number), which excludes time
+ * spent waiting on the rate limiter, bulkhead and retry backoff.
+ *
+ * When hedging is enabled, {@link #executeHedged(Supplier)} wraps each attempt in the
+ * pipeline's {@link HedgingPolicy}; operations listed in
+ * {@code firefly.psp.resilience.hedging.operations} are hedged by {@link #execute(Supplier)}.
+ *
+ * With an {@link AdaptiveConcurrencyLimiter} the static bulkhead is replaced by the adaptive
+ * limiter at the same position in the chain; its current limit and in-flight calls are
+ * exported as {@code psp.concurrency.limit} and {@code psp.concurrency.inflight} gauges.
+ *
+ * With a {@link ClusterRateLimiter} the in-process rate limiter is replaced by the
+ * cluster-wide limit at the same position in the chain.
+ *
+ * With a {@link ThrottlingFeedbackLimiter} every attempt waits out an active provider pause,
+ * throttling responses lower the provider's rate, and the rate limiter's
+ * {@code limitForPeriod} follows the provider's current rate factor.
+ *
+ * Successful calls are credited to the provider's {@link RetryBudget}, which the retry
+ * consults before every retry.
+ *
+ * Executions are tracked in the provider's {@link PspLoadTracker.ProviderLoad} (in-flight
+ * calls and latency EWMA), which latency-aware routing reads.
+ */
+public final class ResiliencePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResiliencePipeline.class);
+
+    static final String ATTEMPT_TIMER_NAME = "psp.operation.attempt";
+    static final String CONCURRENCY_LIMIT_GAUGE = "psp.concurrency.limit";
+    static final String CONCURRENCY_INFLIGHT_GAUGE = "psp.concurrency.inflight";
+    static final String CONCURRENCY_REJECTED_COUNTER = "psp.concurrency.rejected";
+
+    private static final int ATTEMPT_SUCCESS = 0;
+    private static final int ATTEMPT_FAILURE = 1;
+    private static final int ATTEMPT_CANCELLED = 2;
+    private static final String[] ATTEMPT_STATUSES = {"success", "failure", "cancelled"};
+
+    private final String providerName;
+    private final String operationType;
+    private final String instanceName;
+    private final MeterRegistry meterRegistry;
+    private final Tags baseTags;
+    private final ExecutionMode executionMode;
+    private final HedgingPolicy hedgingPolicy;
+    private final boolean hedgeByDefault;
+
+    private final Bulkhead bulkhead;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final UnaryOperator<Publisher<Object>> concurrencyOperator;
+    private final ClusterRateLimiter clusterRateLimiter;
+    private final UnaryOperator<Publisher<Object>> clusterRateLimitOperator;
+    private final ThrottlingFeedbackLimiter throttling;
+    private final UnaryOperator<Publisher<Object>> throttlingOperator;
+    private final RetryBudget retryBudget;
+    private final PspLoadTracker.ProviderLoad providerLoad;
+
+    /**
+     * Configured limitForPeriod before the throttling rate factor is applied.
+     */
+    private volatile int baseLimitForPeriod;
+
+    /**
+     * Resilience instances and their operators. Replaced atomically on runtime
+     * reconfiguration; executions already assembled keep the previous instances.
+     */
+    private volatile Stages stages;
+
+    private final PspMetrics.OperationMeters operationMeters;
+
+    /**
+     * Per-attempt timers indexed by [status][attempt - 1]. Attempts beyond the
+     * configured maximum share the last slot to keep the tag cardinality bounded.
+     */
+    private final Timer[][] attemptTimers;
+
+    ResiliencePipeline(
+            String providerName,
+            String operationType,
+            String instanceName,
+            boolean tagInstance,
+            CircuitBreaker circuitBreaker,
+            RateLimiter rateLimiter,
+            Bulkhead bulkhead,
+            Retry retry,
+            TimeLimiter timeLimiter,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            ClusterRateLimiter clusterRateLimiter,
+            ThrottlingFeedbackLimiter throttling,
+            RetryBudget retryBudget,
+            PspLoadTracker.ProviderLoad providerLoad,
+            PspMetrics.OperationMeters operationMeters,
+            MeterRegistry meterRegistry,
+            ExecutionMode executionMode,
+            HedgingPolicy hedgingPolicy,
+            boolean hedgeByDefault) {
+        this.providerName = providerName;
+        this.operationType = operationType;
+        this.instanceName = instanceName;
+        this.meterRegistry = meterRegistry;
+        this.executionMode = executionMode;
+        this.hedgingPolicy = hedgingPolicy;
+        this.hedgeByDefault = hedgeByDefault && hedgingPolicy != null;
+
+        Tags tags = Tags.of("provider", providerName, "operation", operationType);
+        this.baseTags = tagInstance ? tags.and("instance", instanceName) : tags;
+
+        this.bulkhead = bulkhead;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.concurrencyOperator = concurrencyLimiter != null
+                ? adaptiveConcurrencyOperator(concurrencyLimiter)
+                : BulkheadOperator.of(bulkhead);
+        this.clusterRateLimiter = clusterRateLimiter;
+        this.clusterRateLimitOperator = clusterRateLimiter != null
+                ? publisher -> clusterRateLimiter.acquirePermission().then(Mono.from(publisher))
+                : null;
+        this.stages = new Stages(circuitBreaker, rateLimiter, retry, timeLimiter);
+        this.baseLimitForPeriod = rateLimiter.getRateLimiterConfig().getLimitForPeriod();
+        this.throttling = throttling;
+        this.retryBudget = retryBudget;
+        this.providerLoad = providerLoad;
+        this.throttlingOperator = throttling != null
+                ? publisher -> throttling.apply(Mono.from(publisher), rateLimitTimeout())
+                : null;
+        if (throttling != null) {
+            throttling.addListener(this::applyRateFactor);
+            applyRateFactor();
+        }
+
+        this.operationMeters = operationMeters;
+        this.attemptTimers = executionMode == ExecutionMode.DEFERRED
+                ? registerAttemptTimers(Math.max(1, retry.getRetryConfig().getMaxAttempts()))
+                : null;
+    }
+
+    /**
+     * Execute a PSP operation through this pipeline.
+     *
+     * @param operation The actual PSP operation to execute
+     * @param <T> Return type
+     * @return Mono with resilience patterns applied
+     */
+    public <T> Mono<T> execute(Supplier<Mono<T>> operation) {
+        return hedgeByDefault ? executeHedged(operation) : run(operation);
+    }
+
+    /**
+     * Execute an idempotent PSP read through this pipeline with hedged requests.
+     * Falls back to {@link #execute(Supplier)} semantics when hedging is disabled.
+     *
+     * @param operation idempotent PSP read, invoked for the primary and any hedge request
+     * @param <T> Return type
+     * @return Mono with hedging and resilience patterns applied
+     */
+    public <T> Mono<T> executeHedged(Supplier<Mono<T>> operation) {
+        if (hedgingPolicy == null) {
+            return run(operation);
+        }
+        return run(() -> hedgingPolicy.execute(operation));
+    }
+
+    private <T> Mono<T> run(Supplier<Mono<T>> operation) {
+        if (executionMode == ExecutionMode.EAGER) {
+            return executeEager(operation);
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicInteger attempts = new AtomicInteger();
+            return applyResilience(Mono.defer(() -> attempt(operation, attempts.incrementAndGet())), start, attempts);
+        });
+    }
+
+    private <T> Mono<T> executeEager(Supplier<Mono<T>> operation) {
+        long start = System.nanoTime();
+        Mono<T> call = operation.get();
+        return Mono.defer(() -> {
+            AtomicInteger attempts = new AtomicInteger();
+            return applyResilience(call.doOnSubscribe(subscription -> attempts.incrementAndGet()), start, attempts);
+        });
+    }
+
+    private <T> Mono<T> attempt(Supplier<Mono<T>> operation, int attempt) {
+        int slot = Math.min(attempt, attemptTimers[ATTEMPT_SUCCESS].length) - 1;
+        long start = System.nanoTime();
+        return operation.get()
+                .doOnSuccess(result -> recordAttempt(ATTEMPT_SUCCESS, slot, start))
+                .doOnError(error -> recordAttempt(ATTEMPT_FAILURE, slot, start))
+                .doOnCancel(() -> recordAttempt(ATTEMPT_CANCELLED, slot, start));
+    }
+
+    private void recordAttempt(int status, int slot, long startNanos) {
+        attemptTimers[status][slot].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> applyResilience(Mono<T> operation, long startNanos, AtomicInteger attempts) {
+        Stages current = stages;
+        Mono<Object> call = (Mono<Object>) operation;
+        if (throttlingOperator != null) {
+            call = call.transformDeferred(throttlingOperator);
+        }
+        call = call
+                // Apply resilience patterns in order
+                .transformDeferred(current.circuitBreakerOperator())
+                .transformDeferred(clusterRateLimitOperator != null
+                        ? clusterRateLimitOperator
+                        : current.rateLimiterOperator())
+                .transformDeferred(concurrencyOperator)
+                .transformDeferred(current.retryOperator());
+        if (retryBudget != null) {
+            call = call.doOnError(error -> retryBudget.onFailure(current.retry(), error, attempts.get()));
+        }
+        call = call.transformDeferred(current.timeLimiterOperator());
+        if (providerLoad != null) {
+            call = providerLoad.track(call);
+        }
+        return (Mono<T>) call
+                // Record metrics
+                .doOnSuccess(result -> {
+                    operationMeters.record(PspOperationOutcome.SUCCESS, System.nanoTime() - startNanos);
+                    if (retryBudget != null) {
+                        retryBudget.onSuccess();
+                    }
+                    logger.debug("PSP operation successful: {}.{}", providerName, operationType);
+                })
+                .doOnError(error -> {
+                    operationMeters.recordError(error, System.nanoTime() - startNanos);
+                    logger.error("PSP operation failed: {}.{} - {}",
+                            providerName, operationType, error.getMessage());
+                });
+    }
+
+    private UnaryOperator<Publisher<Object>> adaptiveConcurrencyOperator(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder(CONCURRENCY_LIMIT_GAUGE, limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tags(baseTags)
+                .register(meterRegistry);
+        Gauge.builder(CONCURRENCY_INFLIGHT_GAUGE, limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .tags(baseTags)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder(CONCURRENCY_REJECTED_COUNTER).tags(baseTags).register(meterRegistry);
+        return new AdaptiveConcurrencyLimitOperator<>(limiter, providerName, operationType, rejected);
+    }
+
+    private Timer[][] registerAttemptTimers(int maxAttempts) {
+        Timer[][] timers = new Timer[ATTEMPT_STATUSES.length][maxAttempts];
+        for (int status = 0; status < ATTEMPT_STATUSES.length; status++) {
+            for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+                timers[status][attempt - 1] = Timer.builder(ATTEMPT_TIMER_NAME)
+                        .tags(baseTags.and("status", ATTEMPT_STATUSES[status], "attempt", String.valueOf(attempt)))
+                        .register(meterRegistry);
+            }
+        }
+        return timers;
+    }
+
+    public String getProviderName() {
+        return providerName;
+    }
+
+    public String getOperationType() {
+        return operationType;
+    }
+
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    /**
+     * Swap the resilience instances used by subsequent executions.
+     * In-flight executions complete with the instances they were assembled with.
+     *
+     * @param limitForPeriod configured rate limit, before any throttling rate factor
+     */
+    void replaceStages(
+            CircuitBreaker circuitBreaker,
+            RateLimiter rateLimiter,
+            Retry retry,
+            TimeLimiter timeLimiter,
+            int limitForPeriod) {
+        this.stages = new Stages(circuitBreaker, rateLimiter, retry, timeLimiter);
+        this.baseLimitForPeriod = limitForPeriod;
+        if (throttling != null) {
+            applyRateFactor();
+        }
+    }
+
+    private void applyRateFactor() {
+        if (clusterRateLimiter != null) {
+            clusterRateLimiter.setRateFactor(throttling.getRateFactor());
+        } else {
+            stages.rateLimiter().changeLimitForPeriod(throttling.scale(baseLimitForPeriod));
+        }
+    }
+
+    private Duration rateLimitTimeout() {
+        return clusterRateLimiter != null
+                ? clusterRateLimiter.getConfig().getTimeoutDuration()
+                : stages.rateLimiter().getRateLimiterConfig().getTimeoutDuration();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return stages.circuitBreaker();
+    }
+
+    public RateLimiter getRateLimiter() {
+        return stages.rateLimiter();
+    }
+
+    /**
+     * Cluster-wide rate limiter, or null when the in-process rate limiter is used.
+     */
+    public ClusterRateLimiter getClusterRateLimiter() {
+        return clusterRateLimiter;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Adaptive concurrency limiter, or null when the static bulkhead is used.
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public Retry getRetry() {
+        return stages.retry();
+    }
+
+    public TimeLimiter getTimeLimiter() {
+        return stages.timeLimiter();
+    }
+
+    /**
+     * Provider throttling feedback, or null when disabled.
+     */
+    public ThrottlingFeedbackLimiter getThrottling() {
+        return throttling;
+    }
+
+    /**
+     * Provider retry budget, or null when disabled.
+     */
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public PspLoadTracker.ProviderLoad getProviderLoad() {
+        return providerLoad;
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    private record Stages(
+            CircuitBreaker circuitBreaker,
+            RateLimiter rateLimiter,
+            Retry retry,
+            TimeLimiter timeLimiter,
+            CircuitBreakerOperator<Object> circuitBreakerOperator,
+            RateLimiterOperator<Object> rateLimiterOperator,
+            RetryOperator<Object> retryOperator,
+            TimeLimiterOperator<Object> timeLimiterOperator
+    ) {
+        Stages(CircuitBreaker circuitBreaker, RateLimiter rateLimiter, Retry retry, TimeLimiter timeLimiter) {
+            this(circuitBreaker, rateLimiter, retry, timeLimiter,
+                    CircuitBreakerOperator.of(circuitBreaker),
+                    RateLimiterOperator.of(rateLimiter),
+                    RetryOperator.of(retry),
+                    TimeLimiterOperator.of(timeLimiter));
+        }
+    }
+}
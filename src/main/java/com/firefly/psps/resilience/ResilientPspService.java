@@ -16,23 +16,26 @@
 
 package com.firefly.psps.resilience;
 
+import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.metrics.PspMetrics;
 import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
-import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
-import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
-import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
-import io.github.resilience4j.reactor.retry.RetryOperator;
-import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
@@ -46,23 +49,41 @@ import java.util.function.Supplier;
  * - Time Limiter: Timeout protection
  * - Metrics: Records operation timing and success/failure rates
  * 
+ * The operator chain and meters for each (provider, operation) pair are resolved once
+ * into a {@link ResiliencePipeline} and cached, so repeated calls skip the registry lookups.
+ * By default the operation supplier is invoked per subscription attempt, so retries
+ * re-issue the PSP call (see {@link PspResilienceProperties.ExecutionMode}).
+ * Provider and operation profiles from {@link PspResilienceProperties} select the named
+ * Resilience4j configuration used for each pipeline.
+ * 
  * Usage:
  * <pre>
  * resilientService.execute("stripe-payment", "createPayment",
  *     () -> pspAdapter.payments().createPayment(request));
+ * 
+ * // or hold the pipeline handle directly
+ * ResiliencePipeline pipeline = resilientService.pipeline("stripe", "createPayment");
+ * pipeline.execute(() -> pspAdapter.payments().createPayment(request));
  * </pre>
  */
 @Component
 public class ResilientPspService {
 
-    private static final Logger logger = LoggerFactory.getLogger(ResilientPspService.class);
-
     private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final RateLimiterRegistry rateLimiterRegistry;
     private final RetryRegistry retryRegistry;
     private final BulkheadRegistry bulkheadRegistry;
     private final TimeLimiterRegistry timeLimiterRegistry;
     private final MeterRegistry meterRegistry;
+    private final PspResilienceProperties properties;
+    private final RateLimitCoordinator rateLimitCoordinator;
+    private final PspMetrics metrics;
+    private final PspLoadTracker loadTracker;
+
+    private final Map<String, Map<String, ResiliencePipeline>> pipelines = new ConcurrentHashMap<>();
+    private final Map<NamedPipelineKey, ResiliencePipeline> namedPipelines = new ConcurrentHashMap<>();
+    private final Map<String, ThrottlingFeedbackLimiter> throttlingLimiters = new ConcurrentHashMap<>();
+    private final Map<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
 
     public ResilientPspService(
             CircuitBreakerRegistry circuitBreakerRegistry,
@@ -71,12 +92,68 @@ public class ResilientPspService {
             BulkheadRegistry bulkheadRegistry,
             TimeLimiterRegistry timeLimiterRegistry,
             MeterRegistry meterRegistry) {
+        this(circuitBreakerRegistry, rateLimiterRegistry, retryRegistry, bulkheadRegistry,
+                timeLimiterRegistry, meterRegistry, new PspResilienceProperties());
+    }
+
+    public ResilientPspService(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            MeterRegistry meterRegistry,
+            PspResilienceProperties properties) {
+        this(circuitBreakerRegistry, rateLimiterRegistry, retryRegistry, bulkheadRegistry,
+                timeLimiterRegistry, meterRegistry, properties, null);
+    }
+
+    /**
+     * @param rateLimitCoordinator coordinator for cluster-wide rate limits; required when
+     *                             any rate limiter is configured with mode CLUSTER
+     */
+    public ResilientPspService(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            MeterRegistry meterRegistry,
+            PspResilienceProperties properties,
+            RateLimitCoordinator rateLimitCoordinator) {
+        this(circuitBreakerRegistry, rateLimiterRegistry, retryRegistry, bulkheadRegistry, timeLimiterRegistry,
+                meterRegistry, properties, rateLimitCoordinator, new PspMetrics(meterRegistry, properties.getMetrics()));
+    }
+
+    /**
+     * @param metrics pre-registered PSP operation meters
+     */
+    public ResilientPspService(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            RateLimiterRegistry rateLimiterRegistry,
+            RetryRegistry retryRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            MeterRegistry meterRegistry,
+            PspResilienceProperties properties,
+            RateLimitCoordinator rateLimitCoordinator,
+            PspMetrics metrics) {
+        if (rateLimitCoordinator == null && usesClusterRateLimit(properties)) {
+            throw new PspConfigurationException(
+                    "Cluster rate limiting is configured but no RateLimitCoordinator is available");
+        }
         this.circuitBreakerRegistry = circuitBreakerRegistry;
         this.rateLimiterRegistry = rateLimiterRegistry;
         this.retryRegistry = retryRegistry;
         this.bulkheadRegistry = bulkheadRegistry;
         this.timeLimiterRegistry = timeLimiterRegistry;
         this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.rateLimitCoordinator = rateLimitCoordinator;
+        this.metrics = metrics;
+        this.loadTracker = properties.getLoadTracking().isEnabled()
+                ? new PspLoadTracker(properties.getLoadTracking(), meterRegistry)
+                : null;
     }
 
     /**
@@ -89,55 +166,21 @@ public class ResilientPspService {
      * @return Mono with resilience patterns applied
      */
     public <T> Mono<T> execute(String providerName, String operationType, Supplier<Mono<T>> operation) {
-        String instanceName = providerName + "-" + operationType;
-        
-        // Create timer for metrics
-        Timer.Sample sample = Timer.start(meterRegistry);
-        
-        return operation.get()
-                // Apply resilience patterns in order
-                .transformDeferred(CircuitBreakerOperator.of(
-                        circuitBreakerRegistry.circuitBreaker(instanceName)))
-                .transformDeferred(RateLimiterOperator.of(
-                        rateLimiterRegistry.rateLimiter(instanceName)))
-                .transformDeferred(BulkheadOperator.of(
-                        bulkheadRegistry.bulkhead(instanceName)))
-                .transformDeferred(RetryOperator.of(
-                        retryRegistry.retry(instanceName)))
-                .transformDeferred(TimeLimiterOperator.of(
-                        timeLimiterRegistry.timeLimiter(instanceName)))
-                // Record metrics
-                .doOnSuccess(result -> {
-                    sample.stop(Timer.builder("psp.operation")
-                            .tag("provider", providerName)
-                            .tag("operation", operationType)
-                            .tag("status", "success")
-                            .register(meterRegistry));
-                    
-                    meterRegistry.counter("psp.operation.count",
-                            "provider", providerName,
-                            "operation", operationType,
-                            "status", "success").increment();
-                    
-                    logger.debug("PSP operation successful: {}.{}", providerName, operationType);
-                })
-                .doOnError(error -> {
-                    sample.stop(Timer.builder("psp.operation")
-                            .tag("provider", providerName)
-                            .tag("operation", operationType)
-                            .tag("status", "failure")
-                            .tag("error", error.getClass().getSimpleName())
-                            .register(meterRegistry));
-                    
-                    meterRegistry.counter("psp.operation.count",
-                            "provider", providerName,
-                            "operation", operationType,
-                            "status", "failure",
-                            "error", error.getClass().getSimpleName()).increment();
-                    
-                    logger.error("PSP operation failed: {}.{} - {}", 
-                            providerName, operationType, error.getMessage());
-                });
+        return pipeline(providerName, operationType).execute(operation);
+    }
+
+    /**
+     * Execute an idempotent PSP read with hedged requests (see {@link HedgingPolicy}).
+     * Behaves like {@link #execute(String, String, Supplier)} when hedging is disabled.
+     *
+     * @param providerName PSP provider name (e.g., "stripe", "adyen")
+     * @param operationType Type of operation (e.g., "getPayment")
+     * @param operation idempotent PSP read to execute
+     * @param <T> Return type
+     * @return Mono with hedging and resilience patterns applied
+     */
+    public <T> Mono<T> executeHedged(String providerName, String operationType, Supplier<Mono<T>> operation) {
+        return pipeline(providerName, operationType).executeHedged(operation);
     }
 
     /**
@@ -149,36 +192,173 @@ public class ResilientPspService {
             String providerName, 
             String operationType, 
             Supplier<Mono<T>> operation) {
-        
-        Timer.Sample sample = Timer.start(meterRegistry);
-        
-        return operation.get()
-                .transformDeferred(CircuitBreakerOperator.of(
-                        circuitBreakerRegistry.circuitBreaker(instanceName)))
-                .transformDeferred(RateLimiterOperator.of(
-                        rateLimiterRegistry.rateLimiter(instanceName)))
-                .transformDeferred(BulkheadOperator.of(
-                        bulkheadRegistry.bulkhead(instanceName)))
-                .transformDeferred(RetryOperator.of(
-                        retryRegistry.retry(instanceName)))
-                .transformDeferred(TimeLimiterOperator.of(
-                        timeLimiterRegistry.timeLimiter(instanceName)))
-                .doOnSuccess(result -> {
-                    sample.stop(Timer.builder("psp.operation")
-                            .tag("provider", providerName)
-                            .tag("operation", operationType)
-                            .tag("instance", instanceName)
-                            .tag("status", "success")
-                            .register(meterRegistry));
-                })
-                .doOnError(error -> {
-                    sample.stop(Timer.builder("psp.operation")
-                            .tag("provider", providerName)
-                            .tag("operation", operationType)
-                            .tag("instance", instanceName)
-                            .tag("status", "failure")
-                            .tag("error", error.getClass().getSimpleName())
-                            .register(meterRegistry));
-                });
+        return pipeline(instanceName, providerName, operationType).execute(operation);
+    }
+
+    /**
+     * Get the cached resilience pipeline for a provider operation, creating it on first use.
+     * The resilience instances are named {@code providerName + "-" + operationType}.
+     *
+     * @param providerName PSP provider name (e.g., "stripe", "adyen")
+     * @param operationType Type of operation (e.g., "payment", "refund")
+     * @return pipeline handle that can be held and reused by adapters
+     */
+    public ResiliencePipeline pipeline(String providerName, String operationType) {
+        Map<String, ResiliencePipeline> byOperation = pipelines.get(providerName);
+        if (byOperation == null) {
+            byOperation = pipelines.computeIfAbsent(providerName, key -> new ConcurrentHashMap<>());
+        }
+        ResiliencePipeline pipeline = byOperation.get(operationType);
+        if (pipeline == null) {
+            pipeline = byOperation.computeIfAbsent(operationType,
+                    key -> createPipeline(providerName + "-" + key, providerName, key, false));
+        }
+        return pipeline;
+    }
+
+    /**
+     * Get the cached resilience pipeline bound to an explicit resilience instance name.
+     * Pipelines are cached per provider operation, so providers sharing an instance
+     * name still get their own pipeline and meters.
+     *
+     * @param instanceName name of the resilience instances to use
+     * @param providerName PSP provider name
+     * @param operationType Type of operation
+     * @return pipeline handle that can be held and reused by adapters
+     */
+    public ResiliencePipeline pipeline(String instanceName, String providerName, String operationType) {
+        NamedPipelineKey pipelineKey = new NamedPipelineKey(instanceName, providerName, operationType);
+        ResiliencePipeline pipeline = namedPipelines.get(pipelineKey);
+        if (pipeline == null) {
+            pipeline = namedPipelines.computeIfAbsent(pipelineKey,
+                    key -> createPipeline(instanceName, providerName, operationType, true));
+        }
+        return pipeline;
+    }
+
+    /**
+     * All pipelines created so far.
+     *
+     * @return snapshot of the live pipelines
+     */
+    public Collection<ResiliencePipeline> getPipelines() {
+        List<ResiliencePipeline> all = new ArrayList<>(namedPipelines.values());
+        pipelines.values().forEach(byOperation -> all.addAll(byOperation.values()));
+        return all;
+    }
+
+    /**
+     * Per-provider latency and in-flight calls observed by the pipelines.
+     *
+     * @return load tracker, or null if load tracking is disabled
+     */
+    public PspLoadTracker getLoadTracker() {
+        return loadTracker;
+    }
+
+    private ResiliencePipeline createPipeline(
+            String instanceName, String providerName, String operationType, boolean tagInstance) {
+        PspResilienceProperties.HedgingConfig hedging = properties.getHedging();
+        HedgingPolicy hedgingPolicy = hedging.isEnabled()
+                ? new HedgingPolicy(hedging, meterRegistry, Tags.of("provider", providerName, "operation", operationType))
+                : null;
+        PspResilienceProperties.ResolvedProfile resolved = properties.resolve(providerName, operationType);
+        PspResilienceProperties.BulkheadConfig bulkhead = resolved.bulkhead();
+        AdaptiveConcurrencyLimiter concurrencyLimiter = bulkhead.getType() == PspResilienceProperties.BulkheadType.ADAPTIVE
+                ? new AdaptiveConcurrencyLimiter(bulkhead.getAdaptive())
+                : null;
+        ClusterRateLimiter clusterRateLimiter = isCluster(resolved.rateLimiter())
+                ? new ClusterRateLimiter(instanceName, providerName, operationType,
+                        resolved.rateLimiter(), requireCoordinator())
+                : null;
+        ThrottlingFeedbackLimiter throttling = properties.getThrottling().isEnabled()
+                ? throttlingLimiters.computeIfAbsent(providerName,
+                        key -> new ThrottlingFeedbackLimiter(key, properties.getThrottling(), meterRegistry))
+                : null;
+        RetryBudget retryBudget = properties.getRetryBudget().isEnabled()
+                ? retryBudgets.computeIfAbsent(providerName,
+                        key -> new RetryBudget(key, properties.getRetryBudget(), meterRegistry))
+                : null;
+
+        // Most specific named configuration registered by PspResilienceConfiguration, if any
+        String profile = properties.profileName(providerName, operationType);
+        Retry retry;
+        if (retryBudget != null) {
+            RetryConfig retryConfig = profile == null
+                    ? retryRegistry.getDefaultConfig()
+                    : retryRegistry.getConfiguration(profile).orElseGet(retryRegistry::getDefaultConfig);
+            // The budget is per provider, so a shared named instance gets a retry per provider
+            String retryName = tagInstance ? providerName + "-" + instanceName : instanceName;
+            retry = budgetedRetry(retryBudget, retryName, retryConfig);
+        } else {
+            retry = profile == null
+                    ? retryRegistry.retry(instanceName)
+                    : retryRegistry.retry(instanceName, profile);
+        }
+        return new ResiliencePipeline(
+                providerName,
+                operationType,
+                instanceName,
+                tagInstance,
+                profile == null
+                        ? circuitBreakerRegistry.circuitBreaker(instanceName)
+                        : circuitBreakerRegistry.circuitBreaker(instanceName, profile),
+                profile == null
+                        ? rateLimiterRegistry.rateLimiter(instanceName)
+                        : rateLimiterRegistry.rateLimiter(instanceName, profile),
+                profile == null
+                        ? bulkheadRegistry.bulkhead(instanceName)
+                        : bulkheadRegistry.bulkhead(instanceName, profile),
+                retry,
+                profile == null
+                        ? timeLimiterRegistry.timeLimiter(instanceName)
+                        : timeLimiterRegistry.timeLimiter(instanceName, profile),
+                concurrencyLimiter,
+                clusterRateLimiter,
+                throttling,
+                retryBudget,
+                loadTracker != null ? loadTracker.provider(providerName) : null,
+                tagInstance
+                        ? metrics.operation(providerName, operationType, instanceName)
+                        : metrics.operation(providerName, operationType),
+                meterRegistry,
+                properties.getExecutionMode(),
+                hedgingPolicy,
+                hedging.getOperations().contains(operationType));
+    }
+
+    private RateLimitCoordinator requireCoordinator() {
+        if (rateLimitCoordinator == null) {
+            throw new PspConfigurationException(
+                    "Cluster rate limiting is configured but no RateLimitCoordinator is available");
+        }
+        return rateLimitCoordinator;
+    }
+
+    private static boolean usesClusterRateLimit(PspResilienceProperties properties) {
+        return isCluster(properties.getRateLimiter())
+                || properties.resolveProfiles().values().stream()
+                        .anyMatch(profile -> isCluster(profile.rateLimiter()));
+    }
+
+    /**
+     * Register a new budget-aware retry instance. An existing instance of the same name
+     * is replaced, since its configuration does not consult the budget.
+     */
+    private Retry budgetedRetry(RetryBudget retryBudget, String name, RetryConfig config) {
+        RetryConfig budgetedConfig = retryBudget.retryConfig(name, config);
+        Retry retry = retryRegistry.retry(name, () -> budgetedConfig);
+        if (retry.getRetryConfig() != budgetedConfig) {
+            retry = Retry.of(name, budgetedConfig);
+            retryRegistry.replace(name, retry);
+        }
+        return retryBudget.track(retry);
+    }
+
+    private static boolean isCluster(PspResilienceProperties.RateLimiterConfig config) {
+        return config.getMode() == PspResilienceProperties.RateLimiterMode.CLUSTER;
+    }
+
+    private record NamedPipelineKey(String instanceName, String providerName, String operationType) {
     }
 }
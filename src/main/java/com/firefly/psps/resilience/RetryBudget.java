@@ -0,0 +1,191 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Retry budget shared by all operations of one provider.
+ *
+ * Retries are permitted while the retries in the sliding window stay below
+ * {@code minRetriesPerSecond * window + retryRatio * successes}. During a brownout
+ * successes dry up, so retries stop amplifying the load on the provider instead of
+ * multiplying it by {@code maxAttempts}.
+ *
+ * The window is a ring of time buckets; each bucket is reset lazily when time
+ * moves into it again, so recording is a couple of atomic increments.
+ *
+ * The budget is consulted by the retry's exception predicate and charged when the retry is
+ * actually scheduled (see {@link #retry}). Denials are counted once the call has failed
+ * ({@link #onFailure}), because the predicate is also evaluated on the last attempt, when no
+ * retry would have been made anyway.
+ *
+ * Metrics (tagged by provider):
+ * - {@code psp.retry.budget.exhausted}: retries denied by the budget
+ * - {@code psp.retry.budget.available}: retries currently permitted
+ */
+public final class RetryBudget {
+
+    static final String EXHAUSTED_COUNTER = "psp.retry.budget.exhausted";
+    static final String AVAILABLE_GAUGE = "psp.retry.budget.available";
+
+    private final double retryRatio;
+    private final double minRetries;
+    private final long bucketNanos;
+    private final int bucketCount;
+
+    private final AtomicLongArray bucketEpochs;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray retries;
+
+    private final Counter exhaustedCounter;
+    private final Map<String, Predicate<Throwable>> retryablePredicates = new ConcurrentHashMap<>();
+
+    public RetryBudget(
+            String providerName,
+            PspResilienceProperties.RetryBudgetConfig config,
+            MeterRegistry meterRegistry) {
+        if (config.getWindowBuckets() < 1 || config.getWindow().isZero() || config.getWindow().isNegative()) {
+            throw new IllegalArgumentException("Retry budget window and bucket count must be positive");
+        }
+        this.retryRatio = config.getRetryRatio();
+        this.minRetries = config.getMinRetriesPerSecond() * config.getWindow().toMillis() / 1000.0;
+        this.bucketCount = config.getWindowBuckets();
+        this.bucketNanos = Math.max(1, config.getWindow().toNanos() / bucketCount);
+        this.bucketEpochs = new AtomicLongArray(bucketCount);
+        this.successes = new AtomicLongArray(bucketCount);
+        this.retries = new AtomicLongArray(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            bucketEpochs.set(i, Long.MIN_VALUE);
+        }
+
+        Tags tags = Tags.of("provider", providerName);
+        this.exhaustedCounter = Counter.builder(EXHAUSTED_COUNTER).tags(tags).register(meterRegistry);
+        Gauge.builder(AVAILABLE_GAUGE, this, RetryBudget::available)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a successful call.
+     */
+    public void onSuccess() {
+        successes.incrementAndGet(currentBucket());
+    }
+
+    /**
+     * Record a scheduled retry.
+     */
+    public void onRetry() {
+        retries.incrementAndGet(currentBucket());
+    }
+
+    /**
+     * Whether the budget allows another retry.
+     */
+    public boolean canRetry() {
+        return available() >= 1;
+    }
+
+    /**
+     * Record a call that failed after its retries. A retryable error before the last attempt
+     * means the budget denied the next retry, which is counted in the metrics.
+     *
+     * @param retry retry instance created by {@link #retry}
+     * @param error error the call failed with
+     * @param attempts attempts made, including the first call
+     */
+    public void onFailure(Retry retry, Throwable error, int attempts) {
+        Predicate<Throwable> retryable = retryablePredicates.get(retry.getName());
+        if (retryable != null && attempts < retry.getRetryConfig().getMaxAttempts() && retryable.test(error)) {
+            exhaustedCounter.increment();
+        }
+    }
+
+    /**
+     * Retries currently permitted by the budget.
+     */
+    public double available() {
+        long epoch = System.nanoTime() / bucketNanos;
+        long windowSuccesses = 0;
+        long windowRetries = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long age = epoch - bucketEpochs.get(i);
+            if (age >= 0 && age < bucketCount) {
+                windowSuccesses += successes.get(i);
+                windowRetries += retries.get(i);
+            }
+        }
+        return Math.max(0, minRetries + retryRatio * windowSuccesses - windowRetries);
+    }
+
+    /**
+     * Create a new retry instance that only retries while the budget allows it and charges
+     * the budget for every retry it schedules.
+     *
+     * @param name retry instance name, unique to this budget's provider
+     * @param config retry configuration without the budget
+     */
+    public Retry retry(String name, RetryConfig config) {
+        return track(Retry.of(name, retryConfig(name, config)));
+    }
+
+    /**
+     * Retry configuration that only retries while the budget allows it.
+     *
+     * @param name name of the retry instance the configuration is for
+     * @param config retry configuration without the budget
+     */
+    public RetryConfig retryConfig(String name, RetryConfig config) {
+        Predicate<Throwable> retryable = config.getExceptionPredicate();
+        retryablePredicates.put(name, retryable);
+        return RetryConfig.from(config)
+                .retryOnException(retryable.and(error -> canRetry()))
+                .build();
+    }
+
+    /**
+     * Charge the budget for every retry scheduled by a retry instance created with
+     * {@link #retryConfig}. Call once per instance.
+     */
+    public Retry track(Retry retry) {
+        retry.getEventPublisher().onRetry(event -> onRetry());
+        return retry;
+    }
+
+    private int currentBucket() {
+        long epoch = System.nanoTime() / bucketNanos;
+        int index = (int) Math.floorMod(epoch, (long) bucketCount);
+        long bucketEpoch = bucketEpochs.get(index);
+        if (bucketEpoch != epoch && bucketEpochs.compareAndSet(index, bucketEpoch, epoch)) {
+            successes.set(index, 0);
+            retries.set(index, 0);
+        }
+        return index;
+    }
+}
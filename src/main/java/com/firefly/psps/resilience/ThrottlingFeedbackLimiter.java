@@ -0,0 +1,186 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.exceptions.ProviderPausedException;
+import com.firefly.psps.exceptions.PspThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Lowers a provider's permitted call rate when the provider reports throttling.
+ *
+ * Shared by all pipelines of one provider. Adapters signal throttling by failing with
+ * {@link PspThrottledException}; each such response:
+ * - pauses new calls to the provider until its Retry-After has elapsed
+ * - multiplies the provider's rate factor by {@code decreaseFactor} (down to {@code minRateFactor}),
+ *   at most once per pause, so a burst of concurrent 429s lowers the rate only once
+ *
+ * Calls that would wait longer than the caller's limit for a pause to end fail with
+ * {@link ProviderPausedException}, which the circuit breakers and retries built by
+ * {@code PspResilienceConfiguration} ignore: the provider was not contacted.
+ *
+ * After every {@code recoveryInterval} without throttling, the next successful call
+ * restores {@code recoveryStep} of the configured rate, until the full rate is reached.
+ * Pipelines apply the factor to their rate limiter's {@code limitForPeriod}.
+ *
+ * Metrics (tagged by provider):
+ * - {@code psp.ratelimit.rate.factor}: current fraction of the configured rate
+ * - {@code psp.ratelimit.throttled}: throttling responses reported by adapters
+ */
+public final class ThrottlingFeedbackLimiter {
+
+    static final String RATE_FACTOR_GAUGE = "psp.ratelimit.rate.factor";
+    static final String THROTTLED_COUNTER = "psp.ratelimit.throttled";
+
+    private final String providerName;
+    private final double decreaseFactor;
+    private final double minRateFactor;
+    private final double recoveryStep;
+    private final long recoveryIntervalNanos;
+    private final long defaultRetryAfterNanos;
+    private final long maxRetryAfterNanos;
+
+    private final Counter throttledCounter;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile double rateFactor = 1.0;
+    private volatile long lastChangeNanos = System.nanoTime();
+    private volatile long pausedUntilNanos = System.nanoTime();
+
+    public ThrottlingFeedbackLimiter(
+            String providerName,
+            PspResilienceProperties.ThrottlingConfig config,
+            MeterRegistry meterRegistry) {
+        this.providerName = providerName;
+        this.decreaseFactor = config.getDecreaseFactor();
+        this.minRateFactor = config.getMinRateFactor();
+        this.recoveryStep = config.getRecoveryStep();
+        this.recoveryIntervalNanos = config.getRecoveryInterval().toNanos();
+        this.defaultRetryAfterNanos = config.getDefaultRetryAfter().toNanos();
+        this.maxRetryAfterNanos = config.getMaxRetryAfter().toNanos();
+
+        Tags tags = Tags.of("provider", providerName);
+        Gauge.builder(RATE_FACTOR_GAUGE, this, ThrottlingFeedbackLimiter::getRateFactor)
+                .tags(tags)
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder(THROTTLED_COUNTER).tags(tags).register(meterRegistry);
+    }
+
+    /**
+     * Guard one PSP call: wait out an active pause (up to {@code maxWait}) and feed the
+     * call's outcome back into the rate factor.
+     *
+     * @param call PSP call
+     * @param maxWait longest pause to wait for; longer pauses fail with {@link ProviderPausedException}
+     * @param <T> value type
+     * @return guarded call
+     */
+    public <T> Mono<T> apply(Mono<T> call, Duration maxWait) {
+        Mono<T> observed = call
+                .doOnSuccess(result -> onSuccess())
+                .doOnError(PspThrottledException.class, error -> onThrottled(error.getRetryAfter()));
+        long pauseNanos = pausedUntilNanos - System.nanoTime();
+        if (pauseNanos <= 0) {
+            return observed;
+        }
+        Duration pause = Duration.ofNanos(pauseNanos);
+        if (pause.compareTo(maxWait) > 0) {
+            return Mono.error(new ProviderPausedException(providerName, pause));
+        }
+        return Mono.delay(pause).then(observed);
+    }
+
+    /**
+     * Record a throttling response.
+     *
+     * @param retryAfter provider's Retry-After, or null
+     */
+    public void onThrottled(Duration retryAfter) {
+        throttledCounter.increment();
+        long now = System.nanoTime();
+        long pauseNanos = retryAfter != null
+                ? Math.min(retryAfter.toNanos(), maxRetryAfterNanos)
+                : defaultRetryAfterNanos;
+        boolean decreased = false;
+        synchronized (this) {
+            // Responses arriving while a pause is active belong to the same burst
+            if (now - pausedUntilNanos >= 0 && rateFactor > minRateFactor) {
+                rateFactor = Math.max(minRateFactor, rateFactor * decreaseFactor);
+                lastChangeNanos = now;
+                decreased = true;
+            }
+            if (now + pauseNanos - pausedUntilNanos > 0) {
+                pausedUntilNanos = now + pauseNanos;
+            }
+        }
+        if (decreased) {
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Record a successful call; restores part of the rate once the recovery interval has passed.
+     */
+    public void onSuccess() {
+        if (rateFactor >= 1.0 || System.nanoTime() - lastChangeNanos < recoveryIntervalNanos) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (rateFactor >= 1.0 || now - lastChangeNanos < recoveryIntervalNanos) {
+                return;
+            }
+            rateFactor = Math.min(1.0, rateFactor + recoveryStep);
+            lastChangeNanos = now;
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Register a callback invoked whenever the rate factor changes.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Current fraction of the configured rate, between {@code minRateFactor} and 1.
+     */
+    public double getRateFactor() {
+        return rateFactor;
+    }
+
+    /**
+     * Scale a configured limit by the current rate factor.
+     */
+    public int scale(int limitForPeriod) {
+        return Math.max(1, (int) Math.round(limitForPeriod * rateFactor));
+    }
+
+    private void notifyListeners() {
+        listeners.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.PaymentStatus;
+import com.firefly.psps.dtos.payments.CreatePaymentRequest;
+import com.firefly.psps.dtos.payments.PaymentResponse;
+import com.firefly.psps.routing.PspRouter.RoutingContext;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Authorization outcomes per payment segment and provider, driving AUTHORIZATION_RATE routing.
+ *
+ * A segment is the (currency, payment method, region) of a payment. Each provider of a
+ * segment is an arm of a Beta-Bernoulli bandit: approvals and declines are counted in
+ * {@link LongAdder}s, so recording an outcome never contends with selections, and
+ * {@link #select} draws from every candidate's Beta posterior (Thompson sampling) and
+ * picks the highest draw. Providers that approve more get most of the traffic while the
+ * others keep receiving a share proportional to the chance that they are better.
+ *
+ * Exploration is bounded by the observation window: once an arm has seen twice the
+ * window its counts are halved, so the posterior never becomes narrower than about
+ * {@code window} observations and a provider whose approval rate changes is noticed.
+ *
+ * Outcomes are taken from {@link PaymentResponse#getStatus()}: SUCCEEDED counts as
+ * approved and FAILED as declined. Other statuses (e.g. PROCESSING, REQUIRES_ACTION) are
+ * not final and are not recorded, so a payment created and later confirmed is counted once,
+ * with its final outcome. Declines that adapters raise as {@code PaymentFailedException}
+ * carry no response and are recorded with {@link #record(String, Segment, boolean)}.
+ *
+ * Selection reads the region from {@link RoutingContext#getRegion()} while recorded
+ * responses carry it in the {@code region} payment metadata entry ({@link #REGION_METADATA_KEY}).
+ * Callers must set that entry on the payment to the region they route with, otherwise
+ * outcomes land in a segment that selection never reads.
+ */
+public final class AuthorizationRateTracker {
+
+    public static final long DEFAULT_WINDOW = 1000;
+
+    /**
+     * Payment metadata key holding the region used for routing.
+     */
+    public static final String REGION_METADATA_KEY = "region";
+
+    private final long window;
+    private final ConcurrentHashMap<Segment, ConcurrentHashMap<String, Arm>> segments = new ConcurrentHashMap<>();
+
+    public AuthorizationRateTracker() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param window observations per arm after which older outcomes are discounted
+     */
+    public AuthorizationRateTracker(long window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Authorization rate window must be positive");
+        }
+        this.window = window;
+    }
+
+    /**
+     * Record the outcome of a create or confirm call; non-final statuses are ignored.
+     *
+     * @param providerName provider that processed the payment
+     * @param response PSP response
+     */
+    public void record(String providerName, PaymentResponse response) {
+        if (response == null || response.getStatus() == null) {
+            return;
+        }
+        Boolean approved = approved(response.getStatus());
+        if (approved != null) {
+            record(providerName, Segment.of(response), approved);
+        }
+    }
+
+    public void record(String providerName, Segment segment, boolean approved) {
+        segments.computeIfAbsent(segment, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(providerName, key -> new Arm())
+                .record(approved, window);
+    }
+
+    /**
+     * Thompson sampling over the available candidates.
+     *
+     * @return candidate with the highest sampled approval rate, or null if none is available
+     */
+    public PspAdapter select(List<PspAdapter> candidates, Predicate<PspAdapter> available, Segment segment) {
+        Map<String, Arm> arms = segments.get(segment);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PspAdapter best = null;
+        double bestDraw = -1;
+        for (int i = 0; i < candidates.size(); i++) {
+            PspAdapter adapter = candidates.get(i);
+            if (!available.test(adapter)) {
+                continue;
+            }
+            Arm arm = arms != null ? arms.get(adapter.getProviderName()) : null;
+            double draw = arm != null ? arm.sample(random) : random.nextDouble();
+            if (draw > bestDraw) {
+                best = adapter;
+                bestDraw = draw;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Posterior mean approval rate of a provider in a segment (0.5 without observations).
+     */
+    public double approvalRate(String providerName, Segment segment) {
+        Map<String, Arm> arms = segments.get(segment);
+        Arm arm = arms != null ? arms.get(providerName) : null;
+        return arm != null ? arm.mean() : 0.5;
+    }
+
+    /**
+     * Approvals, declines and approval rate per segment and provider.
+     */
+    public Map<String, Map<String, Map<String, Object>>> snapshot() {
+        Map<String, Map<String, Map<String, Object>>> snapshot = new LinkedHashMap<>();
+        segments.forEach((segment, arms) -> {
+            Map<String, Map<String, Object>> providers = new LinkedHashMap<>();
+            arms.forEach((provider, arm) -> {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("approved", arm.approved.sum());
+                stats.put("declined", arm.declined.sum());
+                stats.put("approvalRate", arm.mean());
+                providers.put(provider, stats);
+            });
+            snapshot.put(segment.toString(), providers);
+        });
+        return snapshot;
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * Whether a payment status is an approval (true), a decline (false) or not final (null).
+     */
+    static Boolean approved(PaymentStatus status) {
+        return switch (status) {
+            case SUCCEEDED -> Boolean.TRUE;
+            case FAILED -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Payment segment outcomes are tracked for.
+     *
+     * @param currency payment currency, or null if unknown
+     * @param paymentMethodType payment method type (upper case), or null if unknown
+     * @param region region, or null if unknown
+     */
+    public record Segment(Currency currency, String paymentMethodType, String region) {
+
+        public Segment {
+            paymentMethodType = paymentMethodType != null ? paymentMethodType.toUpperCase(Locale.ROOT) : null;
+        }
+
+        public static Segment of(RoutingContext context) {
+            return new Segment(context.getCurrency(), context.getPaymentMethodType(), context.getRegion());
+        }
+
+        public static Segment of(CreatePaymentRequest request) {
+            return new Segment(
+                    request.getAmount() != null ? request.getAmount().getCurrency() : null,
+                    request.getPaymentMethodType() != null ? request.getPaymentMethodType().name() : null,
+                    request.getMetadata() != null ? request.getMetadata().get(REGION_METADATA_KEY) : null);
+        }
+
+        public static Segment of(PaymentResponse response) {
+            return new Segment(
+                    response.getAmount() != null ? response.getAmount().getCurrency() : null,
+                    response.getPaymentMethodType() != null ? response.getPaymentMethodType().name() : null,
+                    response.getMetadata() != null ? response.getMetadata().get(REGION_METADATA_KEY) : null);
+        }
+
+        @Override
+        public String toString() {
+            return currency + "/" + paymentMethodType + "/" + region;
+        }
+    }
+
+    /**
+     * Beta(1 + approved, 1 + declined) posterior of one provider in one segment.
+     */
+    private static final class Arm {
+
+        private final LongAdder approved = new LongAdder();
+        private final LongAdder declined = new LongAdder();
+        private final AtomicBoolean decaying = new AtomicBoolean();
+
+        void record(boolean ok, long window) {
+            (ok ? approved : declined).increment();
+            if (approved.sum() + declined.sum() > 2 * window && decaying.compareAndSet(false, true)) {
+                try {
+                    // Outcomes recorded concurrently with the halving are kept in full
+                    approved.add(-(approved.sum() / 2));
+                    declined.add(-(declined.sum() / 2));
+                } finally {
+                    decaying.set(false);
+                }
+            }
+        }
+
+        double mean() {
+            long ok = approved.sum();
+            return (ok + 1.0) / (ok + declined.sum() + 2.0);
+        }
+
+        double sample(ThreadLocalRandom random) {
+            double x = gamma(1.0 + approved.sum(), random);
+            double y = gamma(1.0 + declined.sum(), random);
+            return x / (x + y);
+        }
+
+        /**
+         * Marsaglia-Tsang gamma sampler for shape >= 1.
+         */
+        private static double gamma(double shape, ThreadLocalRandom random) {
+            double d = shape - 1.0 / 3;
+            double c = 1 / Math.sqrt(9 * d);
+            while (true) {
+                double x;
+                double v;
+                do {
+                    x = random.nextGaussian();
+                    v = 1 + c * x;
+                } while (v <= 0);
+                v = v * v * v;
+                double u = random.nextDouble();
+                if (u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) {
+                    return d * v;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.exceptions.PspConfigurationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable in-memory index of card BIN (IIN) ranges.
+ *
+ * Ranges of 6 to 8 digits are normalized to 8-digit keys and flattened into sorted,
+ * non-overlapping segments held in primitive arrays; where ranges overlap, the narrowest
+ * one wins, so 8-digit ranges can refine a 6-digit range. A lookup is a binary search
+ * over a {@code long[]} and does not allocate.
+ *
+ * Ranges are loaded from a CSV file with the columns
+ * {@code bin_start,bin_end,brand,card_type,country}:
+ * <pre>
+ * # bin_start,bin_end,brand,card_type,country
+ * 400000,499999,VISA,CREDIT,
+ * 41111100,41111199,VISA,DEBIT,US
+ * 510000,559999,MASTERCARD,CREDIT,
+ * </pre>
+ * An empty {@code bin_end} means a single BIN; empty attributes are unknown. Lines starting
+ * with {@code #} and a header line are skipped.
+ */
+public final class BinRangeIndex {
+
+    /**
+     * {@code RoutingContext} metadata key holding the card BIN (or the leading digits of the PAN).
+     */
+    public static final String BIN_METADATA_KEY = "cardBin";
+
+    static final int KEY_DIGITS = 8;
+    static final int MIN_DIGITS = 6;
+
+    private static final BinRangeIndex EMPTY =
+            new BinRangeIndex(new long[0], new long[0], new int[0], new CardInfo[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] infoIds;
+    private final CardInfo[] infos;
+
+    private BinRangeIndex(long[] starts, long[] ends, int[] infoIds, CardInfo[] infos) {
+        this.starts = starts;
+        this.ends = ends;
+        this.infoIds = infoIds;
+        this.infos = infos;
+    }
+
+    public static BinRangeIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Load an index from a CSV file.
+     *
+     * @throws PspConfigurationException if the file cannot be read or a line is invalid
+     */
+    public static BinRangeIndex load(Path csv) {
+        try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return parse(reader, csv.toString());
+        } catch (IOException e) {
+            throw new PspConfigurationException("Cannot read BIN table " + csv + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parse an index from CSV.
+     *
+     * @param source name used in error messages
+     */
+    public static BinRangeIndex parse(Reader csv, String source) throws IOException {
+        Builder builder = builder();
+        BufferedReader reader = csv instanceof BufferedReader buffered ? buffered : new BufferedReader(csv);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")
+                    || (lineNumber == 1 && !Character.isDigit(trimmed.charAt(0)))) {
+                continue;
+            }
+            String[] columns = trimmed.split(",", -1);
+            try {
+                builder.range(columns[0].trim(),
+                        column(columns, 1) != null ? column(columns, 1) : columns[0].trim(),
+                        column(columns, 2), column(columns, 3), column(columns, 4));
+            } catch (IllegalArgumentException e) {
+                throw new PspConfigurationException(
+                        "Invalid BIN table line " + lineNumber + " in " + source + ": " + e.getMessage());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Card attributes of a BIN.
+     *
+     * @param bin BIN or PAN prefix; digits after the eighth, spaces and dashes are ignored
+     * @return card attributes, or null if the BIN is shorter than 6 digits or not indexed
+     */
+    public CardInfo lookup(CharSequence bin) {
+        int id = lookupId(bin);
+        return id >= 0 ? infos[id] : null;
+    }
+
+    /**
+     * Dense id of the card attributes of a BIN ({@code 0 <= id < getCardInfos().size()}),
+     * or -1 if the BIN is not indexed. Used to precompute per-card routing.
+     */
+    int lookupId(CharSequence bin) {
+        long key = key(bin);
+        if (key < 0) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(starts, key);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        return i >= 0 && key <= ends[i] ? infoIds[i] : -1;
+    }
+
+    /**
+     * Distinct card attributes, indexed by id.
+     */
+    public List<CardInfo> getCardInfos() {
+        return List.of(infos);
+    }
+
+    /**
+     * Number of non-overlapping segments after flattening.
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    /**
+     * 8-digit key of a BIN, padding shorter BINs with zeros, or -1 for fewer than 6 digits.
+     */
+    static long key(CharSequence bin) {
+        if (bin == null) {
+            return -1;
+        }
+        long key = 0;
+        int digits = 0;
+        for (int i = 0; i < bin.length() && digits < KEY_DIGITS; i++) {
+            char c = bin.charAt(i);
+            if (c >= '0' && c <= '9') {
+                key = key * 10 + (c - '0');
+                digits++;
+            } else if (c != ' ' && c != '-') {
+                return -1;
+            }
+        }
+        if (digits < MIN_DIGITS) {
+            return -1;
+        }
+        for (; digits < KEY_DIGITS; digits++) {
+            key *= 10;
+        }
+        return key;
+    }
+
+    /**
+     * Card attributes shared by a BIN range. Values are upper case; null means unknown.
+     *
+     * @param brand card scheme (VISA, MASTERCARD, AMEX, ...)
+     * @param cardType CREDIT, DEBIT, PREPAID, ...
+     * @param country issuer country (ISO 3166 alpha-2)
+     */
+    public record CardInfo(String brand, String cardType, String country) {
+    }
+
+    public static final class Builder {
+
+        private final List<long[]> ranges = new ArrayList<>();
+        private final Map<CardInfo, Integer> ids = new HashMap<>();
+        private final List<CardInfo> infos = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add a range; both bounds must have the same number of digits (6 to 8).
+         *
+         * @throws IllegalArgumentException if the bounds are invalid
+         */
+        public Builder range(String start, String end, String brand, String cardType, String country) {
+            if (start.length() != end.length() || start.length() < MIN_DIGITS || start.length() > KEY_DIGITS
+                    || !start.chars().allMatch(Character::isDigit) || !end.chars().allMatch(Character::isDigit)) {
+                throw new IllegalArgumentException("BIN range bounds must be 6 to 8 digits of equal length: "
+                        + start + "-" + end);
+            }
+            long scale = (long) Math.pow(10, KEY_DIGITS - start.length());
+            long from = Long.parseLong(start) * scale;
+            long to = Long.parseLong(end) * scale + scale - 1;
+            if (to < from) {
+                throw new IllegalArgumentException("BIN range end is before its start: " + start + "-" + end);
+            }
+            CardInfo info = new CardInfo(upper(brand), upper(cardType), upper(country));
+            int id = ids.computeIfAbsent(info, key -> {
+                infos.add(key);
+                return infos.size() - 1;
+            });
+            ranges.add(new long[]{from, to, id, ranges.size()});
+            return this;
+        }
+
+        public BinRangeIndex build() {
+            // Paint wide ranges first so narrower ones overwrite them; later lines win ties
+            List<long[]> ordered = new ArrayList<>(ranges);
+            ordered.sort(Comparator.comparingLong((long[] r) -> r[1] - r[0]).reversed()
+                    .thenComparingLong(r -> r[3]));
+            TreeMap<Long, Integer> segments = new TreeMap<>();
+            for (long[] range : ordered) {
+                paint(segments, range[0], range[1], (int) range[2]);
+            }
+
+            int size = 0;
+            long[] starts = new long[segments.size()];
+            long[] ends = new long[segments.size()];
+            int[] infoIds = new int[segments.size()];
+            Map.Entry<Long, Integer> entry = segments.firstEntry();
+            while (entry != null) {
+                Map.Entry<Long, Integer> next = segments.higherEntry(entry.getKey());
+                int id = entry.getValue();
+                if (id >= 0) {
+                    long end = next != null ? next.getKey() - 1 : Long.MAX_VALUE;
+                    if (size > 0 && infoIds[size - 1] == id && ends[size - 1] + 1 == entry.getKey()) {
+                        ends[size - 1] = end;
+                    } else {
+                        starts[size] = entry.getKey();
+                        ends[size] = end;
+                        infoIds[size] = id;
+                        size++;
+                    }
+                }
+                entry = next;
+            }
+            return new BinRangeIndex(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(infoIds, size), infos.toArray(CardInfo[]::new));
+        }
+
+        /**
+         * Assign [from, to] to an id, keeping whatever followed {@code to}.
+         */
+        private static void paint(TreeMap<Long, Integer> segments, long from, long to, int id) {
+            Map.Entry<Long, Integer> after = segments.floorEntry(to + 1);
+            int afterId = after != null ? after.getValue() : -1;
+            segments.subMap(from, true, to, true).clear();
+            segments.put(from, id);
+            segments.putIfAbsent(to + 1, afterId);
+        }
+
+        private static String upper(String value) {
+            return value == null || value.isBlank() ? null : value.trim().toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private static String column(String[] columns, int index) {
+        if (index >= columns.length) {
+            return null;
+        }
+        String value = columns[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.dtos.payments.CreatePaymentRequest;
+import com.firefly.psps.dtos.payments.PaymentResponse;
+import com.firefly.psps.exceptions.ConcurrencyLimitExceededException;
+import com.firefly.psps.exceptions.NoPspAvailableException;
+import com.firefly.psps.exceptions.PaymentCascadeException;
+import com.firefly.psps.exceptions.PaymentFailedException;
+import com.firefly.psps.exceptions.ProviderPausedException;
+import com.firefly.psps.exceptions.PspAuthenticationException;
+import com.firefly.psps.exceptions.PspCommunicationException;
+import com.firefly.psps.exceptions.RateLimitExceededException;
+import com.firefly.psps.exceptions.UnsupportedProviderOperationException;
+import com.firefly.psps.resilience.ResilientPspService;
+import com.firefly.psps.routing.PspRouter.RoutingContext;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Creates payments with cascading across PSPs.
+ *
+ * The payment is sent to the provider chosen by {@link PspRouter#selectPspWithFailover};
+ * on a soft failure it is re-attempted on the next eligible provider until one succeeds,
+ * a hard failure occurs, the provider limit is reached or the deadline expires:
+ * <pre>
+ * CascadeResult result = executor.createPayment(context, request).block();
+ * log.info("Payment {} processed by {}", result.response().getBody().getPaymentId(), result.provider());
+ * </pre>
+ *
+ * Soft failures (worth trying another provider):
+ * - communication errors and timeouts, including throttling
+ * - local load shedding for the provider (open circuit, full bulkhead, rate or concurrency limit)
+ * - provider authentication errors and unsupported operations
+ * - declines ({@link PaymentFailedException}) whose error code is a configured soft decline code
+ *
+ * Everything else, e.g. insufficient funds, invalid payment method, validation errors and
+ * hard declines, ends the cascade with the original error.
+ *
+ * Each provider is tried at most once and receives the request's idempotency key, so a
+ * resilience retry against the same provider cannot create a duplicate payment. A key is
+ * generated and set on the request if it has none.
+ */
+public class CascadingPaymentExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CascadingPaymentExecutor.class);
+
+    static final String OPERATION = "createPayment";
+
+    /**
+     * Decline codes that are typically issuer or processor side and may succeed elsewhere.
+     */
+    public static final Set<String> DEFAULT_SOFT_DECLINE_CODES = Set.of(
+            "processing_error", "issuer_not_available", "try_again_later",
+            "do_not_honor", "generic_decline", "reenter_transaction");
+
+    private final PspRouter router;
+    private final ResilientPspService resilientService;
+    private final int maxProviders;
+    private final Duration deadline;
+    private final Set<String> softDeclineCodes;
+
+    /**
+     * @param router router selecting the providers
+     * @param resilientService resilience pipelines for the PSP calls, or null to call adapters directly
+     * @param maxProviders maximum number of providers tried per payment
+     * @param deadline total time allowed for the payment, across all providers
+     */
+    public CascadingPaymentExecutor(
+            PspRouter router, ResilientPspService resilientService, int maxProviders, Duration deadline) {
+        this(router, resilientService, maxProviders, deadline, DEFAULT_SOFT_DECLINE_CODES);
+    }
+
+    /**
+     * @param softDeclineCodes {@link PaymentFailedException} error codes that trigger a cascade (case-insensitive)
+     */
+    public CascadingPaymentExecutor(
+            PspRouter router,
+            ResilientPspService resilientService,
+            int maxProviders,
+            Duration deadline,
+            Set<String> softDeclineCodes) {
+        if (maxProviders < 1) {
+            throw new IllegalArgumentException("maxProviders must be at least 1");
+        }
+        this.router = router;
+        this.resilientService = resilientService;
+        this.maxProviders = maxProviders;
+        this.deadline = deadline;
+        this.softDeclineCodes = softDeclineCodes.stream()
+                .map(code -> code.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Create a payment, cascading across providers on soft failures.
+     *
+     * @param context routing context
+     * @param request payment request
+     * @return result with the response and the provider that processed the payment;
+     *         fails with the hard failure, or with {@link PaymentCascadeException} once
+     *         every eligible provider failed or the deadline expired
+     */
+    public Mono<CascadeResult> createPayment(RoutingContext context, CreatePaymentRequest request) {
+        return Mono.defer(() -> {
+            if (request.getIdempotencyKey() == null) {
+                request.setIdempotencyKey(UUID.randomUUID().toString());
+            }
+            Cascade cascade = new Cascade(context, request, System.nanoTime() + deadline.toNanos());
+            return cascade.next(null);
+        });
+    }
+
+    /**
+     * Whether a failure may succeed on another provider.
+     *
+     * @param error failure of a provider
+     * @return true for soft failures
+     */
+    public boolean isSoftFailure(Throwable error) {
+        if (error instanceof PaymentFailedException declined) {
+            String code = declined.getErrorCode();
+            return code != null && softDeclineCodes.contains(code.toLowerCase(Locale.ROOT));
+        }
+        return error instanceof PspCommunicationException
+                || error instanceof TimeoutException
+                || error instanceof CallNotPermittedException
+                || error instanceof BulkheadFullException
+                || error instanceof RequestNotPermitted
+                || error instanceof RateLimitExceededException
+                || error instanceof ConcurrencyLimitExceededException
+                || error instanceof ProviderPausedException
+                || error instanceof PspAuthenticationException
+                || error instanceof UnsupportedProviderOperationException;
+    }
+
+    /**
+     * State of one payment's cascade. Attempts run one after another, so plain
+     * collections are safe.
+     */
+    private final class Cascade {
+
+        private final RoutingContext context;
+        private final CreatePaymentRequest request;
+        private final long deadlineNanos;
+        private final Set<String> tried = new LinkedHashSet<>();
+        private final List<CascadeAttempt> attempts = new ArrayList<>();
+
+        Cascade(RoutingContext context, CreatePaymentRequest request, long deadlineNanos) {
+            this.context = context;
+            this.request = request;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        Mono<CascadeResult> next(Throwable lastError) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (tried.size() >= maxProviders || remaining <= 0) {
+                return exhausted(lastError, remaining <= 0 ? "deadline expired" : "provider limit reached");
+            }
+            return router.selectPspWithFailover(context, Set.copyOf(tried))
+                    .onErrorResume(NoPspAvailableException.class, e -> Mono.empty())
+                    .flatMap(adapter -> attempt(adapter, Duration.ofNanos(remaining)))
+                    .switchIfEmpty(Mono.defer(() -> exhausted(lastError, "no further provider available")));
+        }
+
+        private Mono<CascadeResult> attempt(PspAdapter adapter, Duration remaining) {
+            String provider = adapter.getProviderName();
+            tried.add(provider);
+            long start = System.nanoTime();
+            return call(adapter)
+                    .timeout(remaining)
+                    .map(response -> {
+                        attempts.add(new CascadeAttempt(provider, Duration.ofNanos(System.nanoTime() - start), null));
+                        return new CascadeResult(response, provider, List.copyOf(attempts));
+                    })
+                    .onErrorResume(error -> {
+                        attempts.add(new CascadeAttempt(provider, Duration.ofNanos(System.nanoTime() - start), error));
+                        if (!isSoftFailure(error)) {
+                            return Mono.error(error);
+                        }
+                        logger.warn("Payment {} failed on {} ({}), cascading",
+                                request.getIdempotencyKey(), provider, error.toString());
+                        return next(error);
+                    });
+        }
+
+        private Mono<ResponseEntity<PaymentResponse>> call(PspAdapter adapter) {
+            if (resilientService == null) {
+                return Mono.defer(() -> adapter.payments().createPayment(request));
+            }
+            return resilientService.execute(adapter.getProviderName(), OPERATION,
+                    () -> adapter.payments().createPayment(request));
+        }
+
+        private Mono<CascadeResult> exhausted(Throwable lastError, String reason) {
+            List<String> providers = List.copyOf(tried);
+            return Mono.error(new PaymentCascadeException(
+                    "Payment " + request.getIdempotencyKey() + " failed on " + providers + ": " + reason,
+                    providers, lastError));
+        }
+    }
+
+    /**
+     * Outcome of a cascaded payment.
+     *
+     * @param response response of the provider that processed the payment
+     * @param provider provider that processed the payment
+     * @param attempts all attempts, in order, the last one being the successful one
+     */
+    public record CascadeResult(
+            ResponseEntity<PaymentResponse> response,
+            String provider,
+            List<CascadeAttempt> attempts
+    ) {
+    }
+
+    /**
+     * One provider attempt of a cascade.
+     *
+     * @param provider provider name
+     * @param duration time spent on this provider
+     * @param error failure, or null if the attempt succeeded
+     */
+    public record CascadeAttempt(String provider, Duration duration, Throwable error) {
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
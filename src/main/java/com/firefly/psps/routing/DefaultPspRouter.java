@@ -0,0 +1,530 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.exceptions.NoPspAvailableException;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.fees.FxRates;
+import com.firefly.psps.fees.PspFeeCalculator;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import com.firefly.psps.health.PspHealthMonitor;
+import com.firefly.psps.resilience.PspLoadTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Default {@link PspRouter} implementation supporting every {@link RoutingStrategy}.
+ *
+ * Routing tables are precomputed from {@link RoutingRules} when the configuration
+ * changes and published atomically, so concurrent selections always see a consistent
+ * table and never take a lock:
+ * <pre>
+ * DefaultPspRouter router = new DefaultPspRouter(feeCalculator, null);
+ * router.updateRouting(List.of(stripe, adyen), RoutingRules.builder()
+ *     .strategy(RoutingStrategy.CURRENCY_OPTIMIZED)
+ *     .currencyPreference(Currency.EUR, "adyen", "stripe")
+ *     .build());
+ * </pre>
+ *
+ * Selection is CPU-only and runs on the subscriber's thread. Provider health is read
+ * from a cached status, kept current by a {@link PspHealthMonitor} ({@link #followHealth}),
+ * refreshed off the event loop by {@link #refreshHealth()} or set by
+ * {@link #markHealth(String, boolean)}; providers without a known status count as healthy.
+ *
+ * LATENCY_AWARE routing needs the {@link PspLoadTracker} of the {@code ResilientPspService}
+ * executing the calls. It samples two random healthy candidates and picks the one with the
+ * lower latency EWMA weighted by its in-flight calls, which moves load away from a slow
+ * provider without sending every call to the single fastest one.
+ *
+ * COST_OPTIMIZED routing looks the cheapest provider up in a {@link FeeLookupTable}
+ * precomputed from the fee calculator's structures when the context carries an amount,
+ * and falls back to a per-currency fee ranking otherwise. Call {@link #refreshFees()}
+ * after fee structures change.
+ *
+ * WEIGHTED routing splits traffic by {@link RoutingRules#weights()} (per tenant and
+ * currency if configured) with sticky assignment by customer id; selections per arm
+ * are reported by {@link #getWeightedSelections()}.
+ *
+ * AUTHORIZATION_RATE routing samples each candidate's approval rate in the payment's
+ * currency, method and region from an {@link AuthorizationRateTracker} fed with the
+ * outcomes of {@code AbstractPspService} payments, and picks the highest draw.
+ *
+ * BIN_BASED routing looks the {@code cardBin} metadata entry up in the rules'
+ * {@link BinRangeIndex} and routes to the first {@link RoutingRules.BinRoute} matching
+ * the card's brand, type and issuer country. Providers per card profile are precomputed,
+ * so the lookup is a binary search. Cards without a BIN or route are routed by priority.
+ *
+ * A sampled fraction of selections can be explained into the {@link RoutingDecisionLog}
+ * ({@link #getDecisionLog()}): candidates, filtered providers, scores and the chosen
+ * provider. With sampling off the fast path only pays one volatile read.
+ */
+public class DefaultPspRouter implements PspRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultPspRouter.class);
+
+    private final PspFeeCalculator feeCalculator;
+    private final Map<RoutingStrategy, PspSelectionStrategy> strategies = new EnumMap<>(RoutingStrategy.class);
+    private final Map<String, Boolean> healthStatus = new ConcurrentHashMap<>();
+    private final AtomicReference<RoutingTable> table = new AtomicReference<>(RoutingTable.empty());
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final PspLoadTracker loadTracker;
+    private final AuthorizationRateTracker authorizationRates;
+    private final RoutingDecisionLog decisionLog = new RoutingDecisionLog();
+    private final Predicate<PspAdapter> healthy = adapter ->
+            healthStatus.getOrDefault(adapter.getProviderName(), Boolean.TRUE);
+
+    public DefaultPspRouter() {
+        this(null, null);
+    }
+
+    /**
+     * @param feeCalculator fee calculator for COST_OPTIMIZED, or null to rank by priority
+     * @param customStrategy selection logic for CUSTOM, or null if CUSTOM is not used
+     */
+    public DefaultPspRouter(PspFeeCalculator feeCalculator, PspSelectionStrategy customStrategy) {
+        this(feeCalculator, customStrategy, null);
+    }
+
+    /**
+     * @param feeCalculator fee calculator for COST_OPTIMIZED, or null to rank by priority
+     * @param customStrategy selection logic for CUSTOM, or null if CUSTOM is not used
+     * @param loadTracker provider load for LATENCY_AWARE, or null if it is not used
+     */
+    public DefaultPspRouter(
+            PspFeeCalculator feeCalculator, PspSelectionStrategy customStrategy, PspLoadTracker loadTracker) {
+        this(feeCalculator, customStrategy, loadTracker, null);
+    }
+
+    /**
+     * @param feeCalculator fee calculator for COST_OPTIMIZED, or null to rank by priority
+     * @param customStrategy selection logic for CUSTOM, or null if CUSTOM is not used
+     * @param loadTracker provider load for LATENCY_AWARE, or null if it is not used
+     * @param authorizationRates authorization outcomes for AUTHORIZATION_RATE, or null if it is not used
+     */
+    public DefaultPspRouter(
+            PspFeeCalculator feeCalculator,
+            PspSelectionStrategy customStrategy,
+            PspLoadTracker loadTracker,
+            AuthorizationRateTracker authorizationRates) {
+        this.feeCalculator = feeCalculator;
+        this.loadTracker = loadTracker;
+        this.authorizationRates = authorizationRates;
+        strategies.put(RoutingStrategy.FIRST_AVAILABLE, (t, context, available) ->
+                first(t.byCurrency(context.getCurrency()), available));
+        strategies.put(RoutingStrategy.CURRENCY_OPTIMIZED, (t, context, available) ->
+                first(t.byCurrencyPreference(context.getCurrency()), available));
+        strategies.put(RoutingStrategy.COST_OPTIMIZED, (t, context, available) ->
+                context.getAmount() != null && t.getFeeLookup() != null
+                        ? t.getFeeLookup().cheapest(context.getAmount(), context.getPaymentMethodType(), available)
+                        : first(t.byCost(context.getCurrency()), available));
+        strategies.put(RoutingStrategy.ROUND_ROBIN, (t, context, available) ->
+                rotate(t.byCurrency(context.getCurrency()), available,
+                        roundRobin.getAndIncrement() & Integer.MAX_VALUE));
+        strategies.put(RoutingStrategy.RANDOM, (t, context, available) -> {
+            List<PspAdapter> candidates = t.byCurrency(context.getCurrency());
+            return candidates.isEmpty() ? null
+                    : rotate(candidates, available, ThreadLocalRandom.current().nextInt(candidates.size()));
+        });
+        strategies.put(RoutingStrategy.REGION_BASED, (t, context, available) ->
+                firstSupporting(t, t.byRegion(context.getRegion()), context, available));
+        strategies.put(RoutingStrategy.TENANT_SPECIFIC, (t, context, available) ->
+                firstSupporting(t, t.byTenant(context.getTenantId()), context, available));
+        strategies.put(RoutingStrategy.WEIGHTED, (t, context, available) ->
+                t.weightedSplit(context.getTenantId(), context.getCurrency())
+                        .select(context.getCustomerId(), context.getCurrency(), t, available));
+        strategies.put(RoutingStrategy.BIN_BASED, (t, context, available) ->
+                firstSupporting(t, t.byBin(bin(context)), context, available));
+        if (loadTracker != null) {
+            strategies.put(RoutingStrategy.LATENCY_AWARE, (t, context, available) ->
+                    leastLoaded(t.byCurrency(context.getCurrency()), available, loadTracker));
+        }
+        if (authorizationRates != null) {
+            strategies.put(RoutingStrategy.AUTHORIZATION_RATE, (t, context, available) ->
+                    authorizationRates.select(t.byCurrency(context.getCurrency()), available,
+                            AuthorizationRateTracker.Segment.of(context)));
+        }
+        if (customStrategy != null) {
+            strategies.put(RoutingStrategy.CUSTOM, customStrategy);
+        }
+    }
+
+    /**
+     * Replace the routing configuration. The new table is built before it is published,
+     * so in-flight selections keep using the previous one.
+     *
+     * @param adapters adapters to route between
+     * @param rules routing rules
+     */
+    public void updateRouting(Collection<PspAdapter> adapters, RoutingRules rules) {
+        if (!strategies.containsKey(rules.strategy())) {
+            throw new PspConfigurationException(
+                    "Routing strategy " + rules.strategy() + " is not configured on this router: CUSTOM needs a "
+                            + "PspSelectionStrategy, LATENCY_AWARE a PspLoadTracker and AUTHORIZATION_RATE an "
+                            + "AuthorizationRateTracker");
+        }
+        RoutingTable next = RoutingTable.build(adapters, rules, feeCalculator);
+        table.set(next);
+        healthStatus.keySet().retainAll(next.getAdapters().stream().map(PspAdapter::getProviderName).toList());
+        logger.info("PSP routing updated: strategy={}, providers={}",
+                rules.strategy(), next.getAdapters().stream().map(PspAdapter::getProviderName).toList());
+    }
+
+    /**
+     * Rebuild the routing table if the fee calculator's fee structures or FX rates changed.
+     *
+     * @return true if the table was rebuilt
+     */
+    public boolean refreshFees() {
+        if (feeCalculator == null) {
+            return false;
+        }
+        while (true) {
+            RoutingTable current = table.get();
+            Map<String, FeeStructure> fees = RoutingTable.feeStructures(current.getAdapters(), feeCalculator);
+            FxRates fxRates = RoutingTable.fxRates(feeCalculator);
+            if (fees.equals(current.getFeeStructures()) && Objects.equals(fxRates, current.getFxRates())) {
+                return false;
+            }
+            RoutingTable next = RoutingTable.build(current.getAdapters(), current.getRules(), fees, fxRates);
+            if (table.compareAndSet(current, next)) {
+                logger.info("PSP routing fee tables rebuilt for {}", fees.keySet());
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Current routing table.
+     */
+    public RoutingTable getRoutingTable() {
+        return table.get();
+    }
+
+    /**
+     * Selections per arm of each weighted split since the routing was last updated.
+     *
+     * @return split name to (provider name to selections)
+     */
+    public Map<String, Map<String, Long>> getWeightedSelections() {
+        Map<String, Map<String, Long>> selections = new LinkedHashMap<>();
+        for (WeightedSplit split : table.get().getWeightedSplits()) {
+            selections.put(split.getName(), split.getSelections());
+        }
+        return selections;
+    }
+
+    /**
+     * Take provider health from a {@link PspHealthMonitor}: applies its current
+     * snapshot and every later health change.
+     *
+     * @param healthMonitor background health monitor
+     * @return subscription to the monitor's changes
+     */
+    public Disposable followHealth(PspHealthMonitor healthMonitor) {
+        healthMonitor.getHealthSnapshot().forEach((provider, health) -> markHealth(provider, health.isHealthy()));
+        return healthMonitor.changes().subscribe(change -> markHealth(change.provider(), change.healthy()));
+    }
+
+    /**
+     * Sampled routing decisions. Sampling is off until a sample rate is set.
+     */
+    public RoutingDecisionLog getDecisionLog() {
+        return decisionLog;
+    }
+
+    /**
+     * Authorization outcomes driving AUTHORIZATION_RATE, or null if not configured.
+     */
+    public AuthorizationRateTracker getAuthorizationRates() {
+        return authorizationRates;
+    }
+
+    /**
+     * Record the health of a provider, e.g. from a circuit breaker state transition.
+     */
+    public void markHealth(String providerName, boolean healthy) {
+        healthStatus.put(providerName, healthy);
+    }
+
+    /**
+     * Check every provider with {@link PspAdapter#isHealthy()} on the bounded elastic
+     * scheduler and cache the results for selection.
+     *
+     * @return refreshed health status
+     */
+    public Mono<Map<String, Boolean>> refreshHealth() {
+        return Mono.fromCallable(() -> {
+                    for (PspAdapter adapter : table.get().getAdapters()) {
+                        boolean up;
+                        try {
+                            up = adapter.isHealthy();
+                        } catch (RuntimeException e) {
+                            logger.warn("Health check failed for PSP {}: {}", adapter.getProviderName(), e.getMessage());
+                            up = false;
+                        }
+                        healthStatus.put(adapter.getProviderName(), up);
+                    }
+                    return getPspHealthStatus();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<PspAdapter> selectPsp(RoutingContext context) {
+        return select(context, Set.of(), false);
+    }
+
+    @Override
+    public Mono<PspAdapter> selectPspWithFailover(RoutingContext context) {
+        return select(context, Set.of(), true);
+    }
+
+    @Override
+    public Mono<PspAdapter> selectPspWithFailover(RoutingContext context, Set<String> excludedProviders) {
+        return select(context, excludedProviders, true);
+    }
+
+    private Mono<PspAdapter> select(RoutingContext context, Set<String> excludedProviders, boolean failover) {
+        return Mono.defer(() -> {
+            RoutingTable current = table.get();
+            if (decisionLog.shouldSample()) {
+                return explain(current, context, excludedProviders, failover);
+            }
+            Predicate<PspAdapter> available = excludedProviders.isEmpty()
+                    ? healthy
+                    : healthy.and(adapter -> !excludedProviders.contains(adapter.getProviderName()));
+            PspAdapter selected = strategies.get(current.getRules().strategy()).select(current, context, available);
+            if (selected == null && failover && current.getRules().failoverEnabled()) {
+                selected = first(current.byCurrency(context.getCurrency()), available);
+                if (selected != null) {
+                    logger.debug("PSP routing failed over to {}", selected.getProviderName());
+                }
+            }
+            return selected != null ? Mono.just(selected) : noPspAvailable(context);
+        });
+    }
+
+    /**
+     * Same selection as the fast path, recording which providers were filtered out and
+     * why, the strategy scores and the time spent into the decision log.
+     */
+    private Mono<PspAdapter> explain(
+            RoutingTable current, RoutingContext context, Set<String> excludedProviders, boolean failover) {
+        long start = System.nanoTime();
+        RoutingStrategy strategy = current.getRules().strategy();
+        Map<String, String> filtered = new LinkedHashMap<>();
+        List<String> candidates = new ArrayList<>();
+        for (PspAdapter adapter : current.getAdapters()) {
+            candidates.add(adapter.getProviderName());
+            if (!current.supports(adapter, context.getCurrency())) {
+                filtered.put(adapter.getProviderName(), "currency");
+            }
+        }
+        Predicate<PspAdapter> available = adapter -> {
+            String name = adapter.getProviderName();
+            if (excludedProviders.contains(name)) {
+                filtered.putIfAbsent(name, "excluded");
+                return false;
+            }
+            if (!healthy.test(adapter)) {
+                filtered.putIfAbsent(name, "unhealthy");
+                return false;
+            }
+            return true;
+        };
+
+        PspAdapter selected = strategies.get(strategy).select(current, context, available);
+        boolean failedOver = false;
+        if (selected == null && failover && current.getRules().failoverEnabled()) {
+            selected = first(current.byCurrency(context.getCurrency()), available);
+            failedOver = selected != null;
+        }
+
+        decisionLog.record(new RoutingDecision(
+                Instant.now(),
+                strategy,
+                context.getTenantId(),
+                context.getCurrency(),
+                context.getRegion(),
+                context.getPaymentMethodType(),
+                context.getAmount(),
+                List.copyOf(candidates),
+                Map.copyOf(filtered),
+                scores(current, strategy, context),
+                selected != null ? selected.getProviderName() : null,
+                failedOver,
+                System.nanoTime() - start));
+        return selected != null ? Mono.just(selected) : noPspAvailable(context);
+    }
+
+    private Map<String, Double> scores(RoutingTable current, RoutingStrategy strategy, RoutingContext context) {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        if (strategy == RoutingStrategy.LATENCY_AWARE && loadTracker != null) {
+            for (PspAdapter adapter : current.byCurrency(context.getCurrency())) {
+                scores.put(adapter.getProviderName(), score(adapter, loadTracker));
+            }
+        } else if (strategy == RoutingStrategy.AUTHORIZATION_RATE && authorizationRates != null) {
+            AuthorizationRateTracker.Segment segment = AuthorizationRateTracker.Segment.of(context);
+            for (PspAdapter adapter : current.byCurrency(context.getCurrency())) {
+                scores.put(adapter.getProviderName(), authorizationRates.approvalRate(adapter.getProviderName(), segment));
+            }
+        } else if (strategy == RoutingStrategy.COST_OPTIMIZED && context.getAmount() != null) {
+            Money amount = context.getAmount();
+            PaymentMethodType methodType = FeeLookupTable.paymentMethodType(context.getPaymentMethodType());
+            for (PspAdapter adapter : current.byCurrency(amount.getCurrency())) {
+                try {
+                    BigDecimal fee = FeeLookupTable.fee(current.getFeeStructures().get(adapter.getProviderName()),
+                            amount.getAmount(), amount.getCurrency(), methodType, current.getFxRates());
+                    if (fee != null) {
+                        scores.put(adapter.getProviderName(), fee.doubleValue());
+                    }
+                } catch (FxRateNotAvailableException e) {
+                    // No comparable fee for this provider
+                }
+            }
+        }
+        return Map.copyOf(scores);
+    }
+
+    @Override
+    public List<PspAdapter> getAllPsps() {
+        return table.get().getAdapters();
+    }
+
+    @Override
+    public Mono<PspAdapter> getPspByName(String providerName) {
+        return Mono.justOrEmpty(table.get().getAdapter(providerName));
+    }
+
+    @Override
+    public List<PspAdapter> getPspsByCurrency(Currency currency) {
+        return table.get().byCurrency(currency);
+    }
+
+    @Override
+    public Map<String, Boolean> getPspHealthStatus() {
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        for (PspAdapter adapter : table.get().getAdapters()) {
+            status.put(adapter.getProviderName(), healthy.test(adapter));
+        }
+        return status;
+    }
+
+    private static PspAdapter first(List<PspAdapter> candidates, Predicate<PspAdapter> available) {
+        for (int i = 0; i < candidates.size(); i++) {
+            PspAdapter adapter = candidates.get(i);
+            if (available.test(adapter)) {
+                return adapter;
+            }
+        }
+        return null;
+    }
+
+    private static PspAdapter rotate(List<PspAdapter> candidates, Predicate<PspAdapter> available, int start) {
+        int size = candidates.size();
+        for (int i = 0; i < size; i++) {
+            PspAdapter adapter = candidates.get((start + i) % size);
+            if (available.test(adapter)) {
+                return adapter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Power of two choices: the less loaded of two randomly sampled available candidates.
+     * Providers that have not been called yet score 0, so new providers get probed.
+     */
+    private static PspAdapter leastLoaded(
+            List<PspAdapter> candidates, Predicate<PspAdapter> available, PspLoadTracker loadTracker) {
+        int size = candidates.size();
+        if (size == 0) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        PspAdapter a = rotate(candidates, available, first);
+        if (a == null || size == 1) {
+            return a;
+        }
+        int second = random.nextInt(size - 1);
+        PspAdapter b = rotate(candidates, available, second >= first ? second + 1 : second);
+        if (b == null || b == a) {
+            return a;
+        }
+        return score(b, loadTracker) < score(a, loadTracker) ? b : a;
+    }
+
+    private static double score(PspAdapter adapter, PspLoadTracker loadTracker) {
+        PspLoadTracker.ProviderLoad load = loadTracker.find(adapter.getProviderName());
+        return load != null ? load.score() : 0;
+    }
+
+    /**
+     * First available adapter of a region, tenant or BIN rule that accepts the currency.
+     * Contexts without a matching rule are routed by priority.
+     */
+    private static PspAdapter firstSupporting(
+            RoutingTable table, List<PspAdapter> candidates, RoutingContext context, Predicate<PspAdapter> available) {
+        if (candidates == null) {
+            return first(table.byCurrency(context.getCurrency()), available);
+        }
+        Currency currency = context.getCurrency();
+        return first(candidates, adapter -> table.supports(adapter, currency) && available.test(adapter));
+    }
+
+    /**
+     * Card BIN from the context metadata; numbers are accepted as well as strings.
+     */
+    private static CharSequence bin(RoutingContext context) {
+        Map<String, Object> metadata = context.getMetadata();
+        Object bin = metadata != null ? metadata.get(BinRangeIndex.BIN_METADATA_KEY) : null;
+        if (bin instanceof CharSequence text) {
+            return text;
+        }
+        return bin != null ? bin.toString() : null;
+    }
+
+    private static Mono<PspAdapter> noPspAvailable(RoutingContext context) {
+        return Mono.error(new NoPspAvailableException("No healthy PSP available for currency="
+                + context.getCurrency() + ", region=" + context.getRegion() + ", tenant=" + context.getTenantId()));
+    }
+}
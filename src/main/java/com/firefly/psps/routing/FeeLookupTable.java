@@ -0,0 +1,242 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.fees.FxRates;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Precomputed provider ranking by fee for COST_OPTIMIZED routing.
+ *
+ * For every (currency, payment method type, amount bracket) the providers accepting the
+ * currency are ranked by the fee their {@link FeeStructure} charges for a representative
+ * amount of the bracket. Rankings are stored in one flat {@code short[]} indexed by the
+ * enum ordinals and the bracket index, so a lookup is a bracket search and an array scan
+ * with no BigDecimal arithmetic and no allocation.
+ *
+ * Providers without a fee structure are ranked last. Slot 0 of the payment method
+ * dimension is used when the routing context has no (or an unknown) payment method.
+ * Fixed, minimum and maximum fees quoted in another currency are converted with the
+ * {@link FxRates} snapshot the table is built with (or ignored without one); a provider whose
+ * fees have no rate to a currency is ranked last for that currency.
+ */
+public final class FeeLookupTable {
+
+    /**
+     * Default bracket upper bounds, in major currency units.
+     */
+    public static final List<BigDecimal> DEFAULT_AMOUNT_BRACKETS = List.of(
+            BigDecimal.valueOf(10), BigDecimal.valueOf(50), BigDecimal.valueOf(100), BigDecimal.valueOf(250),
+            BigDecimal.valueOf(500), BigDecimal.valueOf(1_000), BigDecimal.valueOf(5_000), BigDecimal.valueOf(10_000));
+
+    private static final int METHOD_SLOTS = PaymentMethodType.values().length + 1;
+    private static final Map<String, PaymentMethodType> METHODS_BY_NAME = new HashMap<>();
+
+    static {
+        for (PaymentMethodType type : PaymentMethodType.values()) {
+            METHODS_BY_NAME.put(type.name(), type);
+            METHODS_BY_NAME.put(type.name().toLowerCase(Locale.ROOT), type);
+        }
+    }
+
+    private final PspAdapter[] providers;
+    private final long[] bracketBounds;
+    private final int brackets;
+    private final short[] ranking;
+    private final int[] rankedCount;
+
+    private FeeLookupTable(PspAdapter[] providers, long[] bracketBounds, short[] ranking, int[] rankedCount) {
+        this.providers = providers;
+        this.bracketBounds = bracketBounds;
+        this.brackets = bracketBounds.length + 1;
+        this.ranking = ranking;
+        this.rankedCount = rankedCount;
+    }
+
+    /**
+     * Build the table.
+     *
+     * @param adapters adapters in priority order (ties keep this order)
+     * @param feeStructures fee structure per provider name
+     * @param supportedCurrencies supported currencies per provider name (absent = all)
+     * @param amountBrackets ascending bracket upper bounds in major units
+     * @param fxRates rates converting fees quoted in another currency, or null to ignore such fees
+     * @return lookup table
+     */
+    static FeeLookupTable build(
+            List<PspAdapter> adapters,
+            Map<String, FeeStructure> feeStructures,
+            Map<String, Set<Currency>> supportedCurrencies,
+            List<BigDecimal> amountBrackets,
+            FxRates fxRates) {
+        if (adapters.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many providers for the fee lookup table: " + adapters.size());
+        }
+        long[] bounds = amountBrackets.stream()
+                .mapToLong(bound -> bound.setScale(0, RoundingMode.CEILING).longValueExact())
+                .sorted()
+                .distinct()
+                .toArray();
+        int brackets = bounds.length + 1;
+        int providerCount = adapters.size();
+        Currency[] currencies = Currency.values();
+        short[] ranking = new short[currencies.length * METHOD_SLOTS * brackets * Math.max(1, providerCount)];
+        int[] rankedCount = new int[currencies.length * METHOD_SLOTS * brackets];
+
+        for (Currency currency : currencies) {
+            Integer[] eligible = new Integer[providerCount];
+            int eligibleCount = 0;
+            for (int p = 0; p < providerCount; p++) {
+                Set<Currency> accepted = supportedCurrencies.get(adapters.get(p).getProviderName());
+                if (accepted == null || accepted.contains(currency)) {
+                    eligible[eligibleCount++] = p;
+                }
+            }
+            for (int method = 0; method < METHOD_SLOTS; method++) {
+                PaymentMethodType methodType = method == 0 ? null : PaymentMethodType.values()[method - 1];
+                for (int bracket = 0; bracket < brackets; bracket++) {
+                    BigDecimal amount = representativeAmount(bounds, bracket);
+                    BigDecimal[] fees = new BigDecimal[providerCount];
+                    for (int i = 0; i < eligibleCount; i++) {
+                        int p = eligible[i];
+                        FeeStructure structure = feeStructures.get(adapters.get(p).getProviderName());
+                        try {
+                            fees[p] = fee(structure, amount, currency, methodType, fxRates);
+                        } catch (FxRateNotAvailableException e) {
+                            fees[p] = null;
+                        }
+                    }
+                    Integer[] ranked = Arrays.copyOf(eligible, eligibleCount);
+                    // Stable sort: equal fees keep priority order, unknown fees go last
+                    Arrays.sort(ranked, (a, b) -> fees[a] == null || fees[b] == null
+                            ? Boolean.compare(fees[a] == null, fees[b] == null)
+                            : fees[a].compareTo(fees[b]));
+                    int cell = (currency.ordinal() * METHOD_SLOTS + method) * brackets + bracket;
+                    rankedCount[cell] = eligibleCount;
+                    for (int r = 0; r < eligibleCount; r++) {
+                        ranking[cell * providerCount + r] = ranked[r].shortValue();
+                    }
+                }
+            }
+        }
+        return new FeeLookupTable(adapters.toArray(new PspAdapter[0]), bounds, ranking, rankedCount);
+    }
+
+    /**
+     * Cheapest available provider for a payment.
+     *
+     * @param amount payment amount (its currency selects the ranking)
+     * @param paymentMethodType payment method name from the routing context, or null
+     * @param available availability check
+     * @return cheapest available adapter, or null if none is available
+     */
+    public PspAdapter cheapest(Money amount, String paymentMethodType, Predicate<PspAdapter> available) {
+        int cell = (amount.getCurrency().ordinal() * METHOD_SLOTS + methodSlot(paymentMethodType)) * brackets
+                + bracket(amount.getAmount().longValue());
+        int count = rankedCount[cell];
+        int base = cell * providers.length;
+        for (int r = 0; r < count; r++) {
+            PspAdapter adapter = providers[ranking[base + r]];
+            if (available.test(adapter)) {
+                return adapter;
+            }
+        }
+        return null;
+    }
+
+    private int bracket(long amount) {
+        int index = Arrays.binarySearch(bracketBounds, amount);
+        // Bounds are inclusive upper limits
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int methodSlot(String paymentMethodType) {
+        PaymentMethodType type = paymentMethodType(paymentMethodType);
+        return type != null ? type.ordinal() + 1 : 0;
+    }
+
+    /**
+     * Payment method type of a routing context value (enum name, upper or lower case).
+     *
+     * @return payment method type, or null if absent or unknown
+     */
+    static PaymentMethodType paymentMethodType(String paymentMethodType) {
+        return paymentMethodType != null ? METHODS_BY_NAME.get(paymentMethodType) : null;
+    }
+
+    private static BigDecimal representativeAmount(long[] bounds, int bracket) {
+        long lower = bracket == 0 ? 0 : bounds[bracket - 1];
+        long upper = bracket < bounds.length ? bounds[bracket] : Math.max(1, lower) * 2;
+        return BigDecimal.valueOf(lower + upper).divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Fee charged by a structure, following {@link FeeStructure#calculateFee}: percentage
+     * (plus payment method surcharge), fixed fee, then the minimum and maximum caps. With
+     * {@code fxRates}, fees in another currency are converted as by
+     * {@link FeeStructure#convertFee}; without, they are ignored.
+     *
+     * @throws FxRateNotAvailableException if a fee has no rate to {@code currency}
+     */
+    static BigDecimal fee(
+            FeeStructure fees, BigDecimal amount, Currency currency, PaymentMethodType method, FxRates fxRates) {
+        if (fees == null) {
+            return null;
+        }
+        BigDecimal percentage = fees.percentageFee() != null ? fees.percentageFee() : BigDecimal.ZERO;
+        if (method != null && fees.paymentMethodSurcharges() != null
+                && fees.paymentMethodSurcharges().get(method) != null) {
+            percentage = percentage.add(fees.paymentMethodSurcharges().get(method));
+        }
+        BigDecimal total = amount.multiply(percentage).divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
+        Money fixed = inCurrency(fees, fees.fixedFee(), currency, fxRates);
+        if (fixed != null) {
+            total = total.add(fixed.getAmount());
+        }
+        Money minimum = inCurrency(fees, fees.minimumFee(), currency, fxRates);
+        if (minimum != null && total.compareTo(minimum.getAmount()) < 0) {
+            total = minimum.getAmount();
+        }
+        Money maximum = inCurrency(fees, fees.maximumFee(), currency, fxRates);
+        if (maximum != null && total.compareTo(maximum.getAmount()) > 0) {
+            total = maximum.getAmount();
+        }
+        return total;
+    }
+
+    static Money inCurrency(FeeStructure fees, Money fee, Currency currency, FxRates fxRates) {
+        if (fxRates == null) {
+            return fee != null && fee.getCurrency() == currency ? fee : null;
+        }
+        return fees.convertFee(fee, currency, fxRates);
+    }
+}
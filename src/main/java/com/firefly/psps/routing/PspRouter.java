@@ -18,10 +18,12 @@ package com.firefly.psps.routing;
 
 import com.firefly.psps.adapter.PspAdapter;
 import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Router for intelligent PSP selection.
@@ -39,7 +41,7 @@ import java.util.Map;
  * PspAdapter psp = router.selectPsp(RoutingContext.builder()
  *     .currency(Currency.EUR)
  *     .region("EU")
- *     .amount(Money.of(100, EUR))
+ *     .amount(new Money(BigDecimal.valueOf(100), Currency.EUR))
  *     .build());
  * </pre>
  */
@@ -62,6 +64,32 @@ public interface PspRouter {
      */
     Mono<PspAdapter> selectPspWithFailover(RoutingContext context);
 
+    /**
+     * Select PSP with failover support, skipping providers already tried
+     * (e.g. when cascading a payment to the next provider).
+     *
+     * @param context routing context
+     * @param excludedProviders provider names that must not be selected
+     * @return PSP adapter with failover
+     */
+    default Mono<PspAdapter> selectPspWithFailover(RoutingContext context, Set<String> excludedProviders) {
+        if (excludedProviders.isEmpty()) {
+            return selectPspWithFailover(context);
+        }
+        return selectPspWithFailover(context)
+                .filter(adapter -> !excludedProviders.contains(adapter.getProviderName()))
+                .switchIfEmpty(Mono.defer(() -> {
+                    Map<String, Boolean> health = getPspHealthStatus();
+                    List<PspAdapter> candidates = context.getCurrency() != null
+                            ? getPspsByCurrency(context.getCurrency())
+                            : getAllPsps();
+                    return Mono.justOrEmpty(candidates.stream()
+                            .filter(adapter -> !excludedProviders.contains(adapter.getProviderName()))
+                            .filter(adapter -> !Boolean.FALSE.equals(health.get(adapter.getProviderName())))
+                            .findFirst());
+                }));
+    }
+
     /**
      * Get all available PSP adapters.
      *
@@ -98,9 +126,24 @@ public interface PspRouter {
     interface RoutingContext {
         String getTenantId();
         Currency getCurrency();
+
+        /**
+         * Region of the payment. AUTHORIZATION_RATE routing matches it against the
+         * {@code region} metadata entry of recorded payment responses, so payments
+         * must carry the same value in their metadata.
+         */
         String getRegion();
+
         String getCustomerId();
         String getPaymentMethodType();
+
+        /**
+         * Payment amount, used by COST_OPTIMIZED routing; null if unknown.
+         */
+        default Money getAmount() {
+            return null;
+        }
+
         Map<String, Object> getMetadata();
         
         static Builder builder() {
@@ -113,6 +156,7 @@ public interface PspRouter {
             private String region;
             private String customerId;
             private String paymentMethodType;
+            private Money amount;
             private Map<String, Object> metadata = Map.of();
             
             public Builder tenantId(String tenantId) {
@@ -140,6 +184,11 @@ public interface PspRouter {
                 return this;
             }
             
+            public Builder amount(Money amount) {
+                this.amount = amount;
+                return this;
+            }
+            
             public Builder metadata(Map<String, Object> metadata) {
                 this.metadata = metadata != null ? Map.copyOf(metadata) : Map.of();
                 return this;
@@ -148,7 +197,7 @@ public interface PspRouter {
             public RoutingContext build() {
                 return new DefaultRoutingContext(
                         tenantId, currency, region, customerId, 
-                        paymentMethodType, metadata);
+                        paymentMethodType, amount, metadata);
             }
         }
     }
@@ -162,12 +211,23 @@ public interface PspRouter {
             String region,
             String customerId,
             String paymentMethodType,
+            Money amount,
             Map<String, Object> metadata
     ) implements RoutingContext {
         public DefaultRoutingContext {
             metadata = metadata != null ? Map.copyOf(metadata) : Map.of();
         }
 
+        public DefaultRoutingContext(
+                String tenantId,
+                Currency currency,
+                String region,
+                String customerId,
+                String paymentMethodType,
+                Map<String, Object> metadata) {
+            this(tenantId, currency, region, customerId, paymentMethodType, null, metadata);
+        }
+
         @Override
         public String getTenantId() {
             return tenantId;
@@ -193,6 +253,11 @@ public interface PspRouter {
             return paymentMethodType;
         }
 
+        @Override
+        public Money getAmount() {
+            return amount;
+        }
+
         @Override
         public Map<String, Object> getMetadata() {
             return metadata;
@@ -237,6 +302,28 @@ public interface PspRouter {
          * Tenant-specific routing.
          */
         TENANT_SPECIFIC,
+
+        /**
+         * Least-loaded routing: power-of-two-choices on observed latency and in-flight calls.
+         */
+        LATENCY_AWARE,
+
+        /**
+         * Weighted traffic split with sticky assignment per customer (A/B tests).
+         */
+        WEIGHTED,
+
+        /**
+         * Route card payments by issuer BIN (brand, card type, issuer country),
+         * read from the {@code cardBin} metadata entry.
+         */
+        BIN_BASED,
+
+        /**
+         * Learn which PSP approves the most payments per currency, payment method and
+         * region (Thompson sampling over recorded authorization outcomes).
+         */
+        AUTHORIZATION_RATE,
         
         /**
          * Custom routing logic.
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint to inspect PSP routing decisions.
+ *
+ * GET {@code /actuator/psprouting?limit=20} returns the routing strategy, provider health,
+ * weighted split counters, authorization rates and the most recent sampled {@link RoutingDecision}s.
+ * POST {@code /actuator/psprouting} changes the sample rate, e.g.:
+ * <pre>
+ * {"sampleRate": 0.01}
+ * </pre>
+ *
+ * Sampling is off by default and reverts to off on restart.
+ */
+@Endpoint(id = "psprouting")
+public class PspRoutingEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final DefaultPspRouter router;
+
+    public PspRoutingEndpoint(DefaultPspRouter router) {
+        this.router = router;
+    }
+
+    @ReadOperation
+    public Map<String, Object> routing(@Nullable Integer limit) {
+        RoutingDecisionLog decisionLog = router.getDecisionLog();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("strategy", router.getRoutingTable().getRules().strategy().name());
+        result.put("health", router.getPspHealthStatus());
+        result.put("weightedSelections", router.getWeightedSelections());
+        if (router.getAuthorizationRates() != null) {
+            result.put("authorizationRates", router.getAuthorizationRates().snapshot());
+        }
+        result.put("sampleRate", decisionLog.getSampleRate());
+        result.put("recorded", decisionLog.getRecorded());
+        result.put("decisions", decisionLog.recent(limit != null ? limit : DEFAULT_LIMIT));
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> sampleRate(double sampleRate) {
+        router.getDecisionLog().setSampleRate(sampleRate);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("sampleRate", sampleRate);
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.routing.PspRouter.RoutingContext;
+
+import java.util.function.Predicate;
+
+/**
+ * Selection logic behind one {@link PspRouter.RoutingStrategy}.
+ *
+ * Implementations run on the caller's (reactor) thread for every payment, so they
+ * must only read the precomputed {@link RoutingTable} and must not block or allocate
+ * per-call collections.
+ */
+@FunctionalInterface
+public interface PspSelectionStrategy {
+
+    /**
+     * Select a provider.
+     *
+     * @param table current routing table
+     * @param context routing context
+     * @param available healthy providers able to take the payment
+     * @return selected adapter, or null if no candidate is available
+     */
+    PspAdapter select(RoutingTable table, RoutingContext context, Predicate<PspAdapter> available);
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.routing.PspRouter.RoutingStrategy;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explanation of one routing decision, recorded for sampled {@code selectPsp} calls.
+ *
+ * Customer ids and metadata are not recorded.
+ *
+ * @param timestamp time of the decision
+ * @param strategy routing strategy applied
+ * @param tenantId tenant of the payment, or null
+ * @param currency currency of the payment, or null
+ * @param region region of the payment, or null
+ * @param paymentMethodType payment method of the payment, or null
+ * @param amount amount of the payment, or null
+ * @param candidates registered providers, in priority order
+ * @param filtered providers left out and why ("currency", "unhealthy", "excluded")
+ * @param scores strategy scores per provider, lower is better (LATENCY_AWARE load, COST_OPTIMIZED fee)
+ * @param selected chosen provider, or null if none was available
+ * @param failover whether the provider was chosen by the failover fallback
+ * @param durationNanos time spent selecting, including the explanation
+ */
+public record RoutingDecision(
+        Instant timestamp,
+        RoutingStrategy strategy,
+        String tenantId,
+        Currency currency,
+        String region,
+        String paymentMethodType,
+        Money amount,
+        List<String> candidates,
+        Map<String, String> filtered,
+        Map<String, Double> scores,
+        String selected,
+        boolean failover,
+        long durationNanos
+) {
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring buffer of sampled {@link RoutingDecision}s.
+ *
+ * With a sample rate of 0 (the default) {@link #shouldSample()} is a single volatile
+ * read, so the router's fast path is unaffected. Once full, the oldest decisions are
+ * overwritten.
+ */
+public final class RoutingDecisionLog {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final AtomicReferenceArray<RoutingDecision> buffer;
+    private final AtomicLong next = new AtomicLong();
+    private volatile double sampleRate;
+
+    public RoutingDecisionLog() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+
+    /**
+     * @param capacity number of decisions kept
+     * @param sampleRate fraction of selections to record, between 0 and 1
+     */
+    public RoutingDecisionLog(int capacity, double sampleRate) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Decision log capacity must be at least 1");
+        }
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        setSampleRate(sampleRate);
+    }
+
+    /**
+     * Whether the current selection should be explained and recorded.
+     */
+    public boolean shouldSample() {
+        double rate = sampleRate;
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public void record(RoutingDecision decision) {
+        long index = next.getAndIncrement();
+        buffer.set((int) (index % buffer.length()), decision);
+    }
+
+    /**
+     * Most recent decisions, newest first.
+     *
+     * @param limit maximum number of decisions returned
+     * @return recorded decisions
+     */
+    public List<RoutingDecision> recent(int limit) {
+        long end = next.get();
+        int count = (int) Math.min(Math.min(limit, buffer.length()), end);
+        List<RoutingDecision> decisions = new ArrayList<>(Math.max(0, count));
+        for (long i = end - 1; i >= end - count; i--) {
+            RoutingDecision decision = buffer.get((int) (i % buffer.length()));
+            if (decision != null) {
+                decisions.add(decision);
+            }
+        }
+        return decisions;
+    }
+
+    /**
+     * Total number of decisions recorded, including overwritten ones.
+     */
+    public long getRecorded() {
+        return next.get();
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public int getCapacity() {
+        return buffer.length();
+    }
+}
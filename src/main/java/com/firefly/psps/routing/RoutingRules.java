@@ -0,0 +1,202 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.routing.PspRouter.RoutingStrategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable routing rules for {@link DefaultPspRouter}.
+ *
+ * Providers are referenced by name; rules naming providers that are not
+ * registered with the router are ignored.
+ *
+ * @param strategy default routing strategy
+ * @param priority provider order for FIRST_AVAILABLE and failover; providers not listed follow in registration order
+ * @param supportedCurrencies currencies per provider; providers without an entry accept every currency
+ * @param currencyPreferences preferred providers per currency, best first (CURRENCY_OPTIMIZED)
+ * @param regionProviders providers per region, best first (REGION_BASED)
+ * @param tenantProviders providers per tenant, best first (TENANT_SPECIFIC)
+ * @param failoverEnabled whether selectPspWithFailover may fall back to any healthy provider
+ * @param weights traffic weight per provider (WEIGHTED)
+ * @param currencyWeights traffic weights per currency, replacing {@code weights} for that currency
+ * @param tenantWeights traffic weights per tenant, replacing the currency and default weights
+ * @param amountBrackets upper bounds (major units) of the amount brackets COST_OPTIMIZED ranks fees for
+ * @param binIndex card attributes per BIN range (BIN_BASED)
+ * @param binRoutes providers per card brand, type and issuer country, first match wins (BIN_BASED)
+ */
+public record RoutingRules(
+        RoutingStrategy strategy,
+        List<String> priority,
+        Map<String, Set<Currency>> supportedCurrencies,
+        Map<Currency, List<String>> currencyPreferences,
+        Map<String, List<String>> regionProviders,
+        Map<String, List<String>> tenantProviders,
+        boolean failoverEnabled,
+        Map<String, Integer> weights,
+        Map<Currency, Map<String, Integer>> currencyWeights,
+        Map<String, Map<String, Integer>> tenantWeights,
+        List<BigDecimal> amountBrackets,
+        BinRangeIndex binIndex,
+        List<BinRoute> binRoutes
+) {
+    public RoutingRules {
+        strategy = strategy != null ? strategy : RoutingStrategy.FIRST_AVAILABLE;
+        priority = priority != null ? List.copyOf(priority) : List.of();
+        supportedCurrencies = supportedCurrencies != null ? Map.copyOf(supportedCurrencies) : Map.of();
+        currencyPreferences = currencyPreferences != null ? Map.copyOf(currencyPreferences) : Map.of();
+        regionProviders = regionProviders != null ? Map.copyOf(regionProviders) : Map.of();
+        tenantProviders = tenantProviders != null ? Map.copyOf(tenantProviders) : Map.of();
+        weights = weights != null ? Collections.unmodifiableMap(new LinkedHashMap<>(weights)) : Map.of();
+        currencyWeights = currencyWeights != null ? Map.copyOf(currencyWeights) : Map.of();
+        tenantWeights = tenantWeights != null ? Map.copyOf(tenantWeights) : Map.of();
+        amountBrackets = amountBrackets != null ? List.copyOf(amountBrackets) : FeeLookupTable.DEFAULT_AMOUNT_BRACKETS;
+        binIndex = binIndex != null ? binIndex : BinRangeIndex.empty();
+        binRoutes = binRoutes != null ? List.copyOf(binRoutes) : List.of();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private RoutingStrategy strategy = RoutingStrategy.FIRST_AVAILABLE;
+        private List<String> priority = List.of();
+        private final Map<String, Set<Currency>> supportedCurrencies = new LinkedHashMap<>();
+        private final Map<Currency, List<String>> currencyPreferences = new LinkedHashMap<>();
+        private final Map<String, List<String>> regionProviders = new LinkedHashMap<>();
+        private final Map<String, List<String>> tenantProviders = new LinkedHashMap<>();
+        private boolean failoverEnabled = true;
+        private Map<String, Integer> weights = Map.of();
+        private final Map<Currency, Map<String, Integer>> currencyWeights = new LinkedHashMap<>();
+        private final Map<String, Map<String, Integer>> tenantWeights = new LinkedHashMap<>();
+        private List<BigDecimal> amountBrackets = FeeLookupTable.DEFAULT_AMOUNT_BRACKETS;
+        private BinRangeIndex binIndex = BinRangeIndex.empty();
+        private final List<BinRoute> binRoutes = new ArrayList<>();
+
+        public Builder strategy(RoutingStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        public Builder priority(String... providerNames) {
+            this.priority = List.of(providerNames);
+            return this;
+        }
+
+        public Builder supportedCurrencies(String providerName, Set<Currency> currencies) {
+            this.supportedCurrencies.put(providerName, Set.copyOf(currencies));
+            return this;
+        }
+
+        public Builder currencyPreference(Currency currency, String... providerNames) {
+            this.currencyPreferences.put(currency, List.of(providerNames));
+            return this;
+        }
+
+        public Builder region(String region, String... providerNames) {
+            this.regionProviders.put(region, List.of(providerNames));
+            return this;
+        }
+
+        public Builder tenant(String tenantId, String... providerNames) {
+            this.tenantProviders.put(tenantId, List.of(providerNames));
+            return this;
+        }
+
+        public Builder failoverEnabled(boolean failoverEnabled) {
+            this.failoverEnabled = failoverEnabled;
+            return this;
+        }
+
+        /**
+         * Default traffic weights. Arms are ordered as the map iterates, so pass an
+         * ordered map to keep customer assignments stable across restarts.
+         */
+        public Builder weights(Map<String, Integer> weights) {
+            this.weights = Collections.unmodifiableMap(new LinkedHashMap<>(weights));
+            return this;
+        }
+
+        public Builder currencyWeights(Currency currency, Map<String, Integer> weights) {
+            this.currencyWeights.put(currency, Collections.unmodifiableMap(new LinkedHashMap<>(weights)));
+            return this;
+        }
+
+        public Builder tenantWeights(String tenantId, Map<String, Integer> weights) {
+            this.tenantWeights.put(tenantId, Collections.unmodifiableMap(new LinkedHashMap<>(weights)));
+            return this;
+        }
+
+        public Builder amountBrackets(BigDecimal... upperBounds) {
+            this.amountBrackets = List.of(upperBounds);
+            return this;
+        }
+
+        public Builder binIndex(BinRangeIndex binIndex) {
+            this.binIndex = binIndex;
+            return this;
+        }
+
+        /**
+         * Route cards matching the given attributes to the listed providers, best first.
+         * Null attributes match any value; routes are tried in the order they are added.
+         */
+        public Builder binRoute(String brand, String cardType, String country, String... providerNames) {
+            this.binRoutes.add(new BinRoute(brand, cardType, country, List.of(providerNames)));
+            return this;
+        }
+
+        public RoutingRules build() {
+            return new RoutingRules(strategy, priority, supportedCurrencies, currencyPreferences,
+                    regionProviders, tenantProviders, failoverEnabled,
+                    weights, currencyWeights, tenantWeights, amountBrackets, binIndex, binRoutes);
+        }
+    }
+
+    /**
+     * Providers for cards with the given attributes (BIN_BASED).
+     *
+     * @param brand card brand, or null for any
+     * @param cardType card type, or null for any
+     * @param country issuer country, or null for any
+     * @param providers providers, best first
+     */
+    public record BinRoute(String brand, String cardType, String country, List<String> providers) {
+
+        public BinRoute {
+            providers = List.copyOf(providers);
+        }
+
+        public boolean matches(BinRangeIndex.CardInfo card) {
+            return matches(brand, card.brand()) && matches(cardType, card.cardType())
+                    && matches(country, card.country());
+        }
+
+        private static boolean matches(String expected, String actual) {
+            return expected == null || expected.equalsIgnoreCase(actual);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.fees.FxRates;
+import com.firefly.psps.fees.PspFeeCalculator;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, precomputed routing table used by {@link DefaultPspRouter}.
+ *
+ * All candidate lists (per currency, region and tenant, the fee ranking per currency
+ * and the {@link FeeLookupTable}) are built once when the routing configuration changes, so selecting a
+ * provider is a lookup plus a scan of a short immutable list.
+ */
+public final class RoutingTable {
+
+    private final RoutingRules rules;
+    private final List<PspAdapter> adapters;
+    private final Map<String, PspAdapter> byName;
+    private final EnumMap<Currency, List<PspAdapter>> byCurrency;
+    private final EnumMap<Currency, List<PspAdapter>> byCurrencyPreference;
+    private final EnumMap<Currency, List<PspAdapter>> byCost;
+    private final List<PspAdapter> allByCost;
+    private final Map<String, List<PspAdapter>> byRegion;
+    private final Map<String, List<PspAdapter>> byTenant;
+    private final Map<String, Set<Currency>> supportedCurrencies;
+    private final WeightedSplit defaultSplit;
+    private final EnumMap<Currency, WeightedSplit> splitByCurrency;
+    private final Map<String, WeightedSplit> splitByTenant;
+    private final Map<String, FeeStructure> feeStructures;
+    private final FxRates fxRates;
+    private final FeeLookupTable feeLookup;
+    private final List<List<PspAdapter>> byCardInfo;
+
+    private RoutingTable(
+            RoutingRules rules,
+            List<PspAdapter> adapters,
+            Map<String, PspAdapter> byName,
+            EnumMap<Currency, List<PspAdapter>> byCurrency,
+            EnumMap<Currency, List<PspAdapter>> byCurrencyPreference,
+            EnumMap<Currency, List<PspAdapter>> byCost,
+            List<PspAdapter> allByCost,
+            Map<String, List<PspAdapter>> byRegion,
+            Map<String, List<PspAdapter>> byTenant,
+            WeightedSplit defaultSplit,
+            EnumMap<Currency, WeightedSplit> splitByCurrency,
+            Map<String, WeightedSplit> splitByTenant,
+            Map<String, FeeStructure> feeStructures,
+            FxRates fxRates,
+            FeeLookupTable feeLookup,
+            List<List<PspAdapter>> byCardInfo) {
+        this.rules = rules;
+        this.adapters = adapters;
+        this.byName = byName;
+        this.byCurrency = byCurrency;
+        this.byCurrencyPreference = byCurrencyPreference;
+        this.byCost = byCost;
+        this.allByCost = allByCost;
+        this.byRegion = byRegion;
+        this.byTenant = byTenant;
+        this.supportedCurrencies = rules.supportedCurrencies();
+        this.defaultSplit = defaultSplit;
+        this.splitByCurrency = splitByCurrency;
+        this.splitByTenant = splitByTenant;
+        this.feeStructures = feeStructures;
+        this.fxRates = fxRates;
+        this.feeLookup = feeLookup;
+        this.byCardInfo = byCardInfo;
+    }
+
+    /**
+     * Empty table (no providers registered).
+     */
+    static RoutingTable empty() {
+        return build(List.of(), RoutingRules.builder().build(), null, null);
+    }
+
+    /**
+     * Build a routing table.
+     *
+     * @param adapters registered adapters, in registration order
+     * @param rules routing rules
+     * @param feeCalculator fee calculator for COST_OPTIMIZED, or null to keep priority order
+     * @return immutable routing table
+     */
+    static RoutingTable build(Collection<PspAdapter> adapters, RoutingRules rules, PspFeeCalculator feeCalculator) {
+        return feeCalculator != null
+                ? build(adapters, rules, feeStructures(adapters, feeCalculator), fxRates(feeCalculator))
+                : build(adapters, rules, null, null);
+    }
+
+    /**
+     * Fee structures of the given adapters, skipping providers the calculator does not know.
+     */
+    static Map<String, FeeStructure> feeStructures(Collection<PspAdapter> adapters, PspFeeCalculator feeCalculator) {
+        Map<String, FeeStructure> structures = new HashMap<>();
+        for (PspAdapter adapter : adapters) {
+            FeeStructure fees = feeCalculator.getFeeStructure(adapter.getProviderName());
+            if (fees != null) {
+                structures.put(adapter.getProviderName(), fees);
+            }
+        }
+        return Map.copyOf(structures);
+    }
+
+    /**
+     * FX rates of a fee calculator, or null if it does not convert currencies.
+     */
+    static FxRates fxRates(PspFeeCalculator feeCalculator) {
+        return feeCalculator.getFxRates();
+    }
+
+    /**
+     * Build a routing table from known fee structures.
+     *
+     * @param feeStructures fee structure per provider, or null to rank COST_OPTIMIZED by priority
+     * @param fxRates rates converting fees quoted in another currency than the payment, or null
+     */
+    static RoutingTable build(
+            Collection<PspAdapter> adapters, RoutingRules rules, Map<String, FeeStructure> feeStructures, FxRates fxRates) {
+        Map<String, PspAdapter> byName = new LinkedHashMap<>();
+        for (PspAdapter adapter : adapters) {
+            if (byName.putIfAbsent(adapter.getProviderName(), adapter) != null) {
+                throw new PspConfigurationException(
+                        "Duplicate PSP provider registered for routing: " + adapter.getProviderName());
+            }
+        }
+
+        // Priority order: listed providers first, the rest in registration order
+        Map<String, PspAdapter> remaining = new LinkedHashMap<>(byName);
+        List<PspAdapter> ordered = new ArrayList<>();
+        for (String name : rules.priority()) {
+            PspAdapter adapter = remaining.remove(name);
+            if (adapter != null) {
+                ordered.add(adapter);
+            }
+        }
+        ordered.addAll(remaining.values());
+
+        EnumMap<Currency, List<PspAdapter>> byCurrency = new EnumMap<>(Currency.class);
+        EnumMap<Currency, List<PspAdapter>> byCurrencyPreference = new EnumMap<>(Currency.class);
+        EnumMap<Currency, List<PspAdapter>> byCost = new EnumMap<>(Currency.class);
+        EnumMap<Currency, WeightedSplit> splitByCurrency = new EnumMap<>(Currency.class);
+        for (Currency currency : Currency.values()) {
+            List<PspAdapter> supporting = ordered.stream()
+                    .filter(adapter -> supports(rules.supportedCurrencies(), adapter, currency))
+                    .toList();
+            byCurrency.put(currency, supporting);
+            byCurrencyPreference.put(currency, preferred(
+                    rules.currencyPreferences().getOrDefault(currency, List.of()), byName, supporting));
+            byCost.put(currency, rankByCost(supporting, feeStructures, currency, fxRates));
+            Map<String, Integer> weights = rules.currencyWeights().get(currency);
+            splitByCurrency.put(currency, weights != null
+                    ? WeightedSplit.of("currency:" + currency, weights, byName, currency, rules.supportedCurrencies())
+                    : WeightedSplit.of("default:" + currency, rules.weights(), byName, currency, rules.supportedCurrencies()));
+        }
+
+        Map<String, List<PspAdapter>> byRegion = new HashMap<>();
+        rules.regionProviders().forEach((region, names) ->
+                byRegion.put(region, preferred(names, byName, List.of())));
+        Map<String, List<PspAdapter>> byTenant = new HashMap<>();
+        rules.tenantProviders().forEach((tenant, names) ->
+                byTenant.put(tenant, preferred(names, byName, List.of())));
+
+        Map<String, WeightedSplit> splitByTenant = new HashMap<>();
+        rules.tenantWeights().forEach((tenant, weights) -> splitByTenant.put(tenant,
+                WeightedSplit.of("tenant:" + tenant, weights, byName, null, rules.supportedCurrencies())));
+
+        // Providers per distinct card profile of the BIN index (null = no BIN route matches)
+        List<List<PspAdapter>> byCardInfo = new ArrayList<>();
+        for (BinRangeIndex.CardInfo card : rules.binIndex().getCardInfos()) {
+            byCardInfo.add(rules.binRoutes().stream()
+                    .filter(route -> route.matches(card))
+                    .findFirst()
+                    .map(route -> preferred(route.providers(), byName, List.of()))
+                    .orElse(null));
+        }
+
+        return new RoutingTable(rules, List.copyOf(ordered), Map.copyOf(byName),
+                byCurrency, byCurrencyPreference, byCost, rankByCost(ordered, feeStructures, null, fxRates),
+                Map.copyOf(byRegion), Map.copyOf(byTenant),
+                WeightedSplit.of("default", rules.weights(), byName, null, rules.supportedCurrencies()),
+                splitByCurrency, Map.copyOf(splitByTenant),
+                feeStructures != null ? feeStructures : Map.of(),
+                fxRates,
+                feeStructures != null
+                        ? FeeLookupTable.build(ordered, feeStructures, rules.supportedCurrencies(), rules.amountBrackets(),
+                                fxRates)
+                        : null,
+                Collections.unmodifiableList(byCardInfo));
+    }
+
+    public RoutingRules getRules() {
+        return rules;
+    }
+
+    /**
+     * All adapters in priority order.
+     */
+    public List<PspAdapter> getAdapters() {
+        return adapters;
+    }
+
+    public PspAdapter getAdapter(String providerName) {
+        return byName.get(providerName);
+    }
+
+    /**
+     * Adapters supporting a currency in priority order (all adapters if currency is null).
+     */
+    public List<PspAdapter> byCurrency(Currency currency) {
+        return currency != null ? byCurrency.get(currency) : adapters;
+    }
+
+    /**
+     * Adapters supporting a currency, preferred providers for that currency first.
+     */
+    public List<PspAdapter> byCurrencyPreference(Currency currency) {
+        return currency != null ? byCurrencyPreference.get(currency) : adapters;
+    }
+
+    /**
+     * Adapters supporting a currency, cheapest first.
+     */
+    public List<PspAdapter> byCost(Currency currency) {
+        return currency != null ? byCost.get(currency) : allByCost;
+    }
+
+    /**
+     * Adapters configured for a region, or null if the region has no rule.
+     */
+    public List<PspAdapter> byRegion(String region) {
+        return region != null ? byRegion.get(region) : null;
+    }
+
+    /**
+     * Adapters configured for a tenant, or null if the tenant has no rule.
+     */
+    public List<PspAdapter> byTenant(String tenantId) {
+        return tenantId != null ? byTenant.get(tenantId) : null;
+    }
+
+    /**
+     * Providers routed for a card BIN, best first, or null if the BIN is not indexed
+     * or no BIN route matches the card.
+     */
+    public List<PspAdapter> byBin(CharSequence bin) {
+        int id = rules.binIndex().lookupId(bin);
+        return id >= 0 ? byCardInfo.get(id) : null;
+    }
+
+    /**
+     * Fee structures the cost rankings were computed from.
+     */
+    public Map<String, FeeStructure> getFeeStructures() {
+        return feeStructures;
+    }
+
+    /**
+     * FX rates the fee rankings were computed with, or null.
+     */
+    public FxRates getFxRates() {
+        return fxRates;
+    }
+
+    /**
+     * Fee ranking by currency, payment method and amount, or null without a fee calculator.
+     */
+    public FeeLookupTable getFeeLookup() {
+        return feeLookup;
+    }
+
+    /**
+     * Weighted split for a payment: the tenant's weights if configured, otherwise the
+     * currency's weights, otherwise the default weights restricted to the currency.
+     */
+    public WeightedSplit weightedSplit(String tenantId, Currency currency) {
+        WeightedSplit split = tenantId != null ? splitByTenant.get(tenantId) : null;
+        if (split != null) {
+            return split;
+        }
+        return currency != null ? splitByCurrency.get(currency) : defaultSplit;
+    }
+
+    /**
+     * All non-empty weighted splits, for reporting selections per arm.
+     */
+    public List<WeightedSplit> getWeightedSplits() {
+        List<WeightedSplit> splits = new ArrayList<>();
+        if (!defaultSplit.isEmpty()) {
+            splits.add(defaultSplit);
+        }
+        splitByCurrency.values().stream().filter(split -> !split.isEmpty()).forEach(splits::add);
+        splitByTenant.values().stream().filter(split -> !split.isEmpty()).forEach(splits::add);
+        return splits;
+    }
+
+    /**
+     * Whether an adapter accepts a currency (null currency matches every adapter).
+     */
+    public boolean supports(PspAdapter adapter, Currency currency) {
+        return currency == null || supports(supportedCurrencies, adapter, currency);
+    }
+
+    private static boolean supports(Map<String, Set<Currency>> supportedCurrencies, PspAdapter adapter, Currency currency) {
+        Set<Currency> currencies = supportedCurrencies.get(adapter.getProviderName());
+        return currencies == null || currencies.contains(currency);
+    }
+
+    private static List<PspAdapter> preferred(List<String> names, Map<String, PspAdapter> byName, List<PspAdapter> rest) {
+        List<PspAdapter> result = new ArrayList<>();
+        for (String name : names) {
+            PspAdapter adapter = byName.get(name);
+            if (adapter != null && !result.contains(adapter)) {
+                result.add(adapter);
+            }
+        }
+        for (PspAdapter adapter : rest) {
+            if (!result.contains(adapter)) {
+                result.add(adapter);
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    /**
+     * Ranks adapters by their fee structure: percentage fee, then fixed fee, converted to
+     * {@code currency} when a rate is known. Adapters without a fee structure keep their
+     * priority order at the end.
+     */
+    private static List<PspAdapter> rankByCost(
+            List<PspAdapter> adapters, Map<String, FeeStructure> feeStructures, Currency currency, FxRates fxRates) {
+        if (feeStructures == null) {
+            return List.copyOf(adapters);
+        }
+        Map<PspAdapter, BigDecimal[]> costs = new HashMap<>();
+        for (PspAdapter adapter : adapters) {
+            FeeStructure fees = feeStructures.get(adapter.getProviderName());
+            if (fees == null) {
+                continue;
+            }
+            BigDecimal percentage = fees.percentageFee() != null ? fees.percentageFee() : BigDecimal.ZERO;
+            Money fixedFee = fees.fixedFee();
+            if (currency != null && fixedFee != null && fxRates != null) {
+                try {
+                    fixedFee = fees.convertFee(fixedFee, currency, fxRates);
+                } catch (FxRateNotAvailableException e) {
+                    // Keep the fee as quoted
+                }
+            }
+            BigDecimal fixed = fixedFee != null ? fixedFee.getAmount() : BigDecimal.ZERO;
+            costs.put(adapter, new BigDecimal[]{percentage, fixed});
+        }
+        Comparator<PspAdapter> byFees = (a, b) -> {
+            BigDecimal[] costA = costs.get(a);
+            BigDecimal[] costB = costs.get(b);
+            if (costA == null || costB == null) {
+                return costA == null ? (costB == null ? 0 : 1) : -1;
+            }
+            int compare = costA[0].compareTo(costB[0]);
+            return compare != 0 ? compare : costA[1].compareTo(costB[1]);
+        };
+        // List.sort is stable, so equal costs keep priority order
+        List<PspAdapter> ranked = new ArrayList<>(adapters);
+        ranked.sort(byFees);
+        return List.copyOf(ranked);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.exceptions.PspConfigurationException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Immutable weighted traffic split between PSP adapters (A/B tests, gradual migrations).
+ *
+ * Customers are assigned to an arm by a hash of their id, so the same customer
+ * lands on the same provider for retries and 3DS flows as long as the weights do
+ * not change. Contexts without a customer id are assigned randomly. If the
+ * assigned arm is unavailable the next available arm in configuration order is used.
+ *
+ * Arms are kept in arrays with cumulative weights; a decision is a hash, a scan of
+ * the arms and a {@link LongAdder} increment, without locks or allocation.
+ */
+public final class WeightedSplit {
+
+    private final String name;
+    private final PspAdapter[] arms;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final LongAdder[] selections;
+
+    private WeightedSplit(String name, PspAdapter[] arms, int[] cumulativeWeights) {
+        this.name = name;
+        this.arms = arms;
+        this.cumulativeWeights = cumulativeWeights;
+        this.totalWeight = arms.length > 0 ? cumulativeWeights[arms.length - 1] : 0;
+        this.selections = new LongAdder[arms.length];
+        for (int i = 0; i < arms.length; i++) {
+            selections[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Build a split from provider weights. Providers that are not registered, have a
+     * weight of 0 or do not accept the currency are left out.
+     *
+     * @param name split name (e.g. "default:EUR", "tenant:acme", "currency:EUR")
+     * @param weights weight per provider name
+     * @param byName registered adapters
+     * @param currency currency the split must accept, or null
+     * @param supportedCurrencies supported currencies per provider
+     * @return weighted split
+     */
+    static WeightedSplit of(String name, Map<String, Integer> weights, Map<String, PspAdapter> byName,
+                            Currency currency, Map<String, Set<Currency>> supportedCurrencies) {
+        List<PspAdapter> arms = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            int weight = entry.getValue() != null ? entry.getValue() : 0;
+            if (weight < 0) {
+                throw new PspConfigurationException(
+                        "Routing weight for " + entry.getKey() + " must not be negative: " + weight);
+            }
+            PspAdapter adapter = byName.get(entry.getKey());
+            if (adapter == null || weight == 0) {
+                continue;
+            }
+            Set<Currency> currencies = supportedCurrencies.get(adapter.getProviderName());
+            if (currency != null && currencies != null && !currencies.contains(currency)) {
+                continue;
+            }
+            total = Math.addExact(total, weight);
+            arms.add(adapter);
+            cumulative.add(total);
+        }
+        return new WeightedSplit(name, arms.toArray(new PspAdapter[0]),
+                cumulative.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Select an arm.
+     *
+     * @param customerId sticky key, or null for a random assignment
+     * @param currency payment currency, checked against each arm's supported currencies
+     * @param table routing table
+     * @param available availability check
+     * @return selected adapter, or null if no arm is available
+     */
+    PspAdapter select(String customerId, Currency currency, RoutingTable table, Predicate<PspAdapter> available) {
+        if (totalWeight == 0) {
+            return null;
+        }
+        int point = customerId != null
+                ? Math.floorMod(mix(customerId.hashCode()), totalWeight)
+                : ThreadLocalRandom.current().nextInt(totalWeight);
+        int assigned = 0;
+        while (cumulativeWeights[assigned] <= point) {
+            assigned++;
+        }
+        for (int i = 0; i < arms.length; i++) {
+            int arm = (assigned + i) % arms.length;
+            PspAdapter adapter = arms[arm];
+            if (table.supports(adapter, currency) && available.test(adapter)) {
+                selections[arm].increment();
+                return adapter;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEmpty() {
+        return totalWeight == 0;
+    }
+
+    /**
+     * Selections per arm since this split was built.
+     *
+     * @return provider name to number of selections
+     */
+    public Map<String, Long> getSelections() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < arms.length; i++) {
+            counts.put(arms[i].getProviderName(), selections[i].sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Murmur3 finalizer, so similar customer ids spread evenly across arms.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -22,7 +22,9 @@ import com.firefly.psps.dtos.customers.*;
 import com.firefly.psps.dtos.payments.*;
 import com.firefly.psps.dtos.refunds.*;
 import com.firefly.psps.dtos.subscriptions.*;
+import com.firefly.psps.exceptions.PaymentFailedException;
 import com.firefly.psps.exceptions.PspException;
+import com.firefly.psps.routing.AuthorizationRateTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -40,9 +42,22 @@ public abstract class AbstractPspService {
 
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     protected final PspAdapter pspAdapter;
+    private final AuthorizationRateTracker authorizationRates;
 
     protected AbstractPspService(PspAdapter pspAdapter) {
+        this(pspAdapter, null);
+    }
+
+    /**
+     * @param pspAdapter PSP adapter
+     * @param authorizationRates tracker fed with the final outcomes of created and confirmed
+     *        payments, or null to not record them. The payment's {@code region} metadata entry
+     *        must match the region of the routing context it was routed with. A confirmation
+     *        declined with {@link PaymentFailedException} is looked up once to find its segment.
+     */
+    protected AbstractPspService(PspAdapter pspAdapter, AuthorizationRateTracker authorizationRates) {
         this.pspAdapter = pspAdapter;
+        this.authorizationRates = authorizationRates;
     }
 
     // ========== Payment Operations ==========
@@ -53,6 +68,9 @@ public abstract class AbstractPspService {
                 .createPayment(request)
                 .map(ResponseEntity::getBody)
                 .doOnSuccess(response -> logger.info("Payment created: {}", response.getPaymentId()))
+                .doOnNext(this::recordAuthorization)
+                .doOnError(PaymentFailedException.class,
+                        error -> recordDecline(AuthorizationRateTracker.Segment.of(request)))
                 .doOnError(error -> logger.error("Payment creation failed", error))
                 .onErrorMap(this::handleException);
     }
@@ -71,6 +89,9 @@ public abstract class AbstractPspService {
                 .confirmPayment(request)
                 .map(ResponseEntity::getBody)
                 .doOnSuccess(response -> logger.info("Payment confirmed: {}", response.getPaymentId()))
+                .doOnNext(this::recordAuthorization)
+                .onErrorResume(PaymentFailedException.class,
+                        error -> recordConfirmDecline(request.getPaymentId(), error))
                 .onErrorMap(this::handleException);
     }
 
@@ -263,6 +284,40 @@ public abstract class AbstractPspService {
         return new PspException("PSP operation failed: " + throwable.getMessage(), throwable);
     }
 
+    /**
+     * Record the authorization outcome of a payment for AUTHORIZATION_RATE routing.
+     */
+    private void recordAuthorization(PaymentResponse response) {
+        if (authorizationRates != null) {
+            authorizationRates.record(getProviderName(), response);
+        }
+    }
+
+    private void recordDecline(AuthorizationRateTracker.Segment segment) {
+        if (authorizationRates != null) {
+            authorizationRates.record(getProviderName(), segment, false);
+        }
+    }
+
+    /**
+     * Record a declined confirmation with the segment of the stored payment, then
+     * propagate the decline.
+     */
+    private Mono<PaymentResponse> recordConfirmDecline(String paymentId, PaymentFailedException error) {
+        if (authorizationRates == null) {
+            return Mono.error(error);
+        }
+        return pspAdapter.payments()
+                .getPayment(paymentId)
+                .map(ResponseEntity::getBody)
+                .doOnNext(payment -> recordDecline(AuthorizationRateTracker.Segment.of(payment)))
+                .onErrorResume(lookupError -> {
+                    logger.warn("Could not look up declined payment {}", paymentId, lookupError);
+                    return Mono.empty();
+                })
+                .then(Mono.error(error));
+    }
+
     /**
      * Get the PSP adapter instance.
      */
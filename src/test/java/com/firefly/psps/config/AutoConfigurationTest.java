@@ -4,8 +4,11 @@
 
 package com.firefly.psps.config;
 
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.adapter.PspAdapterRegistry;
 import com.firefly.psps.health.PspHealthIndicator;
 import com.firefly.psps.resilience.ResilientPspService;
+import com.firefly.psps.routing.DefaultPspRouter;
 import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
@@ -18,6 +21,8 @@ import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for Spring Boot auto-configuration.
@@ -31,6 +36,14 @@ class AutoConfigurationTest {
     private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
             .withConfiguration(AutoConfigurations.of(PspResilienceConfiguration.class));
 
+    private final ApplicationContextRunner routingContextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(PspResilienceConfiguration.class, PspRoutingConfiguration.class))
+            .withPropertyValues("firefly.psp.resilience.health-probe.enabled=false")
+            .withBean("stripeAdapter", PspAdapter.class, () -> adapter("stripe"))
+            .withBean("adyenAdapter", PspAdapter.class, () -> adapter("adyen"))
+            .withBean("paypalAdapter", PspAdapter.class, () -> adapter("paypal"))
+            .withBean(PspHealthIndicator.class);
+
     @Test
     @DisplayName("Should auto-configure resilience registries when enabled")
     void shouldAutoConfigureResilienceRegistries() {
@@ -109,6 +122,34 @@ class AutoConfigurationTest {
                 });
     }
 
+    @Test
+    @DisplayName("Provider and operation profiles should be registered as named configurations")
+    void providerAndOperationProfilesShouldBeRegistered() {
+        contextRunner
+                .withPropertyValues(
+                        "firefly.psp.resilience.rate-limiter.limit-for-period=50",
+                        "firefly.psp.resilience.providers.stripe.rate-limiter.limit-for-period=100",
+                        "firefly.psp.resilience.providers.stripe.operations[listPayments].time-limiter.timeout-duration=60s",
+                        "firefly.psp.resilience.providers.stripe.operations[listPayments].bulkhead.max-concurrent-calls=5"
+                )
+                .run(context -> {
+                    RateLimiterRegistry rateLimiters = context.getBean(RateLimiterRegistry.class);
+                    TimeLimiterRegistry timeLimiters = context.getBean(TimeLimiterRegistry.class);
+                    BulkheadRegistry bulkheads = context.getBean(BulkheadRegistry.class);
+
+                    assertThat(rateLimiters.getConfiguration("stripe")).get()
+                            .satisfies(config -> assertThat(config.getLimitForPeriod()).isEqualTo(100));
+                    // Operation profile inherits the provider rate limit and overrides timeout and bulkhead
+                    assertThat(rateLimiters.getConfiguration("stripe-listPayments")).get()
+                            .satisfies(config -> assertThat(config.getLimitForPeriod()).isEqualTo(100));
+                    assertThat(timeLimiters.getConfiguration("stripe-listPayments")).get()
+                            .satisfies(config -> assertThat(config.getTimeoutDuration()).hasSeconds(60));
+                    assertThat(bulkheads.getConfiguration("stripe-listPayments")).get()
+                            .satisfies(config -> assertThat(config.getMaxConcurrentCalls()).isEqualTo(5));
+                    assertThat(rateLimiters.getDefaultConfig().getLimitForPeriod()).isEqualTo(50);
+                });
+    }
+
     @Test
     @DisplayName("Circuit breaker registry should have correct default config")
     void circuitBreakerRegistryShouldHaveCorrectDefaults() {
@@ -200,4 +241,42 @@ class AutoConfigurationTest {
                     assertThat(registry1).isSameAs(registry2);
                 });
     }
+
+    @Test
+    @DisplayName("Routing configuration should register every PSP adapter and build a router")
+    void routingConfigurationShouldRegisterAllAdapters() {
+        routingContextRunner
+                .withPropertyValues(
+                        "firefly.psp.routing.default-provider=adyen",
+                        "firefly.psp.providers.stripe.weight=70",
+                        "firefly.psp.providers.paypal.enabled=false"
+                )
+                .run(context -> {
+                    PspAdapterRegistry registry = context.getBean(PspAdapterRegistry.class);
+                    assertThat(registry.getProviderNames()).containsExactly("stripe", "adyen");
+                    assertThat(registry.getDefaultAdapter().getProviderName()).isEqualTo("adyen");
+
+                    DefaultPspRouter router = context.getBean(DefaultPspRouter.class);
+                    assertThat(router.getAllPsps()).extracting(PspAdapter::getProviderName)
+                            .containsExactly("adyen", "stripe");
+                    assertThat(router.getRoutingTable().getRules().weights()).containsEntry("stripe", 70);
+                    assertThat(context.getBean(PspHealthIndicator.class).health().block().getDetails())
+                            .containsKey("providers");
+                });
+    }
+
+    @Test
+    @DisplayName("Routing configuration should fail when the default provider has no adapter")
+    void routingConfigurationShouldRejectUnknownDefaultProvider() {
+        routingContextRunner
+                .withPropertyValues("firefly.psp.routing.default-provider=worldpay")
+                .run(context -> assertThat(context).hasFailed());
+    }
+
+    private static PspAdapter adapter(String name) {
+        PspAdapter adapter = mock(PspAdapter.class);
+        when(adapter.getProviderName()).thenReturn(name);
+        when(adapter.isHealthy()).thenReturn(true);
+        return adapter;
+    }
 }
@@ -64,6 +64,16 @@ class DomainModelsTest {
         assertEquals(12345L, money.toCents());
     }
 
+    @Test
+    @DisplayName("Money minor units should follow the ISO 4217 exponent")
+    void moneyMinorUnitsShouldFollowCurrencyExponent() {
+        assertEquals(new BigDecimal("10.50"), Money.ofMinorUnits(1050, Currency.EUR).getAmount());
+        assertEquals(new BigDecimal("1050"), Money.ofMinorUnits(1050, Currency.JPY).getAmount());
+        assertEquals(1050L, new Money(new BigDecimal("1050"), Currency.JPY).toMinorUnits());
+        assertEquals(1050L, new Money(new BigDecimal("10.5"), Currency.EUR).toMinorUnits());
+        assertThrows(ArithmeticException.class, () -> new Money(new BigDecimal("10.505"), Currency.EUR).toMinorUnits());
+    }
+
     @Test
     @DisplayName("Money should support equality")
     void moneyShouldSupportEquality() {
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el cálculo masivo de comisiones sobre arrays columnares.
+ *
+ * PROPÓSITO: Verificar que el cálculo por lotes (secuencial y fork/join) coincide fila
+ * a fila con el cálculo individual y que la comparación elige el proveedor más barato.
+ */
+@DisplayName("Batch Fee Calculator Tests")
+class BatchFeeCalculatorTest {
+
+    private static final int ROWS = 100_000;
+
+    @Test
+    @DisplayName("Batch fees should match per-transaction fees, sequentially and in parallel")
+    void batchFeesShouldMatchSingleFees() {
+        Map<String, CompiledFeeStructure> structures = structures();
+        Random random = new Random(20250601L);
+        long[] amounts = new long[ROWS];
+        int[] currencies = new int[ROWS];
+        int[] methods = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = random.nextInt(10_000_000);
+            currencies[i] = random.nextInt(Currency.values().length);
+            methods[i] = random.nextInt(PaymentMethodType.values().length + 1) - 1;
+        }
+
+        long[] sequential = new long[ROWS];
+        long[] parallel = new long[ROWS];
+        new BatchFeeCalculator(structures, ForkJoinPool.commonPool(), Integer.MAX_VALUE)
+                .calculateFees("stripe", amounts, currencies, methods, sequential);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new BatchFeeCalculator(structures, pool, 1_000)
+                    .calculateFees("stripe", amounts, currencies, methods, parallel);
+        } finally {
+            pool.shutdown();
+        }
+
+        CompiledFeeStructure stripe = structures.get("stripe");
+        for (int i = 0; i < ROWS; i++) {
+            long expected = stripe.calculateFeeMinorUnits(amounts[i], Currency.values()[currencies[i]],
+                    methods[i] < 0 ? null : PaymentMethodType.values()[methods[i]]);
+            assertEquals(expected, sequential[i]);
+            assertEquals(expected, parallel[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Comparison should score every provider and pick the cheapest")
+    void compareFeesShouldPickCheapest() {
+        BatchFeeCalculator batch = new BatchFeeCalculator(structures());
+        long[] amounts = {1_000, 100_000, 10_000_000};
+        int[] currencies = {Currency.EUR.ordinal(), Currency.EUR.ordinal(), Currency.EUR.ordinal()};
+        long[][] fees = new long[2][3];
+        int[] cheapest = new int[3];
+
+        batch.compareFees(amounts, currencies, null, fees, cheapest);
+
+        assertEquals(0, batch.getProviderNames().indexOf("stripe"));
+        // stripe: 1.4% + 0.25, adyen: 0.6% + 0.50 with a 1.00 minimum
+        assertArrayEquals(new long[]{39, 1425, 140_025}, fees[0]);
+        assertArrayEquals(new long[]{100, 650, 60_050}, fees[1]);
+        assertArrayEquals(new int[]{0, 1, 1}, cheapest);
+    }
+
+    @Test
+    @DisplayName("Mismatched arrays and unknown providers should be rejected")
+    void invalidInputShouldBeRejected() {
+        BatchFeeCalculator batch = new BatchFeeCalculator(structures());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.calculateFees("stripe", new long[2], new int[1], null, new long[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.calculateFees("mollie", new long[1], new int[1], null, new long[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.calculateFees("stripe", new long[1], new int[1], new int[]{99}, new long[1]));
+    }
+
+    private static Map<String, CompiledFeeStructure> structures() {
+        Map<String, CompiledFeeStructure> structures = new LinkedHashMap<>();
+        structures.put("stripe", new FeeStructure("stripe", new BigDecimal("1.4"), eur("0.25"), null, null,
+                Map.of(PaymentMethodType.CARD, new BigDecimal("0.5")), Map.of(), false, null).compile());
+        structures.put("adyen", new FeeStructure("adyen", new BigDecimal("0.6"), eur("0.50"), eur("1.00"), null,
+                Map.of(), Map.of(), false, null).compile());
+        return structures;
+    }
+
+    private static Money eur(String amount) {
+        return new Money(new BigDecimal(amount), Currency.EUR);
+    }
+}
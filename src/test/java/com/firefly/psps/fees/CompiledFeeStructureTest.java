@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el motor de comisiones en unidades menores.
+ *
+ * PROPÓSITO: Garantizar que la estructura compilada produce exactamente el mismo
+ * resultado (valor y escala) que el cálculo con BigDecimal.
+ */
+@DisplayName("Compiled Fee Structure Tests")
+class CompiledFeeStructureTest {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final PaymentMethodType[] METHODS = PaymentMethodType.values();
+
+    @Test
+    @DisplayName("Compiled fees should match the BigDecimal path for random structures and amounts")
+    void compiledFeesShouldMatchBigDecimalPath() {
+        Random random = new Random(20250501L);
+
+        for (int i = 0; i < 50_000; i++) {
+            Currency currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+            int digits = currency.getMinorUnitDigits();
+            FeeStructure fees = randomFees(random, currency);
+            CompiledFeeStructure compiled = fees.compile();
+            long minorUnits = random.nextInt(3) == 0
+                    ? (random.nextLong() >>> (1 + random.nextInt(63))) / 1000
+                    : random.nextInt(1_000_000);
+            Money amount = new Money(BigDecimal.valueOf(minorUnits, digits), currency);
+            PaymentMethodType method = METHODS[random.nextInt(METHODS.length)];
+
+            Money expected = fees.calculateFee(amount, method);
+
+            assertEquals(expected, compiled.calculateFee(amount, method), () -> fees + " " + amount + " " + method);
+            if (expected.getAmount().stripTrailingZeros().scale() <= digits) {
+                assertEquals(expected.toMinorUnits(), compiled.calculateFeeMinorUnits(minorUnits, currency, method),
+                        () -> fees + " " + amount + " " + method);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Compiled fees should match the BigDecimal path with FX rates")
+    void compiledFeesShouldMatchBigDecimalPathWithFxRates() {
+        Random random = new Random(20250601L);
+        FxRates fxRates = FxRates.builder()
+                .rate(Currency.EUR, Currency.USD, new BigDecimal("1.0850"))
+                .rate(Currency.EUR, Currency.GBP, new BigDecimal("0.8550"))
+                .rate(Currency.USD, Currency.JPY, new BigDecimal("151.37"))
+                .build();
+
+        for (int i = 0; i < 20_000; i++) {
+            Currency currency = CURRENCIES[random.nextInt(CURRENCIES.length)];
+            FeeStructure base = randomFees(random, currency);
+            // PSP-quoted conversion rate into one currency
+            Map<Currency, BigDecimal> pspRates = random.nextBoolean()
+                    ? Map.of(CURRENCIES[random.nextInt(CURRENCIES.length)], BigDecimal.valueOf(50 + random.nextInt(200), 2))
+                    : Map.of();
+            FeeStructure fees = new FeeStructure(base.providerName(), base.percentageFee(), base.fixedFee(),
+                    base.minimumFee(), base.maximumFee(), base.paymentMethodSurcharges(), pspRates, false, null);
+            CompiledFeeStructure compiled = fees.compile(fxRates);
+            Currency paymentCurrency = random.nextBoolean() ? currency : CURRENCIES[random.nextInt(CURRENCIES.length)];
+            Money amount = new Money(BigDecimal.valueOf(random.nextInt(1_000_000), paymentCurrency.getMinorUnitDigits()),
+                    paymentCurrency);
+            PaymentMethodType method = METHODS[random.nextInt(METHODS.length)];
+
+            Money expected;
+            try {
+                expected = fees.calculateFee(amount, method, fxRates);
+            } catch (FxRateNotAvailableException e) {
+                assertThrows(FxRateNotAvailableException.class, () -> compiled.calculateFee(amount, method));
+                continue;
+            }
+            assertEquals(expected, compiled.calculateFee(amount, method), () -> fees + " " + amount + " " + method);
+        }
+    }
+
+    @Test
+    @DisplayName("Compiling without FX rates should keep ignoring fees in other currencies")
+    void compilingWithoutFxRatesShouldIgnoreOtherCurrencies() {
+        FeeStructure fees = new FeeStructure("stripe", new BigDecimal("1.4"), eur("0.25"), eur("0.50"), null,
+                Map.of(), Map.of(Currency.USD, new BigDecimal("1.10")), false, null);
+        Money amount = new Money(new BigDecimal("10.00"), Currency.USD);
+        PaymentMethodType card = PaymentMethodType.CARD;
+
+        assertEquals(new Money(new BigDecimal("0.14"), Currency.USD), fees.calculateFee(amount, card));
+        assertEquals(fees.calculateFee(amount, card), fees.compile().calculateFee(amount, card));
+        // With rates, the PSP's own USD rate converts the EUR fees: 0.14 + 0.28 -> minimum 0.55
+        assertEquals(new Money(new BigDecimal("0.55"), Currency.USD),
+                fees.compile(FxRates.empty()).calculateFee(amount, card));
+        assertThrows(FxRateNotAvailableException.class,
+                () -> fees.compile(FxRates.empty()).calculateFeeMinorUnits(1_000, Currency.GBP, null));
+    }
+
+    @Test
+    @DisplayName("Minor-unit fees should apply surcharge, fixed fee and caps")
+    void minorUnitFeesShouldApplyAllComponents() {
+        FeeStructure fees = new FeeStructure("stripe", new BigDecimal("1.4"), eur("0.25"), eur("0.50"), eur("5"),
+                Map.of(PaymentMethodType.CARD, new BigDecimal("0.5")), Map.of(), false, null);
+        CompiledFeeStructure compiled = fees.compile();
+
+        // 1.9% of 100.00 = 1.90 + 0.25
+        assertEquals(215, compiled.calculateFeeMinorUnits(10_000, Currency.EUR, PaymentMethodType.CARD));
+        // 1.4% of 10.00 = 0.14 + 0.25 -> minimum 0.50
+        assertEquals(50, compiled.calculateFeeMinorUnits(1_000, Currency.EUR, null));
+        // capped at 5.00
+        assertEquals(500, compiled.calculateFeeMinorUnits(1_000_000, Currency.EUR, PaymentMethodType.CARD));
+        // Fixed and cap fees in EUR do not apply to JPY
+        assertEquals(14, compiled.calculateFeeMinorUnits(1_000, Currency.JPY, null));
+    }
+
+    @Test
+    @DisplayName("Amounts with another scale should keep the BigDecimal rounding")
+    void otherScalesShouldUseBigDecimalPath() {
+        FeeStructure fees = new FeeStructure("adyen", new BigDecimal("2.9"), null, null, null,
+                Map.of(), Map.of(), false, null);
+        Money wholeEuros = new Money(new BigDecimal("99"), Currency.EUR);
+
+        assertEquals(fees.calculateFee(wholeEuros, PaymentMethodType.CARD),
+                fees.compile().calculateFee(wholeEuros, PaymentMethodType.CARD));
+    }
+
+    private static FeeStructure randomFees(Random random, Currency currency) {
+        int digits = currency.getMinorUnitDigits();
+        Map<PaymentMethodType, BigDecimal> surcharges = new HashMap<>();
+        if (random.nextBoolean()) {
+            surcharges.put(METHODS[random.nextInt(METHODS.length)], BigDecimal.valueOf(random.nextInt(200), 2));
+        }
+        Money fixed = random.nextBoolean()
+                ? new Money(BigDecimal.valueOf(random.nextInt(100), random.nextInt(digits + 2)),
+                        random.nextInt(4) == 0 ? CURRENCIES[random.nextInt(CURRENCIES.length)] : currency)
+                : null;
+        Money minimum = random.nextBoolean()
+                ? new Money(BigDecimal.valueOf(random.nextInt(300), random.nextInt(digits + 2)), currency)
+                : null;
+        Money maximum = random.nextBoolean()
+                ? new Money(BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(digits + 1)), currency)
+                : null;
+        return new FeeStructure("psp", BigDecimal.valueOf(random.nextInt(500), random.nextInt(4)),
+                fixed, minimum, maximum, surcharges, Map.of(), false, null);
+    }
+
+    private static Money eur(String amount) {
+        return new Money(new BigDecimal(amount), Currency.EUR);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.adapter.ports.ReconciliationPort.PspTransaction;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.domain.PaymentStatus;
+import com.firefly.psps.exceptions.FxRateNotAvailableException;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el cálculo de comisiones con conversión de divisas.
+ *
+ * PROPÓSITO: Verificar que las comisiones fijas y los límites en otra divisa se convierten
+ * con la instantánea de tipos de cambio vigente y que la comparación entre PSPs es correcta.
+ */
+@DisplayName("Default PSP Fee Calculator Tests")
+class DefaultPspFeeCalculatorTest {
+
+    private CachedFxRateProvider fxRateProvider;
+    private DefaultPspFeeCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        fxRateProvider = CachedFxRateProvider.of(FxRates.builder()
+                .rate(Currency.EUR, Currency.USD, new BigDecimal("1.10"))
+                .build());
+        calculator = new DefaultPspFeeCalculator(List.of(
+                // USD price list: 2.9% + 0.30 USD
+                new FeeStructure("stripe", new BigDecimal("2.9"), usd("0.30"), null, null,
+                        Map.of(), Map.of(), false, null),
+                // EUR price list: 1.5% + 0.50 EUR, minimum 1.00 EUR
+                new FeeStructure("adyen", new BigDecimal("1.5"), eur("0.50"), eur("1.00"), null,
+                        Map.of(), Map.of(), false, eur("15")),
+                // EUR price list: 1.0% + 0.25 EUR, converted to USD at the contracted 1.05
+                new FeeStructure("mollie", new BigDecimal("1.0"), eur("0.25"), null, null,
+                        Map.of(), Map.of(Currency.USD, new BigDecimal("1.05")), false, null)),
+                fxRateProvider);
+    }
+
+    @Test
+    @DisplayName("Fees quoted in another currency should be converted to the payment currency")
+    void feesShouldBeConverted() {
+        // 2.9% of 10.00 EUR + 0.30 USD / 1.10
+        assertEquals(eur("0.56"), calculator.calculatePaymentFee("stripe", eur("10.00"), PaymentMethodType.CARD));
+        // 1.5% of 100.00 USD + 0.50 EUR * 1.10
+        assertEquals(usd("2.05"), calculator.calculatePaymentFee("adyen", usd("100.00"), null));
+        // Minimum 1.00 EUR = 1.10 USD
+        assertEquals(usd("1.10"), calculator.calculatePaymentFee("adyen", usd("10.00"), null));
+        assertEquals(usd("16.50"), calculator.calculateChargebackFee("adyen", Currency.USD));
+    }
+
+    @Test
+    @DisplayName("Comparison should use converted fees")
+    void comparisonShouldUseConvertedFees() {
+        Map<String, Money> fees = calculator.compareFees(usd("100.00"), null, "stripe", "adyen", "checkout");
+
+        assertEquals(Map.of("stripe", usd("3.20"), "adyen", usd("2.05")), fees);
+        assertEquals("adyen", calculator.getCheapestPsp(usd("100.00"), null, "stripe", "adyen"));
+        assertEquals("stripe", calculator.getCheapestPsp(usd("10.00"), null, "stripe", "adyen"));
+    }
+
+    @Test
+    @DisplayName("New FX snapshots should be picked up without rebuilding the calculator")
+    void newSnapshotsShouldBePickedUp() {
+        AtomicReference<FxRates> notified = new AtomicReference<>();
+        fxRateProvider.addListener(notified::set);
+        FxRates newRates = FxRates.builder().rate(Currency.EUR, Currency.USD, new BigDecimal("1.20")).build();
+
+        assertFalse(fxRateProvider.update(FxRates.builder()
+                .rate(Currency.EUR, Currency.USD, new BigDecimal("1.10")).build()));
+        assertTrue(fxRateProvider.update(newRates));
+
+        assertSame(newRates, notified.get());
+        assertSame(newRates, calculator.getFxRates());
+        assertFalse(fxRateProvider.refresh(), "An in-memory provider should keep updated rates");
+        assertSame(newRates, fxRateProvider.getRates());
+        assertEquals(usd("2.10"), calculator.calculatePaymentFee("adyen", usd("100.00"), null));
+    }
+
+    @Test
+    @DisplayName("The PSP's contracted rate should take precedence over the snapshot")
+    void contractedRateShouldTakePrecedence() {
+        // 1.0% of 100.00 USD + 0.25 EUR * 1.05
+        assertEquals(usd("1.26"), calculator.calculatePaymentFee("mollie", usd("100.00"), null));
+        // No contracted EUR rate needed for EUR payments
+        assertEquals(eur("1.25"), calculator.calculatePaymentFee("mollie", eur("100.00"), null));
+    }
+
+    @Test
+    @DisplayName("Fees without a rate should fail the calculation")
+    void feesWithoutRateShouldFail() {
+        Money gbp = new Money(new BigDecimal("100.00"), Currency.GBP);
+
+        FxRateNotAvailableException error = assertThrows(FxRateNotAvailableException.class,
+                () -> calculator.calculatePaymentFee("adyen", gbp, null));
+        assertEquals(Currency.EUR, error.getFrom());
+        assertEquals(Currency.GBP, error.getTo());
+        assertThrows(FxRateNotAvailableException.class, () -> calculator.calculateChargebackFee("adyen", Currency.GBP));
+
+        FeeStructure adyen = calculator.getFeeStructure("adyen");
+        assertThrows(FxRateNotAvailableException.class, () -> adyen.calculateFee(usd("100.00"), null, null));
+        assertEquals(usd("1.26"), calculator.getFeeStructure("mollie").calculateFee(usd("100.00"), null, null),
+                "Contracted rates should not need fxRates");
+    }
+
+    @Test
+    @DisplayName("Batch fees and cost reports should convert fees like the calculator")
+    void batchAndReportsShouldUseCalculatorRates() {
+        long[] fees = new long[2];
+        BatchFeeCalculator.of(calculator, "adyen").calculateFees("adyen",
+                new long[] {10_000, 1_000}, new int[] {Currency.USD.ordinal(), Currency.USD.ordinal()}, null, fees);
+
+        assertArrayEquals(new long[] {205, 110}, fees);
+
+        FeeCostAnalyzer.FeeCostReport report = new FeeCostAnalyzer(calculator).report("adyen", Flux.just(
+                new PspTransaction("t1", "p1", usd("100.00"), usd("2.05"), PaymentStatus.SUCCEEDED, null, null),
+                new PspTransaction("t2", "p2", new Money(new BigDecimal("100.00"), Currency.GBP),
+                        new Money(new BigDecimal("2.00"), Currency.GBP), PaymentStatus.SUCCEEDED, null, null)))
+                .block();
+
+        assertNotNull(report);
+        assertEquals(1, report.transactionCount());
+        assertEquals(1, report.skippedCount(), "Payments without a rate should be skipped");
+        assertEquals(usd("2.05"), report.totals().get(0).expectedFees());
+        assertTrue(report.overcharges().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Without an FX provider fees in other currencies should be ignored as before")
+    void withoutProviderFeesShouldBeIgnored() {
+        DefaultPspFeeCalculator plain = new DefaultPspFeeCalculator(List.of(
+                new FeeStructure("adyen", new BigDecimal("1.5"), eur("0.50"), eur("1.00"), null,
+                        Map.of(), Map.of(), false, eur("15"))));
+
+        assertNull(plain.getFxRates());
+        assertEquals(usd("1.50"), plain.calculatePaymentFee("adyen", usd("100.00"), null));
+        assertEquals(usd("0"), plain.calculateChargebackFee("adyen", Currency.USD));
+    }
+
+    @Test
+    @DisplayName("FX rates should be parsed with inverse and cross rates")
+    void fxRatesShouldBeParsed() throws Exception {
+        FxRates rates = FxRates.parse(new StringReader("""
+                base,quote,rate
+                # ECB reference rates
+                EUR,USD,1.25
+                eur,gbp,0.80
+                """), "test");
+
+        assertEquals(new BigDecimal("1.25"), rates.rate(Currency.EUR, Currency.USD));
+        assertEquals(0, new BigDecimal("0.8").compareTo(rates.rate(Currency.USD, Currency.EUR)));
+        assertEquals(0, new BigDecimal("0.64").compareTo(rates.rate(Currency.USD, Currency.GBP)));
+        assertEquals(BigDecimal.ONE, rates.rate(Currency.JPY, Currency.JPY));
+        assertNull(rates.rate(Currency.EUR, Currency.JPY));
+        assertThrows(PspConfigurationException.class,
+                () -> FxRates.parse(new StringReader("EUR,XXX,1.0"), "test"));
+    }
+
+    private static Money eur(String amount) {
+        return new Money(new BigDecimal(amount), Currency.EUR);
+    }
+
+    private static Money usd(String amount) {
+        return new Money(new BigDecimal(amount), Currency.USD);
+    }
+}
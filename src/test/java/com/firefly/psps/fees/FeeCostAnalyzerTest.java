@@ -0,0 +1,153 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.adapter.ports.ReconciliationPort;
+import com.firefly.psps.adapter.ports.ReconciliationPort.PspTransaction;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.domain.PaymentStatus;
+import com.firefly.psps.fees.FeeCostAnalyzer.CostSummary;
+import com.firefly.psps.fees.FeeCostAnalyzer.FeeCostReport;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests para el análisis de costes de comisiones sobre datos de liquidación.
+ *
+ * PROPÓSITO: Verificar que las comisiones esperadas y cobradas se agregan por día,
+ * divisa y método de pago, y que los sobrecargos se detectan.
+ */
+@DisplayName("Fee Cost Analyzer Tests")
+class FeeCostAnalyzerTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2025, 5, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2025, 5, 2);
+
+    private FeeCostAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        // 1.4% + 0.25, +0.5% for cards
+        PspFeeCalculator feeCalculator = mock(PspFeeCalculator.class);
+        when(feeCalculator.getFeeStructure("stripe")).thenReturn(new FeeStructure("stripe",
+                new BigDecimal("1.4"), eur("0.25"), null, null,
+                Map.of(PaymentMethodType.CARD, new BigDecimal("0.5")), Map.of(), false, null));
+        analyzer = new FeeCostAnalyzer(feeCalculator);
+    }
+
+    @Test
+    @DisplayName("Daily summaries should aggregate expected and actual fees per day and method")
+    void dailySummariesShouldAggregatePerDay() {
+        Flux<PspTransaction> transactions = Flux.just(
+                transaction("t1", DAY_1, "100.00", "2.15", "card"),
+                transaction("t2", DAY_1, "100.00", "2.50", "card"),
+                transaction("t3", DAY_1, "50.00", "0.95", null),
+                transaction("t4", DAY_2, "10.00", "0.44", "CARD"));
+
+        StepVerifier.create(analyzer.dailySummaries("stripe", transactions))
+                .assertNext(summary -> {
+                    assertEquals(DAY_1, summary.date());
+                    assertNull(summary.paymentMethodType());
+                    assertEquals(1, summary.transactionCount());
+                    assertEquals(eur("0.95"), summary.expectedFees());
+                    assertEquals(0, summary.overchargeCount());
+                })
+                .assertNext(summary -> {
+                    assertEquals(DAY_1, summary.date());
+                    assertEquals(PaymentMethodType.CARD, summary.paymentMethodType());
+                    assertEquals(2, summary.transactionCount());
+                    assertEquals(eur("200.00"), summary.volume());
+                    assertEquals(eur("4.30"), summary.expectedFees());
+                    assertEquals(eur("4.65"), summary.actualFees());
+                    assertEquals(35, summary.differenceMinorUnits());
+                    assertEquals(1, summary.overchargeCount());
+                    assertEquals(eur("0.35"), summary.overchargedAmount());
+                })
+                .assertNext(summary -> {
+                    assertEquals(DAY_2, summary.date());
+                    assertEquals(eur("0.44"), summary.expectedFees());
+                    assertEquals(0, summary.differenceMinorUnits());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Report should total the stream and list flagged transactions")
+    void reportShouldTotalStream() {
+        ReconciliationPort reconciliationPort = mock(ReconciliationPort.class);
+        when(reconciliationPort.getPspTransactions(any())).thenReturn(Mono.just(List.of()));
+        when(reconciliationPort.getPspTransactions(DAY_1)).thenReturn(Mono.just(List.of(
+                transaction("t1", DAY_1, "100.00", "2.60", "card"),
+                new PspTransaction("t2", "p2", eur("30.00"), null, PaymentStatus.FAILED, "card", DAY_1))));
+        when(reconciliationPort.getPspTransactions(DAY_2)).thenReturn(Mono.just(List.of(
+                transaction("t3", DAY_2, "100.00", "2.15", "card"))));
+
+        FeeCostReport report = analyzer.report("stripe",
+                FeeCostAnalyzer.transactions(reconciliationPort, DAY_1, DAY_2.plusDays(1))).block();
+
+        assertNotNull(report);
+        assertEquals(DAY_1, report.startDate());
+        assertEquals(DAY_2, report.endDate());
+        assertEquals(2, report.transactionCount());
+        assertEquals(1, report.skippedCount());
+        CostSummary total = report.totals().get(0);
+        assertNull(total.date());
+        assertEquals(eur("4.30"), total.expectedFees());
+        assertEquals(eur("4.75"), total.actualFees());
+        assertEquals(1, report.overcharges().size());
+        assertEquals("t1", report.overcharges().get(0).transactionId());
+        assertEquals(eur("2.15"), report.overcharges().get(0).expectedFee());
+    }
+
+    @Test
+    @DisplayName("Refunds and chargebacks should be skipped rather than priced as payments")
+    void refundsAndChargebacksShouldBeSkipped() {
+        FeeCostReport report = analyzer.report("stripe", Flux.just(
+                transaction("t1", DAY_1, "100.00", "2.15", "card"),
+                new PspTransaction("t2", "p2", eur("100.00"), eur("2.15"), PaymentStatus.REFUNDED, "card", DAY_1),
+                new PspTransaction("t3", "p3", eur("100.00"), eur("15.00"), PaymentStatus.DISPUTED, "card", DAY_1),
+                transaction("t4", DAY_1, "40.00", "0.00", "refund"),
+                transaction("t5", DAY_1, "100.00", "15.00", "CHARGEBACK"))).block();
+
+        assertNotNull(report);
+        assertEquals(1, report.transactionCount());
+        assertEquals(4, report.skippedCount());
+        assertEquals(eur("2.15"), report.totals().get(0).expectedFees());
+        assertTrue(report.overcharges().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Unknown providers should fail the stream")
+    void unknownProviderShouldFail() {
+        StepVerifier.create(analyzer.report("adyen", Flux.empty()))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    private static PspTransaction transaction(String id, LocalDate date, String amount, String fee, String type) {
+        return new PspTransaction(id, "p-" + id, eur(amount), eur(fee), PaymentStatus.SUCCEEDED, type, date);
+    }
+
+    private static Money eur(String amount) {
+        return new Money(new BigDecimal(amount), Currency.EUR);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.fees;
+
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import com.firefly.psps.fees.TieredFeeSchedule.VolumeTier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para las comisiones escalonadas por volumen mensual.
+ *
+ * PROPÓSITO: Verificar que la tarifa efectiva cambia al cruzar los umbrales de volumen
+ * y vuelve a la tarifa base al comenzar un nuevo mes.
+ */
+@DisplayName("Tiered Fee Calculator Tests")
+class TieredFeeCalculatorTest {
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-05-20T10:00:00Z"));
+
+    private VolumeTracker volumeTracker;
+    private TieredFeeCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(java.time.ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+        volumeTracker = new VolumeTracker(clock);
+
+        FeeStructure base = new FeeStructure("adyen", new BigDecimal("1.5"), eur("0.10"), null, null,
+                Map.of(PaymentMethodType.CARD, new BigDecimal("0.3")), Map.of(), true, eur("15"));
+        calculator = new TieredFeeCalculator(List.of(new TieredFeeSchedule("adyen", Currency.EUR, List.of(
+                new VolumeTier(new BigDecimal("10000"), new BigDecimal("0.5"), null),
+                new VolumeTier(new BigDecimal("1000"), new BigDecimal("1.0"), eur("0.05"))), base)), volumeTracker);
+    }
+
+    @Test
+    @DisplayName("Fees should follow the monthly volume tier")
+    void feesShouldFollowVolumeTier() {
+        Money amount = eur("100.00");
+
+        // 1.5% + 0.3% card surcharge + 0.10
+        assertEquals(new BigDecimal("1.90"), fee(amount));
+        assertEquals(-1, calculator.currentTier("adyen"));
+
+        assertFalse(calculator.recordVolume("adyen", eur("999.99")));
+        assertTrue(calculator.recordVolume("adyen", eur("0.01")));
+        assertEquals(0, calculator.currentTier("adyen"));
+        // 1.0% + 0.3% + 0.05
+        assertEquals(new BigDecimal("1.35"), fee(amount));
+
+        assertTrue(calculator.recordVolume("adyen", eur("9500")));
+        assertEquals(1, calculator.currentTier("adyen"));
+        // 0.5% + 0.3% + base fixed fee 0.10
+        assertEquals(new BigDecimal("0.90"), fee(amount));
+        assertEquals(new BigDecimal("0.5"), calculator.getFeeStructure("adyen").percentageFee());
+        assertEquals(60, calculator.calculatePaymentFeeMinorUnits("adyen", 10_000, Currency.EUR, null));
+    }
+
+    @Test
+    @DisplayName("Volume should reset when the month changes")
+    void volumeShouldResetOnNewMonth() {
+        volumeTracker.seed("adyen", Currency.EUR, 2_000_000);
+        assertEquals(1, calculator.currentTier("adyen"));
+
+        now.set(Instant.parse("2025-06-01T00:00:00Z"));
+
+        assertEquals(-1, calculator.currentTier("adyen"));
+        assertEquals(0, volumeTracker.getVolume("adyen", Currency.EUR));
+        assertEquals(new BigDecimal("1.90"), fee(eur("100.00")));
+    }
+
+    @Test
+    @DisplayName("Without FX rates volume in other currencies should not move the tier")
+    void otherCurrenciesShouldNotCount() {
+        assertFalse(calculator.recordVolume("adyen", new Money(new BigDecimal("50000"), Currency.USD)));
+        assertEquals(-1, calculator.currentTier("adyen"));
+        assertEquals(5_000_000, volumeTracker.getVolume("adyen", Currency.USD));
+    }
+
+    @Test
+    @DisplayName("Volume in other currencies should be converted to the schedule currency")
+    void otherCurrenciesShouldBeConverted() {
+        FxRates rates = FxRates.builder().rate(Currency.EUR, Currency.USD, new BigDecimal("1.25")).build();
+        TieredFeeCalculator converting = new TieredFeeCalculator(List.of(new TieredFeeSchedule("adyen", Currency.EUR,
+                List.of(new VolumeTier(new BigDecimal("1000"), new BigDecimal("1.0"), null)),
+                calculator.getFeeStructure("adyen"))), volumeTracker, () -> rates);
+
+        assertFalse(converting.recordVolume("adyen", new Money(new BigDecimal("1249.99"), Currency.USD)));
+        assertTrue(converting.recordVolume("adyen", new Money(new BigDecimal("0.01"), Currency.USD)));
+        assertEquals(0, converting.currentTier("adyen"));
+        assertEquals(100_000, volumeTracker.getVolume("adyen", Currency.EUR));
+        assertEquals(0, volumeTracker.getVolume("adyen", Currency.USD));
+    }
+
+    @Test
+    @DisplayName("Exactly one of concurrent payments should report a tier change")
+    void concurrentPaymentsShouldReportTierChangeOnce() {
+        long changes = IntStream.range(0, 2_000).parallel()
+                .filter(i -> calculator.recordVolume("adyen", eur("1.00")))
+                .count();
+
+        assertEquals(1, changes);
+        assertEquals(0, calculator.currentTier("adyen"));
+    }
+
+    @Test
+    @DisplayName("Refund and chargeback fees should come from the base structure")
+    void refundAndChargebackFeesShouldUseBase() {
+        assertEquals(new BigDecimal("1.60"), calculator.calculateRefundFee("adyen", eur("100.00")).getAmount());
+        assertEquals(eur("15"), calculator.calculateChargebackFee("adyen", Currency.EUR));
+        assertThrows(IllegalArgumentException.class,
+                () -> calculator.calculatePaymentFee("stripe", eur("1"), null));
+    }
+
+    private BigDecimal fee(Money amount) {
+        return calculator.calculatePaymentFee("adyen", amount, PaymentMethodType.CARD).getAmount();
+    }
+
+    private static Money eur(String amount) {
+        return new Money(new BigDecimal(amount), Currency.EUR);
+    }
+}
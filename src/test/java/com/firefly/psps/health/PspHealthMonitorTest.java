@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.health;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.config.PspResilienceProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests para el monitor de salud de PSPs en segundo plano.
+ *
+ * PROPÓSITO: Garantizar que el estado de salud se cachea, combina el estado de los
+ * circuit breakers y publica los cambios sin sondear el PSP en cada pago.
+ */
+@DisplayName("PSP Health Monitor Tests")
+class PspHealthMonitorTest {
+
+    private PspAdapter stripe;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private PspHealthMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        stripe = mock(PspAdapter.class);
+        when(stripe.getProviderName()).thenReturn("stripe");
+        when(stripe.isHealthy()).thenReturn(true);
+
+        PspResilienceProperties.HealthProbeConfig config = new PspResilienceProperties.HealthProbeConfig();
+        config.setTimeout(Duration.ofMillis(200));
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        monitor = new PspHealthMonitor(List.of(stripe), circuitBreakerRegistry, config);
+    }
+
+    @Test
+    @DisplayName("Probe results should be cached and changes published")
+    void probeResultsShouldBeCached() {
+        List<PspHealthMonitor.HealthChange> changes = new CopyOnWriteArrayList<>();
+        monitor.changes().subscribe(changes::add);
+
+        monitor.refresh().block();
+        assertTrue(monitor.isHealthy("stripe"));
+        assertNotNull(monitor.getHealth("stripe").checkedAt());
+
+        when(stripe.isHealthy()).thenReturn(false);
+        monitor.refresh().block();
+        assertFalse(monitor.isHealthy("stripe"));
+
+        // Reads come from memory
+        monitor.isHealthy("stripe");
+        verify(stripe, times(2)).isHealthy();
+        assertEquals(List.of(true, false), changes.stream().map(PspHealthMonitor.HealthChange::healthy).toList());
+    }
+
+    @Test
+    @DisplayName("Open circuit breakers should mark the provider unhealthy")
+    void openCircuitShouldMarkProviderUnhealthy() {
+        monitor.refresh().block();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("stripe-createPayment");
+
+        circuitBreaker.transitionToOpenState();
+        assertFalse(monitor.isHealthy("stripe"));
+        assertTrue(monitor.getHealth("stripe").probeHealthy());
+
+        circuitBreaker.transitionToHalfOpenState();
+        assertTrue(monitor.isHealthy("stripe"));
+    }
+
+    @Test
+    @DisplayName("Circuit breakers should belong to the longest matching provider name")
+    void circuitShouldMatchLongestProviderName() {
+        PspAdapter stripeConnect = mock(PspAdapter.class);
+        when(stripeConnect.getProviderName()).thenReturn("stripe-connect");
+        when(stripeConnect.isHealthy()).thenReturn(true);
+        PspHealthMonitor both = new PspHealthMonitor(List.of(stripe, stripeConnect), circuitBreakerRegistry,
+                new PspResilienceProperties.HealthProbeConfig());
+        both.refresh().block();
+
+        circuitBreakerRegistry.circuitBreaker("stripe-connect-createPayment").transitionToOpenState();
+
+        assertFalse(both.isHealthy("stripe-connect"));
+        assertTrue(both.isHealthy("stripe"));
+    }
+
+    @Test
+    @DisplayName("Failing probes should count as unhealthy")
+    void failingProbeShouldBeUnhealthy() {
+        when(stripe.isHealthy()).thenThrow(new IllegalStateException("connection refused"));
+
+        monitor.refresh().block();
+
+        assertFalse(monitor.isHealthy("stripe"));
+        assertTrue(monitor.getHealth("stripe").error().contains("connection refused"));
+    }
+
+    @Test
+    @DisplayName("Health indicator should report DEGRADED while one of several providers is healthy")
+    void healthIndicatorShouldReportEachProvider() {
+        PspAdapter adyen = mock(PspAdapter.class);
+        when(adyen.getProviderName()).thenReturn("adyen");
+        when(adyen.isHealthy()).thenReturn(false);
+        PspHealthMonitor both = new PspHealthMonitor(
+                List.of(stripe, adyen), circuitBreakerRegistry, new PspResilienceProperties.HealthProbeConfig());
+        both.refresh().block();
+
+        Health health = new PspHealthIndicator(List.of(stripe, adyen), circuitBreakerRegistry, both, null)
+                .health().block();
+
+        assertEquals("DEGRADED", health.getStatus().getCode());
+        Map<?, ?> providers = (Map<?, ?>) health.getDetails().get("providers");
+        assertEquals(true, ((Map<?, ?>) providers.get("stripe")).get("available"));
+        assertEquals(false, ((Map<?, ?>) providers.get("adyen")).get("available"));
+    }
+}
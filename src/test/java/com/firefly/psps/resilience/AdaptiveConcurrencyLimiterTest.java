@@ -0,0 +1,165 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties.AdaptiveConcurrencyConfig;
+import com.firefly.psps.config.PspResilienceProperties.AdaptiveConcurrencyConfig.Algorithm;
+import com.firefly.psps.exceptions.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el limitador de concurrencia adaptativo.
+ *
+ * PROPÓSITO: Verificar que los algoritmos AIMD y GRADIENT suben y bajan el límite según la
+ * latencia observada, que las llamadas por encima del límite se rechazan y que los timeouts
+ * del time limiter cuentan como descartes.
+ */
+@DisplayName("Adaptive Concurrency Limiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long RTT = Duration.ofMillis(10).toNanos();
+
+    private AdaptiveConcurrencyConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new AdaptiveConcurrencyConfig();
+        config.setInitialLimit(10);
+        config.setMinLimit(1);
+        config.setMaxLimit(100);
+    }
+
+    @Test
+    @DisplayName("Calls over the limit should be rejected")
+    void callsOverLimitShouldBeRejected() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i, limiter.tryAcquire());
+        }
+        assertEquals(-1, limiter.tryAcquire());
+        assertEquals(10, limiter.getInflight());
+
+        limiter.onIgnored();
+        assertEquals(10, limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("AIMD should increase additively and decrease multiplicatively")
+    void aimdShouldIncreaseAndDecrease() {
+        config.setAlgorithm(Algorithm.AIMD);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(RTT, 10);
+        assertEquals(11, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.onDropped(RTT, 10);
+        assertEquals(9, limiter.getLimit());
+
+        // Slower than the drop threshold counts as a drop even if successful
+        limiter.tryAcquire();
+        limiter.onSuccess(config.getDropThreshold().toNanos() + 1, 10);
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    @DisplayName("Application-limited samples should not raise the limit")
+    void applicationLimitedSamplesShouldBeIgnored() {
+        config.setAlgorithm(Algorithm.AIMD);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(RTT, 1);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("GRADIENT should grow with stable latency and shrink when latency rises")
+    void gradientShouldFollowLatency() {
+        config.setAlgorithm(Algorithm.GRADIENT);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(RTT, limiter.getLimit());
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, () -> "limit " + grown);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(RTT * 10, limiter.getLimit());
+        }
+        int shrunk = limiter.getLimit();
+        assertTrue(shrunk < grown, () -> "limit " + shrunk + " after " + grown);
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    @DisplayName("A time limiter timeout after the drop threshold should count as a drop")
+    void timeoutCancellationShouldCountAsDrop() {
+        config.setAlgorithm(Algorithm.AIMD);
+        config.setDropThreshold(Duration.ofMillis(20));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+        StepVerifier.create(Mono.never().transform(operator(limiter)).timeout(Duration.ofMillis(100)))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    @DisplayName("A cancellation before the drop threshold should not change the limit")
+    void earlyCancellationShouldBeIgnored() {
+        config.setDropThreshold(Duration.ofSeconds(10));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+
+        StepVerifier.create(Mono.never().transform(operator(limiter)))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    @DisplayName("The operator should reject calls over the limit")
+    void operatorShouldRejectOverLimit() {
+        config.setInitialLimit(1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config);
+        limiter.tryAcquire();
+        Counter rejected = new SimpleMeterRegistry().counter("rejected");
+
+        StepVerifier.create(Mono.just("ok").transform(new AdaptiveConcurrencyLimitOperator<String>(
+                        limiter, "stripe", "createPayment", rejected)))
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1.0, rejected.count());
+        assertEquals(1, limiter.getInflight());
+    }
+
+    private static AdaptiveConcurrencyLimitOperator<Object> operator(AdaptiveConcurrencyLimiter limiter) {
+        return new AdaptiveConcurrencyLimitOperator<>(
+                limiter, "stripe", "getPayment", new SimpleMeterRegistry().counter("rejected"));
+    }
+}
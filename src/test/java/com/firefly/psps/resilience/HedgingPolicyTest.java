@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.resilience;
+
+import com.firefly.psps.config.PspResilienceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para la política de peticiones cubiertas (hedging).
+ *
+ * PROPÓSITO: Verificar que el retardo del hedge sigue la latencia observada del proveedor,
+ * también cuando la petición primaria es cancelada porque el hedge respondió antes.
+ */
+@DisplayName("Hedging Policy Tests")
+class HedgingPolicyTest {
+
+    private PspResilienceProperties.HedgingConfig config;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        config = new PspResilienceProperties.HedgingConfig();
+        config.setInitialDelay(Duration.ofMillis(5));
+        config.setMinDelay(Duration.ofMillis(1));
+        config.setMaxDelay(Duration.ofSeconds(1));
+        config.setMinSamples(64);
+        config.setMaxHedgeRatio(1.0);
+        config.setMaxBurst(1_000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Delay should follow a slow latency distribution")
+    void delayShouldFollowSlowDistribution() {
+        config.setMaxHedgeRatio(0.0);
+        HedgingPolicy policy = new HedgingPolicy(config, meterRegistry, Tags.of("provider", "stripe"));
+
+        run(policy, 128, () -> () -> Mono.delay(Duration.ofMillis(40)).thenReturn("ok"));
+
+        long delayMillis = policy.getDelay().toMillis();
+        assertTrue(delayMillis >= 35 && delayMillis < 200, () -> "delay " + delayMillis + "ms");
+        assertEquals(0, hedges("fired"));
+    }
+
+    @Test
+    @DisplayName("Primaries cancelled by a winning hedge should still raise the delay")
+    void cancelledPrimariesShouldRaiseDelay() {
+        HedgingPolicy policy = new HedgingPolicy(config, meterRegistry, Tags.of("provider", "stripe"));
+
+        // Every primary takes 60ms, every hedge 20ms: with a 5ms delay the hedge always wins
+        run(policy, 320, () -> {
+            AtomicInteger calls = new AtomicInteger();
+            return () -> Mono.delay(Duration.ofMillis(calls.getAndIncrement() == 0 ? 60 : 20)).thenReturn("ok");
+        });
+
+        long delayMillis = policy.getDelay().toMillis();
+        assertTrue(delayMillis >= 40, () -> "delay " + delayMillis + "ms");
+        assertTrue(hedges("won") > 0);
+    }
+
+    private static void run(HedgingPolicy policy, int requests, Supplier<Supplier<Mono<String>>> operations) {
+        Flux.range(0, requests)
+                .flatMap(i -> policy.execute(operations.get()), 32)
+                .blockLast(Duration.ofSeconds(30));
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.counter(HedgingPolicy.COUNTER_NAME, Tags.of("provider", "stripe", "result", result)).count();
+    }
+}
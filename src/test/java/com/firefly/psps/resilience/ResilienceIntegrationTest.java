@@ -6,6 +6,10 @@ package com.firefly.psps.resilience;
 
 import com.firefly.psps.config.PspResilienceConfiguration;
 import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.exceptions.PaymentFailedException;
+import com.firefly.psps.exceptions.ProviderPausedException;
+import com.firefly.psps.exceptions.PspThrottledException;
+import com.firefly.psps.metrics.PspOperationOutcome;
 import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
@@ -52,6 +56,8 @@ class ResilienceIntegrationTest {
         
         properties.getRetry().setMaxAttempts(3);
         properties.getRetry().setWaitDuration(Duration.ofMillis(10));
+        properties.getRetry().setClassifyErrors(true);
+        properties.getThrottling().setEnabled(true);
         
         properties.getRateLimiter().setLimitForPeriod(5);
         properties.getRateLimiter().setLimitRefreshPeriod(Duration.ofMillis(100));
@@ -74,7 +80,8 @@ class ResilienceIntegrationTest {
             retryRegistry,
             bulkheadRegistry,
             timeLimiterRegistry,
-            meterRegistry
+            meterRegistry,
+            properties
         );
     }
 
@@ -120,6 +127,227 @@ class ResilienceIntegrationTest {
             "Should have attempted at least once. Actual attempts: " + attemptCount.get());
     }
 
+    @Test
+    @DisplayName("Declines should not be retried")
+    void declinesShouldNotBeRetried() {
+        AtomicInteger attemptCount = new AtomicInteger(0);
+
+        StepVerifier.create(
+            resilientService.execute("decline-test", "createPayment",
+                () -> {
+                    attemptCount.incrementAndGet();
+                    return Mono.error(new PaymentFailedException("card_declined"));
+                })
+        )
+        .expectError(PaymentFailedException.class)
+        .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, attemptCount.get(), "Declined payment should not be retried");
+    }
+
+    @Test
+    @DisplayName("Throttling should honour Retry-After and lower the provider rate")
+    void throttlingShouldLowerProviderRate() {
+        AtomicInteger attemptCount = new AtomicInteger(0);
+        ResiliencePipeline pipeline = resilientService.pipeline("throttle-test", "createPayment");
+
+        StepVerifier.create(
+            pipeline.execute(() -> attemptCount.incrementAndGet() == 1
+                ? Mono.error(new PspThrottledException("429 Too Many Requests", Duration.ofMillis(50)))
+                : Mono.just("Success"))
+        )
+        .expectNext("Success")
+        .verifyComplete();
+
+        assertEquals(2, attemptCount.get(), "Throttled call should be retried after Retry-After");
+        assertEquals(0.5, pipeline.getThrottling().getRateFactor());
+        assertEquals(3, pipeline.getRateLimiter().getRateLimiterConfig().getLimitForPeriod(),
+            "Rate limit should be halved (5 -> 3)");
+        assertEquals(1.0, meterRegistry.get("psp.ratelimit.throttled")
+            .tags("provider", "throttle-test").counter().count());
+    }
+
+    @Test
+    @DisplayName("Retry budget should stop retries when there are no successes")
+    void retryBudgetShouldLimitRetries() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        properties.getRetryBudget().setEnabled(true);
+        properties.getRetryBudget().setMinRetriesPerSecond(0);
+        properties.getRetryBudget().setRetryRatio(0.5);
+        ResilientPspService service = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry, properties);
+        ResiliencePipeline pipeline = service.pipeline("budget-test", "createPayment");
+        AtomicInteger failingCalls = new AtomicInteger(0);
+
+        StepVerifier.create(pipeline.execute(() -> {
+                failingCalls.incrementAndGet();
+                return Mono.error(new RuntimeException("PSP brownout"));
+            }))
+            .expectError(RuntimeException.class)
+            .verify(Duration.ofSeconds(2));
+        assertEquals(1, failingCalls.get(), "Empty budget should not allow retries");
+
+        // Two successes earn one retry
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(pipeline.execute(() -> Mono.just("Success")))
+                .expectNext("Success")
+                .verifyComplete();
+        }
+        StepVerifier.create(pipeline.execute(() -> {
+                failingCalls.incrementAndGet();
+                return Mono.error(new RuntimeException("PSP brownout"));
+            }))
+            .expectError(RuntimeException.class)
+            .verify(Duration.ofSeconds(2));
+
+        assertEquals(3, failingCalls.get(), "Budget should allow exactly one retry");
+        assertEquals(2.0, meterRegistry.get("psp.retry.budget.exhausted")
+            .tags("provider", "budget-test").counter().count());
+    }
+
+    @Test
+    @DisplayName("Retry budget should not count the last attempt as exhausted")
+    void retryBudgetShouldNotCountLastAttempt() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        properties.getRetryBudget().setEnabled(true);
+        properties.getRetryBudget().setMinRetriesPerSecond(0);
+        properties.getRetryBudget().setRetryRatio(1.0);
+        ResilientPspService service = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry, properties);
+        ResiliencePipeline pipeline = service.pipeline("last-attempt-test", "createPayment");
+        AtomicInteger failingCalls = new AtomicInteger(0);
+
+        // Two successes earn exactly the two retries maxAttempts=3 allows
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(pipeline.execute(() -> Mono.just("Success")))
+                .expectNext("Success")
+                .verifyComplete();
+        }
+        StepVerifier.create(pipeline.execute(() -> {
+                failingCalls.incrementAndGet();
+                return Mono.error(new RuntimeException("PSP brownout"));
+            }))
+            .expectError(RuntimeException.class)
+            .verify(Duration.ofSeconds(2));
+
+        assertEquals(3, failingCalls.get());
+        assertEquals(0.0, meterRegistry.get("psp.retry.budget.exhausted")
+            .tags("provider", "last-attempt-test").counter().count());
+    }
+
+    @Test
+    @DisplayName("Retry budget should be charged only by its own provider")
+    void retryBudgetShouldBeScopedToProvider() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        properties.getRetryBudget().setEnabled(true);
+        properties.getRetryBudget().setMinRetriesPerSecond(0);
+        properties.getRetryBudget().setRetryRatio(1.0);
+        ResilientPspService service = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry, properties);
+        // Created before the pipelines, without the budget
+        retryRegistry.retry("budget-shared");
+        ResiliencePipeline stripe = service.pipeline("budget-shared", "budget-stripe", "createPayment");
+        ResiliencePipeline adyen = service.pipeline("budget-shared", "budget-adyen", "createPayment");
+        AtomicInteger failingCalls = new AtomicInteger(0);
+
+        assertNotSame(stripe.getRetry(), adyen.getRetry());
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(stripe.execute(() -> Mono.just("Success")))
+                .expectNext("Success")
+                .verifyComplete();
+        }
+        StepVerifier.create(adyen.execute(() -> {
+                failingCalls.incrementAndGet();
+                return Mono.error(new RuntimeException("PSP brownout"));
+            }))
+            .expectError(RuntimeException.class)
+            .verify(Duration.ofSeconds(2));
+
+        assertEquals(1, failingCalls.get(), "Successes of another provider should not earn retries");
+        assertEquals(2.0, stripe.getRetryBudget().available());
+        assertEquals(0.0, adyen.getRetryBudget().available());
+    }
+
+    @Test
+    @DisplayName("A burst of throttling responses should lower the rate only once")
+    void throttlingBurstShouldLowerRateOnce() {
+        ThrottlingFeedbackLimiter limiter = new ThrottlingFeedbackLimiter(
+            "burst-test", new PspResilienceProperties().getThrottling(), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.onThrottled(Duration.ofSeconds(1));
+        }
+
+        assertEquals(0.5, limiter.getRateFactor());
+        assertEquals(5.0, meterRegistry.get("psp.ratelimit.throttled")
+            .tags("provider", "burst-test").counter().count());
+    }
+
+    @Test
+    @DisplayName("Calls rejected during a throttling pause should not count as provider failures")
+    void throttlingPauseShouldNotTripCircuitBreaker() {
+        AtomicInteger attemptCount = new AtomicInteger(0);
+        ResiliencePipeline pipeline = resilientService.pipeline("pause-test", "createPayment");
+
+        StepVerifier.create(pipeline.execute(() -> {
+                attemptCount.incrementAndGet();
+                return Mono.error(new PspThrottledException("429 Too Many Requests", Duration.ofSeconds(20)));
+            }))
+            .expectError(PspThrottledException.class)
+            .verify(Duration.ofSeconds(2));
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(pipeline.execute(() -> {
+                    attemptCount.incrementAndGet();
+                    return Mono.just("Success");
+                }))
+                .expectError(ProviderPausedException.class)
+                .verify(Duration.ofSeconds(2));
+        }
+
+        assertEquals(1, attemptCount.get(), "Paused calls should not reach the provider or be retried");
+        assertEquals(1, pipeline.getCircuitBreaker().getMetrics().getNumberOfFailedCalls());
+        assertEquals(CircuitBreaker.State.CLOSED, pipeline.getCircuitBreaker().getState());
+    }
+
+    @Test
+    @DisplayName("Throttling feedback, retry budget and error classification should be opt-in")
+    void newRetryFeaturesShouldBeOptIn() {
+        ResilientPspService service = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry);
+        ResiliencePipeline pipeline = service.pipeline("defaults-test", "createPayment");
+
+        assertNull(pipeline.getThrottling());
+        assertNull(pipeline.getRetryBudget());
+        assertFalse(new PspResilienceProperties().getRetry().isClassifyErrors());
+        assertTrue(PspResilienceConfiguration.retryConfig(new PspResilienceProperties().getRetry())
+            .getExceptionPredicate().test(new PaymentFailedException("card_declined")));
+    }
+
+    @Test
+    @DisplayName("Deferred execution should re-issue the operation on every retry attempt")
+    void deferredExecutionShouldReissueOperationPerAttempt() {
+        AtomicInteger supplierCalls = new AtomicInteger(0);
+
+        StepVerifier.create(
+            resilientService.execute("deferred-test", "getPayment",
+                () -> {
+                    supplierCalls.incrementAndGet();
+                    return Mono.error(new RuntimeException("Transient failure"));
+                })
+        )
+        .expectError()
+        .verify(Duration.ofSeconds(2));
+
+        assertEquals(3, supplierCalls.get(), "Supplier should be invoked once per attempt");
+        assertEquals(1, meterRegistry.get("psp.operation.attempt")
+            .tags("provider", "deferred-test", "operation", "getPayment", "status", "failure", "attempt", "3")
+            .timer().count(), "Third attempt should be timed separately");
+    }
+
     @Test
     @DisplayName("Successful operations should be recorded in metrics")
     void successfulOperationsShouldBeRecorded() {
@@ -137,7 +365,8 @@ class ResilienceIntegrationTest {
         double count = meterRegistry.counter("psp.operation.count",
             "provider", provider,
             "operation", operation,
-            "status", "success"
+            "status", "success",
+            "outcome", "success"
         ).count();
 
         assertEquals(1.0, count, "Should have recorded 1 successful operation");
@@ -161,12 +390,45 @@ class ResilienceIntegrationTest {
             "provider", provider,
             "operation", operation,
             "status", "failure",
-            "error", "IllegalArgumentException"
+            "outcome", "invalid_request"
         ).count();
 
         assertTrue(count > 0, "Should have recorded failed operation");
     }
 
+    @Test
+    @DisplayName("Operation meters should be pre-registered for every outcome")
+    void operationMetersShouldBePreRegistered() {
+        resilientService.pipeline("meters-test", "createPayment");
+
+        assertEquals(PspOperationOutcome.values().length, meterRegistry.get("psp.operation")
+            .tags("provider", "meters-test", "operation", "createPayment")
+            .timers().size());
+        assertEquals(0, meterRegistry.get("psp.operation.count")
+            .tags("provider", "meters-test", "operation", "createPayment", "outcome", "declined")
+            .counter().count());
+        assertEquals(PspOperationOutcome.THROTTLED,
+            PspOperationOutcome.from(new PspThrottledException("429", null)));
+    }
+
+    @Test
+    @DisplayName("Providers sharing an instance should record their own operation meters")
+    void sharedInstanceShouldRecordMetersPerProvider() {
+        ResiliencePipeline stripe = resilientService.pipeline("shared-meters", "stripe", "createPayment");
+        ResiliencePipeline adyen = resilientService.pipeline("shared-meters", "adyen", "createPayment");
+
+        StepVerifier.create(stripe.execute(() -> Mono.just("stripe"))).expectNext("stripe").verifyComplete();
+        StepVerifier.create(adyen.execute(() -> Mono.just("adyen"))).expectNext("adyen").verifyComplete();
+        StepVerifier.create(adyen.execute(() -> Mono.just("adyen"))).expectNext("adyen").verifyComplete();
+
+        assertEquals(1, meterRegistry.get("psp.operation.count")
+            .tags("provider", "stripe", "operation", "createPayment", "instance", "shared-meters", "outcome", "success")
+            .counter().count());
+        assertEquals(2, meterRegistry.get("psp.operation.count")
+            .tags("provider", "adyen", "operation", "createPayment", "instance", "shared-meters", "outcome", "success")
+            .counter().count());
+    }
+
     @Test
     @DisplayName("Rate limiter should throttle excessive calls")
     void rateLimiterShouldThrottle() {
@@ -236,6 +498,182 @@ class ResilienceIntegrationTest {
         .verify(Duration.ofSeconds(3));
     }
 
+    @Test
+    @DisplayName("Pipelines should be resolved once and reused per provider operation")
+    void pipelinesShouldBeCached() {
+        ResiliencePipeline first = resilientService.pipeline("cache-test", "createPayment");
+        ResiliencePipeline second = resilientService.pipeline("cache-test", "createPayment");
+
+        assertSame(first, second, "Pipeline should be cached per provider operation");
+        assertNotSame(first, resilientService.pipeline("cache-test", "getPayment"));
+        assertEquals("cache-test-createPayment", first.getInstanceName());
+        assertSame(circuitBreakerRegistry.circuitBreaker("cache-test-createPayment"), first.getCircuitBreaker());
+
+        StepVerifier.create(first.execute(() -> Mono.just("Success")))
+            .expectNext("Success")
+            .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Named pipelines should be cached per provider operation")
+    void namedPipelinesShouldBeCachedPerProviderOperation() {
+        ResiliencePipeline stripe = resilientService.pipeline("shared-profile", "stripe", "createPayment");
+        ResiliencePipeline adyen = resilientService.pipeline("shared-profile", "adyen", "createPayment");
+
+        assertSame(stripe, resilientService.pipeline("shared-profile", "stripe", "createPayment"));
+        assertNotSame(stripe, adyen, "Providers sharing an instance name should not share a pipeline");
+        assertEquals("stripe", stripe.getProviderName());
+        assertEquals("adyen", adyen.getProviderName());
+        assertSame(stripe.getCircuitBreaker(), adyen.getCircuitBreaker(),
+            "Resilience instances are still shared by name");
+    }
+
+    @Test
+    @DisplayName("Hedged read should return the faster of primary and hedge")
+    void hedgedReadShouldReturnFasterResponse() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setInitialDelay(Duration.ofMillis(50));
+        properties.getHedging().setMinDelay(Duration.ofMillis(10));
+        properties.getHedging().setMaxHedgeRatio(1.0);
+
+        ResilientPspService hedgingService = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry, properties);
+        AtomicInteger calls = new AtomicInteger(0);
+
+        StepVerifier.create(
+            hedgingService.execute("hedge-test", "getPayment",
+                () -> calls.incrementAndGet() == 1
+                    ? Mono.delay(Duration.ofMillis(400)).thenReturn("primary")
+                    : Mono.just("hedge"))
+        )
+        .expectNext("hedge")
+        .verifyComplete();
+
+        assertEquals(2, calls.get(), "Hedge request should have been sent");
+        assertEquals(1.0, meterRegistry.get("psp.hedge")
+            .tags("provider", "hedge-test", "operation", "getPayment", "result", "won")
+            .counter().count());
+    }
+
+    @Test
+    @DisplayName("Runtime reconfiguration should update live pipelines")
+    void reconfigurationShouldUpdateLivePipelines() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        ResilientPspService service = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry, properties);
+        ResilienceConfigurationManager manager = new ResilienceConfigurationManager(
+            service, properties, circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry);
+
+        ResiliencePipeline pipeline = service.pipeline("reload-test", "createPayment");
+        var rateLimiter = pipeline.getRateLimiter();
+        var retry = pipeline.getRetry();
+
+        PspResilienceProperties.ResilienceProfile changes = new PspResilienceProperties.ResilienceProfile();
+        changes.getRateLimiter().setLimitForPeriod(7);
+        changes.getRetry().setMaxAttempts(1);
+
+        assertEquals(1, manager.reconfigure("reload-test", "createPayment", changes));
+
+        assertSame(rateLimiter, pipeline.getRateLimiter(), "Rate limit should change in place");
+        assertEquals(7, pipeline.getRateLimiter().getRateLimiterConfig().getLimitForPeriod());
+        assertNotSame(retry, pipeline.getRetry(), "Retry should be replaced");
+        assertEquals(1, pipeline.getRetry().getRetryConfig().getMaxAttempts());
+        assertSame(pipeline.getRetry(), retryRegistry.retry("reload-test-createPayment"));
+        assertEquals(1.0, meterRegistry.get("psp.resilience.config.version").gauge().value());
+
+        AtomicInteger calls = new AtomicInteger(0);
+        StepVerifier.create(pipeline.execute(() -> {
+                calls.incrementAndGet();
+                return Mono.error(new RuntimeException("PSP failure"));
+            }))
+            .expectError(RuntimeException.class)
+            .verify();
+        assertEquals(1, calls.get(), "New retry configuration should apply to new calls");
+    }
+
+    @Test
+    @DisplayName("Replacing a circuit breaker at runtime should keep its state")
+    void reconfigurationShouldKeepCircuitBreakerState() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        ResilientPspService service = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry, properties);
+        ResilienceConfigurationManager manager = new ResilienceConfigurationManager(
+            service, properties, circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry);
+        ResiliencePipeline pipeline = service.pipeline("open-test", "createPayment");
+        CircuitBreaker open = pipeline.getCircuitBreaker();
+        open.transitionToOpenState();
+
+        PspResilienceProperties.ResilienceProfile changes = new PspResilienceProperties.ResilienceProfile();
+        changes.getCircuitBreaker().setFailureRateThreshold(75);
+        manager.reconfigure("open-test", null, changes);
+
+        assertNotSame(open, pipeline.getCircuitBreaker());
+        assertEquals(CircuitBreaker.State.OPEN, pipeline.getCircuitBreaker().getState(),
+            "An open circuit breaker should not be closed by a configuration change");
+    }
+
+    @Test
+    @DisplayName("Changes to settings fixed at pipeline creation should be rejected")
+    void fixedSettingsShouldBeRejected() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        ResilientPspService service = new ResilientPspService(
+            circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry, properties);
+        ResilienceConfigurationManager manager = new ResilienceConfigurationManager(
+            service, properties, circuitBreakerRegistry, rateLimiterRegistry, retryRegistry,
+            bulkheadRegistry, timeLimiterRegistry, meterRegistry);
+        service.pipeline("fixed-test", "createPayment");
+
+        PspResilienceProperties.ResilienceProfile changes = new PspResilienceProperties.ResilienceProfile();
+        changes.getBulkhead().setType(PspResilienceProperties.BulkheadType.ADAPTIVE);
+
+        assertThrows(IllegalArgumentException.class, () -> manager.reconfigure("fixed-test", null, changes));
+        assertEquals(0, manager.getVersion());
+        assertFalse(properties.getProviders().containsKey("fixed-test"), "Rejected changes should not be stored");
+    }
+
+    @Test
+    @DisplayName("Cluster rate limit should be shared between replicas")
+    void clusterRateLimitShouldBeSharedBetweenReplicas() {
+        PspResilienceProperties properties = new PspResilienceProperties();
+        properties.getRateLimiter().setMode(PspResilienceProperties.RateLimiterMode.CLUSTER);
+        properties.getRateLimiter().setLimitForPeriod(10);
+        properties.getRateLimiter().setLimitRefreshPeriod(Duration.ofHours(1));
+        properties.getRateLimiter().setTimeoutDuration(Duration.ZERO);
+        properties.getRateLimiter().setLeaseSize(3);
+        properties.getRetry().setMaxAttempts(1);
+
+        RateLimitCoordinator coordinator = new InMemoryRateLimitCoordinator();
+        AtomicInteger calls = new AtomicInteger(0);
+        AtomicInteger rejected = new AtomicInteger(0);
+
+        for (int replica = 0; replica < 2; replica++) {
+            PspResilienceConfiguration config = new PspResilienceConfiguration();
+            ResilientPspService service = new ResilientPspService(
+                config.circuitBreakerRegistry(properties), config.rateLimiterRegistry(properties),
+                config.retryRegistry(properties), config.bulkheadRegistry(properties),
+                config.timeLimiterRegistry(properties), meterRegistry, properties, coordinator);
+
+            for (int i = 0; i < 10; i++) {
+                service.execute("cluster-test", "createPayment", () -> Mono.fromCallable(calls::incrementAndGet))
+                    .onErrorResume(e -> {
+                        rejected.incrementAndGet();
+                        return Mono.empty();
+                    })
+                    .block(Duration.ofSeconds(1));
+            }
+        }
+
+        assertEquals(10, calls.get(), "Both replicas together should stay within the limit");
+        assertEquals(10, rejected.get());
+    }
+
     @Test
     @DisplayName("Resilience should allow successful operations through")
     void resilienceShouldAllowSuccessfulOperations() {
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.adapter.ports.PaymentPort;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.domain.PaymentMethodType;
+import com.firefly.psps.domain.PaymentStatus;
+import com.firefly.psps.dtos.payments.ConfirmPaymentRequest;
+import com.firefly.psps.dtos.payments.CreatePaymentRequest;
+import com.firefly.psps.dtos.payments.PaymentResponse;
+import com.firefly.psps.exceptions.PaymentFailedException;
+import com.firefly.psps.routing.AuthorizationRateTracker.Segment;
+import com.firefly.psps.services.AbstractPspService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests para el seguimiento de tasas de autorización por segmento.
+ *
+ * PROPÓSITO: Garantizar que solo los estados finales cuentan como aprobación o rechazo
+ * y que la ventana de observaciones mantiene la exploración acotada.
+ */
+@DisplayName("Authorization Rate Tracker Tests")
+class AuthorizationRateTrackerTest {
+
+    private static final Segment EUR_CARDS = new Segment(Currency.EUR, "CARD", "EU");
+
+    @Test
+    @DisplayName("Only final payment statuses should be recorded")
+    void onlyFinalStatusesShouldBeRecorded() {
+        AuthorizationRateTracker tracker = new AuthorizationRateTracker();
+
+        tracker.record("adyen", response(PaymentStatus.SUCCEEDED));
+        tracker.record("adyen", response(PaymentStatus.SUCCEEDED));
+        tracker.record("adyen", response(PaymentStatus.PROCESSING));
+        tracker.record("adyen", response(PaymentStatus.FAILED));
+        tracker.record("adyen", response(PaymentStatus.REQUIRES_ACTION));
+
+        Map<String, Object> stats = tracker.snapshot().get("EUR/CARD/EU").get("adyen");
+        assertEquals(2L, stats.get("approved"));
+        assertEquals(1L, stats.get("declined"));
+        assertEquals(0.6, tracker.approvalRate("adyen", EUR_CARDS), 1e-9);
+        assertEquals(0.5, tracker.approvalRate("stripe", EUR_CARDS), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Counts should be halved once an arm exceeds twice the window")
+    void countsShouldDecayAfterWindow() {
+        AuthorizationRateTracker tracker = new AuthorizationRateTracker(10);
+
+        for (int i = 0; i < 21; i++) {
+            tracker.record("stripe", EUR_CARDS, true);
+        }
+
+        assertEquals(11L, tracker.snapshot().get("EUR/CARD/EU").get("stripe").get("approved"));
+    }
+
+    @Test
+    @DisplayName("Declines raised as PaymentFailedException should be recorded")
+    void thrownDeclinesShouldBeRecorded() {
+        AuthorizationRateTracker tracker = new AuthorizationRateTracker();
+        PaymentPort payments = mock(PaymentPort.class);
+        PspAdapter adapter = mock(PspAdapter.class);
+        when(adapter.getProviderName()).thenReturn("adyen");
+        when(adapter.payments()).thenReturn(payments);
+        when(payments.createPayment(any())).thenReturn(
+                Mono.error(new PaymentFailedException("Card declined", "adyen", "card_declined")));
+        when(payments.confirmPayment(any())).thenReturn(
+                Mono.error(new PaymentFailedException("Card declined", "adyen", "card_declined")));
+        when(payments.getPayment("pay_1")).thenReturn(
+                Mono.just(ResponseEntity.ok(response(PaymentStatus.FAILED))));
+        AbstractPspService service = new AbstractPspService(adapter, tracker) { };
+
+        StepVerifier.create(service.createPayment(CreatePaymentRequest.builder()
+                        .amount(new Money(BigDecimal.TEN, Currency.EUR))
+                        .paymentMethodType(PaymentMethodType.CARD)
+                        .metadata(Map.of(AuthorizationRateTracker.REGION_METADATA_KEY, "EU"))
+                        .build()))
+                .expectError()
+                .verify();
+        StepVerifier.create(service.confirmPayment(ConfirmPaymentRequest.builder().paymentId("pay_1").build()))
+                .expectError()
+                .verify();
+
+        Map<String, Object> stats = tracker.snapshot().get("EUR/CARD/EU").get("adyen");
+        assertEquals(0L, stats.get("approved"));
+        assertEquals(2L, stats.get("declined"));
+    }
+
+    private static PaymentResponse response(PaymentStatus status) {
+        return PaymentResponse.builder()
+                .status(status)
+                .amount(new Money(BigDecimal.TEN, Currency.EUR))
+                .paymentMethodType(PaymentMethodType.CARD)
+                .metadata(Map.of(AuthorizationRateTracker.REGION_METADATA_KEY, "EU"))
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.routing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark para la búsqueda en el índice de rangos BIN.
+ *
+ * PROPÓSITO: Comprobar que {@link BinRangeIndex#lookup} se mantiene por debajo del
+ * microsegundo con tablas BIN de tamaño real. No se ejecuta con los tests; lanzar con
+ * {@code mvn test-compile} y después {@link #main} desde el classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinRangeIndexBenchmark {
+
+    private static final String[] BRANDS = {"VISA", "MASTERCARD", "AMEX", "DISCOVER"};
+    private static final String[] TYPES = {"CREDIT", "DEBIT", "PREPAID"};
+    private static final String[] COUNTRIES = {"ES", "DE", "FR", "GB", "US", "BR"};
+
+    @Param({"1000", "100000"})
+    int ranges;
+
+    private BinRangeIndex index;
+    private String[] bins;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        BinRangeIndex.Builder builder = BinRangeIndex.builder();
+        for (int i = 0; i < ranges; i++) {
+            // Mix of 6-digit ranges and narrower 8-digit refinements
+            if (random.nextInt(4) == 0) {
+                int start = 10_000_000 + random.nextInt(89_999_000);
+                builder.range(Integer.toString(start), Integer.toString(start + random.nextInt(1_000)),
+                        BRANDS[random.nextInt(BRANDS.length)], TYPES[random.nextInt(TYPES.length)],
+                        COUNTRIES[random.nextInt(COUNTRIES.length)]);
+            } else {
+                int start = 100_000 + random.nextInt(899_000);
+                builder.range(Integer.toString(start), Integer.toString(start + random.nextInt(1_000)),
+                        BRANDS[random.nextInt(BRANDS.length)], TYPES[random.nextInt(TYPES.length)],
+                        COUNTRIES[random.nextInt(COUNTRIES.length)]);
+            }
+        }
+        index = builder.build();
+
+        bins = new String[4096];
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] = Long.toString(4_000_000_000_000_000L + (random.nextLong() & Long.MAX_VALUE) % 5_999_999_999_999_999L);
+        }
+    }
+
+    @Benchmark
+    public BinRangeIndex.CardInfo lookup() {
+        return index.lookup(bins[next++ & (bins.length - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BinRangeIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
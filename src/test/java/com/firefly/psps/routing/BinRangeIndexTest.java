@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.routing.BinRangeIndex.CardInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el índice de rangos BIN.
+ *
+ * PROPÓSITO: Garantizar que los rangos de 6 a 8 dígitos se cargan desde CSV y que,
+ * cuando se solapan, gana el rango más específico.
+ */
+@DisplayName("BIN Range Index Tests")
+class BinRangeIndexTest {
+
+    private static final String CSV = """
+            bin_start,bin_end,brand,card_type,country
+            # Visa credit, refined by an 8-digit debit range
+            400000,499999,VISA,CREDIT,
+            41111100,41111199,visa,debit,de
+            510000,559999,MASTERCARD,CREDIT,
+            555555,,MASTERCARD,PREPAID,GB
+            """;
+
+    @Test
+    @DisplayName("Lookups should return the narrowest matching range")
+    void lookupShouldReturnNarrowestRange() throws Exception {
+        BinRangeIndex index = BinRangeIndex.parse(new StringReader(CSV), "test");
+
+        assertEquals(new CardInfo("VISA", "CREDIT", null), index.lookup("400000"));
+        assertEquals(new CardInfo("VISA", "DEBIT", "DE"), index.lookup("4111-1111-1111-1111"));
+        assertEquals(new CardInfo("VISA", "CREDIT", null), index.lookup("41111200"));
+        assertEquals(new CardInfo("VISA", "CREDIT", null), index.lookup("499999"));
+        assertEquals(new CardInfo("MASTERCARD", "PREPAID", "GB"), index.lookup("55555599"));
+        assertEquals(new CardInfo("MASTERCARD", "CREDIT", null), index.lookup("555556"));
+        assertEquals(4, index.getCardInfos().size());
+        // 400000-41111099, 41111100-41111199, 41111200-49999999, then Mastercard around 555555
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    @DisplayName("Unknown or too short BINs should not match")
+    void unknownBinsShouldNotMatch() throws Exception {
+        BinRangeIndex index = BinRangeIndex.parse(new StringReader(CSV), "test");
+
+        assertNull(index.lookup("399999"));
+        assertNull(index.lookup("56000000"));
+        assertNull(index.lookup("4111"));
+        assertNull(index.lookup("41a111"));
+        assertNull(index.lookup(null));
+        assertNull(BinRangeIndex.empty().lookup("411111"));
+    }
+
+    @Test
+    @DisplayName("Invalid lines should be reported with their line number")
+    void invalidLinesShouldBeReported() {
+        PspConfigurationException error = assertThrows(PspConfigurationException.class, () ->
+                BinRangeIndex.parse(new StringReader("400000,4999,VISA,CREDIT,\n"), "bins.csv"));
+
+        assertTrue(error.getMessage().contains("line 1 in bins.csv"));
+    }
+}
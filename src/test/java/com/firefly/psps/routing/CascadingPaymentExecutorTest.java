@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.adapter.ports.PaymentPort;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.dtos.payments.CreatePaymentRequest;
+import com.firefly.psps.dtos.payments.PaymentResponse;
+import com.firefly.psps.exceptions.InsufficientFundsException;
+import com.firefly.psps.exceptions.PaymentCascadeException;
+import com.firefly.psps.exceptions.PaymentFailedException;
+import com.firefly.psps.exceptions.PspCommunicationException;
+import com.firefly.psps.routing.PspRouter.RoutingContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests para el cascading de pagos entre PSPs.
+ *
+ * PROPÓSITO: Garantizar que los fallos "soft" se reintentan en el siguiente PSP
+ * y que los rechazos definitivos no se reenvían a otros proveedores.
+ */
+@DisplayName("Cascading Payment Executor Tests")
+class CascadingPaymentExecutorTest {
+
+    private PaymentPort stripePayments;
+    private PaymentPort adyenPayments;
+    private CascadingPaymentExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        stripePayments = mock(PaymentPort.class);
+        adyenPayments = mock(PaymentPort.class);
+
+        DefaultPspRouter router = new DefaultPspRouter();
+        router.updateRouting(List.of(adapter("stripe", stripePayments), adapter("adyen", adyenPayments)),
+                RoutingRules.builder().priority("stripe", "adyen").build());
+        executor = new CascadingPaymentExecutor(router, null, 3, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Soft failures should cascade to the next PSP with the same idempotency key")
+    void softFailureShouldCascade() {
+        when(stripePayments.createPayment(any()))
+                .thenReturn(Mono.error(new PspCommunicationException("connection reset")));
+        when(adyenPayments.createPayment(any()))
+                .thenReturn(Mono.just(ResponseEntity.ok(PaymentResponse.builder().paymentId("pay_1").build())));
+        CreatePaymentRequest request = request();
+
+        StepVerifier.create(executor.createPayment(context(), request))
+                .assertNext(result -> {
+                    assertEquals("adyen", result.provider());
+                    assertEquals(2, result.attempts().size());
+                    assertFalse(result.attempts().get(0).isSuccess());
+                })
+                .verifyComplete();
+        assertNotNull(request.getIdempotencyKey());
+        verify(adyenPayments).createPayment(request);
+    }
+
+    @Test
+    @DisplayName("Hard declines should not cascade")
+    void hardDeclineShouldNotCascade() {
+        when(stripePayments.createPayment(any()))
+                .thenReturn(Mono.error(new InsufficientFundsException("insufficient funds")));
+
+        StepVerifier.create(executor.createPayment(context(), request()))
+                .expectError(InsufficientFundsException.class)
+                .verify();
+        verify(adyenPayments, never()).createPayment(any());
+    }
+
+    @Test
+    @DisplayName("Cascade should fail once every PSP soft-declined")
+    void exhaustedCascadeShouldReportProviders() {
+        when(stripePayments.createPayment(any()))
+                .thenReturn(Mono.error(new PaymentFailedException("declined", "stripe", "do_not_honor")));
+        when(adyenPayments.createPayment(any()))
+                .thenReturn(Mono.error(new PaymentFailedException("declined", "adyen", "generic_decline")));
+
+        StepVerifier.create(executor.createPayment(context(), request()))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(PaymentCascadeException.class, error);
+                    assertEquals(List.of("stripe", "adyen"),
+                            ((PaymentCascadeException) error).getAttemptedProviders());
+                })
+                .verify();
+    }
+
+    private static RoutingContext context() {
+        return RoutingContext.builder().currency(Currency.EUR).build();
+    }
+
+    private static CreatePaymentRequest request() {
+        return CreatePaymentRequest.builder()
+                .amount(new Money(BigDecimal.valueOf(100), Currency.EUR))
+                .build();
+    }
+
+    private static PspAdapter adapter(String name, PaymentPort payments) {
+        PspAdapter adapter = mock(PspAdapter.class);
+        when(adapter.getProviderName()).thenReturn(name);
+        when(adapter.payments()).thenReturn(payments);
+        return adapter;
+    }
+}
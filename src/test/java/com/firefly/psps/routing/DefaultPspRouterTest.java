@@ -0,0 +1,375 @@
+/*
+ * Copyright 2025 Firefly Software Foundation
+ */
+
+package com.firefly.psps.routing;
+
+import com.firefly.psps.adapter.PspAdapter;
+import com.firefly.psps.config.PspResilienceProperties;
+import com.firefly.psps.domain.Currency;
+import com.firefly.psps.domain.Money;
+import com.firefly.psps.exceptions.NoPspAvailableException;
+import com.firefly.psps.exceptions.PaymentFailedException;
+import com.firefly.psps.exceptions.PspCommunicationException;
+import com.firefly.psps.exceptions.PspConfigurationException;
+import com.firefly.psps.fees.PspFeeCalculator;
+import com.firefly.psps.fees.PspFeeCalculator.FeeStructure;
+import com.firefly.psps.resilience.PspLoadTracker;
+import com.firefly.psps.routing.PspRouter.RoutingContext;
+import com.firefly.psps.routing.PspRouter.RoutingStrategy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests para el router de PSPs por defecto.
+ *
+ * PROPÓSITO: Garantizar que cada estrategia de routing selecciona el PSP esperado
+ * y que el failover respeta el estado de salud de los proveedores.
+ */
+@DisplayName("Default PSP Router Tests")
+class DefaultPspRouterTest {
+
+    private PspAdapter stripe;
+    private PspAdapter adyen;
+    private PspAdapter paypal;
+    private DefaultPspRouter router;
+
+    @BeforeEach
+    void setUp() {
+        stripe = adapter("stripe");
+        adyen = adapter("adyen");
+        paypal = adapter("paypal");
+        router = new DefaultPspRouter();
+    }
+
+    @Test
+    @DisplayName("FIRST_AVAILABLE should follow priority and skip unhealthy PSPs")
+    void firstAvailableShouldFollowPriority() {
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .priority("adyen", "stripe")
+                .build());
+
+        StepVerifier.create(router.selectPsp(context(Currency.EUR)))
+                .expectNext(adyen)
+                .verifyComplete();
+
+        router.markHealth("adyen", false);
+
+        StepVerifier.create(router.selectPsp(context(Currency.EUR)))
+                .expectNext(stripe)
+                .verifyComplete();
+        assertEquals(List.of(adyen, stripe, paypal), router.getAllPsps());
+    }
+
+    @Test
+    @DisplayName("CURRENCY_OPTIMIZED should prefer configured PSPs that support the currency")
+    void currencyOptimizedShouldUsePreferences() {
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .strategy(RoutingStrategy.CURRENCY_OPTIMIZED)
+                .supportedCurrencies("paypal", Set.of(Currency.USD))
+                .currencyPreference(Currency.USD, "paypal")
+                .build());
+
+        StepVerifier.create(router.selectPsp(context(Currency.USD)))
+                .expectNext(paypal)
+                .verifyComplete();
+        StepVerifier.create(router.selectPsp(context(Currency.EUR)))
+                .expectNext(stripe)
+                .verifyComplete();
+        assertEquals(List.of(stripe, adyen), router.getPspsByCurrency(Currency.EUR));
+    }
+
+    @Test
+    @DisplayName("ROUND_ROBIN should spread selections evenly")
+    void roundRobinShouldRotate() {
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .strategy(RoutingStrategy.ROUND_ROBIN)
+                .build());
+
+        List<PspAdapter> selected = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            selected.add(router.selectPsp(context(Currency.EUR)).block());
+        }
+
+        assertEquals(List.of(stripe, adyen, paypal, stripe, adyen, paypal), selected);
+    }
+
+    @Test
+    @DisplayName("REGION_BASED and TENANT_SPECIFIC should use their routing tables")
+    void regionAndTenantRulesShouldApply() {
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .strategy(RoutingStrategy.REGION_BASED)
+                .region("EU", "adyen")
+                .build());
+
+        StepVerifier.create(router.selectPsp(RoutingContext.builder().region("EU").currency(Currency.EUR).build()))
+                .expectNext(adyen)
+                .verifyComplete();
+        StepVerifier.create(router.selectPsp(RoutingContext.builder().region("US").currency(Currency.USD).build()))
+                .expectNext(stripe)
+                .verifyComplete();
+
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .strategy(RoutingStrategy.TENANT_SPECIFIC)
+                .tenant("tenant-1", "paypal")
+                .build());
+
+        StepVerifier.create(router.selectPsp(RoutingContext.builder().tenantId("tenant-1").build()))
+                .expectNext(paypal)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Failover should fall back to any healthy PSP")
+    void failoverShouldFallBack() {
+        router.updateRouting(List.of(stripe, adyen), RoutingRules.builder()
+                .strategy(RoutingStrategy.TENANT_SPECIFIC)
+                .tenant("tenant-1", "stripe")
+                .build());
+        router.markHealth("stripe", false);
+        RoutingContext context = RoutingContext.builder().tenantId("tenant-1").build();
+
+        StepVerifier.create(router.selectPsp(context))
+                .expectError(NoPspAvailableException.class)
+                .verify();
+        StepVerifier.create(router.selectPspWithFailover(context))
+                .expectNext(adyen)
+                .verifyComplete();
+        assertEquals(false, router.getPspHealthStatus().get("stripe"));
+    }
+
+    @Test
+    @DisplayName("LATENCY_AWARE should route away from the slower PSP")
+    void latencyAwareShouldPreferFasterPsp() {
+        PspLoadTracker loadTracker = new PspLoadTracker(
+                new PspResilienceProperties.LoadTrackingConfig(), new SimpleMeterRegistry());
+        router = new DefaultPspRouter(null, null, loadTracker);
+        router.updateRouting(List.of(stripe, adyen), RoutingRules.builder()
+                .strategy(RoutingStrategy.LATENCY_AWARE)
+                .build());
+
+        loadTracker.provider("stripe").track(Mono.delay(Duration.ofMillis(50))).block();
+        loadTracker.provider("adyen").track(Mono.just("ok")).block();
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(adyen, router.selectPsp(context(Currency.EUR)).block());
+        }
+        assertTrue(loadTracker.find("stripe").getLatencyNanos() > loadTracker.find("adyen").getLatencyNanos());
+    }
+
+    @Test
+    @DisplayName("Only overload errors should produce a latency sample")
+    void businessErrorsShouldNotSampleLatency() {
+        PspLoadTracker loadTracker = new PspLoadTracker(
+                new PspResilienceProperties.LoadTrackingConfig(), new SimpleMeterRegistry());
+        PspLoadTracker.ProviderLoad load = loadTracker.provider("stripe");
+
+        StepVerifier.create(load.track(Mono.delay(Duration.ofMillis(20))
+                        .then(Mono.error(new PaymentFailedException("card_declined")))))
+                .expectError(PaymentFailedException.class)
+                .verify();
+        assertEquals(0.0, load.getLatencyNanos());
+        assertEquals(0, load.getInflight());
+
+        StepVerifier.create(load.track(Mono.delay(Duration.ofMillis(20))
+                        .then(Mono.error(new PspCommunicationException("connection reset")))))
+                .expectError(PspCommunicationException.class)
+                .verify();
+        assertTrue(load.getLatencyNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("WEIGHTED should split traffic and keep customers on the same PSP")
+    void weightedShouldSplitTrafficStickily() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("stripe", 80);
+        weights.put("adyen", 20);
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .strategy(RoutingStrategy.WEIGHTED)
+                .weights(weights)
+                .tenantWeights("tenant-1", Map.of("paypal", 1))
+                .build());
+
+        int stripeSelections = 0;
+        for (int i = 0; i < 1000; i++) {
+            RoutingContext context = RoutingContext.builder()
+                    .customerId("customer-" + i).currency(Currency.EUR).build();
+            PspAdapter selected = router.selectPsp(context).block();
+            assertSame(selected, router.selectPsp(context).block(), "Customer should stay on the same PSP");
+            if (selected == stripe) {
+                stripeSelections++;
+            }
+        }
+        assertTrue(stripeSelections > 700 && stripeSelections < 900, "stripe selections: " + stripeSelections);
+        assertEquals(2000L, router.getWeightedSelections().get("default:EUR").values().stream()
+                .mapToLong(Long::longValue).sum());
+
+        StepVerifier.create(router.selectPsp(RoutingContext.builder().tenantId("tenant-1").customerId("c").build()))
+                .expectNext(paypal)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("COST_OPTIMIZED should pick the cheapest PSP for the amount")
+    void costOptimizedShouldUseFeeTable() {
+        PspFeeCalculator feeCalculator = mock(PspFeeCalculator.class);
+        when(feeCalculator.getFeeStructure("stripe")).thenReturn(fees("stripe", "2.9", "0.30"));
+        when(feeCalculator.getFeeStructure("adyen")).thenReturn(fees("adyen", "3.5", "0"));
+        router = new DefaultPspRouter(feeCalculator, null);
+        router.updateRouting(List.of(stripe, adyen), RoutingRules.builder()
+                .strategy(RoutingStrategy.COST_OPTIMIZED)
+                .build());
+
+        // Small amounts: the fixed fee dominates
+        assertSame(adyen, router.selectPsp(costContext("5")).block());
+        // Large amounts: the percentage dominates
+        assertSame(stripe, router.selectPsp(costContext("1000")).block());
+
+        assertFalse(router.refreshFees(), "Unchanged fee structures should not rebuild the table");
+        when(feeCalculator.getFeeStructure("adyen")).thenReturn(fees("adyen", "1.0", "0"));
+        assertTrue(router.refreshFees());
+        assertSame(adyen, router.selectPsp(costContext("1000")).block());
+    }
+
+    @Test
+    @DisplayName("Sampled decisions should explain the selection")
+    void sampledDecisionsShouldBeRecorded() {
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .supportedCurrencies("paypal", Set.of(Currency.USD))
+                .build());
+        router.markHealth("stripe", false);
+
+        router.selectPsp(context(Currency.EUR)).block();
+        assertEquals(0, router.getDecisionLog().getRecorded(), "Sampling should be off by default");
+
+        router.getDecisionLog().setSampleRate(1.0);
+        router.selectPsp(context(Currency.EUR)).block();
+
+        RoutingDecision decision = router.getDecisionLog().recent(10).get(0);
+        assertEquals("adyen", decision.selected());
+        assertEquals(List.of("stripe", "adyen", "paypal"), decision.candidates());
+        assertEquals(Map.of("stripe", "unhealthy", "paypal", "currency"), decision.filtered());
+        assertTrue(decision.durationNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("BIN_BASED should route by card brand, type and issuer country")
+    void binBasedShouldRouteByCard() {
+        BinRangeIndex bins = BinRangeIndex.builder()
+                .range("400000", "499999", "VISA", "CREDIT", null)
+                .range("41111100", "41111199", "VISA", "DEBIT", "DE")
+                .range("340000", "349999", "AMEX", "CREDIT", "US")
+                .build();
+        router.updateRouting(List.of(stripe, adyen, paypal), RoutingRules.builder()
+                .strategy(RoutingStrategy.BIN_BASED)
+                .binIndex(bins)
+                .binRoute("AMEX", null, null, "paypal")
+                .binRoute(null, "DEBIT", "DE", "adyen", "stripe")
+                .build());
+
+        StepVerifier.create(router.selectPsp(binContext("4111 1111 1111 1111")))
+                .expectNext(adyen)
+                .verifyComplete();
+        StepVerifier.create(router.selectPsp(binContext(341234)))
+                .expectNext(paypal)
+                .verifyComplete();
+        // No BIN route for Visa credit, no BIN at all: priority order
+        StepVerifier.create(router.selectPsp(binContext("42424242")))
+                .expectNext(stripe)
+                .verifyComplete();
+        StepVerifier.create(router.selectPsp(context(Currency.EUR)))
+                .expectNext(stripe)
+                .verifyComplete();
+
+        router.markHealth("adyen", false);
+        StepVerifier.create(router.selectPsp(binContext("41111150")))
+                .expectNext(stripe)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("AUTHORIZATION_RATE should send most payments of a segment to the PSP approving most")
+    void authorizationRateShouldPreferBestApprover() {
+        AuthorizationRateTracker rates = new AuthorizationRateTracker();
+        AuthorizationRateTracker.Segment eurCards = new AuthorizationRateTracker.Segment(Currency.EUR, "card", "EU");
+        for (int i = 0; i < 200; i++) {
+            rates.record("stripe", eurCards, i % 10 < 6);
+            rates.record("adyen", eurCards, i % 10 < 9);
+        }
+        router = new DefaultPspRouter(null, null, null, rates);
+        router.updateRouting(List.of(stripe, adyen), RoutingRules.builder()
+                .strategy(RoutingStrategy.AUTHORIZATION_RATE)
+                .build());
+        RoutingContext context = RoutingContext.builder()
+                .currency(Currency.EUR).paymentMethodType("CARD").region("EU").build();
+
+        int adyenSelections = 0;
+        for (int i = 0; i < 200; i++) {
+            if (router.selectPsp(context).block() == adyen) {
+                adyenSelections++;
+            }
+        }
+
+        assertTrue(adyenSelections > 180, "adyen selected " + adyenSelections + " times");
+        router.markHealth("adyen", false);
+        StepVerifier.create(router.selectPsp(context))
+                .expectNext(stripe)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("AUTHORIZATION_RATE should require an authorization rate tracker")
+    void authorizationRateShouldRequireTracker() {
+        assertThrows(PspConfigurationException.class, () -> router.updateRouting(List.of(stripe), RoutingRules.builder()
+                .strategy(RoutingStrategy.AUTHORIZATION_RATE)
+                .build()));
+    }
+
+    private static RoutingContext binContext(Object bin) {
+        return RoutingContext.builder()
+                .currency(Currency.EUR)
+                .paymentMethodType("CARD")
+                .metadata(Map.of(BinRangeIndex.BIN_METADATA_KEY, bin))
+                .build();
+    }
+
+    private static RoutingContext costContext(String amount) {
+        return RoutingContext.builder()
+                .currency(Currency.EUR)
+                .paymentMethodType("CARD")
+                .amount(new Money(new BigDecimal(amount), Currency.EUR))
+                .build();
+    }
+
+    private static FeeStructure fees(String provider, String percentage, String fixed) {
+        return new FeeStructure(provider, new BigDecimal(percentage), new Money(new BigDecimal(fixed), Currency.EUR),
+                null, null, Map.of(), Map.of(), false, null);
+    }
+
+    private static RoutingContext context(Currency currency) {
+        return RoutingContext.builder().currency(currency).build();
+    }
+
+    private static PspAdapter adapter(String name) {
+        PspAdapter adapter = mock(PspAdapter.class);
+        when(adapter.getProviderName()).thenReturn(name);
+        when(adapter.isHealthy()).thenReturn(true);
+        return adapter;
+    }
+}